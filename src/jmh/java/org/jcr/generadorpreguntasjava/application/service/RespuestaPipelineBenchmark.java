@@ -0,0 +1,140 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.domain.model.Usuario;
+import org.jcr.generadorpreguntasjava.infrastructure.memoria.SesionesEnProgresoMemoria;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPreguntaPort;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
+import org.jcr.generadorpreguntasjava.port.in.RegistrarRespuestaPort.ResultadoRespuesta;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.BloqueoDistribuidoPort;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.UsuarioRepositoryPort;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Mide el throughput del pipeline de respuesta de {@link EstadisticasService} (inicio en memoria,
+ * validación, escritura de la sesión y delta de estadísticas) con repositorios en memoria, de modo
+ * que el resultado refleja el trabajo del servicio y no la latencia de la base de datos.
+ *
+ * Ejecutar con: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespuestaPipelineBenchmark {
+
+    private static final int PREGUNTAS = 64;
+
+    private EstadisticasService service;
+    private SesionesEnProgresoMemoria sesionesEnProgreso;
+    private CoordinadorRecalculoEstadisticas coordinador;
+    private long siguiente;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void preparar() {
+        Pregunta[] preguntas = new Pregunta[PREGUNTAS];
+        for (int i = 0; i < PREGUNTAS; i++) {
+            preguntas[i] = new Pregunta((long) i, "int x = " + i + ";", "¿Qué valor tiene x?",
+                                        Dificultad.values()[i % Dificultad.values().length], String.valueOf(i),
+                                        "Asignación", List.of(), List.of(new Tematica("Tema " + (i % 5))));
+        }
+        AtomicLong ids = new AtomicLong();
+        EstadisticasUsuario estadisticas = new EstadisticasUsuario(1L);
+        Usuario usuario = new Usuario("google-1", "usuario@ejemplo.com", "Usuario", null);
+
+        sesionesEnProgreso = new SesionesEnProgresoMemoria(30, 100_000);
+        coordinador = new CoordinadorRecalculoEstadisticas(1, stub(PlatformTransactionManager.class, Map.of()));
+        SesionRespuestaRepositoryPort sesiones = stub(SesionRespuestaRepositoryPort.class, Map.of(
+            "guardar", args -> ((SesionRespuesta) args[0]).withId(ids.incrementAndGet())));
+        // La limpieza programada no interviene al responder: se crea deshabilitada
+        MantenimientoSesionesService mantenimiento = new MantenimientoSesionesService(
+            sesiones, sesionesEnProgreso, stub(BloqueoDistribuidoPort.class, Map.of()), false, 30, 1000, 0, 300);
+        service = new EstadisticasService(
+            sesiones,
+            sesionesEnProgreso,
+            stub(EstadisticasRepositoryPort.class, Map.of(
+                "buscarPorUsuario", args -> Optional.of(estadisticas),
+                "aplicarCambio", args -> Optional.ofNullable(
+                    ((UnaryOperator<EstadisticasUsuario>) args[1]).apply(estadisticas)),
+                "guardar", args -> args[0])),
+            stub(UsuarioRepositoryPort.class, Map.of(
+                "buscarPorId", args -> Optional.of(usuario))),
+            stub(PreguntaRepositoryPort.class, Map.of(
+                "buscarPorId", args -> Optional.of(preguntas[(int) (long) (Long) args[0]]))),
+            stub(ConsultarEstadisticasVentanaPort.class, Map.of()),
+            stub(ConsultarEstadisticasPreguntaPort.class, Map.of()),
+            coordinador,
+            mantenimiento,
+            stub(DiarioRespuestasPort.class, Map.of()),
+            stub(ArchivoSesionesRepositoryPort.class, Map.of()));
+    }
+
+    @TearDown
+    public void detener() {
+        coordinador.detener();
+    }
+
+    @Benchmark
+    public ResultadoRespuesta iniciarYResponder() {
+        long n = siguiente++;
+        Long preguntaId = n % PREGUNTAS;
+        service.iniciarRespuesta(1L, preguntaId);
+        return service.responderPregunta(1L, preguntaId, String.valueOf(n % 4));
+    }
+
+    @Benchmark
+    public ResultadoRespuesta responderSinSesion() {
+        long n = siguiente++;
+        return service.responderPregunta(1L, n % PREGUNTAS, String.valueOf(n % 4));
+    }
+
+    /**
+     * Implementación en memoria de un puerto: los métodos no indicados no hacen nada
+     * (devuelven vacío, null o el valor por defecto del tipo primitivo).
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> puerto, Map<String, Function<Object[], Object>> metodos) {
+        return (T) Proxy.newProxyInstance(puerto.getClassLoader(), new Class<?>[]{puerto}, (proxy, metodo, args) -> {
+            Function<Object[], Object> implementacion = metodos.get(metodo.getName());
+            if (implementacion != null) {
+                return implementacion.apply(args);
+            }
+            Class<?> tipo = metodo.getReturnType();
+            if (tipo == Optional.class) {
+                return Optional.empty();
+            }
+            if (tipo == boolean.class) {
+                return false;
+            }
+            if (tipo == int.class) {
+                return 0;
+            }
+            if (tipo == long.class) {
+                return 0L;
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compara la agregación de las estadísticas de un usuario sobre {@code List<SesionRespuesta>}
+ * con streams y agrupaciones (cálculo anterior del recálculo) frente al kernel columnar de
+ * {@link SesionesColumnares}. En ambos casos las preguntas ya están resueltas en memoria.
+ *
+ * Ejecutar con: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class AgregacionSesionesBenchmark {
+
+    private static final String[] TEMATICAS = {"Streams", "Genéricos", "Colecciones", "Concurrencia", "POO"};
+
+    @Param({"100", "10000"})
+    private int sesiones;
+
+    private Map<Long, Pregunta> preguntas;
+    private List<SesionRespuesta> lista;
+    private SesionesColumnares columnas;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        Dificultad[] dificultades = Dificultad.values();
+
+        preguntas = new HashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            preguntas.put(id, new Pregunta(id, "codigo", "enunciado", dificultades[(int) (id % 3)], "a", "b",
+                List.of(), List.of(new Tematica(TEMATICAS[(int) (id % TEMATICAS.length)]))));
+        }
+
+        lista = new ArrayList<>(sesiones);
+        SesionesColumnares.Constructor constructor = SesionesColumnares.constructor(sesiones);
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < sesiones; i++) {
+            long preguntaId = 1 + aleatorio.nextInt(200);
+            boolean correcta = aleatorio.nextBoolean();
+            long ms = 3_000 + aleatorio.nextInt(120_000);
+            LocalDateTime desde = inicio.plusMinutes(i);
+            lista.add(new SesionRespuesta((long) i, 1L, preguntaId, "a", correcta, desde,
+                desde.plus(Duration.ofMillis(ms)), Duration.ofMillis(ms)));
+            constructor.agregar(preguntaId, correcta, ms);
+        }
+        columnas = constructor.construir();
+    }
+
+    @Benchmark
+    public EstadisticasUsuario streams() {
+        int total = lista.size();
+        int correctas = (int) lista.stream().filter(SesionRespuesta::esCorrecta).count();
+        HistogramaTiempos histograma = histograma(lista);
+
+        Map<Dificultad, EstadisticasPorDificultad> porDificultad = new HashMap<>();
+        lista.stream()
+            .collect(Collectors.groupingBy(s -> preguntas.get(s.preguntaId()).dificultad()))
+            .forEach((dificultad, grupo) -> porDificultad.put(dificultad, new EstadisticasPorDificultad(
+                dificultad, grupo.size(), (int) grupo.stream().filter(SesionRespuesta::esCorrecta).count(),
+                histograma(grupo))));
+
+        Map<String, EstadisticasPorTematica> porTematica = new HashMap<>();
+        lista.stream()
+            .collect(Collectors.groupingBy(s -> preguntas.get(s.preguntaId()).getTematicaPrincipal().nombre()))
+            .forEach((tematica, grupo) -> porTematica.put(tematica, new EstadisticasPorTematica(
+                tematica, grupo.size(), (int) grupo.stream().filter(SesionRespuesta::esCorrecta).count(),
+                histograma(grupo))));
+
+        return new EstadisticasUsuario(1L, total, correctas, porDificultad, porTematica, histograma);
+    }
+
+    @Benchmark
+    public EstadisticasUsuario columnar() {
+        return columnas.clasificar(preguntas).agregar(1L);
+    }
+
+    private static HistogramaTiempos histograma(List<SesionRespuesta> sesiones) {
+        HistogramaTiempos.Acumulador acumulador = HistogramaTiempos.acumulador();
+        for (SesionRespuesta sesion : sesiones) {
+            if (sesion.esRespuestaValida()) {
+                acumulador.registrar(sesion.getTiempoRespuestaMillis());
+            }
+        }
+        return acumulador.construir();
+    }
+}
@@ -0,0 +1,54 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el throughput de iniciar y completar sesiones en progreso con 8 hilos concurrentes.
+ *
+ * Con pocos usuarios todos los hilos compiten por los mismos cerrojos y las mismas claves
+ * (inicios repetidos que reutilizan la sesión, como un doble clic); con muchos usuarios la
+ * contención se reparte entre los cerrojos. La métrica esperas_cerrojo del almacén indica
+ * cuántas operaciones tuvieron que esperar a otro hilo.
+ *
+ * Ejecutar con: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class SesionesEnProgresoBenchmark {
+
+    private static final int PREGUNTAS = 4;
+
+    @Param({"1", "8", "1024"})
+    public int usuarios;
+
+    private SesionesEnProgresoMemoria sesiones;
+
+    @Setup
+    public void preparar() {
+        sesiones = new SesionesEnProgresoMemoria(30, 100_000);
+    }
+
+    @Benchmark
+    public SesionRespuesta iniciarYCompletar() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        SesionRespuesta sesion = sesiones.iniciar((long) aleatorio.nextInt(usuarios),
+                                                  (long) aleatorio.nextInt(PREGUNTAS));
+        // Si otro hilo ya completó la sesión compartida, no hay nada que completar
+        return sesiones.completar(sesion.id(), "1", true).orElse(sesion);
+    }
+
+    @Benchmark
+    public SesionRespuesta iniciarRepetido() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        return sesiones.iniciar((long) aleatorio.nextInt(usuarios), (long) aleatorio.nextInt(PREGUNTAS));
+    }
+}
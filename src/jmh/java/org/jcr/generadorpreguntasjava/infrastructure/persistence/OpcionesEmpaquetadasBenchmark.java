@@ -0,0 +1,166 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence;
+
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.CodecOpciones;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compara las opciones en filas de la tabla opciones (formato anterior) con la columna
+ * empaquetada de preguntas, sobre H2 en memoria y por JDBC, sin Hibernate de por medio:
+ * throughput de inserción de una pregunta con sus 4 opciones y de lectura de un lote de
+ * preguntas por ID (con JOIN frente a una sola tabla).
+ *
+ * Ejecutar con: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpcionesEmpaquetadasBenchmark {
+
+    private static final int PREGUNTAS = 10_000;
+    private static final int OPCIONES_POR_PREGUNTA = 4;
+
+    @Param({"20", "200"})
+    private int preguntasPorLectura;
+
+    private Connection conexion;
+    private PreparedStatement insertarPreguntaFilas;
+    private PreparedStatement insertarOpcion;
+    private PreparedStatement insertarPreguntaEmpaquetada;
+    private PreparedStatement leerConJoin;
+    private PreparedStatement leerEmpaquetadas;
+    private final AtomicLong siguienteId = new AtomicLong(PREGUNTAS);
+    private List<Opcion> opciones;
+    private long desde;
+
+    @Setup
+    public void preparar() throws SQLException {
+        conexion = DriverManager.getConnection("jdbc:h2:mem:opciones_" + preguntasPorLectura + ";DB_CLOSE_DELAY=-1");
+        try (Statement st = conexion.createStatement()) {
+            st.execute("CREATE TABLE preguntas_filas (id BIGINT PRIMARY KEY, enunciado VARCHAR(2000), " +
+                       "respuesta_correcta VARCHAR(500))");
+            st.execute("CREATE TABLE opciones (id BIGINT AUTO_INCREMENT PRIMARY KEY, contenido VARCHAR(500), " +
+                       "pregunta_id BIGINT NOT NULL)");
+            st.execute("CREATE INDEX idx_opciones_pregunta ON opciones (pregunta_id)");
+            st.execute("CREATE TABLE preguntas_empaquetadas (id BIGINT PRIMARY KEY, enunciado VARCHAR(2000), " +
+                       "respuesta_correcta VARCHAR(500), opciones_empaquetadas VARBINARY(8192))");
+        }
+
+        opciones = List.of(
+            new Opcion("List<Integer> lista = new ArrayList<>(); lista.add(1); System.out.println(lista);"),
+            new Opcion("Se lanza una ConcurrentModificationException al modificar la lista"),
+            new Opcion("[1]"),
+            new Opcion("No compila porque ArrayList no admite tipos primitivos"));
+
+        insertarPreguntaFilas = conexion.prepareStatement(
+            "INSERT INTO preguntas_filas (id, enunciado, respuesta_correcta) VALUES (?, ?, ?)");
+        insertarOpcion = conexion.prepareStatement("INSERT INTO opciones (contenido, pregunta_id) VALUES (?, ?)");
+        insertarPreguntaEmpaquetada = conexion.prepareStatement(
+            "INSERT INTO preguntas_empaquetadas (id, enunciado, respuesta_correcta, opciones_empaquetadas) " +
+            "VALUES (?, ?, ?, ?)");
+        for (long id = 1; id <= PREGUNTAS; id++) {
+            insertarConFilas(id);
+            insertarEmpaquetada(id);
+        }
+
+        leerConJoin = conexion.prepareStatement(
+            "SELECT p.id, p.enunciado, p.respuesta_correcta, o.contenido FROM preguntas_filas p " +
+            "LEFT JOIN opciones o ON o.pregunta_id = p.id WHERE p.id BETWEEN ? AND ? ORDER BY p.id, o.id");
+        leerEmpaquetadas = conexion.prepareStatement(
+            "SELECT id, enunciado, respuesta_correcta, opciones_empaquetadas FROM preguntas_empaquetadas " +
+            "WHERE id BETWEEN ? AND ?");
+        desde = 1;
+    }
+
+    @TearDown
+    public void cerrar() throws SQLException {
+        conexion.close();
+    }
+
+    @Benchmark
+    public long insertarConFilas() throws SQLException {
+        long id = siguienteId.incrementAndGet();
+        insertarConFilas(id);
+        return id;
+    }
+
+    @Benchmark
+    public long insertarEmpaquetada() throws SQLException {
+        long id = siguienteId.incrementAndGet();
+        insertarEmpaquetada(id);
+        return id;
+    }
+
+    @Benchmark
+    public Object leerConFilas() throws SQLException {
+        Map<Long, List<Opcion>> leidas = new LinkedHashMap<>();
+        siguienteLectura(leerConJoin);
+        try (ResultSet rs = leerConJoin.executeQuery()) {
+            while (rs.next()) {
+                // Cada pregunta llega repetida en tantas filas como opciones tiene
+                leidas.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>(OPCIONES_POR_PREGUNTA))
+                    .add(new Opcion(rs.getString(4)));
+            }
+        }
+        return leidas;
+    }
+
+    @Benchmark
+    public Object leerEmpaquetadas() throws SQLException {
+        Map<Long, List<Opcion>> leidas = new LinkedHashMap<>();
+        siguienteLectura(leerEmpaquetadas);
+        try (ResultSet rs = leerEmpaquetadas.executeQuery()) {
+            while (rs.next()) {
+                leidas.put(rs.getLong(1), CodecOpciones.decodificar(rs.getBytes(4)));
+            }
+        }
+        return leidas;
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private void insertarConFilas(long id) throws SQLException {
+        insertarPreguntaFilas.setLong(1, id);
+        insertarPreguntaFilas.setString(2, "¿Qué imprime el siguiente código?");
+        insertarPreguntaFilas.setString(3, opciones.get(2).contenido());
+        insertarPreguntaFilas.executeUpdate();
+        for (Opcion opcion : opciones) {
+            insertarOpcion.setString(1, opcion.contenido());
+            insertarOpcion.setLong(2, id);
+            insertarOpcion.executeUpdate();
+        }
+    }
+
+    private void insertarEmpaquetada(long id) throws SQLException {
+        insertarPreguntaEmpaquetada.setLong(1, id);
+        insertarPreguntaEmpaquetada.setString(2, "¿Qué imprime el siguiente código?");
+        insertarPreguntaEmpaquetada.setString(3, opciones.get(2).contenido());
+        insertarPreguntaEmpaquetada.setBytes(4, CodecOpciones.codificar(opciones));
+        insertarPreguntaEmpaquetada.executeUpdate();
+    }
+
+    private void siguienteLectura(PreparedStatement lectura) throws SQLException {
+        if (desde + preguntasPorLectura > PREGUNTAS) {
+            desde = 1;
+        }
+        lectura.setLong(1, desde);
+        lectura.setLong(2, desde + preguntasPorLectura - 1);
+        desde += preguntasPorLectura;
+    }
+}
@@ -0,0 +1,138 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
+import org.jcr.generadorpreguntasjava.domain.model.HistogramaTiempos;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el formato JSON anterior con el binario compacto de las columnas de estadísticas:
+ * tiempo de codificación y decodificación. El mapper ya solo lee JSON, así que la escritura en
+ * ese formato se reproduce aquí tal como la hacía antes.
+ *
+ * Ejecutar con: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecEstadisticasBenchmark {
+
+    @Param({"5", "40"})
+    private int tematicas;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private EstadisticasPersistenceMapper mapper;
+    private Map<Dificultad, EstadisticasPorDificultad> porDificultad;
+    private Map<String, EstadisticasPorTematica> porTematica;
+    private String dificultadJson;
+    private String tematicaJson;
+    private byte[] dificultadBinario;
+    private byte[] tematicaBinario;
+
+    @Setup
+    public void preparar() {
+        mapper = Mappers.getMapper(EstadisticasPersistenceMapper.class);
+        Random aleatorio = new Random(42);
+
+        porDificultad = new HashMap<>();
+        for (Dificultad dificultad : Dificultad.values()) {
+            porDificultad.put(dificultad, new EstadisticasPorDificultad(
+                dificultad, 200, 120, histogramaAleatorio(aleatorio, 200)));
+        }
+        porTematica = new HashMap<>();
+        for (int i = 0; i < tematicas; i++) {
+            String tematica = "Temática de ejemplo " + i;
+            porTematica.put(tematica, new EstadisticasPorTematica(
+                tematica, 30, 20, histogramaAleatorio(aleatorio, 30)));
+        }
+
+        dificultadJson = dificultadAJson(porDificultad);
+        tematicaJson = tematicaAJson(porTematica);
+        dificultadBinario = CodecEstadisticasBinario.codificarPorDificultad(porDificultad);
+        tematicaBinario = CodecEstadisticasBinario.codificarPorTematica(porTematica);
+    }
+
+    @Benchmark
+    public Object codificarJson() {
+        return new String[] {dificultadAJson(porDificultad), tematicaAJson(porTematica)};
+    }
+
+    @Benchmark
+    public Object codificarBinario() {
+        return new byte[][] {
+            CodecEstadisticasBinario.codificarPorDificultad(porDificultad),
+            CodecEstadisticasBinario.codificarPorTematica(porTematica)
+        };
+    }
+
+    @Benchmark
+    public Object decodificarJson() {
+        return new Object[] {mapper.jsonToDificultadMap(dificultadJson), mapper.jsonToTematicaMap(tematicaJson)};
+    }
+
+    @Benchmark
+    public Object decodificarBinario() {
+        return new Object[] {
+            CodecEstadisticasBinario.decodificarPorDificultad(dificultadBinario),
+            CodecEstadisticasBinario.decodificarPorTematica(tematicaBinario)
+        };
+    }
+
+    private static String dificultadAJson(Map<Dificultad, EstadisticasPorDificultad> map) {
+        Map<String, Map<String, Object>> jsonMap = new HashMap<>();
+        map.forEach((dificultad, stats) -> jsonMap.put(dificultad.name(), aJson(stats.totalPreguntas(),
+            stats.respuestasCorrectas(), stats.porcentajeAciertos(), stats.tiempoPromedio(), stats.histograma())));
+        return escribir(jsonMap);
+    }
+
+    private static String tematicaAJson(Map<String, EstadisticasPorTematica> map) {
+        Map<String, Map<String, Object>> jsonMap = new HashMap<>();
+        map.forEach((tematica, stats) -> jsonMap.put(tematica, aJson(stats.totalPreguntas(),
+            stats.respuestasCorrectas(), stats.porcentajeAciertos(), stats.tiempoPromedio(), stats.histograma())));
+        return escribir(jsonMap);
+    }
+
+    private static Map<String, Object> aJson(int total, int correctas, double porcentaje,
+                                             Duration tiempoPromedio, HistogramaTiempos histograma) {
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("totalPreguntas", total);
+        datos.put("respuestasCorrectas", correctas);
+        datos.put("porcentajeAciertos", porcentaje);
+        datos.put("tiempoPromedioMs", tiempoPromedio != null ? tiempoPromedio.toMillis() : 0L);
+        if (histograma != null && !histograma.estaVacio()) {
+            datos.put("histograma", Base64.getEncoder().encodeToString(histograma.codificar()));
+        }
+        return datos;
+    }
+
+    private static String escribir(Map<String, Map<String, Object>> jsonMap) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(jsonMap);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HistogramaTiempos histogramaAleatorio(Random aleatorio, int muestras) {
+        HistogramaTiempos.Acumulador acumulador = HistogramaTiempos.acumulador();
+        for (int i = 0; i < muestras; i++) {
+            acumulador.registrar(5_000 + (long) (aleatorio.nextGaussian() * 4_000 + 20_000));
+        }
+        return acumulador.construir();
+    }
+}
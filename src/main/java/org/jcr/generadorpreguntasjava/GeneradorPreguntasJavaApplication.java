@@ -2,8 +2,10 @@ package org.jcr.generadorpreguntasjava;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class GeneradorPreguntasJavaApplication {
 
 	public static void main(String[] args) {
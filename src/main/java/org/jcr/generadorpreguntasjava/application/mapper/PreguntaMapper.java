@@ -12,6 +12,7 @@ import org.mapstruct.Named;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.stream.IntStream;
 
 /**
  * Mapper para convertir entre entidades del dominio y DTOs.
@@ -28,9 +29,12 @@ public interface PreguntaMapper {
     
     // === MAPPING DE OPCION ===
     
-    OpcionResponse toResponse(Opcion opcion);
-    
-    List<OpcionResponse> toOpcionResponseList(List<Opcion> opciones);
+    default List<OpcionResponse> toOpcionResponseList(List<Opcion> opciones) {
+        if (opciones == null) return List.of();
+        return IntStream.range(0, opciones.size())
+            .mapToObj(i -> new OpcionResponse(i, opciones.get(i).contenido()))
+            .toList();
+    }
     
     // === MAPPING DE TEMATICA ===
     
@@ -43,6 +47,7 @@ public interface PreguntaMapper {
     @Mapping(target = "esCorrecta", source = "esCorrecta")
     @Mapping(target = "explicacion", source = "explicacion")
     @Mapping(target = "respuestaCorrecta", source = "respuestaCorrecta")
+    @Mapping(target = "indiceRespuestaCorrecta", source = "indiceRespuestaCorrecta")
     ValidacionResponse toResponse(ValidarRespuestaPort.ResultadoValidacion resultado);
     
     // === MAPPING DE USUARIO ===
@@ -1,6 +1,8 @@
 package org.jcr.generadorpreguntasjava.application.mapper;
 
 import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.port.in.RegistrarRespuestaPort;
+import org.jcr.generadorpreguntasjava.port.in.web.dto.response.PaginaSesionesResponse;
 import org.jcr.generadorpreguntasjava.port.in.web.dto.response.SesionRespuestaResponse;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -10,6 +12,7 @@ import org.mapstruct.factory.Mappers;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface SesionRespuestaMapper {
@@ -22,6 +25,12 @@ public interface SesionRespuestaMapper {
     @Mapping(source = "tiempoRespuesta", target = "tiempoRespuestaMs", qualifiedByName = "durationToMillis")
     SesionRespuestaResponse toResponse(SesionRespuesta sesion);
 
+    List<SesionRespuestaResponse> toResponseList(List<SesionRespuesta> sesiones);
+
+    default PaginaSesionesResponse toResponse(RegistrarRespuestaPort.PaginaHistorial pagina) {
+        return new PaginaSesionesResponse(toResponseList(pagina.sesiones()), pagina.siguienteCursor(), pagina.hayMas());
+    }
+
     @Named("formatDateTime")
     static String formatDateTime(LocalDateTime dateTime) {
         return dateTime != null ? dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
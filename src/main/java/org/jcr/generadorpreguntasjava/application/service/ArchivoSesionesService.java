@@ -0,0 +1,227 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.domain.model.VentanaTiempo;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort.ResultadoArchivo;
+import org.jcr.generadorpreguntasjava.port.out.BloqueoDistribuidoPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ClasificacionPregunta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Archivo periódico de las sesiones completadas antiguas en resúmenes diarios por usuario.
+ *
+ * Las sesiones anteriores a la edad configurada (contada en días completos) se agregan por
+ * usuario, día, dificultad y temática principal, y salen de sesiones_respuesta; así la tabla
+ * caliente solo contiene el historial reciente. El cálculo de estadísticas combina los
+ * resúmenes con las sesiones que quedan. Se archiva por tramos de usuarios, cada uno en su
+ * transacción y con una pausa entre tramos, bajo un bloqueo con concesión en base de datos.
+ */
+@Slf4j
+@Service
+public class ArchivoSesionesService implements ProveedorMetricasPort {
+
+    private static final String BLOQUEO = "archivo_sesiones";
+    private static final String COMPONENTE = "archivo_sesiones";
+
+    private final ArchivoSesionesRepositoryPort archivoRepositoryPort;
+    private final PreguntaRepositoryPort preguntaRepositoryPort;
+    private final BloqueoDistribuidoPort bloqueoPort;
+    private final boolean habilitado;
+    private final int edadDias;
+    private final int usuariosPorTramo;
+    private final long pausaMs;
+    private final Duration concesion;
+    private final String propietario;
+
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong omitidasSinBloqueo = new AtomicLong();
+    private final AtomicLong sesionesArchivadas = new AtomicLong();
+    private final AtomicLong resumenesEscritos = new AtomicLong();
+    private final AtomicLong tramos = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong ultimaDuracionMs = new AtomicLong();
+
+    public ArchivoSesionesService(
+            ArchivoSesionesRepositoryPort archivoRepositoryPort,
+            PreguntaRepositoryPort preguntaRepositoryPort,
+            BloqueoDistribuidoPort bloqueoPort,
+            @Value("${archivo.sesiones.habilitado:true}") boolean habilitado,
+            @Value("${archivo.sesiones.edad-dias:90}") int edadDias,
+            @Value("${archivo.sesiones.usuarios-por-tramo:100}") int usuariosPorTramo,
+            @Value("${archivo.sesiones.pausa-ms:200}") long pausaMs,
+            @Value("${archivo.sesiones.concesion-segundos:600}") long concesionSegundos) {
+        // Las ventanas de estadísticas recientes se reconstruyen leyendo las sesiones de sus días
+        int edadMinima = VentanaTiempo.ULTIMOS_30_DIAS.getNumeroCubetas() + 1;
+        if (edadDias <= edadMinima) {
+            throw new IllegalArgumentException("La edad de archivo debe ser mayor a " + edadMinima + " días");
+        }
+        if (usuariosPorTramo <= 0) {
+            throw new IllegalArgumentException("El número de usuarios por tramo debe ser mayor a 0");
+        }
+        this.archivoRepositoryPort = archivoRepositoryPort;
+        this.preguntaRepositoryPort = preguntaRepositoryPort;
+        this.bloqueoPort = bloqueoPort;
+        this.habilitado = habilitado;
+        this.edadDias = edadDias;
+        this.usuariosPorTramo = usuariosPorTramo;
+        this.pausaMs = Math.max(0, pausaMs);
+        this.concesion = Duration.ofSeconds(concesionSegundos);
+        this.propietario = nombreInstancia() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Ejecución programada del archivo (por defecto, una vez al día de madrugada).
+     */
+    @Scheduled(cron = "${archivo.sesiones.cron:0 30 3 * * *}")
+    public void ejecutarProgramado() {
+        if (!habilitado) {
+            return;
+        }
+
+        try {
+            archivarSesionesAntiguas();
+        } catch (Exception e) {
+            errores.incrementAndGet();
+            log.error("Error en el archivo programado de sesiones: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archiva en resúmenes diarios las sesiones completadas antes de la edad configurada,
+     * si esta instancia obtiene el bloqueo.
+     *
+     * @return Número de sesiones archivadas
+     */
+    public long archivarSesionesAntiguas() {
+        long inicio = System.nanoTime();
+        ejecuciones.incrementAndGet();
+
+        if (!bloqueoPort.adquirir(BLOQUEO, propietario, concesion)) {
+            omitidasSinBloqueo.incrementAndGet();
+            log.debug("Archivo de sesiones en curso en otra instancia");
+            return 0;
+        }
+
+        try {
+            // Solo días completos: un día se archiva entero de una vez
+            LocalDateTime limite = LocalDate.now().minusDays(edadDias).atStartOfDay();
+            long archivadas = archivarPorTramos(limite);
+            if (archivadas > 0) {
+                log.info("Archivo de sesiones: {} sesiones anteriores a {} agregadas en resúmenes diarios",
+                        archivadas, limite.toLocalDate());
+            }
+            return archivadas;
+        } finally {
+            bloqueoPort.liberar(BLOQUEO, propietario);
+            ultimaDuracionMs.set(Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        }
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("ejecuciones", ejecuciones.get());
+        valores.put("omitidas_sin_bloqueo", omitidasSinBloqueo.get());
+        valores.put("sesiones_archivadas", sesionesArchivadas.get());
+        valores.put("resumenes_escritos", resumenesEscritos.get());
+        valores.put("tramos", tramos.get());
+        valores.put("errores", errores.get());
+        valores.put("ultima_duracion_ms", ultimaDuracionMs.get());
+        return new Metricas(COMPONENTE, valores);
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private long archivarPorTramos(LocalDateTime limite) {
+        // Clasificación de las preguntas ya vistas en los tramos anteriores de esta ejecución
+        Map<Long, ClasificacionPregunta> clasificacion = new HashMap<>();
+        long archivadas = 0;
+        long despuesDe = 0;
+
+        while (true) {
+            List<Long> usuarios = archivoRepositoryPort.obtenerUsuariosConSesionesAntiguas(
+                limite, despuesDe, usuariosPorTramo);
+            if (usuarios.isEmpty()) {
+                break;
+            }
+
+            long desde = usuarios.get(0);
+            long hasta = usuarios.get(usuarios.size() - 1);
+            clasificarPreguntas(archivoRepositoryPort.obtenerPreguntasConSesionesAntiguas(desde, hasta, limite),
+                                clasificacion);
+            ResultadoArchivo resultado = archivoRepositoryPort.archivar(desde, hasta, limite, clasificacion);
+            archivadas += resultado.sesiones();
+            sesionesArchivadas.addAndGet(resultado.sesiones());
+            resumenesEscritos.addAndGet(resultado.resumenes());
+            tramos.incrementAndGet();
+            despuesDe = hasta;
+
+            // Renovar la concesión: si se ha perdido, otra instancia continuará el archivo
+            if (!bloqueoPort.adquirir(BLOQUEO, propietario, concesion)) {
+                log.warn("Concesión del archivo de sesiones perdida tras archivar hasta el usuario {}", hasta);
+                break;
+            }
+            if (!pausar()) {
+                break;
+            }
+        }
+        return archivadas;
+    }
+
+    /**
+     * Resuelve la dificultad y temática principal con la que se agregan las sesiones de las
+     * preguntas indicadas, cargando solo las que aún no están clasificadas.
+     */
+    private void clasificarPreguntas(List<Long> preguntaIds, Map<Long, ClasificacionPregunta> clasificacion) {
+        List<Long> pendientes = preguntaIds.stream().filter(id -> !clasificacion.containsKey(id)).toList();
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        for (Pregunta pregunta : preguntaRepositoryPort.buscarPorIds(pendientes)) {
+            Tematica principal = pregunta.getTematicaPrincipal();
+            clasificacion.put(pregunta.id(), new ClasificacionPregunta(
+                pregunta.dificultad() != null ? pregunta.dificultad() : Dificultad.FACIL,
+                principal != null ? principal.nombre() : "Sin temática"));
+        }
+    }
+
+    private boolean pausar() {
+        if (pausaMs == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausaMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String nombreInstancia() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "desconocida";
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coordina los recálculos de estadísticas para que haya como mucho uno en curso por usuario.
+ * 
+ * Las peticiones concurrentes para el mismo usuario comparten el mismo recálculo
+ * (single-flight) en lugar de lanzar varios que compiten por la misma fila de
+ * estadisticas_usuario. Los recálculos se ejecutan en un pool propio y acotado, cada
+ * uno en su propia transacción: se invocan desde el hilo del pool y no a través del
+ * proxy transaccional del servicio.
+ */
+@Slf4j
+@Component
+public class CoordinadorRecalculoEstadisticas {
+    
+    private final Map<Long, CompletableFuture<EstadisticasUsuario>> enCurso = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+    
+    public CoordinadorRecalculoEstadisticas(
+            @Value("${estadisticas.recalculo.hilos:2}") int hilos,
+            PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, hilos), tarea -> {
+            Thread hilo = new Thread(tarea, "recalculo-estadisticas-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+    
+    /**
+     * Obtiene el recálculo en curso del usuario o lanza uno nuevo si no hay ninguno.
+     * 
+     * @param usuarioId ID del usuario
+     * @param recalculo Cálculo a ejecutar si no hay uno en curso
+     * @return Futuro compartido por todos los llamadores concurrentes del mismo usuario
+     */
+    public CompletableFuture<EstadisticasUsuario> recalcular(Long usuarioId, Supplier<EstadisticasUsuario> recalculo) {
+        CompletableFuture<EstadisticasUsuario> nuevo = new CompletableFuture<>();
+        CompletableFuture<EstadisticasUsuario> existente = enCurso.putIfAbsent(usuarioId, nuevo);
+        if (existente != null) {
+            return existente;
+        }
+        
+        // Solo el llamador que registró el futuro lanza el cálculo
+        try {
+            executor.execute(() -> {
+                try {
+                    nuevo.complete(transactionTemplate.execute(status -> recalculo.get()));
+                } catch (Throwable e) {
+                    nuevo.completeExceptionally(e);
+                } finally {
+                    enCurso.remove(usuarioId, nuevo);
+                }
+            });
+        } catch (RuntimeException e) {
+            enCurso.remove(usuarioId, nuevo);
+            nuevo.completeExceptionally(e);
+        }
+        return nuevo;
+    }
+    
+    /**
+     * Lanza un recálculo en segundo plano si no hay uno en curso, sin esperar el resultado.
+     * 
+     * @param usuarioId ID del usuario
+     * @param recalculo Cálculo a ejecutar si no hay uno en curso
+     */
+    public void refrescarEnSegundoPlano(Long usuarioId, Supplier<EstadisticasUsuario> recalculo) {
+        recalcular(usuarioId, recalculo).exceptionally(e -> {
+            log.warn("Error al refrescar en segundo plano las estadísticas del usuario {}: {}",
+                    usuarioId, e.getMessage());
+            return null;
+        });
+    }
+    
+    /**
+     * Verifica si hay un recálculo en curso para el usuario.
+     */
+    public boolean estaRecalculando(Long usuarioId) {
+        return enCurso.containsKey(usuarioId);
+    }
+    
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+}
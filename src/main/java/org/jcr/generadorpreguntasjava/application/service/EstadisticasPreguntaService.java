@@ -0,0 +1,118 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPreguntaPort;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasPreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Servicio de aplicación para estadísticas agregadas por pregunta.
+ * 
+ * Las estadísticas se mantienen en la tabla estadisticas_pregunta: cada respuesta completada
+ * aplica un delta sobre la fila, leída con bloqueo para que las respuestas concurrentes a la
+ * misma pregunta no se pisen. Las consultas pasan por la caché del repositorio. Si una
+ * pregunta no tiene fila (respondida antes de existir la tabla) se reconstruye una vez
+ * desde sus sesiones. Cada fila guarda el offset del diario de respuestas hasta el que
+ * refleja las respuestas, para que reproducir el diario no las cuente dos veces.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class EstadisticasPreguntaService implements ConsultarEstadisticasPreguntaPort {
+    
+    private final EstadisticasPreguntaRepositoryPort estadisticasPreguntaRepositoryPort;
+    private final SesionRespuestaRepositoryPort sesionRepositoryPort;
+    private final PreguntaRepositoryPort preguntaRepositoryPort;
+    private final DiarioRespuestasPort diarioRespuestasPort;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public EstadisticasPregunta obtenerEstadisticasPregunta(Long preguntaId) {
+        if (preguntaId == null) {
+            throw new IllegalArgumentException("El ID de la pregunta no puede ser nulo");
+        }
+        
+        Optional<EstadisticasPregunta> guardadas = estadisticasPreguntaRepositoryPort.buscarPorPregunta(preguntaId);
+        if (guardadas.isPresent()) {
+            return guardadas.get();
+        }
+        
+        Pregunta pregunta = preguntaRepositoryPort.buscarPorId(preguntaId)
+            .orElseThrow(() -> new RuntimeException("Pregunta no encontrada con ID: " + preguntaId));
+        
+        EstadisticasPregunta reconstruidas = reconstruir(pregunta, null);
+        estadisticasPreguntaRepositoryPort.crearSiNoExiste(reconstruidas);
+        return reconstruidas;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<EstadisticasPregunta> obtenerPeorCalibradas(int limite, int minimoIntentos) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        
+        return estadisticasPreguntaRepositoryPort.obtenerPeorCalibradas(limite, Math.max(1, minimoIntentos));
+    }
+    
+    @Override
+    public void registrarRespuesta(Pregunta pregunta, SesionRespuesta sesion, long offsetDiario) {
+        if (pregunta == null || sesion == null || !sesion.estaCompleta()) {
+            return;
+        }
+        
+        int indiceOpcion = sesion.indiceOpcionEn(pregunta);
+        
+        // La fila queda bloqueada hasta confirmar: las respuestas a la misma pregunta
+        // aplican su delta en orden. Si no existe, se crea antes en su propia transacción
+        Optional<EstadisticasPregunta> actuales =
+            estadisticasPreguntaRepositoryPort.buscarPorPreguntaParaActualizar(pregunta.id());
+        if (actuales.isEmpty()) {
+            estadisticasPreguntaRepositoryPort.crearSiNoExiste(reconstruir(pregunta, sesion.id()));
+            actuales = estadisticasPreguntaRepositoryPort.buscarPorPreguntaParaActualizar(pregunta.id());
+        }
+        
+        EstadisticasPregunta nuevas = actuales
+            .orElseThrow(() -> new IllegalStateException(
+                "No se pudieron crear las estadísticas de la pregunta " + pregunta.id()))
+            .registrarRespuesta(indiceOpcion, sesion.esCorrecta(),
+                                sesion.esRespuestaValida() ? sesion.tiempoRespuesta() : null)
+            .conOffsetDiario(offsetDiario);
+        estadisticasPreguntaRepositoryPort.guardar(nuevas);
+    }
+    
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+    
+    /**
+     * Reconstruye las estadísticas de una pregunta sin fila a partir de sus sesiones
+     * completadas (omitiendo la sesión indicada, que se aplicará después). Reflejan el diario
+     * hasta el offset anotado al terminar el recorrido: los eventos anteriores que no estén en
+     * las sesiones son de transacciones sin confirmar, que los aplicarán sobre la fila.
+     */
+    private EstadisticasPregunta reconstruir(Pregunta pregunta, Long sesionExcluida) {
+        // Recorrido en streaming: el historial de la pregunta no se carga entero en memoria
+        EstadisticasPregunta[] estadisticas = {EstadisticasPregunta.vacia(pregunta.id(), pregunta.dificultad())};
+        long recorridas = sesionRepositoryPort.recorrerCompletadasPorPregunta(pregunta.id(), sesion -> {
+            if (!Objects.equals(sesion.id(), sesionExcluida)) {
+                estadisticas[0] = estadisticas[0].registrarRespuesta(
+                    sesion.indiceOpcionEn(pregunta),
+                    sesion.esCorrecta(),
+                    sesion.esRespuestaValida() ? sesion.tiempoRespuesta() : null);
+            }
+        });
+        
+        log.debug("Estadísticas de la pregunta {} reconstruidas desde {} sesiones", pregunta.id(), recorridas);
+        return estadisticas[0].conOffsetDiario(diarioRespuestasPort.siguienteOffset() - 1);
+    }
+}
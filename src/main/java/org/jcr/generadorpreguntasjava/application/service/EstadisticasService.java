@@ -4,13 +4,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jcr.generadorpreguntasjava.domain.model.*;
 import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPort;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPreguntaPort;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
 import org.jcr.generadorpreguntasjava.port.in.RegistrarRespuestaPort;
-import org.jcr.generadorpreguntasjava.port.in.ValidarRespuestaPort;
 import org.jcr.generadorpreguntasjava.port.out.*;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort.CriterioRanking;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,10 +31,22 @@ public class EstadisticasService implements
     RegistrarRespuestaPort, ConsultarEstadisticasPort {
     
     private final SesionRespuestaRepositoryPort sesionRepositoryPort;
+    private final SesionesEnProgresoPort sesionesEnProgresoPort;
     private final EstadisticasRepositoryPort estadisticasRepositoryPort;
     private final UsuarioRepositoryPort usuarioRepositoryPort;
     private final PreguntaRepositoryPort preguntaRepositoryPort;
-    private final ValidarRespuestaPort validarRespuestaPort;
+    private final ConsultarEstadisticasVentanaPort estadisticasVentanaPort;
+    private final ConsultarEstadisticasPreguntaPort estadisticasPreguntaPort;
+    private final CoordinadorRecalculoEstadisticas coordinadorRecalculo;
+    private final MantenimientoSesionesService mantenimientoSesiones;
+    private final DiarioRespuestasPort diarioRespuestasPort;
+    private final ArchivoSesionesRepositoryPort archivoSesionesPort;
+    
+    @Value("${estadisticas.historial.tamano-pagina-maximo:100}")
+    private int tamanoPaginaMaximo;
+    
+    @Value("${estadisticas.respuestas-lote.maximo:200}")
+    private int maximoRespuestasLote;
     
     // ===== IMPLEMENTACIÓN DE RegistrarRespuestaPort =====
     
@@ -50,24 +67,16 @@ public class EstadisticasService implements
             usuarioRepositoryPort.buscarPorId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
             
-            // Verificar que la pregunta existe
+            // Verificar que la pregunta existe (pasa por la caché de preguntas)
             preguntaRepositoryPort.buscarPorId(preguntaId)
                 .orElseThrow(() -> new RuntimeException("Pregunta no encontrada con ID: " + preguntaId));
             
-            // Verificar que no hay una sesión en progreso
-            Optional<SesionRespuesta> sesionExistente = sesionRepositoryPort.buscarSesionEnProgreso(usuarioId, preguntaId);
-            if (sesionExistente.isPresent()) {
-                throw new RuntimeException("Ya existe una sesión en progreso para esta pregunta");
-            }
-            
-            // Crear nueva sesión
-            SesionRespuesta nuevaSesion = new SesionRespuesta(usuarioId, preguntaId);
-            nuevaSesion.validar();
-            
-            SesionRespuesta sesionGuardada = sesionRepositoryPort.guardar(nuevaSesion);
-            log.info("Sesión iniciada exitosamente con ID: {}", sesionGuardada.id());
+            // La sesión en progreso solo registra el inicio: se guarda en memoria y no se persiste
+            // hasta completarse
+            SesionRespuesta nuevaSesion = sesionesEnProgresoPort.iniciar(usuarioId, preguntaId);
+            log.info("Sesión iniciada exitosamente con ID provisional: {}", nuevaSesion.id());
             
-            return sesionGuardada;
+            return nuevaSesion;
             
         } catch (Exception e) {
             log.error("Error al iniciar sesión de respuesta: {}", e.getMessage(), e);
@@ -88,32 +97,26 @@ public class EstadisticasService implements
         }
         
         try {
-            // Buscar la sesión
-            SesionRespuesta sesion = sesionRepositoryPort.buscarPorId(sesionId)
+            // Buscar la sesión: en memoria si está en progreso o en base de datos si se
+            // inició antes de que las sesiones en progreso dejaran de persistirse
+            Optional<SesionRespuesta> enProgreso = sesionesEnProgresoPort.buscarPorId(sesionId);
+            SesionRespuesta sesion = enProgreso
+                .or(() -> sesionRepositoryPort.buscarPorId(sesionId))
                 .orElseThrow(() -> new RuntimeException("Sesión no encontrada con ID: " + sesionId));
             
             if (sesion.estaCompleta()) {
                 throw new RuntimeException("La sesión ya está completada");
             }
             
-            // Validar la respuesta
-            ValidarRespuestaPort.ResultadoValidacion resultado = 
-                validarRespuestaPort.validarRespuesta(sesion.preguntaId(), respuesta);
+            Pregunta pregunta = cargarPregunta(sesion.preguntaId());
+            boolean esCorrecta = pregunta.validarRespuesta(respuesta);
             
-            // Completar la sesión
-            SesionRespuesta sesionCompletada = sesion.completarRespuesta(respuesta, resultado.esCorrecta());
-            sesionCompletada.validar();
+            // Completar la sesión (retirándola del almacén de sesiones en progreso)
+            SesionRespuesta sesionCompletada = enProgreso.isPresent()
+                ? completarEnProgreso(sesionId, respuesta, null, esCorrecta)
+                : sesion.completarRespuesta(respuesta, esCorrecta);
             
-            // Guardar sesión completada
-            SesionRespuesta sesionGuardada = sesionRepositoryPort.guardar(sesionCompletada);
-            
-            // Recalcular estadísticas del usuario de forma asíncrona
-            recalcularEstadisticasAsync(sesion.usuarioId());
-            
-            log.info("Sesión completada exitosamente: {} - Respuesta: {}", 
-                    sesionId, resultado.esCorrecta() ? "CORRECTA" : "INCORRECTA");
-            
-            return sesionGuardada;
+            return registrarSesionCompletada(sesionCompletada, pregunta);
             
         } catch (Exception e) {
             log.error("Error al completar sesión de respuesta {}: {}", sesionId, e.getMessage(), e);
@@ -125,46 +128,139 @@ public class EstadisticasService implements
     public ResultadoRespuesta responderPregunta(Long usuarioId, Long preguntaId, String respuesta) {
         log.info("Respondiendo pregunta {} para usuario {}", preguntaId, usuarioId);
         
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        if (preguntaId == null) {
+            throw new IllegalArgumentException("El ID de la pregunta no puede ser nulo");
+        }
+        
+        if (respuesta == null || respuesta.trim().isEmpty()) {
+            throw new IllegalArgumentException("La respuesta no puede estar vacía");
+        }
+        
+        return responder(usuarioId, preguntaId, respuesta, null);
+    }
+    
+    @Override
+    public ResultadoRespuesta responderPreguntaPorOpcion(Long usuarioId, Long preguntaId, int opcionIndex) {
+        log.info("Respondiendo pregunta {} para usuario {} con la opción {}", preguntaId, usuarioId, opcionIndex);
+        
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        if (preguntaId == null) {
+            throw new IllegalArgumentException("El ID de la pregunta no puede ser nulo");
+        }
+        
+        if (opcionIndex < 0) {
+            throw new IllegalArgumentException("La opción seleccionada no puede ser negativa");
+        }
+        
+        return responder(usuarioId, preguntaId, null, opcionIndex);
+    }
+    
+    @Override
+    public List<ResultadoRespuesta> responderLote(Long usuarioId, List<RespuestaLote> respuestas) {
+        log.info("Respondiendo lote de {} preguntas para usuario {}",
+                respuestas != null ? respuestas.size() : 0, usuarioId);
+        
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        if (respuestas == null || respuestas.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe contener al menos una respuesta");
+        }
+        
+        if (respuestas.size() > maximoRespuestasLote) {
+            throw new IllegalArgumentException("El lote no puede superar las " + maximoRespuestasLote + " respuestas");
+        }
+        
+        for (RespuestaLote item : respuestas) {
+            if (item == null || item.preguntaId() == null) {
+                throw new IllegalArgumentException("El ID de la pregunta no puede ser nulo");
+            }
+            if (item.opcionIndex() == null && (item.respuesta() == null || item.respuesta().trim().isEmpty())) {
+                throw new IllegalArgumentException("La respuesta no puede estar vacía");
+            }
+            if (item.opcionIndex() != null && item.opcionIndex() < 0) {
+                throw new IllegalArgumentException("La opción seleccionada no puede ser negativa");
+            }
+            if (item.tiempoRespuestaMs() != null && item.tiempoRespuestaMs() < 0) {
+                throw new IllegalArgumentException("El tiempo de respuesta no puede ser negativo");
+            }
+        }
+        
         try {
-            // Buscar sesión en progreso
-            Optional<SesionRespuesta> sesionOpt = buscarSesionEnProgreso(usuarioId, preguntaId);
-            
-            SesionRespuesta sesion;
-            if (sesionOpt.isPresent()) {
-                sesion = sesionOpt.get();
-            } else {
-                // Iniciar nueva sesión si no existe
-                sesion = iniciarRespuesta(usuarioId, preguntaId);
+            // Todas las preguntas del lote en una sola consulta
+            Set<Long> preguntaIds = respuestas.stream()
+                .map(RespuestaLote::preguntaId)
+                .collect(Collectors.toSet());
+            Map<Long, Pregunta> preguntas = preguntaRepositoryPort.buscarPorIds(preguntaIds).stream()
+                .collect(Collectors.toMap(Pregunta::id, p -> p));
+            if (preguntas.size() != preguntaIds.size()) {
+                List<Long> inexistentes = preguntaIds.stream().filter(id -> !preguntas.containsKey(id)).sorted().toList();
+                throw new RuntimeException("Preguntas no encontradas con IDs: " + inexistentes);
             }
             
-            // Completar la respuesta
-            SesionRespuesta sesionCompletada = completarRespuesta(sesion.id(), respuesta);
+            // Validar y completar cada respuesta en memoria
+            LocalDateTime fin = LocalDateTime.now();
+            List<SesionRespuesta> completadas = new ArrayList<>(respuestas.size());
+            for (RespuestaLote item : respuestas) {
+                Pregunta pregunta = preguntas.get(item.preguntaId());
+                String respuesta = item.opcionIndex() != null ? null : item.respuesta();
+                boolean esCorrecta = validar(pregunta, respuesta, item.opcionIndex());
+                
+                // Si la sesión se inició en el servidor se usa su tiempo; si no, el medido por el cliente
+                SesionRespuesta sesion = sesionesEnProgresoPort.buscar(usuarioId, item.preguntaId())
+                    .map(enProgreso -> completarEnProgreso(enProgreso.id(), respuesta, item.opcionIndex(), esCorrecta))
+                    .orElseGet(() -> {
+                        Duration tiempo = Duration.ofMillis(item.tiempoRespuestaMs() != null ? item.tiempoRespuestaMs() : 0);
+                        return conOpcion(new SesionRespuesta(usuarioId, item.preguntaId(), respuesta, esCorrecta,
+                                                             fin.minus(tiempo), fin, tiempo), item.opcionIndex());
+                    });
+                sesion.validar();
+                completadas.add(sesion);
+            }
             
-            // Obtener información adicional para el resultado
-            ValidarRespuestaPort.ResultadoValidacion validacion = 
-                validarRespuestaPort.validarRespuesta(preguntaId, respuesta);
+            // Un único lote de INSERT y una sola actualización de las estadísticas del usuario
+            List<SesionRespuesta> guardadas = sesionRepositoryPort.guardarTodas(completadas);
+            long primerOffset = anotarEnDiario(guardadas, preguntas);
+            actualizarEstadisticasIncremental(usuarioId, guardadas, preguntas, primerOffset);
+            
+            List<ResultadoRespuesta> resultados = new ArrayList<>(guardadas.size());
+            for (SesionRespuesta sesion : guardadas) {
+                Pregunta pregunta = preguntas.get(sesion.preguntaId());
+                resultados.add(new ResultadoRespuesta(
+                    sesion.id(),
+                    usuarioId,
+                    sesion.preguntaId(),
+                    sesion.respuestaSeleccionada(),
+                    sesion.opcionSeleccionada(),
+                    sesion.esCorrecta(),
+                    sesion.getTiempoRespuestaMillis(),
+                    pregunta.explicacion(),
+                    pregunta.respuestaCorrecta(),
+                    pregunta.indiceRespuestaCorrecta()
+                ));
+            }
             
-            return new ResultadoRespuesta(
-                sesionCompletada.id(),
-                usuarioId,
-                preguntaId,
-                respuesta,
-                validacion.esCorrecta(),
-                sesionCompletada.getTiempoRespuestaMillis(),
-                validacion.explicacion(),
-                validacion.respuestaCorrecta()
-            );
+            log.info("Lote de {} respuestas registrado para usuario {}", resultados.size(), usuarioId);
+            return resultados;
             
         } catch (Exception e) {
-            log.error("Error al responder pregunta {}: {}", preguntaId, e.getMessage(), e);
-            throw new RuntimeException("Error al responder pregunta", e);
+            log.error("Error al responder lote para usuario {}: {}", usuarioId, e.getMessage(), e);
+            throw new RuntimeException("Error al responder lote de preguntas", e);
         }
     }
     
     @Override
     @Transactional(readOnly = true)
     public Optional<SesionRespuesta> buscarSesionEnProgreso(Long usuarioId, Long preguntaId) {
-        return sesionRepositoryPort.buscarSesionEnProgreso(usuarioId, preguntaId);
+        return sesionesEnProgresoPort.buscar(usuarioId, preguntaId);
     }
     
     @Override
@@ -202,15 +298,44 @@ public class EstadisticasService implements
     }
     
     @Override
+    @Transactional(readOnly = true)
+    public PaginaHistorial obtenerHistorialSesiones(Long usuarioId, FiltroHistorialSesiones filtro,
+                                                    String cursor, int tamanoPagina) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        if (tamanoPagina <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        
+        int tamano = Math.min(tamanoPagina, tamanoPaginaMaximo);
+        FiltroHistorialSesiones filtroAplicado = filtro != null ? filtro : FiltroHistorialSesiones.sinFiltros();
+        CursorHistorial desde = cursor != null && !cursor.isBlank() ? CursorHistorial.decodificar(cursor) : null;
+        
+        // Se pide una sesión de más para saber si existe una página siguiente sin contar el total
+        List<SesionRespuesta> sesiones = sesionRepositoryPort.obtenerPaginaCompletadas(
+            usuarioId, filtroAplicado, desde, tamano + 1);
+        if (sesiones.size() <= tamano) {
+            return new PaginaHistorial(sesiones, null);
+        }
+        
+        List<SesionRespuesta> pagina = sesiones.subList(0, tamano);
+        return new PaginaHistorial(List.copyOf(pagina), CursorHistorial.desde(pagina.get(tamano - 1)).codificar());
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int cancelarSesionesAbandonadas() {
         log.info("Cancelando sesiones abandonadas");
-        return sesionRepositoryPort.eliminarSesionesAbandonadas();
+        // Sin transacción envolvente: cada tramo de la limpieza confirma por separado
+        return mantenimientoSesiones.limpiarSesionesAbandonadas();
     }
     
     @Override
     @Transactional(readOnly = true)
     public boolean tieneSesionesEnProgreso(Long usuarioId) {
-        List<SesionRespuesta> sesionesEnProgreso = sesionRepositoryPort.obtenerEnProgresoPorUsuario(usuarioId);
+        List<SesionRespuesta> sesionesEnProgreso = sesionesEnProgresoPort.obtenerPorUsuario(usuarioId);
         return !sesionesEnProgreso.isEmpty();
     }
     
@@ -233,12 +358,20 @@ public class EstadisticasService implements
             // Buscar estadísticas existentes
             Optional<EstadisticasUsuario> estadisticasOpt = estadisticasRepositoryPort.buscarPorUsuario(usuarioId);
             
-            if (estadisticasOpt.isPresent() && estadisticasOpt.get().estanActualizadas()) {
-                return estadisticasOpt.get();
+            if (estadisticasOpt.isPresent()) {
+                EstadisticasUsuario estadisticas = estadisticasOpt.get();
+                if (!estadisticas.estanActualizadas()) {
+                    // Stale-while-revalidate: se devuelve el valor guardado y un único
+                    // recálculo por usuario lo refresca en segundo plano
+                    coordinadorRecalculo.refrescarEnSegundoPlano(usuarioId, () -> recalcularEstadisticas(usuarioId));
+                }
+                return estadisticas;
             }
             
-            // Recalcular si no existen o están desactualizadas
-            return recalcularEstadisticas(usuarioId);
+            // Sin estadísticas: se responde con estadísticas vacías sin esperar y un único
+            // recálculo por usuario las calcula en segundo plano
+            coordinadorRecalculo.refrescarEnSegundoPlano(usuarioId, () -> recalcularEstadisticas(usuarioId));
+            return new EstadisticasUsuario(usuarioId);
             
         } catch (Exception e) {
             log.error("Error al obtener estadísticas del usuario {}: {}", usuarioId, e.getMessage(), e);
@@ -259,46 +392,43 @@ public class EstadisticasService implements
             usuarioRepositoryPort.buscarPorId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
             
-            // Obtener todas las sesiones completadas
-            List<SesionRespuesta> sesionesCompletadas = sesionRepositoryPort.obtenerCompletadasPorUsuario(usuarioId);
+            // Versión leída antes que las sesiones: si otra escritura la cambia mientras se
+            // recalcula, el resultado se descarta en lugar de pisar una fila más reciente
+            OptionalLong versionLeida = estadisticasRepositoryPort.obtenerVersion(usuarioId);
             
-            if (sesionesCompletadas.isEmpty()) {
-                // Usuario sin sesiones - crear estadísticas vacías
-                EstadisticasUsuario estadisticasVacias = new EstadisticasUsuario(usuarioId);
-                return estadisticasRepositoryPort.guardar(estadisticasVacias);
-            }
+            // Resúmenes diarios de las sesiones archivadas y sesiones recientes en columnas
+            // primitivas (solo pregunta, acierto y tiempo)
+            List<ResumenDiarioSesiones> resumenes = archivoSesionesPort.obtenerResumenesPorUsuario(usuarioId);
+            SesionesColumnares sesionesCompletadas = sesionRepositoryPort.obtenerColumnasCompletadasPorUsuario(usuarioId);
             
-            // Calcular estadísticas generales
-            int totalPreguntas = sesionesCompletadas.size();
-            int respuestasCorrectas = (int) sesionesCompletadas.stream()
-                .filter(SesionRespuesta::esCorrecta)
-                .count();
-            double porcentajeAciertos = (double) respuestasCorrectas / totalPreguntas * 100.0;
+            // Offset leído tras las sesiones: los eventos anotados hasta él ya están en ellas o
+            // los aplicará su transacción, aún sin confirmar, sobre la fila recalculada
+            long offsetDiario = diarioRespuestasPort.siguienteOffset() - 1;
             
-            // Calcular tiempo promedio
-            Duration tiempoPromedio = calcularTiempoPromedio(sesionesCompletadas);
-            
-            // Calcular estadísticas por dificultad
-            Map<Dificultad, EstadisticasPorDificultad> estadisticasPorDificultad = 
-                calcularEstadisticasPorDificultad(sesionesCompletadas);
+            if (sesionesCompletadas.estaVacia() && resumenes.isEmpty()) {
+                // Usuario sin sesiones - crear estadísticas vacías
+                EstadisticasUsuario estadisticasVacias = new EstadisticasUsuario(usuarioId).conOffsetDiario(offsetDiario);
+                return guardarRecalculadas(estadisticasVacias, versionLeida);
+            }
             
-            // Calcular estadísticas por temática
-            Map<String, EstadisticasPorTematica> estadisticasPorTematica = 
-                calcularEstadisticasPorTematica(sesionesCompletadas);
+            AcumuladorEstadisticasUsuario acumulador = new AcumuladorEstadisticasUsuario(usuarioId);
+            for (ResumenDiarioSesiones resumen : resumenes) {
+                acumulador.registrarResumen(resumen);
+            }
             
-            // Crear objeto de estadísticas
-            EstadisticasUsuario estadisticas = new EstadisticasUsuario(
-                usuarioId, totalPreguntas, respuestasCorrectas, porcentajeAciertos,
-                tiempoPromedio, estadisticasPorDificultad, estadisticasPorTematica
-            );
+            // Clasificar cada pregunta distinta una sola vez y agregar recorriendo los arrays
+            // (totales, histograma de tiempos, desglose por dificultad y por temática)
+            Map<Long, Pregunta> preguntas = cargarPreguntas(sesionesCompletadas.preguntasDistintas());
+            EstadisticasUsuario estadisticas = sesionesCompletadas.clasificar(preguntas).agregarEn(acumulador)
+                .conOffsetDiario(offsetDiario);
             
             estadisticas.validar();
             
             // Guardar estadísticas
-            EstadisticasUsuario estadisticasGuardadas = estadisticasRepositoryPort.guardar(estadisticas);
+            EstadisticasUsuario estadisticasGuardadas = guardarRecalculadas(estadisticas, versionLeida);
             
             log.info("Estadísticas recalculadas para usuario {}: {} preguntas, {}% aciertos", 
-                    usuarioId, totalPreguntas, String.format("%.1f", porcentajeAciertos));
+                    usuarioId, estadisticas.totalPreguntas(), String.format("%.1f", estadisticas.porcentajeAciertos()));
             
             return estadisticasGuardadas;
             
@@ -310,114 +440,183 @@ public class EstadisticasService implements
     
     // ===== MÉTODOS AUXILIARES PRIVADOS =====
     
-    private void recalcularEstadisticasAsync(Long usuarioId) {
-        // En una implementación real, esto se haría de forma asíncrona
-        // Por ahora lo hacemos sincrónicamente
-        try {
-            recalcularEstadisticas(usuarioId);
-        } catch (Exception e) {
-            log.warn("Error al recalcular estadísticas de forma asíncrona para usuario {}: {}", 
-                    usuarioId, e.getMessage());
-        }
+    /**
+     * Guarda unas estadísticas recalculadas si la fila no ha cambiado desde la versión leída.
+     * Si otra escritura se ha adelantado, prevalece la fila guardada.
+     */
+    private EstadisticasUsuario guardarRecalculadas(EstadisticasUsuario estadisticas, OptionalLong versionLeida) {
+        return estadisticasRepositoryPort.guardarSiNoHaCambiado(estadisticas, versionLeida)
+            .orElseGet(() -> {
+                log.debug("Recálculo de estadísticas del usuario {} descartado: la fila ha cambiado",
+                        estadisticas.usuarioId());
+                return estadisticasRepositoryPort.buscarPorUsuario(estadisticas.usuarioId()).orElse(estadisticas);
+            });
     }
     
-    private Duration calcularTiempoPromedio(List<SesionRespuesta> sesiones) {
-        if (sesiones.isEmpty()) {
-            return Duration.ZERO;
-        }
-        
-        // Filtrar solo respuestas válidas (tiempo razonable)
-        List<SesionRespuesta> sesionesValidas = sesiones.stream()
-            .filter(SesionRespuesta::esRespuestaValida)
-            .collect(Collectors.toList());
-        
-        if (sesionesValidas.isEmpty()) {
-            return Duration.ZERO;
-        }
-        
-        long tiempoTotalMs = sesionesValidas.stream()
-            .mapToLong(SesionRespuesta::getTiempoRespuestaMillis)
-            .sum();
-        
-        long tiempoPromedioMs = tiempoTotalMs / sesionesValidas.size();
-        return Duration.ofMillis(tiempoPromedioMs);
+    /**
+     * Carga la pregunta por su ID o falla si no existe.
+     */
+    private Pregunta cargarPregunta(Long preguntaId) {
+        return preguntaRepositoryPort.buscarPorId(preguntaId)
+            .orElseThrow(() -> new RuntimeException("Pregunta no encontrada con ID: " + preguntaId));
     }
     
-    private Map<Dificultad, EstadisticasPorDificultad> calcularEstadisticasPorDificultad(
-            List<SesionRespuesta> sesiones) {
-        
-        Map<Dificultad, EstadisticasPorDificultad> resultado = new HashMap<>();
-        
-        // Agrupar sesiones por dificultad
-        Map<Dificultad, List<SesionRespuesta>> sesionesPorDificultad = sesiones.stream()
-            .collect(Collectors.groupingBy(this::obtenerDificultadDeSesion));
-        
-        for (Map.Entry<Dificultad, List<SesionRespuesta>> entry : sesionesPorDificultad.entrySet()) {
-            Dificultad dificultad = entry.getKey();
-            List<SesionRespuesta> sesionesDeEsaDificultad = entry.getValue();
+    /**
+     * Completa una sesión del almacén en memoria. La sesión se persiste sin el ID provisional.
+     */
+    private SesionRespuesta completarEnProgreso(Long sesionId, String respuesta, Integer opcion, boolean esCorrecta) {
+        return sesionesEnProgresoPort.completar(sesionId, respuesta, esCorrecta)
+            .map(completada -> conOpcion(completada.withId(null), opcion))
+            .orElseThrow(() -> new RuntimeException("La sesión ya está completada"));
+    }
+    
+    /**
+     * Responde una pregunta con texto o, si se indica la opción, por su posición.
+     */
+    private ResultadoRespuesta responder(Long usuarioId, Long preguntaId, String respuesta, Integer opcion) {
+        try {
+            // Una sola carga de la pregunta para validar, completar y actualizar estadísticas
+            Pregunta pregunta = cargarPregunta(preguntaId);
+            boolean esCorrecta = validar(pregunta, respuesta, opcion);
             
-            int total = sesionesDeEsaDificultad.size();
-            int correctas = (int) sesionesDeEsaDificultad.stream()
-                .filter(SesionRespuesta::esCorrecta)
-                .count();
+            // Completar la sesión en progreso o, si no se inició, registrar la respuesta sin tiempo
+            SesionRespuesta sesionCompletada = sesionesEnProgresoPort.buscar(usuarioId, preguntaId)
+                .map(sesion -> completarEnProgreso(sesion.id(), respuesta, opcion, esCorrecta))
+                .orElseGet(() -> conOpcion(new SesionRespuesta(usuarioId, preguntaId)
+                    .completarRespuesta(respuesta, esCorrecta, Duration.ZERO), opcion));
             
-            Duration tiempoPromedio = calcularTiempoPromedio(sesionesDeEsaDificultad);
+            SesionRespuesta sesionGuardada = registrarSesionCompletada(sesionCompletada, pregunta);
             
-            EstadisticasPorDificultad estadisticas = new EstadisticasPorDificultad(
-                dificultad, total, correctas, tiempoPromedio
+            return new ResultadoRespuesta(
+                sesionGuardada.id(),
+                usuarioId,
+                preguntaId,
+                respuesta,
+                opcion,
+                esCorrecta,
+                sesionGuardada.getTiempoRespuestaMillis(),
+                pregunta.explicacion(),
+                pregunta.respuestaCorrecta(),
+                pregunta.indiceRespuestaCorrecta()
             );
             
-            resultado.put(dificultad, estadisticas);
+        } catch (Exception e) {
+            log.error("Error al responder pregunta {}: {}", preguntaId, e.getMessage(), e);
+            throw new RuntimeException("Error al responder pregunta", e);
         }
-        
-        return resultado;
     }
     
-    private Map<String, EstadisticasPorTematica> calcularEstadisticasPorTematica(
-            List<SesionRespuesta> sesiones) {
-        
-        Map<String, EstadisticasPorTematica> resultado = new HashMap<>();
-        
-        // Agrupar sesiones por temática
-        Map<String, List<SesionRespuesta>> sesionesPorTematica = sesiones.stream()
-            .collect(Collectors.groupingBy(this::obtenerTematicaDeSesion));
-        
-        for (Map.Entry<String, List<SesionRespuesta>> entry : sesionesPorTematica.entrySet()) {
-            String tematica = entry.getKey();
-            List<SesionRespuesta> sesionesDeEsaTematica = entry.getValue();
-            
-            int total = sesionesDeEsaTematica.size();
-            int correctas = (int) sesionesDeEsaTematica.stream()
-                .filter(SesionRespuesta::esCorrecta)
-                .count();
-            
-            Duration tiempoPromedio = calcularTiempoPromedio(sesionesDeEsaTematica);
+    /**
+     * Valida la respuesta comparando posiciones si se indica la opción, o textos si no.
+     */
+    private static boolean validar(Pregunta pregunta, String respuesta, Integer opcion) {
+        if (opcion == null) {
+            return pregunta.validarRespuesta(respuesta);
+        }
+        if (!pregunta.tieneOpcion(opcion)) {
+            throw new IllegalArgumentException("La pregunta " + pregunta.id() + " no tiene la opción " + opcion);
+        }
+        return pregunta.validarOpcion(opcion);
+    }
+    
+    /**
+     * Las respuestas por posición guardan solo el índice de la opción, sin su texto.
+     */
+    private static SesionRespuesta conOpcion(SesionRespuesta sesion, Integer opcion) {
+        return opcion != null ? sesion.conOpcionSeleccionada(opcion) : sesion;
+    }
+    
+    /**
+     * Persiste una sesión completada (una escritura) y aplica su delta a las estadísticas.
+     */
+    private SesionRespuesta registrarSesionCompletada(SesionRespuesta sesionCompletada, Pregunta pregunta) {
+        sesionCompletada.validar();
+        SesionRespuesta sesionGuardada = sesionRepositoryPort.guardar(sesionCompletada);
+        long offset = anotarEnDiario(List.of(sesionGuardada), Map.of(pregunta.id(), pregunta));
+        
+        // Actualizar estadísticas del usuario con la nueva respuesta (sin releer sus sesiones)
+        actualizarEstadisticasIncremental(sesionGuardada.usuarioId(), List.of(sesionGuardada),
+                                          Map.of(pregunta.id(), pregunta), offset);
+        
+        log.info("Sesión completada exitosamente: {} - Respuesta: {}",
+                sesionGuardada.id(), sesionGuardada.esCorrecta() ? "CORRECTA" : "INCORRECTA");
+        return sesionGuardada;
+    }
+    
+    /**
+     * Anota las sesiones guardadas en el diario de respuestas. Los eventos solo se reproducen
+     * si la transacción confirma: una respuesta revertida no deja eventos de los que
+     * reconstruir agregados.
+     * 
+     * @return Offset del primer evento, o {@link EventoRespuesta#SIN_OFFSET} si no se anotaron
+     */
+    private long anotarEnDiario(List<SesionRespuesta> sesiones, Map<Long, Pregunta> preguntas) {
+        List<EventoRespuesta> eventos = new ArrayList<>(sesiones.size());
+        for (SesionRespuesta sesion : sesiones) {
+            eventos.add(EventoRespuesta.desde(sesion, preguntas.get(sesion.preguntaId())));
+        }
+        return diarioRespuestasPort.anotar(eventos);
+    }
+    
+    /**
+     * Aplica las sesiones completadas a los agregados (pregunta, ventanas y usuario).
+     * Las estadísticas del usuario se leen y se escriben una sola vez para todas las sesiones.
+     * Cada agregado guarda, en la misma transacción, el offset del diario de la última sesión
+     * que refleja, de modo que reproducir el diario no vuelve a contarla.
+     */
+    private void actualizarEstadisticasIncremental(Long usuarioId, List<SesionRespuesta> sesiones,
+                                                   Map<Long, Pregunta> preguntas, long primerOffset) {
+        try {
+            Dificultad[] dificultades = new Dificultad[sesiones.size()];
+            String[] tematicas = new String[sesiones.size()];
+            for (int i = 0; i < sesiones.size(); i++) {
+                SesionRespuesta sesion = sesiones.get(i);
+                // Los agregados usan las preguntas ya cargadas para validar las respuestas
+                Pregunta pregunta = preguntas.get(sesion.preguntaId());
+                dificultades[i] = pregunta.dificultad() != null ? pregunta.dificultad() : Dificultad.FACIL;
+                Tematica principal = pregunta.getTematicaPrincipal();
+                tematicas[i] = principal != null ? principal.nombre() : "Sin temática";
+                
+                // Estadísticas de la pregunta (calibración de dificultad)
+                estadisticasPreguntaPort.registrarRespuesta(pregunta, sesion, offsetDiario(primerOffset, i));
+                
+                // Contadores de ventanas recientes (24h / 7d / 30d)
+                estadisticasVentanaPort.registrarRespuesta(sesion, dificultades[i]);
+            }
             
-            EstadisticasPorTematica estadisticas = new EstadisticasPorTematica(
-                tematica, total, correctas, tiempoPromedio
-            );
+            // El delta se aplica con control de versión: si otra escritura se cruza, se vuelve a
+            // aplicar sobre la fila nueva en lugar de pisarla o recalcular desde las sesiones
+            Optional<EstadisticasUsuario> actualizadas = estadisticasRepositoryPort.aplicarCambio(usuarioId, actuales -> {
+                if (!actuales.admiteActualizacionIncremental()) {
+                    return null;
+                }
+                EstadisticasUsuario conRespuestas = actuales;
+                for (int i = 0; i < sesiones.size(); i++) {
+                    conRespuestas = conRespuestas.registrarRespuesta(sesiones.get(i), dificultades[i], tematicas[i]);
+                }
+                conRespuestas.validar();
+                return conRespuestas.conOffsetDiario(offsetDiario(primerOffset, sesiones.size() - 1));
+            });
+            
+            // Sin fila, o con estadísticas anteriores a los histogramas: recálculo completo
+            if (actualizadas.isEmpty()) {
+                recalcularEstadisticas(usuarioId);
+            }
             
-            resultado.put(tematica, estadisticas);
+        } catch (Exception e) {
+            log.warn("Error al actualizar estadísticas del usuario {}: {}", usuarioId, e.getMessage());
         }
-        
-        return resultado;
     }
     
-    private Dificultad obtenerDificultadDeSesion(SesionRespuesta sesion) {
-        // Obtener la dificultad de la pregunta asociada a la sesión
-        return preguntaRepositoryPort.buscarPorId(sesion.preguntaId())
-            .map(Pregunta::dificultad)
-            .orElse(Dificultad.FACIL); // Valor por defecto
+    private static long offsetDiario(long primerOffset, int indice) {
+        return primerOffset != EventoRespuesta.SIN_OFFSET ? primerOffset + indice : EventoRespuesta.SIN_OFFSET;
     }
     
-    private String obtenerTematicaDeSesion(SesionRespuesta sesion) {
-        // Obtener la temática principal de la pregunta asociada a la sesión
-        return preguntaRepositoryPort.buscarPorId(sesion.preguntaId())
-            .map(pregunta -> {
-                Tematica tematicaPrincipal = pregunta.getTematicaPrincipal();
-                return tematicaPrincipal != null ? tematicaPrincipal.nombre() : "Sin temática";
-            })
-            .orElse("Sin temática");
+    private Map<Long, Pregunta> cargarPreguntas(long[] preguntaIds) {
+        // Una sola consulta para todas las preguntas distintas de las sesiones
+        List<Long> ids = Arrays.stream(preguntaIds).boxed().toList();
+        return preguntaRepositoryPort.buscarPorIds(ids).stream()
+            .collect(Collectors.toMap(Pregunta::id, pregunta -> pregunta));
     }
     
     // ===== MÉTODOS RESTANTES DE ConsultarEstadisticasPort =====
@@ -540,7 +739,7 @@ public class EstadisticasService implements
         }
         
         EstadisticasUsuario estadisticasUsuario = obtenerEstadisticas(usuarioId);
-        List<EstadisticasUsuario> todasLasEstadisticas = estadisticasRepositoryPort.obtenerDeUsuariosActivos();
+        List<ResumenRankingUsuario> todasLasEstadisticas = estadisticasRepositoryPort.obtenerResumenesDeUsuariosActivos();
         
         if (todasLasEstadisticas.isEmpty()) {
             return new EstadisticasComparativas(0.0, 0L, 1, 1, false);
@@ -548,17 +747,17 @@ public class EstadisticasService implements
         
         // Calcular promedios globales
         double porcentajePromedioGlobal = todasLasEstadisticas.stream()
-            .mapToDouble(EstadisticasUsuario::porcentajeAciertos)
+            .mapToDouble(ResumenRankingUsuario::porcentajeAciertos)
             .average()
             .orElse(0.0);
         
         long tiempoPromedioGlobal = (long) todasLasEstadisticas.stream()
-            .mapToLong(EstadisticasUsuario::getTiempoPromedioSegundos)
+            .mapToLong(ResumenRankingUsuario::getTiempoPromedioSegundos)
             .average()
             .orElse(0.0);
         
         // Calcular posición en ranking
-        List<EstadisticasUsuario> rankingPorAciertos = todasLasEstadisticas.stream()
+        List<ResumenRankingUsuario> rankingPorAciertos = todasLasEstadisticas.stream()
             .sorted((e1, e2) -> Double.compare(e2.porcentajeAciertos(), e1.porcentajeAciertos()))
             .collect(Collectors.toList());
         
@@ -588,10 +787,72 @@ public class EstadisticasService implements
             throw new IllegalArgumentException("El límite debe ser mayor a 0");
         }
         
-        List<EstadisticasUsuario> topPorAciertos = estadisticasRepositoryPort.obtenerRankingPorAciertos(limite);
-        List<EstadisticasUsuario> topPorVolumen = estadisticasRepositoryPort.obtenerRankingPorVolumen(limite);
-        List<EstadisticasUsuario> topPorTiempo = estadisticasRepositoryPort.obtenerRankingPorTiempo(limite);
+        List<ResumenRankingUsuario> topPorAciertos = estadisticasRepositoryPort.obtenerRanking(CriterioRanking.ACIERTOS, limite);
+        List<ResumenRankingUsuario> topPorVolumen = estadisticasRepositoryPort.obtenerRanking(CriterioRanking.VOLUMEN, limite);
+        List<ResumenRankingUsuario> topPorTiempo = estadisticasRepositoryPort.obtenerRanking(CriterioRanking.TIEMPO, limite);
         
         return new RankingGlobal(topPorAciertos, topPorVolumen, topPorTiempo);
     }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public DistribucionTiempos obtenerDistribucionTiempos(Long usuarioId) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        EstadisticasUsuario estadisticas = obtenerEstadisticas(usuarioId);
+        
+        Map<String, PercentilesTiempo> porDificultad = new TreeMap<>();
+        estadisticas.porDificultad().forEach((dificultad, stats) ->
+            porDificultad.put(dificultad.name().toLowerCase(), aPercentiles(stats.histograma())));
+        
+        Map<String, PercentilesTiempo> porTematica = new TreeMap<>();
+        estadisticas.porTematica().forEach((tematica, stats) ->
+            porTematica.put(tematica, aPercentiles(stats.histograma())));
+        
+        return new DistribucionTiempos(
+            aPercentiles(estadisticas.histogramaTiempos()), porDificultad, porTematica);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public DistribucionTiempos obtenerDistribucionTiemposGlobal() {
+        // Los histogramas son combinables: el global es la suma de los de cada usuario
+        HistogramaTiempos.Acumulador general = HistogramaTiempos.acumulador();
+        Map<String, HistogramaTiempos.Acumulador> porDificultad = new TreeMap<>();
+        Map<String, HistogramaTiempos.Acumulador> porTematica = new TreeMap<>();
+        
+        for (EstadisticasUsuario estadisticas : estadisticasRepositoryPort.obtenerDeUsuariosActivos()) {
+            general.combinar(estadisticas.histogramaTiempos());
+            estadisticas.porDificultad().forEach((dificultad, stats) -> porDificultad
+                .computeIfAbsent(dificultad.name().toLowerCase(), k -> HistogramaTiempos.acumulador())
+                .combinar(stats.histograma()));
+            estadisticas.porTematica().forEach((tematica, stats) -> porTematica
+                .computeIfAbsent(tematica, k -> HistogramaTiempos.acumulador())
+                .combinar(stats.histograma()));
+        }
+        
+        return new DistribucionTiempos(
+            aPercentiles(general.construir()),
+            aPercentilesPorClave(porDificultad),
+            aPercentilesPorClave(porTematica)
+        );
+    }
+    
+    private PercentilesTiempo aPercentiles(HistogramaTiempos histograma) {
+        return new PercentilesTiempo(
+            histograma.getTotal(),
+            histograma.getPromedio().toMillis(),
+            histograma.getP50Millis(),
+            histograma.getP90Millis(),
+            histograma.getP99Millis()
+        );
+    }
+    
+    private Map<String, PercentilesTiempo> aPercentilesPorClave(Map<String, HistogramaTiempos.Acumulador> acumuladores) {
+        Map<String, PercentilesTiempo> resultado = new TreeMap<>();
+        acumuladores.forEach((clave, acumulador) -> resultado.put(clave, aPercentiles(acumulador.construir())));
+        return resultado;
+    }
 }
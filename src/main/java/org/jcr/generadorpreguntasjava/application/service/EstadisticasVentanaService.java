@@ -0,0 +1,217 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.*;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.UsuarioRepositoryPort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Servicio de aplicación para estadísticas en ventanas de tiempo recientes.
+ * 
+ * Mantiene en memoria unos {@link ContadoresRecientes} por usuario que se alimentan con
+ * cada respuesta completada. La primera consulta de un usuario los inicializa con sus
+ * sesiones de los últimos 30 días; a partir de ahí las consultas no leen sesiones.
+ * Se retienen como máximo {@value #MAXIMO_USUARIOS_EN_MEMORIA} usuarios: al superarlo sale el
+ * usuario consultado hace más tiempo, que se volverá a inicializar si se consulta de nuevo.
+ * 
+ * Las respuestas se registran al confirmarse su transacción, como en el resto de almacenes en
+ * memoria: una respuesta revertida no llega a los contadores. Las que se confirman mientras se
+ * inicializa un usuario se guardan aparte y se suman al terminar, salvo las ya recorridas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class EstadisticasVentanaService implements ConsultarEstadisticasVentanaPort {
+    
+    private static final int MAXIMO_USUARIOS_EN_MEMORIA = 10_000;
+    
+    private final SesionRespuestaRepositoryPort sesionRepositoryPort;
+    private final PreguntaRepositoryPort preguntaRepositoryPort;
+    private final UsuarioRepositoryPort usuarioRepositoryPort;
+    
+    // LinkedHashMap en orden de acceso: desalojo LRU al superar el máximo
+    private final Map<Long, ContadoresRecientes> contadoresPorUsuario = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ContadoresRecientes> masAntigua) {
+                return size() > MAXIMO_USUARIOS_EN_MEMORIA;
+            }
+        });
+    
+    // Respuestas confirmadas mientras se inicializan los contadores del usuario; protegidas,
+    // igual que la publicación de los contadores, por el monitor de contadoresPorUsuario
+    private final Map<Long, Inicializacion> inicializacionesPorUsuario = new HashMap<>();
+    
+    @Override
+    public EstadisticasVentana obtenerEstadisticasVentana(Long usuarioId, VentanaTiempo ventana) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        if (ventana == null) {
+            throw new IllegalArgumentException("La ventana de tiempo no puede ser nula");
+        }
+        
+        return obtenerContadores(usuarioId).resumir(ventana, LocalDateTime.now());
+    }
+    
+    @Override
+    public List<EstadisticasVentana> obtenerTodasLasVentanas(Long usuarioId) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        
+        ContadoresRecientes contadores = obtenerContadores(usuarioId);
+        LocalDateTime ahora = LocalDateTime.now();
+        
+        List<EstadisticasVentana> resultado = new ArrayList<>();
+        for (VentanaTiempo ventana : VentanaTiempo.values()) {
+            resultado.add(contadores.resumir(ventana, ahora));
+        }
+        return resultado;
+    }
+    
+    @Override
+    public void registrarRespuesta(SesionRespuesta sesion, Dificultad dificultad) {
+        if (sesion == null || sesion.usuarioId() == null) {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registrarConfirmada(sesion, dificultad);
+                }
+            });
+        } else {
+            registrarConfirmada(sesion, dificultad);
+        }
+    }
+    
+    @Override
+    public void descartarContadores() {
+        // Las inicializaciones en curso publican igualmente lo que leen de las sesiones
+        synchronized (contadoresPorUsuario) {
+            contadoresPorUsuario.clear();
+        }
+        log.info("Contadores de ventanas recientes descartados");
+    }
+    
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+    
+    private void registrarConfirmada(SesionRespuesta sesion, Dificultad dificultad) {
+        synchronized (contadoresPorUsuario) {
+            // Si el usuario aún no está en memoria ni inicializándose no hace falta registrar
+            // nada: la primera consulta lo inicializará desde las sesiones guardadas
+            ContadoresRecientes contadores = contadoresPorUsuario.get(sesion.usuarioId());
+            if (contadores != null) {
+                contadores.registrar(sesion, dificultad);
+                return;
+            }
+            Inicializacion inicializacion = inicializacionesPorUsuario.get(sesion.usuarioId());
+            if (inicializacion != null) {
+                inicializacion.pendientes.add(new RespuestaPendiente(sesion, dificultad));
+            }
+        }
+    }
+    
+    private ContadoresRecientes obtenerContadores(Long usuarioId) {
+        ContadoresRecientes existentes = contadoresPorUsuario.get(usuarioId);
+        if (existentes != null) {
+            return existentes;
+        }
+        
+        usuarioRepositoryPort.buscarPorId(usuarioId)
+            .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+        
+        // Las respuestas confirmadas desde aquí se apartan hasta publicar los contadores
+        Inicializacion inicializacion;
+        synchronized (contadoresPorUsuario) {
+            existentes = contadoresPorUsuario.get(usuarioId);
+            if (existentes != null) {
+                return existentes;
+            }
+            inicializacion = inicializacionesPorUsuario.computeIfAbsent(usuarioId, id -> new Inicializacion());
+            inicializacion.enCurso++;
+        }
+        
+        Set<Long> recorridas = new HashSet<>();
+        ContadoresRecientes nuevos;
+        try {
+            nuevos = inicializarContadores(usuarioId, recorridas);
+        } catch (RuntimeException e) {
+            synchronized (contadoresPorUsuario) {
+                if (--inicializacion.enCurso == 0) {
+                    inicializacionesPorUsuario.remove(usuarioId, inicializacion);
+                }
+            }
+            throw e;
+        }
+        
+        synchronized (contadoresPorUsuario) {
+            // Otra inicialización concurrente ya publicó los suyos, con las pendientes incluidas
+            existentes = contadoresPorUsuario.get(usuarioId);
+            if (existentes != null) {
+                return existentes;
+            }
+            inicializacionesPorUsuario.remove(usuarioId, inicializacion);
+            for (RespuestaPendiente pendiente : inicializacion.pendientes) {
+                Long sesionId = pendiente.sesion().id();
+                if (sesionId == null || !recorridas.contains(sesionId)) {
+                    nuevos.registrar(pendiente.sesion(), pendiente.dificultad());
+                }
+            }
+            contadoresPorUsuario.put(usuarioId, nuevos);
+            return nuevos;
+        }
+    }
+    
+    private ContadoresRecientes inicializarContadores(Long usuarioId, Set<Long> recorridas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        // Margen de un día: las cubetas diarias se alinean a medianoche
+        LocalDateTime desde = ahora.minusDays(VentanaTiempo.ULTIMOS_30_DIAS.getNumeroCubetas() + 1L);
+        
+        // Una sola búsqueda por pregunta distinta; las sesiones se recorren sin cargarlas todas
+        Map<Long, Dificultad> dificultadPorPregunta = new HashMap<>();
+        ContadoresRecientes contadores = new ContadoresRecientes(usuarioId);
+        long total = sesionRepositoryPort.recorrerPorUsuarioYFechas(usuarioId, desde, ahora, sesion -> {
+            Dificultad dificultad = dificultadPorPregunta.computeIfAbsent(sesion.preguntaId(), preguntaId ->
+                preguntaRepositoryPort.buscarPorId(preguntaId)
+                    .map(Pregunta::dificultad)
+                    .orElse(Dificultad.FACIL));
+            contadores.registrar(sesion, dificultad);
+            if (sesion.id() != null) {
+                recorridas.add(sesion.id());
+            }
+        });
+        
+        log.debug("Contadores recientes inicializados para usuario {} con {} sesiones", usuarioId, total);
+        return contadores;
+    }
+    
+    /**
+     * Respuesta confirmada durante la inicialización de los contadores de su usuario.
+     */
+    private record RespuestaPendiente(SesionRespuesta sesion, Dificultad dificultad) {
+    }
+    
+    /**
+     * Inicializaciones en curso de un usuario y las respuestas confirmadas mientras tanto.
+     */
+    private static final class Inicializacion {
+        private final List<RespuestaPendiente> pendientes = new ArrayList<>();
+        private int enCurso;
+    }
+}
@@ -0,0 +1,194 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.port.out.BloqueoDistribuidoPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort.RangoIds;
+import org.jcr.generadorpreguntasjava.port.out.SesionesEnProgresoPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limpieza periódica de las sesiones de respuesta abandonadas.
+ * 
+ * Cada instancia retira las sesiones en progreso caducadas de su memoria. Las filas sin
+ * completar de sesiones_respuesta (solo quedan las anteriores a las sesiones en memoria) se
+ * eliminan por tramos de como mucho {@code tamanoTramo} sesiones, recorridos por clave, cada
+ * uno en su propia transacción y con una pausa entre tramos, para no bloquear la tabla. Solo
+ * la instancia que tiene el bloqueo con concesión en base de datos elimina filas; la concesión
+ * se renueva en cada tramo.
+ */
+@Slf4j
+@Service
+public class MantenimientoSesionesService implements ProveedorMetricasPort {
+    
+    private static final String BLOQUEO = "limpieza_sesiones_abandonadas";
+    private static final String COMPONENTE = "mantenimiento_sesiones";
+    
+    private final SesionRespuestaRepositoryPort sesionRepositoryPort;
+    private final SesionesEnProgresoPort sesionesEnProgresoPort;
+    private final BloqueoDistribuidoPort bloqueoPort;
+    private final boolean habilitado;
+    private final Duration abandono;
+    private final int tamanoTramo;
+    private final long pausaMs;
+    private final Duration concesion;
+    private final String propietario;
+    
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong omitidasSinBloqueo = new AtomicLong();
+    private final AtomicLong sesionesEliminadas = new AtomicLong();
+    private final AtomicLong caducadasEnMemoria = new AtomicLong();
+    private final AtomicLong tramos = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong ultimaDuracionMs = new AtomicLong();
+    
+    public MantenimientoSesionesService(
+            SesionRespuestaRepositoryPort sesionRepositoryPort,
+            SesionesEnProgresoPort sesionesEnProgresoPort,
+            BloqueoDistribuidoPort bloqueoPort,
+            @Value("${mantenimiento.sesiones.habilitado:true}") boolean habilitado,
+            @Value("${mantenimiento.sesiones.abandono-minutos:30}") long abandonoMinutos,
+            @Value("${mantenimiento.sesiones.tamano-tramo:1000}") int tamanoTramo,
+            @Value("${mantenimiento.sesiones.pausa-ms:200}") long pausaMs,
+            @Value("${mantenimiento.sesiones.concesion-segundos:300}") long concesionSegundos) {
+        if (tamanoTramo <= 0) {
+            throw new IllegalArgumentException("El tamaño del tramo debe ser mayor a 0");
+        }
+        this.sesionRepositoryPort = sesionRepositoryPort;
+        this.sesionesEnProgresoPort = sesionesEnProgresoPort;
+        this.bloqueoPort = bloqueoPort;
+        this.habilitado = habilitado;
+        this.abandono = Duration.ofMinutes(abandonoMinutos);
+        this.tamanoTramo = tamanoTramo;
+        this.pausaMs = Math.max(0, pausaMs);
+        this.concesion = Duration.ofSeconds(concesionSegundos);
+        this.propietario = nombreInstancia() + ":" + UUID.randomUUID();
+    }
+    
+    /**
+     * Ejecución programada de la limpieza (con espera fija entre el final de una y el inicio de la siguiente).
+     */
+    @Scheduled(initialDelayString = "${mantenimiento.sesiones.retraso-inicial-ms:60000}",
+               fixedDelayString = "${mantenimiento.sesiones.intervalo-ms:300000}")
+    public void ejecutarProgramado() {
+        if (!habilitado) {
+            return;
+        }
+        
+        try {
+            limpiarSesionesAbandonadas();
+        } catch (Exception e) {
+            errores.incrementAndGet();
+            log.error("Error en la limpieza programada de sesiones abandonadas: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Retira las sesiones en progreso caducadas de la memoria y, si esta instancia obtiene
+     * el bloqueo, elimina por tramos las sesiones abandonadas persistidas.
+     * 
+     * @return Número total de sesiones retiradas y eliminadas
+     */
+    public int limpiarSesionesAbandonadas() {
+        long inicio = System.nanoTime();
+        ejecuciones.incrementAndGet();
+        
+        int caducadas = sesionesEnProgresoPort.eliminarCaducadas();
+        caducadasEnMemoria.addAndGet(caducadas);
+        
+        if (!bloqueoPort.adquirir(BLOQUEO, propietario, concesion)) {
+            omitidasSinBloqueo.incrementAndGet();
+            log.debug("Limpieza de sesiones abandonadas en curso en otra instancia");
+            return caducadas;
+        }
+        
+        try {
+            int eliminadas = eliminarPorTramos();
+            if (caducadas > 0 || eliminadas > 0) {
+                log.info("Limpieza de sesiones abandonadas: {} caducadas en memoria, {} eliminadas de la base de datos",
+                        caducadas, eliminadas);
+            }
+            return caducadas + eliminadas;
+        } finally {
+            bloqueoPort.liberar(BLOQUEO, propietario);
+            ultimaDuracionMs.set(Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        }
+    }
+    
+    @Override
+    public Metricas obtenerMetricas() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("ejecuciones", ejecuciones.get());
+        valores.put("omitidas_sin_bloqueo", omitidasSinBloqueo.get());
+        valores.put("sesiones_eliminadas", sesionesEliminadas.get());
+        valores.put("caducadas_en_memoria", caducadasEnMemoria.get());
+        valores.put("tramos", tramos.get());
+        valores.put("errores", errores.get());
+        valores.put("ultima_duracion_ms", ultimaDuracionMs.get());
+        return new Metricas(COMPONENTE, valores);
+    }
+    
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+    
+    private int eliminarPorTramos() {
+        LocalDateTime limite = LocalDateTime.now().minus(abandono);
+        int eliminadas = 0;
+        long despuesDe = 0;
+        
+        while (true) {
+            Optional<RangoIds> tramo = sesionRepositoryPort.obtenerTramoSesionesAbandonadas(despuesDe, limite, tamanoTramo);
+            if (tramo.isEmpty()) {
+                break;
+            }
+            long hasta = tramo.get().hasta();
+            int eliminadasTramo = sesionRepositoryPort.eliminarSesionesAbandonadas(tramo.get().desde(), hasta, limite);
+            eliminadas += eliminadasTramo;
+            sesionesEliminadas.addAndGet(eliminadasTramo);
+            tramos.incrementAndGet();
+            despuesDe = hasta;
+            
+            // Renovar la concesión: si se ha perdido, otra instancia continuará la limpieza
+            if (!bloqueoPort.adquirir(BLOQUEO, propietario, concesion)) {
+                log.warn("Concesión de la limpieza de sesiones perdida tras eliminar hasta el ID {}", hasta);
+                break;
+            }
+            if (!pausar()) {
+                break;
+            }
+        }
+        return eliminadas;
+    }
+    
+    private boolean pausar() {
+        if (pausaMs == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausaMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static String nombreInstancia() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "desconocida";
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import lombok.RequiredArgsConstructor;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarMetricasPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort.Metricas;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Servicio de aplicación que reúne las métricas de todos los proveedores registrados.
+ */
+@Service
+@RequiredArgsConstructor
+public class MetricasService implements ConsultarMetricasPort {
+    
+    private final List<ProveedorMetricasPort> proveedores;
+    
+    @Override
+    public List<Metricas> obtenerMetricas() {
+        return proveedores.stream()
+            .map(ProveedorMetricasPort::obtenerMetricas)
+            .sorted(Comparator.comparing(Metricas::componente))
+            .toList();
+    }
+    
+    @Override
+    public Metricas obtenerMetricas(String componente) {
+        if (componente == null || componente.isBlank()) {
+            throw new IllegalArgumentException("El nombre del componente es requerido");
+        }
+        
+        return proveedores.stream()
+            .map(ProveedorMetricasPort::obtenerMetricas)
+            .filter(metricas -> metricas.componente().equals(componente))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Componente de métricas no encontrado: " + componente));
+    }
+}
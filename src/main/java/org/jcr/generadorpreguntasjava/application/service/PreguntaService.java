@@ -8,6 +8,7 @@ import org.jcr.generadorpreguntasjava.port.out.*;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -30,6 +31,7 @@ import java.util.Optional;
 public class PreguntaService implements GenerarPreguntaPort, ValidarRespuestaPort, ConsultarPreguntasPort {
     
     private final PreguntaRepositoryPort preguntaRepositoryPort;
+    private final IndiceClavesRespuestaPort indiceClavesRespuestaPort;
     private final TematicaRepositoryPort tematicaRepositoryPort;
     private final GeneradorDePreguntaServicePort generadorDePreguntaServicePort;
     private final PromptBuilderService promptBuilderService;
@@ -89,6 +91,7 @@ public class PreguntaService implements GenerarPreguntaPort, ValidarRespuestaPor
 
                 // 8. Persistir la nueva pregunta con las temáticas correctas asociadas
                 Pregunta preguntaGuardada = preguntaRepositoryPort.guardar(preguntaConTematicas);
+                indiceClavesRespuestaPort.registrar(preguntaGuardada);
 
                 log.info("Pregunta generada y guardada exitosamente con ID: {}", preguntaGuardada.id());
                 return preguntaGuardada;
@@ -115,7 +118,7 @@ public class PreguntaService implements GenerarPreguntaPort, ValidarRespuestaPor
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ValidarRespuestaPort.ResultadoValidacion validarRespuesta(Long preguntaId, String respuestaDada) {
         log.info("Validando respuesta para pregunta ID: {}", preguntaId);
         
@@ -127,24 +130,62 @@ public class PreguntaService implements GenerarPreguntaPort, ValidarRespuestaPor
             throw new IllegalArgumentException("La respuesta no puede estar vacía");
         }
         
-        // Buscar la pregunta
-        Optional<Pregunta> preguntaOpt = preguntaRepositoryPort.buscarPorId(preguntaId);
-        if (preguntaOpt.isEmpty()) {
-            throw new RuntimeException("Pregunta no encontrada con ID: " + preguntaId);
-        }
-        
-        Pregunta pregunta = preguntaOpt.get();
+        // Buscar solo la clave de respuesta (sin opciones ni temáticas)
+        ClaveRespuesta clave = indiceClavesRespuestaPort.buscar(preguntaId)
+            .orElseThrow(() -> new RuntimeException("Pregunta no encontrada con ID: " + preguntaId));
         
         // Validar la respuesta
-        boolean esCorrecta = pregunta.validarRespuesta(respuestaDada);
+        boolean esCorrecta = clave.esCorrecta(respuestaDada);
         
         log.info("Respuesta {} para pregunta {}: {}", 
                 respuestaDada, preguntaId, esCorrecta ? "CORRECTA" : "INCORRECTA");
         
         return new ValidarRespuestaPort.ResultadoValidacion(
             esCorrecta,
-            pregunta.explicacion(),
-            pregunta.respuestaCorrecta()
+            clave.explicacion(),
+            clave.respuestaCorrecta(),
+            clave.indiceRespuestaCorrecta()
+        );
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ValidarRespuestaPort.ResultadoValidacion validarOpcion(Long preguntaId, int opcionIndex) {
+        log.info("Validando opción {} para pregunta ID: {}", opcionIndex, preguntaId);
+        
+        if (preguntaId == null) {
+            throw new IllegalArgumentException("El ID de la pregunta no puede ser nulo");
+        }
+        
+        if (opcionIndex < 0) {
+            throw new IllegalArgumentException("La opción seleccionada no puede ser negativa");
+        }
+        
+        ClaveRespuesta clave = indiceClavesRespuestaPort.buscar(preguntaId)
+            .orElseThrow(() -> new RuntimeException("Pregunta no encontrada con ID: " + preguntaId));
+        
+        // Las preguntas guardadas antes de registrar la posición de la respuesta correcta
+        // (o de empaquetar sus opciones) la obtienen de sus opciones
+        if (!clave.tieneIndice() || !clave.conoceOpciones()) {
+            clave = preguntaRepositoryPort.buscarPorId(preguntaId)
+                .map(ClaveRespuesta::de)
+                .orElseThrow(() -> new RuntimeException("Pregunta no encontrada con ID: " + preguntaId));
+        }
+        
+        if (!clave.tieneOpcion(opcionIndex)) {
+            throw new IllegalArgumentException("La pregunta " + preguntaId + " no tiene la opción " + opcionIndex);
+        }
+        
+        boolean esCorrecta = clave.esOpcionCorrecta(opcionIndex);
+        
+        log.info("Opción {} para pregunta {}: {}", 
+                opcionIndex, preguntaId, esCorrecta ? "CORRECTA" : "INCORRECTA");
+        
+        return new ValidarRespuestaPort.ResultadoValidacion(
+            esCorrecta,
+            clave.explicacion(),
+            clave.respuestaCorrecta(),
+            clave.indiceRespuestaCorrecta()
         );
     }
     
@@ -0,0 +1,217 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.port.in.ReconstruirEstadisticasPort;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ClasificacionPregunta;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.EstadoParticion;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ParticionUsuarios;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de aplicación para la reconstrucción masiva de estadísticas de usuario.
+ * 
+ * Divide a los usuarios en particiones por rango de ID y las reparte en un ForkJoinPool.
+ * Cada partición se reconstruye en una transacción propia y queda marcada como completada,
+ * de modo que tras una caída basta con reanudar para procesar solo las que faltan.
+ */
+@Slf4j
+@Service
+public class ReconstruccionEstadisticasService implements ReconstruirEstadisticasPort {
+    
+    private final ReconstruccionEstadisticasRepositoryPort reconstruccionRepositoryPort;
+    private final PreguntaRepositoryPort preguntaRepositoryPort;
+    private final DiarioRespuestasPort diarioRespuestasPort;
+    private final int paralelismo;
+    private final int usuariosPorParticion;
+    
+    private final ExecutorService coordinador = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "reconstruccion-estadisticas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final AtomicBoolean enEjecucion = new AtomicBoolean(false);
+    private volatile LocalDateTime inicio;
+    private volatile LocalDateTime fin;
+    
+    public ReconstruccionEstadisticasService(
+            ReconstruccionEstadisticasRepositoryPort reconstruccionRepositoryPort,
+            PreguntaRepositoryPort preguntaRepositoryPort,
+            DiarioRespuestasPort diarioRespuestasPort,
+            @Value("${estadisticas.reconstruccion.paralelismo:4}") int paralelismo,
+            @Value("${estadisticas.reconstruccion.usuarios-por-particion:200}") int usuariosPorParticion) {
+        this.reconstruccionRepositoryPort = reconstruccionRepositoryPort;
+        this.preguntaRepositoryPort = preguntaRepositoryPort;
+        this.diarioRespuestasPort = diarioRespuestasPort;
+        this.paralelismo = Math.max(1, paralelismo);
+        this.usuariosPorParticion = Math.max(1, usuariosPorParticion);
+    }
+    
+    @Override
+    public ProgresoReconstruccion iniciarReconstruccion(boolean reanudar) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una reconstrucción de estadísticas en ejecución");
+        }
+        
+        try {
+            List<ParticionUsuarios> particiones = reanudar
+                ? reconstruccionRepositoryPort.obtenerParticiones()
+                : List.of();
+            if (particiones.isEmpty()) {
+                particiones = reconstruccionRepositoryPort.crearParticiones(usuariosPorParticion);
+            }
+            
+            List<ParticionUsuarios> pendientes = particiones.stream()
+                .filter(particion -> particion.estado() != EstadoParticion.COMPLETADA)
+                .toList();
+            
+            log.info("Iniciando reconstrucción de estadísticas: {} particiones pendientes de {} (reanudar={})",
+                    pendientes.size(), particiones.size(), reanudar);
+            
+            inicio = LocalDateTime.now();
+            fin = null;
+            coordinador.execute(() -> ejecutar(pendientes));
+            
+            return obtenerProgreso();
+            
+        } catch (Exception e) {
+            enEjecucion.set(false);
+            log.error("Error al iniciar la reconstrucción de estadísticas: {}", e.getMessage(), e);
+            throw new RuntimeException("Error al iniciar la reconstrucción de estadísticas", e);
+        }
+    }
+    
+    @Override
+    public ProgresoReconstruccion obtenerProgreso() {
+        List<ParticionUsuarios> particiones = reconstruccionRepositoryPort.obtenerParticiones();
+        
+        int completadas = 0;
+        int conError = 0;
+        long usuarios = 0;
+        long sesiones = 0;
+        for (ParticionUsuarios particion : particiones) {
+            if (particion.estado() == EstadoParticion.COMPLETADA) {
+                completadas++;
+                usuarios += particion.usuariosProcesados();
+                sesiones += particion.sesionesProcesadas();
+            } else if (particion.estado() == EstadoParticion.ERROR) {
+                conError++;
+            }
+        }
+        
+        String estado;
+        if (enEjecucion.get()) {
+            estado = "EN_EJECUCION";
+        } else if (particiones.isEmpty()) {
+            estado = "SIN_EJECUTAR";
+        } else if (completadas == particiones.size()) {
+            estado = "COMPLETADA";
+        } else {
+            estado = "INCOMPLETA";
+        }
+        
+        return new ProgresoReconstruccion(estado, particiones.size(), completadas, conError,
+                usuarios, sesiones, inicio, fin);
+    }
+    
+    @PreDestroy
+    public void detener() {
+        coordinador.shutdownNow();
+    }
+    
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+    
+    private void ejecutar(List<ParticionUsuarios> pendientes) {
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            Map<Long, ClasificacionPregunta> clasificacion = clasificarPreguntas();
+            pool.invoke(new TareaParticiones(pendientes, 0, pendientes.size(), clasificacion));
+            log.info("Reconstrucción de estadísticas finalizada: {}", obtenerProgreso());
+        } catch (Exception e) {
+            log.error("Error en la reconstrucción de estadísticas: {}", e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+            fin = LocalDateTime.now();
+            enEjecucion.set(false);
+        }
+    }
+    
+    /**
+     * Resuelve una sola vez la dificultad y temática principal de cada pregunta,
+     * en lugar de buscar la pregunta de cada sesión.
+     */
+    private Map<Long, ClasificacionPregunta> clasificarPreguntas() {
+        Map<Long, ClasificacionPregunta> clasificacion = new HashMap<>();
+        for (Pregunta pregunta : preguntaRepositoryPort.obtenerTodas()) {
+            Tematica principal = pregunta.getTematicaPrincipal();
+            clasificacion.put(pregunta.id(), new ClasificacionPregunta(
+                pregunta.dificultad() != null ? pregunta.dificultad() : Dificultad.FACIL,
+                principal != null ? principal.nombre() : "Sin temática"));
+        }
+        return clasificacion;
+    }
+    
+    private void procesar(ParticionUsuarios particion, Map<Long, ClasificacionPregunta> clasificacion) {
+        try {
+            // Las filas reflejan el diario hasta el offset leído tras recorrer sus sesiones
+            var resultado = reconstruccionRepositoryPort.reconstruirParticion(
+                particion, clasificacion, () -> diarioRespuestasPort.siguienteOffset() - 1);
+            log.debug("Partición [{}-{}] reconstruida: {} usuarios, {} sesiones",
+                    particion.desdeUsuarioId(), particion.hastaUsuarioId(), resultado.usuarios(), resultado.sesiones());
+        } catch (Exception e) {
+            log.error("Error al reconstruir la partición [{}-{}]: {}",
+                    particion.desdeUsuarioId(), particion.hastaUsuarioId(), e.getMessage(), e);
+            reconstruccionRepositoryPort.marcarError(particion.id());
+        }
+    }
+    
+    /**
+     * Divide la lista de particiones por la mitad hasta quedarse con una sola.
+     */
+    private final class TareaParticiones extends RecursiveAction {
+        
+        private final List<ParticionUsuarios> particiones;
+        private final int desde;
+        private final int hasta;
+        private final Map<Long, ClasificacionPregunta> clasificacion;
+        
+        private TareaParticiones(List<ParticionUsuarios> particiones, int desde, int hasta,
+                                 Map<Long, ClasificacionPregunta> clasificacion) {
+            this.particiones = particiones;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.clasificacion = clasificacion;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hasta - desde <= 0) {
+                return;
+            }
+            if (hasta - desde == 1) {
+                procesar(particiones.get(desde), clasificacion);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaParticiones(particiones, desde, medio, clasificacion),
+                      new TareaParticiones(particiones, medio, hasta, clasificacion));
+        }
+    }
+}
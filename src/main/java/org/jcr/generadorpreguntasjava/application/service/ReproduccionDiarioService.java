@@ -0,0 +1,267 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
+import org.jcr.generadorpreguntasjava.port.in.ReproducirDiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasPreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.TematicaRepositoryPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Servicio de aplicación que pone al día las estadísticas de usuario y de pregunta a partir
+ * del diario de respuestas, consumiéndolo como un flujo de eventos.
+ *
+ * Cada fila de estadísticas guarda el offset del último evento del diario que refleja, escrito
+ * en la misma transacción que la respuesta en línea. La reproducción aplica a cada fila solo
+ * los eventos posteriores a su offset, así que reproducir respuestas ya contadas (o repetir
+ * una reproducción interrumpida) no las cuenta dos veces. Los eventos se aplican por lotes
+ * acotados, cada uno en su transacción. Las filas anteriores a registrar el offset se dan por
+ * al día al empezar.
+ *
+ * Las preguntas sin fila se omiten: se reconstruyen desde sus sesiones al consultarlas. Los
+ * contadores de ventanas recientes se descartan al terminar y se vuelven a inicializar desde
+ * las sesiones; las clasificaciones leen directamente las filas de estadísticas de usuario.
+ */
+@Slf4j
+@Service
+public class ReproduccionDiarioService implements ReproducirDiarioRespuestasPort {
+
+    private static final String SIN_TEMATICA = "Sin temática";
+
+    private final DiarioRespuestasPort diarioRespuestasPort;
+    private final EstadisticasRepositoryPort estadisticasRepositoryPort;
+    private final EstadisticasPreguntaRepositoryPort estadisticasPreguntaRepositoryPort;
+    private final TematicaRepositoryPort tematicaRepositoryPort;
+    private final ConsultarEstadisticasVentanaPort estadisticasVentanaPort;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+
+    public ReproduccionDiarioService(
+            DiarioRespuestasPort diarioRespuestasPort,
+            EstadisticasRepositoryPort estadisticasRepositoryPort,
+            EstadisticasPreguntaRepositoryPort estadisticasPreguntaRepositoryPort,
+            TematicaRepositoryPort tematicaRepositoryPort,
+            ConsultarEstadisticasVentanaPort estadisticasVentanaPort,
+            PlatformTransactionManager transactionManager,
+            @Value("${diario.respuestas.reproduccion.tamano-lote:10000}") int tamanoLote) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        }
+        this.diarioRespuestasPort = diarioRespuestasPort;
+        this.estadisticasRepositoryPort = estadisticasRepositoryPort;
+        this.estadisticasPreguntaRepositoryPort = estadisticasPreguntaRepositoryPort;
+        this.tematicaRepositoryPort = tematicaRepositoryPort;
+        this.estadisticasVentanaPort = estadisticasVentanaPort;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public ResultadoReproduccion reconstruirEstadisticas(long desdeOffset) {
+        long fin = diarioRespuestasPort.siguienteOffset();
+        if (desdeOffset < 0 || desdeOffset > fin) {
+            throw new IllegalArgumentException("El offset debe estar entre 0 y " + fin);
+        }
+        if (!enEjecucion.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una reproducción del diario en ejecución");
+        }
+
+        try {
+            log.info("Reproduciendo diario de respuestas desde el offset {}", desdeOffset);
+            // Las filas sin offset no se han escrito desde que se registra: reflejan lo anotado hasta ahora
+            transactionTemplate.executeWithoutResult(status -> {
+                estadisticasRepositoryPort.asignarOffsetDiarioSinRegistrar(fin - 1);
+                estadisticasPreguntaRepositoryPort.asignarOffsetDiarioSinRegistrar(fin - 1);
+            });
+
+            Map<Long, String> nombresTematicas = new HashMap<>();
+            for (Tematica tematica : tematicaRepositoryPort.obtenerTodas()) {
+                nombresTematicas.put(tematica.id(), tematica.nombre());
+            }
+
+            Lote lote = new Lote(nombresTematicas);
+            long hasta = diarioRespuestasPort.reproducir(desdeOffset, (evento, offset) -> {
+                lote.agregar(evento, offset);
+                if (lote.eventos == tamanoLote) {
+                    lote.aplicar();
+                }
+            });
+            lote.aplicar();
+            estadisticasVentanaPort.descartarContadores();
+
+            ResultadoReproduccion resultado = new ResultadoReproduccion(desdeOffset, hasta, lote.eventosAplicados,
+                                                                        lote.usuarios);
+            log.info("Diario reproducido: offsets {}-{}, {} eventos aplicados, {} usuarios",
+                    resultado.desdeOffset(), resultado.hastaOffset(), resultado.eventos(), resultado.usuarios());
+            return resultado;
+
+        } catch (Exception e) {
+            log.error("Error al reproducir el diario desde el offset {}: {}", desdeOffset, e.getMessage(), e);
+            throw new RuntimeException("Error al reproducir el diario de respuestas", e);
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    /**
+     * Evento del diario junto con su offset.
+     */
+    private record Anotado(EventoRespuesta evento, long offset) {}
+
+    /**
+     * Eventos pendientes de aplicar, agrupados por usuario y por pregunta, con como mucho
+     * un lote en memoria.
+     */
+    private final class Lote {
+
+        private final Map<Long, String> nombresTematicas;
+        private Map<Long, List<Anotado>> porUsuario = new HashMap<>();
+        // Ordenadas por ID: las filas de pregunta se bloquean siempre en el mismo orden
+        private TreeMap<Long, List<Anotado>> porPregunta = new TreeMap<>();
+        private int eventos;
+        private long eventosAplicados;
+        private int usuarios;
+
+        private Lote(Map<Long, String> nombresTematicas) {
+            this.nombresTematicas = nombresTematicas;
+        }
+
+        private void agregar(EventoRespuesta evento, long offset) {
+            Anotado anotado = new Anotado(evento, offset);
+            porUsuario.computeIfAbsent(evento.usuarioId(), id -> new ArrayList<>()).add(anotado);
+            porPregunta.computeIfAbsent(evento.preguntaId(), id -> new ArrayList<>()).add(anotado);
+            eventos++;
+        }
+
+        /**
+         * Aplica el lote a las estadísticas de sus usuarios y preguntas en una transacción.
+         */
+        private void aplicar() {
+            if (eventos == 0) {
+                return;
+            }
+            long[] aplicados = new long[1];
+            int[] escritos = new int[1];
+            transactionTemplate.executeWithoutResult(status -> {
+                aplicados[0] = 0;
+                escritos[0] = 0;
+                porUsuario.forEach((usuarioId, eventosUsuario) -> {
+                    int delUsuario = aplicarUsuario(usuarioId, eventosUsuario);
+                    if (delUsuario > 0) {
+                        aplicados[0] += delUsuario;
+                        escritos[0]++;
+                    }
+                });
+                porPregunta.forEach(this::aplicarPregunta);
+            });
+            usuarios += escritos[0];
+            eventosAplicados += aplicados[0];
+            eventos = 0;
+            porUsuario = new HashMap<>();
+            porPregunta = new TreeMap<>();
+        }
+
+        /**
+         * Aplica a las estadísticas del usuario los eventos posteriores a su offset.
+         *
+         * @return Número de eventos aplicados
+         */
+        private int aplicarUsuario(Long usuarioId, List<Anotado> eventosUsuario) {
+            long ultimo = eventosUsuario.get(eventosUsuario.size() - 1).offset();
+            Optional<EstadisticasUsuario> guardadas = estadisticasRepositoryPort.buscarPorUsuario(usuarioId);
+            if (guardadas.isPresent() && guardadas.get().offsetDiario() >= ultimo) {
+                return 0;
+            }
+
+            int[] aplicados = new int[1];
+            UnaryOperator<EstadisticasUsuario> cambio = actuales -> {
+                // Se puede invocar más de una vez si otra escritura se cruza
+                aplicados[0] = 0;
+                EstadisticasUsuario actualizadas = actuales;
+                for (Anotado anotado : eventosUsuario) {
+                    if (anotado.offset() <= actualizadas.offsetDiario()) {
+                        continue;
+                    }
+                    EventoRespuesta evento = anotado.evento();
+                    actualizadas = actualizadas
+                        .registrarRespuesta(evento.aSesion(), evento.dificultad(),
+                                            nombreTematica(evento, nombresTematicas))
+                        .conOffsetDiario(anotado.offset());
+                    aplicados[0]++;
+                }
+                actualizadas.validar();
+                return actualizadas;
+            };
+            if (estadisticasRepositoryPort.aplicarCambio(usuarioId, cambio).isPresent()) {
+                return aplicados[0];
+            }
+            // Sin fila previa: se insertan sobre unas estadísticas vacías, salvo que otra escritura la cree antes
+            EstadisticasUsuario nuevas = cambio.apply(new EstadisticasUsuario(usuarioId));
+            if (estadisticasRepositoryPort.guardarSiNoHaCambiado(nuevas, OptionalLong.empty()).isPresent()
+                    || estadisticasRepositoryPort.aplicarCambio(usuarioId, cambio).isPresent()) {
+                return aplicados[0];
+            }
+            throw new IllegalStateException("No se pudieron aplicar los eventos del diario al usuario " + usuarioId);
+        }
+
+        /**
+         * Aplica a las estadísticas de la pregunta, bloqueadas, los eventos posteriores a su offset.
+         */
+        private void aplicarPregunta(Long preguntaId, List<Anotado> eventosPregunta) {
+            long ultimo = eventosPregunta.get(eventosPregunta.size() - 1).offset();
+            Optional<EstadisticasPregunta> guardadas = estadisticasPreguntaRepositoryPort.buscarPorPregunta(preguntaId);
+            if (guardadas.isEmpty() || guardadas.get().offsetDiario() >= ultimo) {
+                return;
+            }
+
+            Optional<EstadisticasPregunta> actuales =
+                estadisticasPreguntaRepositoryPort.buscarPorPreguntaParaActualizar(preguntaId);
+            if (actuales.isEmpty()) {
+                return;
+            }
+            EstadisticasPregunta actualizadas = actuales.get();
+            for (Anotado anotado : eventosPregunta) {
+                if (anotado.offset() <= actualizadas.offsetDiario()) {
+                    continue;
+                }
+                EventoRespuesta evento = anotado.evento();
+                SesionRespuesta sesion = evento.aSesion();
+                actualizadas = actualizadas
+                    .registrarRespuesta(evento.indiceOpcion(), evento.correcta(),
+                                        sesion.esRespuestaValida() ? sesion.tiempoRespuesta() : null)
+                    .conOffsetDiario(anotado.offset());
+            }
+            if (actualizadas != actuales.get()) {
+                estadisticasPreguntaRepositoryPort.guardar(actualizadas);
+            }
+        }
+    }
+
+    private static String nombreTematica(EventoRespuesta evento, Map<Long, String> nombresTematicas) {
+        return evento.tieneTematica()
+            ? nombresTematicas.getOrDefault(evento.tematicaId(), SIN_TEMATICA)
+            : SIN_TEMATICA;
+    }
+}
@@ -0,0 +1,193 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Acumulador mutable de las estadísticas de un usuario a partir de sus respuestas,
+ * pensado para recálculos masivos: usa contadores primitivos indexados por dificultad
+ * y por temática en lugar de agrupar listas de sesiones.
+ * 
+ * Objeto mutable y no thread-safe: cada hilo debe usar su propio acumulador.
+ */
+public final class AcumuladorEstadisticasUsuario {
+    
+    private static final Dificultad[] DIFICULTADES = Dificultad.values();
+    private static final int CAPACIDAD_INICIAL_TEMATICAS = 8;
+    
+    private final Long usuarioId;
+    
+    private int total;
+    private int correctas;
+    private final HistogramaTiempos.Acumulador histograma = HistogramaTiempos.acumulador();
+    
+    private final int[] totalPorDificultad = new int[DIFICULTADES.length];
+    private final int[] correctasPorDificultad = new int[DIFICULTADES.length];
+    private final HistogramaTiempos.Acumulador[] histogramaPorDificultad =
+        new HistogramaTiempos.Acumulador[DIFICULTADES.length];
+    
+    private final Map<String, Integer> indicePorTematica = new HashMap<>();
+    private String[] tematicas = new String[CAPACIDAD_INICIAL_TEMATICAS];
+    private int[] totalPorTematica = new int[CAPACIDAD_INICIAL_TEMATICAS];
+    private int[] correctasPorTematica = new int[CAPACIDAD_INICIAL_TEMATICAS];
+    private HistogramaTiempos.Acumulador[] histogramaPorTematica =
+        new HistogramaTiempos.Acumulador[CAPACIDAD_INICIAL_TEMATICAS];
+    
+    public AcumuladorEstadisticasUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        this.usuarioId = usuarioId;
+    }
+    
+    /**
+     * Registra una respuesta completada.
+     * 
+     * @param dificultad Dificultad de la pregunta
+     * @param tematica Temática principal de la pregunta
+     * @param correcta Si la respuesta fue correcta
+     * @param tiempoMs Tiempo de respuesta en ms (solo se promedia si es un tiempo razonable)
+     */
+    public void registrar(Dificultad dificultad, String tematica, boolean correcta, long tiempoMs) {
+        registrar(dificultad, registrarTematica(tematica), correcta, tiempoMs);
+    }
+    
+    /**
+     * Registra una respuesta completada con la temática ya resuelta a su índice.
+     * 
+     * @param dificultad Dificultad de la pregunta
+     * @param indiceTematica Índice devuelto por {@link #registrarTematica(String)}
+     * @param correcta Si la respuesta fue correcta
+     * @param tiempoMs Tiempo de respuesta en ms (solo se promedia si es un tiempo razonable)
+     */
+    public void registrar(Dificultad dificultad, int indiceTematica, boolean correcta, long tiempoMs) {
+        if (indiceTematica < 0 || indiceTematica >= indicePorTematica.size()) {
+            throw new IllegalArgumentException("Índice de temática no registrado: " + indiceTematica);
+        }
+        boolean tiempoValido = SesionRespuesta.esTiempoRespuestaValido(tiempoMs);
+        int aciertos = correcta ? 1 : 0;
+        
+        total++;
+        correctas += aciertos;
+        if (tiempoValido) {
+            histograma.registrar(tiempoMs);
+        }
+        
+        int d = dificultad.ordinal();
+        totalPorDificultad[d]++;
+        correctasPorDificultad[d] += aciertos;
+        if (tiempoValido) {
+            if (histogramaPorDificultad[d] == null) {
+                histogramaPorDificultad[d] = HistogramaTiempos.acumulador();
+            }
+            histogramaPorDificultad[d].registrar(tiempoMs);
+        }
+        
+        int t = indiceTematica;
+        totalPorTematica[t]++;
+        correctasPorTematica[t] += aciertos;
+        if (tiempoValido) {
+            if (histogramaPorTematica[t] == null) {
+                histogramaPorTematica[t] = HistogramaTiempos.acumulador();
+            }
+            histogramaPorTematica[t].registrar(tiempoMs);
+        }
+    }
+    
+    /**
+     * Registra un resumen diario de sesiones archivadas, equivalente a registrar sus respuestas.
+     * 
+     * @param resumen Resumen del mismo usuario
+     */
+    public void registrarResumen(ResumenDiarioSesiones resumen) {
+        if (!usuarioId.equals(resumen.usuarioId())) {
+            throw new IllegalArgumentException("El resumen es de otro usuario: " + resumen.usuarioId());
+        }
+        HistogramaTiempos tiempos = resumen.histograma();
+        
+        total += resumen.total();
+        correctas += resumen.correctas();
+        histograma.combinar(tiempos);
+        
+        int d = resumen.dificultad().ordinal();
+        totalPorDificultad[d] += resumen.total();
+        correctasPorDificultad[d] += resumen.correctas();
+        if (!tiempos.estaVacio()) {
+            if (histogramaPorDificultad[d] == null) {
+                histogramaPorDificultad[d] = HistogramaTiempos.acumulador();
+            }
+            histogramaPorDificultad[d].combinar(tiempos);
+        }
+        
+        int t = registrarTematica(resumen.tematica());
+        totalPorTematica[t] += resumen.total();
+        correctasPorTematica[t] += resumen.correctas();
+        if (!tiempos.estaVacio()) {
+            if (histogramaPorTematica[t] == null) {
+                histogramaPorTematica[t] = HistogramaTiempos.acumulador();
+            }
+            histogramaPorTematica[t].combinar(tiempos);
+        }
+    }
+    
+    /**
+     * Construye las estadísticas inmutables del usuario.
+     */
+    public EstadisticasUsuario construir() {
+        Map<Dificultad, EstadisticasPorDificultad> porDificultad = new HashMap<>();
+        for (Dificultad dificultad : DIFICULTADES) {
+            int d = dificultad.ordinal();
+            if (totalPorDificultad[d] > 0) {
+                porDificultad.put(dificultad, new EstadisticasPorDificultad(
+                    dificultad, totalPorDificultad[d], correctasPorDificultad[d],
+                    construir(histogramaPorDificultad[d])));
+            }
+        }
+        
+        Map<String, EstadisticasPorTematica> porTematica = new HashMap<>();
+        for (int t = 0; t < indicePorTematica.size(); t++) {
+            porTematica.put(tematicas[t], new EstadisticasPorTematica(
+                tematicas[t], totalPorTematica[t], correctasPorTematica[t],
+                construir(histogramaPorTematica[t])));
+        }
+        
+        return new EstadisticasUsuario(usuarioId, total, correctas, porDificultad, porTematica,
+                                       histograma.construir());
+    }
+    
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    /**
+     * Obtiene el índice de una temática, registrándola si es nueva.
+     * Permite resolver cada temática una sola vez y registrar después por índice.
+     */
+    public int registrarTematica(String tematica) {
+        Integer indice = indicePorTematica.get(tematica);
+        if (indice != null) {
+            return indice;
+        }
+        
+        int nuevo = indicePorTematica.size();
+        if (nuevo == tematicas.length) {
+            int capacidad = tematicas.length * 2;
+            tematicas = Arrays.copyOf(tematicas, capacidad);
+            totalPorTematica = Arrays.copyOf(totalPorTematica, capacidad);
+            correctasPorTematica = Arrays.copyOf(correctasPorTematica, capacidad);
+            histogramaPorTematica = Arrays.copyOf(histogramaPorTematica, capacidad);
+        }
+        tematicas[nuevo] = tematica;
+        indicePorTematica.put(tematica, nuevo);
+        return nuevo;
+    }
+    
+    private static HistogramaTiempos construir(HistogramaTiempos.Acumulador acumulador) {
+        return acumulador != null ? acumulador.construir() : HistogramaTiempos.vacio();
+    }
+}
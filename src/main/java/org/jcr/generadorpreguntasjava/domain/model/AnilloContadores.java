@@ -0,0 +1,195 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Anillo de cubetas de tiempo con contadores de respuestas (total, correctas, suma de
+ * tiempos y desglose por dificultad).
+ * 
+ * El anillo avanza de forma perezosa: al registrar o consultar se limpian las cubetas
+ * que han quedado fuera de la ventana, sin tareas en segundo plano. Consultar las
+ * últimas N cubetas cuesta O(N) y nunca recorre sesiones.
+ * 
+ * Las cubetas se alinean a la hora local (una cubeta diaria va de medianoche a medianoche).
+ * Objeto mutable y no thread-safe: el llamador debe sincronizar el acceso.
+ */
+public final class AnilloContadores {
+    
+    private static final int NUMERO_DIFICULTADES = Dificultad.values().length;
+    private static final long SIN_CUBETAS = Long.MIN_VALUE;
+    
+    private final long anchoSegundos;
+    private final int capacidad;
+    
+    private final int[] total;
+    private final int[] correctas;
+    private final int[] conTiempo;
+    private final long[] sumaTiempoMs;
+    
+    // Desglose por dificultad: posición (cubeta * NUMERO_DIFICULTADES + ordinal)
+    private final int[] totalPorDificultad;
+    private final int[] correctasPorDificultad;
+    private final int[] conTiempoPorDificultad;
+    private final long[] sumaTiempoMsPorDificultad;
+    
+    private long cubetaMasReciente = SIN_CUBETAS;
+    
+    public AnilloContadores(Duration anchoCubeta, int capacidad) {
+        if (anchoCubeta == null || anchoCubeta.getSeconds() <= 0) {
+            throw new IllegalArgumentException("El ancho de cubeta debe ser de al menos un segundo");
+        }
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a 0");
+        }
+        
+        this.anchoSegundos = anchoCubeta.getSeconds();
+        this.capacidad = capacidad;
+        this.total = new int[capacidad];
+        this.correctas = new int[capacidad];
+        this.conTiempo = new int[capacidad];
+        this.sumaTiempoMs = new long[capacidad];
+        this.totalPorDificultad = new int[capacidad * NUMERO_DIFICULTADES];
+        this.correctasPorDificultad = new int[capacidad * NUMERO_DIFICULTADES];
+        this.conTiempoPorDificultad = new int[capacidad * NUMERO_DIFICULTADES];
+        this.sumaTiempoMsPorDificultad = new long[capacidad * NUMERO_DIFICULTADES];
+    }
+    
+    /**
+     * Registra una respuesta en la cubeta correspondiente a su momento.
+     * Las respuestas más antiguas que la cubeta más vieja del anillo se ignoran.
+     * 
+     * @param momento Momento de la respuesta
+     * @param dificultad Dificultad de la pregunta
+     * @param correcta Si la respuesta fue correcta
+     * @param tiempoMs Tiempo de respuesta en ms, o un valor negativo si no es válido para promediar
+     */
+    public void registrar(LocalDateTime momento, Dificultad dificultad, boolean correcta, long tiempoMs) {
+        long cubeta = cubetaDe(momento);
+        avanzarHasta(cubeta);
+        if (cubeta <= cubetaMasReciente - capacidad) {
+            return;
+        }
+        
+        int posicion = (int) Math.floorMod(cubeta, (long) capacidad);
+        int posicionDificultad = posicion * NUMERO_DIFICULTADES + dificultad.ordinal();
+        
+        total[posicion]++;
+        totalPorDificultad[posicionDificultad]++;
+        if (correcta) {
+            correctas[posicion]++;
+            correctasPorDificultad[posicionDificultad]++;
+        }
+        if (tiempoMs >= 0) {
+            conTiempo[posicion]++;
+            sumaTiempoMs[posicion] += tiempoMs;
+            conTiempoPorDificultad[posicionDificultad]++;
+            sumaTiempoMsPorDificultad[posicionDificultad] += tiempoMs;
+        }
+    }
+    
+    /**
+     * Suma las últimas cubetas hasta el momento indicado (incluida la cubeta en curso).
+     * 
+     * @param ahora Momento de referencia
+     * @param numeroCubetas Número de cubetas a sumar (como máximo la capacidad del anillo)
+     * @param ventana Ventana a la que corresponde el resumen
+     * @return Estadísticas de la ventana sin usuario asignado
+     */
+    public EstadisticasVentana resumir(LocalDateTime ahora, int numeroCubetas, VentanaTiempo ventana) {
+        if (numeroCubetas <= 0 || numeroCubetas > capacidad) {
+            throw new IllegalArgumentException("El número de cubetas debe estar entre 1 y " + capacidad);
+        }
+        
+        long cubetaActual = cubetaDe(ahora);
+        avanzarHasta(cubetaActual);
+        
+        int sumaTotal = 0;
+        int sumaCorrectas = 0;
+        int sumaConTiempo = 0;
+        long sumaMs = 0;
+        int[] totalDif = new int[NUMERO_DIFICULTADES];
+        int[] correctasDif = new int[NUMERO_DIFICULTADES];
+        int[] conTiempoDif = new int[NUMERO_DIFICULTADES];
+        long[] sumaMsDif = new long[NUMERO_DIFICULTADES];
+        
+        for (long cubeta = cubetaActual - numeroCubetas + 1; cubeta <= cubetaActual; cubeta++) {
+            if (cubeta <= cubetaMasReciente - capacidad || cubeta > cubetaMasReciente) {
+                continue;
+            }
+            int posicion = (int) Math.floorMod(cubeta, (long) capacidad);
+            sumaTotal += total[posicion];
+            sumaCorrectas += correctas[posicion];
+            sumaConTiempo += conTiempo[posicion];
+            sumaMs += sumaTiempoMs[posicion];
+            
+            int base = posicion * NUMERO_DIFICULTADES;
+            for (int d = 0; d < NUMERO_DIFICULTADES; d++) {
+                totalDif[d] += totalPorDificultad[base + d];
+                correctasDif[d] += correctasPorDificultad[base + d];
+                conTiempoDif[d] += conTiempoPorDificultad[base + d];
+                sumaMsDif[d] += sumaTiempoMsPorDificultad[base + d];
+            }
+        }
+        
+        Map<Dificultad, EstadisticasPorDificultad> porDificultad = new EnumMap<>(Dificultad.class);
+        for (Dificultad dificultad : Dificultad.values()) {
+            int d = dificultad.ordinal();
+            if (totalDif[d] > 0) {
+                porDificultad.put(dificultad, new EstadisticasPorDificultad(
+                    dificultad, totalDif[d], correctasDif[d], promedio(sumaMsDif[d], conTiempoDif[d])));
+            }
+        }
+        
+        LocalDateTime desde = inicioDe(cubetaActual - numeroCubetas + 1);
+        return new EstadisticasVentana(null, ventana, desde, ahora, sumaTotal, sumaCorrectas,
+            promedio(sumaMs, sumaConTiempo), porDificultad);
+    }
+    
+    private void avanzarHasta(long cubeta) {
+        if (cubetaMasReciente == SIN_CUBETAS) {
+            cubetaMasReciente = cubeta;
+            return;
+        }
+        if (cubeta <= cubetaMasReciente) {
+            return;
+        }
+        
+        // Limpiar las cubetas que se reutilizan (como mucho todo el anillo)
+        long saltos = Math.min(cubeta - cubetaMasReciente, capacidad);
+        for (long i = 1; i <= saltos; i++) {
+            limpiar((int) Math.floorMod(cubetaMasReciente + i, (long) capacidad));
+        }
+        cubetaMasReciente = cubeta;
+    }
+    
+    private void limpiar(int posicion) {
+        total[posicion] = 0;
+        correctas[posicion] = 0;
+        conTiempo[posicion] = 0;
+        sumaTiempoMs[posicion] = 0;
+        int base = posicion * NUMERO_DIFICULTADES;
+        for (int d = 0; d < NUMERO_DIFICULTADES; d++) {
+            totalPorDificultad[base + d] = 0;
+            correctasPorDificultad[base + d] = 0;
+            conTiempoPorDificultad[base + d] = 0;
+            sumaTiempoMsPorDificultad[base + d] = 0;
+        }
+    }
+    
+    private long cubetaDe(LocalDateTime momento) {
+        // La hora local se trata como UTC para alinear las cubetas diarias a medianoche local
+        return Math.floorDiv(momento.toEpochSecond(ZoneOffset.UTC), anchoSegundos);
+    }
+    
+    private LocalDateTime inicioDe(long cubeta) {
+        return LocalDateTime.ofEpochSecond(cubeta * anchoSegundos, 0, ZoneOffset.UTC);
+    }
+    
+    private static Duration promedio(long sumaMs, int cantidad) {
+        return cantidad > 0 ? Duration.ofMillis(sumaMs / cantidad) : Duration.ZERO;
+    }
+}
@@ -0,0 +1,72 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.util.Objects;
+
+/**
+ * Clave de respuesta de una pregunta: la respuesta correcta, su posición entre las opciones
+ * (-1 si no se conoce), su explicación y el número de opciones (-1 si no se conoce), lo único
+ * que hace falta para validar una respuesta sin cargar la pregunta completa.
+ * 
+ * Objeto inmutable del dominio - sin anotaciones de frameworks externos.
+ */
+public record ClaveRespuesta(
+    String respuestaCorrecta,
+    String explicacion,
+    int indiceRespuestaCorrecta,
+    int numeroOpciones
+) {
+    
+    public ClaveRespuesta {
+        if (respuestaCorrecta == null) {
+            throw new IllegalArgumentException("La respuesta correcta no puede ser nula");
+        }
+    }
+    
+    /**
+     * Obtiene la clave de respuesta de una pregunta.
+     */
+    public static ClaveRespuesta de(Pregunta pregunta) {
+        return new ClaveRespuesta(pregunta.respuestaCorrecta(), pregunta.explicacion(),
+                                  pregunta.indiceRespuestaCorrecta(),
+                                  pregunta.opciones() != null ? pregunta.opciones().size() : 0);
+    }
+    
+    /**
+     * Verifica si se conoce la posición de la respuesta correcta.
+     */
+    public boolean tieneIndice() {
+        return indiceRespuestaCorrecta >= 0;
+    }
+    
+    /**
+     * Verifica si se conoce el número de opciones de la pregunta.
+     */
+    public boolean conoceOpciones() {
+        return numeroOpciones >= 0;
+    }
+    
+    /**
+     * Verifica si la posición corresponde a alguna de las opciones, con el mismo criterio que
+     * {@link Pregunta#tieneOpcion}. Sin número de opciones conocido no se puede comprobar.
+     */
+    public boolean tieneOpcion(int opcionIndex) {
+        return opcionIndex >= 0 && opcionIndex < numeroOpciones;
+    }
+    
+    /**
+     * Valida si una respuesta es correcta, con el mismo criterio que {@link Pregunta#validarRespuesta}.
+     */
+    public boolean esCorrecta(String respuestaDada) {
+        if (respuestaDada == null || respuestaDada.trim().isEmpty()) {
+            return false;
+        }
+        return Objects.equals(respuestaCorrecta.trim(), respuestaDada.trim());
+    }
+    
+    /**
+     * Valida si la opción seleccionada es la correcta, con el mismo criterio que {@link Pregunta#validarOpcion}.
+     */
+    public boolean esOpcionCorrecta(int opcionIndex) {
+        return tieneIndice() && opcionIndex == indiceRespuestaCorrecta;
+    }
+}
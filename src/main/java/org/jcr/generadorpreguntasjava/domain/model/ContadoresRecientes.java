@@ -0,0 +1,56 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Contadores de respuestas recientes de un usuario para las ventanas de {@link VentanaTiempo}.
+ * 
+ * Mantiene un anillo horario para la ventana de 24 horas y uno diario para las de 7 y 30
+ * días. Es thread-safe: registros y consultas se serializan por usuario.
+ */
+public final class ContadoresRecientes {
+    
+    private final Long usuarioId;
+    private final AnilloContadores porHora;
+    private final AnilloContadores porDia;
+    
+    public ContadoresRecientes(Long usuarioId) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        this.usuarioId = usuarioId;
+        this.porHora = new AnilloContadores(
+            VentanaTiempo.ULTIMAS_24_HORAS.getAnchoCubeta(), VentanaTiempo.ULTIMAS_24_HORAS.getNumeroCubetas());
+        this.porDia = new AnilloContadores(
+            VentanaTiempo.ULTIMOS_30_DIAS.getAnchoCubeta(), VentanaTiempo.ULTIMOS_30_DIAS.getNumeroCubetas());
+    }
+    
+    /**
+     * Registra una sesión completada. Las sesiones en progreso se ignoran y el tiempo
+     * solo se promedia si la respuesta es válida (igual que en las estadísticas globales).
+     */
+    public synchronized void registrar(SesionRespuesta sesion, Dificultad dificultad) {
+        if (sesion == null || !sesion.estaCompleta()) {
+            return;
+        }
+        
+        Dificultad dificultadEfectiva = dificultad != null ? dificultad : Dificultad.FACIL;
+        long tiempoMs = sesion.esRespuestaValida() ? sesion.getTiempoRespuestaMillis() : -1;
+        
+        porHora.registrar(sesion.finRespuesta(), dificultadEfectiva, sesion.esCorrecta(), tiempoMs);
+        porDia.registrar(sesion.finRespuesta(), dificultadEfectiva, sesion.esCorrecta(), tiempoMs);
+    }
+    
+    /**
+     * Obtiene las estadísticas de una ventana hasta el momento indicado.
+     */
+    public synchronized EstadisticasVentana resumir(VentanaTiempo ventana, LocalDateTime ahora) {
+        AnilloContadores anillo = ventana.getAnchoCubeta().equals(Duration.ofHours(1)) ? porHora : porDia;
+        return anillo.resumir(ahora, ventana.getNumeroCubetas(), ventana).withUsuarioId(usuarioId);
+    }
+    
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+}
@@ -0,0 +1,75 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor de paginación del historial de sesiones sobre la clave (fin de respuesta, id).
+ * 
+ * El historial se recorre de la sesión más reciente a la más antigua: la página siguiente
+ * empieza en las sesiones estrictamente anteriores a este cursor. Como la clave es única
+ * (el id desempata), ninguna sesión se repite ni se salta aunque se inserten sesiones nuevas.
+ * 
+ * Se expone a los clientes como una cadena opaca en Base64 URL-safe.
+ */
+public record CursorHistorial(LocalDateTime finRespuesta, Long sesionId) {
+    
+    private static final String SEPARADOR = "|";
+    
+    public CursorHistorial {
+        if (finRespuesta == null) {
+            throw new IllegalArgumentException("El fin de respuesta del cursor no puede ser nulo");
+        }
+        if (sesionId == null) {
+            throw new IllegalArgumentException("El ID de sesión del cursor no puede ser nulo");
+        }
+    }
+    
+    /**
+     * Crea el cursor que apunta a una sesión completada.
+     */
+    public static CursorHistorial desde(SesionRespuesta sesion) {
+        return new CursorHistorial(sesion.finRespuesta(), sesion.id());
+    }
+    
+    /**
+     * Codifica el cursor como cadena opaca para el cliente.
+     */
+    public String codificar() {
+        String valor = finRespuesta + SEPARADOR + sesionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodifica un cursor recibido del cliente.
+     * 
+     * @param cursor Cadena devuelta por {@link #codificar()}
+     * @return Cursor decodificado
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static CursorHistorial decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            throw new IllegalArgumentException("El cursor no puede estar vacío");
+        }
+        
+        String valor;
+        try {
+            valor = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+        
+        try {
+            int separador = valor.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            }
+            return new CursorHistorial(LocalDateTime.parse(valor.substring(0, separador)),
+                                       Long.parseLong(valor.substring(separador + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+}
@@ -6,20 +6,29 @@ package org.jcr.generadorpreguntasjava.domain.model;
  * Entidad del dominio - sin anotaciones de frameworks externos.
  */
 public enum Dificultad {
-    FACIL("Fácil"),
-    MEDIA("Media"),
-    DIFICIL("Difícil");
+    FACIL("Fácil", 80.0),
+    MEDIA("Media", 60.0),
+    DIFICIL("Difícil", 40.0);
     
     private final String descripcion;
+    private final double porcentajeAciertosEsperado;
     
-    Dificultad(String descripcion) {
+    Dificultad(String descripcion, double porcentajeAciertosEsperado) {
         this.descripcion = descripcion;
+        this.porcentajeAciertosEsperado = porcentajeAciertosEsperado;
     }
     
     public String getDescripcion() {
         return descripcion;
     }
     
+    /**
+     * Porcentaje de aciertos esperado para una pregunta bien calibrada de esta dificultad.
+     */
+    public double getPorcentajeAciertosEsperado() {
+        return porcentajeAciertosEsperado;
+    }
+    
     public static Dificultad fromString(String value) {
         if (value == null) {
             return null;
@@ -10,8 +10,22 @@ public record EstadisticasPorDificultad(
     int totalPreguntas,
     int respuestasCorrectas,
     double porcentajeAciertos,
-    Duration tiempoPromedio
+    Duration tiempoPromedio,
+    HistogramaTiempos histograma
 ) {
+    public EstadisticasPorDificultad {
+        if (tiempoPromedio == null) tiempoPromedio = Duration.ZERO;
+        if (histograma == null) histograma = HistogramaTiempos.vacio();
+    }
+    
+    /**
+     * Constructor sin histograma (estadísticas previas a los histogramas de tiempo).
+     */
+    public EstadisticasPorDificultad(Dificultad dificultad, int totalPreguntas, int respuestasCorrectas,
+                                   double porcentajeAciertos, Duration tiempoPromedio) {
+        this(dificultad, totalPreguntas, respuestasCorrectas, porcentajeAciertos, tiempoPromedio,
+             HistogramaTiempos.vacio());
+    }
     
     /**
      * Constructor que calcula automáticamente el porcentaje.
@@ -23,11 +37,34 @@ public record EstadisticasPorDificultad(
              tiempoPromedio);
     }
     
+    /**
+     * Constructor que calcula porcentaje y tiempo promedio a partir del histograma de tiempos.
+     */
+    public EstadisticasPorDificultad(Dificultad dificultad, int totalPreguntas,
+                                   int respuestasCorrectas, HistogramaTiempos histograma) {
+        this(dificultad, totalPreguntas, respuestasCorrectas,
+             totalPreguntas > 0 ? (double) respuestasCorrectas / totalPreguntas * 100.0 : 0.0,
+             histograma != null ? histograma.getPromedio() : Duration.ZERO,
+             histograma);
+    }
+    
+    /**
+     * Devuelve nuevas estadísticas con una respuesta más registrada.
+     * 
+     * @param correcta Si la respuesta fue correcta
+     * @param tiempo Tiempo de respuesta, o null si no es un tiempo válido para promediar
+     */
+    public EstadisticasPorDificultad registrarRespuesta(boolean correcta, Duration tiempo) {
+        HistogramaTiempos nuevoHistograma = tiempo != null ? histograma.registrar(tiempo) : histograma;
+        return new EstadisticasPorDificultad(dificultad, totalPreguntas + 1,
+            respuestasCorrectas + (correcta ? 1 : 0), nuevoHistograma);
+    }
+    
     /**
      * Crea estadísticas vacías para una dificultad.
      */
     public static EstadisticasPorDificultad vacia(Dificultad dificultad) {
-        return new EstadisticasPorDificultad(dificultad, 0, 0, 0.0, Duration.ZERO);
+        return new EstadisticasPorDificultad(dificultad, 0, 0, 0.0, Duration.ZERO, HistogramaTiempos.vacio());
     }
     
     /**
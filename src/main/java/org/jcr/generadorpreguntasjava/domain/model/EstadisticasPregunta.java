@@ -0,0 +1,131 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Record que representa las estadísticas agregadas de una pregunta: intentos, aciertos,
+ * distribución de tiempos y reparto de respuestas entre sus 4 opciones.
+ * 
+ * Permite contrastar la dificultad asignada al generar la pregunta con la observada.
+ * {@code offsetDiario} es el último offset del diario de respuestas que reflejan
+ * ({@link EventoRespuesta#SIN_OFFSET} si no se conoce).
+ */
+public record EstadisticasPregunta(
+    Long preguntaId,
+    Dificultad dificultad,
+    int intentos,
+    int aciertos,
+    List<Integer> respuestasPorOpcion,
+    HistogramaTiempos histograma,
+    LocalDateTime ultimaActualizacion,
+    long offsetDiario
+) {
+    public static final int NUMERO_OPCIONES = 4;
+    
+    public EstadisticasPregunta {
+        if (histograma == null) histograma = HistogramaTiempos.vacio();
+        if (respuestasPorOpcion == null || respuestasPorOpcion.isEmpty()) {
+            respuestasPorOpcion = Collections.nCopies(NUMERO_OPCIONES, 0);
+        }
+        respuestasPorOpcion = List.copyOf(respuestasPorOpcion);
+        if (ultimaActualizacion == null) ultimaActualizacion = LocalDateTime.now();
+    }
+    
+    /**
+     * Constructor sin offset del diario.
+     */
+    public EstadisticasPregunta(Long preguntaId, Dificultad dificultad, int intentos, int aciertos,
+                                List<Integer> respuestasPorOpcion, HistogramaTiempos histograma,
+                                LocalDateTime ultimaActualizacion) {
+        this(preguntaId, dificultad, intentos, aciertos, respuestasPorOpcion, histograma, ultimaActualizacion,
+             EventoRespuesta.SIN_OFFSET);
+    }
+    
+    /**
+     * Crea estadísticas vacías para una pregunta.
+     */
+    public static EstadisticasPregunta vacia(Long preguntaId, Dificultad dificultad) {
+        return new EstadisticasPregunta(preguntaId, dificultad, 0, 0, null, HistogramaTiempos.vacio(), null);
+    }
+    
+    /**
+     * Devuelve nuevas estadísticas con una respuesta más registrada.
+     * 
+     * @param indiceOpcion Posición de la opción elegida (0-3), o -1 si no se puede determinar
+     * @param correcta Si la respuesta fue correcta
+     * @param tiempo Tiempo de respuesta, o null si no es un tiempo válido
+     */
+    public EstadisticasPregunta registrarRespuesta(int indiceOpcion, boolean correcta, Duration tiempo) {
+        List<Integer> opciones = respuestasPorOpcion;
+        if (indiceOpcion >= 0 && indiceOpcion < NUMERO_OPCIONES) {
+            opciones = new ArrayList<>(respuestasPorOpcion);
+            opciones.set(indiceOpcion, opciones.get(indiceOpcion) + 1);
+        }
+        return new EstadisticasPregunta(
+            preguntaId, dificultad, intentos + 1, aciertos + (correcta ? 1 : 0), opciones,
+            tiempo != null ? histograma.registrar(tiempo) : histograma,
+            LocalDateTime.now(),
+            offsetDiario
+        );
+    }
+    
+    /**
+     * Devuelve las estadísticas marcadas como reflejo del diario hasta el offset indicado,
+     * sin retroceder si ya reflejan uno posterior.
+     */
+    public EstadisticasPregunta conOffsetDiario(long offset) {
+        if (offset <= offsetDiario) {
+            return this;
+        }
+        return new EstadisticasPregunta(preguntaId, dificultad, intentos, aciertos, respuestasPorOpcion,
+                                        histograma, ultimaActualizacion, offset);
+    }
+    
+    /**
+     * Obtiene el porcentaje de aciertos observado.
+     */
+    public double porcentajeAciertos() {
+        return intentos > 0 ? (double) aciertos / intentos * 100.0 : 0.0;
+    }
+    
+    /**
+     * Obtiene la desviación (en puntos porcentuales) entre el porcentaje de aciertos
+     * observado y el esperado para la dificultad asignada.
+     */
+    public double desviacionCalibracion() {
+        if (intentos == 0 || dificultad == null) {
+            return 0.0;
+        }
+        return Math.abs(porcentajeAciertos() - dificultad.getPorcentajeAciertosEsperado());
+    }
+    
+    /**
+     * Obtiene la dificultad cuyo porcentaje esperado está más cerca del observado.
+     */
+    public Dificultad dificultadObservada() {
+        if (intentos == 0) {
+            return dificultad;
+        }
+        Dificultad masCercana = dificultad;
+        double menorDistancia = Double.MAX_VALUE;
+        for (Dificultad candidata : Dificultad.values()) {
+            double distancia = Math.abs(porcentajeAciertos() - candidata.getPorcentajeAciertosEsperado());
+            if (distancia < menorDistancia) {
+                menorDistancia = distancia;
+                masCercana = candidata;
+            }
+        }
+        return masCercana;
+    }
+    
+    /**
+     * Verifica si la dificultad observada coincide con la asignada.
+     */
+    public boolean estaBienCalibrada() {
+        return dificultadObservada() == dificultad;
+    }
+}
@@ -2,11 +2,15 @@ package org.jcr.generadorpreguntasjava.domain.model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Entidad de dominio que representa las estadísticas agregadas de un usuario.
  * Estas estadísticas se calculan en base a las sesiones de respuesta.
+ *
+ * {@code offsetDiario} es el último offset del diario de respuestas que reflejan: los eventos
+ * del usuario hasta él ya están contados ({@link EventoRespuesta#SIN_OFFSET} si no se conoce).
  */
 public record EstadisticasUsuario(
     Long usuarioId,
@@ -16,13 +20,40 @@ public record EstadisticasUsuario(
     Duration tiempoPromedio,
     Map<Dificultad, EstadisticasPorDificultad> porDificultad,
     Map<String, EstadisticasPorTematica> porTematica,
-    LocalDateTime ultimaActualizacion
+    LocalDateTime ultimaActualizacion,
+    HistogramaTiempos histogramaTiempos,
+    long offsetDiario
 ) {
     public EstadisticasUsuario {
         if (porDificultad == null) porDificultad = Map.of();
         if (porTematica == null) porTematica = Map.of();
         if (tiempoPromedio == null) tiempoPromedio = Duration.ZERO;
         if (ultimaActualizacion == null) ultimaActualizacion = LocalDateTime.now();
+        if (histogramaTiempos == null) histogramaTiempos = HistogramaTiempos.vacio();
+    }
+    
+    /**
+     * Constructor sin offset del diario.
+     */
+    public EstadisticasUsuario(Long usuarioId, int totalPreguntas, int respuestasCorrectas,
+                              double porcentajeAciertos, Duration tiempoPromedio,
+                              Map<Dificultad, EstadisticasPorDificultad> porDificultad,
+                              Map<String, EstadisticasPorTematica> porTematica,
+                              LocalDateTime ultimaActualizacion, HistogramaTiempos histogramaTiempos) {
+        this(usuarioId, totalPreguntas, respuestasCorrectas, porcentajeAciertos, tiempoPromedio,
+             porDificultad, porTematica, ultimaActualizacion, histogramaTiempos, EventoRespuesta.SIN_OFFSET);
+    }
+    
+    /**
+     * Constructor sin histograma de tiempos.
+     */
+    public EstadisticasUsuario(Long usuarioId, int totalPreguntas, int respuestasCorrectas,
+                              double porcentajeAciertos, Duration tiempoPromedio,
+                              Map<Dificultad, EstadisticasPorDificultad> porDificultad,
+                              Map<String, EstadisticasPorTematica> porTematica,
+                              LocalDateTime ultimaActualizacion) {
+        this(usuarioId, totalPreguntas, respuestasCorrectas, porcentajeAciertos, tiempoPromedio,
+             porDificultad, porTematica, ultimaActualizacion, HistogramaTiempos.vacio());
     }
 
     /**
@@ -30,7 +61,7 @@ public record EstadisticasUsuario(
      */
     public EstadisticasUsuario(Long usuarioId) {
         this(usuarioId, 0, 0, 0.0, Duration.ZERO, 
-             Map.of(), Map.of(), LocalDateTime.now());
+             Map.of(), Map.of(), LocalDateTime.now(), HistogramaTiempos.vacio());
     }
     
     /**
@@ -44,6 +75,93 @@ public record EstadisticasUsuario(
              tiempoPromedio, porDificultad, porTematica, LocalDateTime.now());
     }
     
+    /**
+     * Constructor a partir de contadores y del histograma de tiempos (calcula porcentaje y promedio).
+     */
+    public EstadisticasUsuario(Long usuarioId, int totalPreguntas, int respuestasCorrectas,
+                              Map<Dificultad, EstadisticasPorDificultad> porDificultad,
+                              Map<String, EstadisticasPorTematica> porTematica,
+                              HistogramaTiempos histogramaTiempos) {
+        this(usuarioId, totalPreguntas, respuestasCorrectas, porDificultad, porTematica, histogramaTiempos,
+             EventoRespuesta.SIN_OFFSET);
+    }
+    
+    /**
+     * Constructor a partir de contadores, del histograma de tiempos y del offset del diario.
+     */
+    public EstadisticasUsuario(Long usuarioId, int totalPreguntas, int respuestasCorrectas,
+                              Map<Dificultad, EstadisticasPorDificultad> porDificultad,
+                              Map<String, EstadisticasPorTematica> porTematica,
+                              HistogramaTiempos histogramaTiempos, long offsetDiario) {
+        this(usuarioId, totalPreguntas, respuestasCorrectas,
+             totalPreguntas > 0 ? (double) respuestasCorrectas / totalPreguntas * 100.0 : 0.0,
+             histogramaTiempos != null ? histogramaTiempos.getPromedio() : Duration.ZERO,
+             porDificultad, porTematica, LocalDateTime.now(), histogramaTiempos, offsetDiario);
+    }
+    
+    /**
+     * Devuelve nuevas estadísticas con una respuesta completada más, sin recalcular desde las sesiones.
+     * El tiempo solo se acumula en los histogramas si la respuesta tiene un tiempo razonable.
+     * 
+     * @param sesion Sesión completada
+     * @param dificultad Dificultad de la pregunta respondida
+     * @param tematica Temática principal de la pregunta respondida
+     * @return Estadísticas actualizadas
+     */
+    public EstadisticasUsuario registrarRespuesta(SesionRespuesta sesion, Dificultad dificultad, String tematica) {
+        if (sesion == null || !sesion.estaCompleta()) {
+            throw new IllegalArgumentException("Solo se pueden registrar sesiones completadas");
+        }
+        
+        boolean correcta = sesion.esCorrecta();
+        Duration tiempo = sesion.esRespuestaValida() ? sesion.tiempoRespuesta() : null;
+        
+        Map<Dificultad, EstadisticasPorDificultad> nuevasPorDificultad = new HashMap<>(porDificultad);
+        nuevasPorDificultad.put(dificultad, nuevasPorDificultad
+            .getOrDefault(dificultad, EstadisticasPorDificultad.vacia(dificultad))
+            .registrarRespuesta(correcta, tiempo));
+        
+        Map<String, EstadisticasPorTematica> nuevasPorTematica = new HashMap<>(porTematica);
+        nuevasPorTematica.put(tematica, nuevasPorTematica
+            .getOrDefault(tematica, EstadisticasPorTematica.vacia(tematica))
+            .registrarRespuesta(correcta, tiempo));
+        
+        return new EstadisticasUsuario(
+            usuarioId,
+            totalPreguntas + 1,
+            respuestasCorrectas + (correcta ? 1 : 0),
+            nuevasPorDificultad,
+            nuevasPorTematica,
+            tiempo != null ? histogramaTiempos.registrar(tiempo) : histogramaTiempos,
+            offsetDiario
+        );
+    }
+    
+    /**
+     * Devuelve las estadísticas marcadas como reflejo del diario hasta el offset indicado.
+     * El offset nunca retrocede: si ya reflejan un offset posterior se conserva.
+     * 
+     * @param offset Último offset del diario que reflejan
+     * @return Estadísticas con el offset actualizado
+     */
+    public EstadisticasUsuario conOffsetDiario(long offset) {
+        if (offset <= offsetDiario) {
+            return this;
+        }
+        return new EstadisticasUsuario(usuarioId, totalPreguntas, respuestasCorrectas, porcentajeAciertos,
+                                       tiempoPromedio, porDificultad, porTematica, ultimaActualizacion,
+                                       histogramaTiempos, offset);
+    }
+    
+    /**
+     * Verifica si las estadísticas pueden actualizarse de forma incremental.
+     * Las estadísticas guardadas antes de existir los histogramas tienen un tiempo promedio
+     * sin histograma que lo respalde y necesitan un recálculo completo.
+     */
+    public boolean admiteActualizacionIncremental() {
+        return totalPreguntas == 0 || !histogramaTiempos.estaVacio() || tiempoPromedio.isZero();
+    }
+    
     /**
      * Calcula el porcentaje de aciertos.
      */
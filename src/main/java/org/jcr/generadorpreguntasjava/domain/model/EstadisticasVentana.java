@@ -0,0 +1,47 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Record que representa las estadísticas de un usuario en una ventana de tiempo reciente
+ * (últimas 24 horas, 7 días o 30 días).
+ */
+public record EstadisticasVentana(
+    Long usuarioId,
+    VentanaTiempo ventana,
+    LocalDateTime desde,
+    LocalDateTime hasta,
+    int totalPreguntas,
+    int respuestasCorrectas,
+    Duration tiempoPromedio,
+    Map<Dificultad, EstadisticasPorDificultad> porDificultad
+) {
+    public EstadisticasVentana {
+        if (tiempoPromedio == null) tiempoPromedio = Duration.ZERO;
+        porDificultad = porDificultad != null ? Map.copyOf(porDificultad) : Map.of();
+    }
+    
+    /**
+     * Crea una copia de las estadísticas asignadas a un usuario.
+     */
+    public EstadisticasVentana withUsuarioId(Long nuevoUsuarioId) {
+        return new EstadisticasVentana(nuevoUsuarioId, ventana, desde, hasta, totalPreguntas,
+                                      respuestasCorrectas, tiempoPromedio, porDificultad);
+    }
+    
+    /**
+     * Obtiene el porcentaje de aciertos en la ventana.
+     */
+    public double porcentajeAciertos() {
+        return totalPreguntas > 0 ? (double) respuestasCorrectas / totalPreguntas * 100.0 : 0.0;
+    }
+    
+    /**
+     * Verifica si hay respuestas en la ventana.
+     */
+    public boolean tieneDatos() {
+        return totalPreguntas > 0;
+    }
+}
@@ -0,0 +1,87 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Evento inmutable de una respuesta completada, tal como se anota en el diario de respuestas.
+ *
+ * Contiene solo los campos de tamaño fijo que necesitan los agregados: la pregunta ya
+ * clasificada por dificultad y temática principal, el acierto, el tiempo, el instante y la
+ * posición de la opción elegida (-1 si no se conoce, como en los eventos anteriores a ella).
+ * La temática se identifica por su ID ({@link #SIN_TEMATICA} si la pregunta no tiene).
+ */
+public record EventoRespuesta(
+    long usuarioId,
+    long preguntaId,
+    Dificultad dificultad,
+    long tematicaId,
+    boolean correcta,
+    int tiempoMs,
+    long instanteMs,
+    int indiceOpcion
+) {
+
+    /** ID de temática de las preguntas sin temática. */
+    public static final long SIN_TEMATICA = 0L;
+
+    /** Offset del diario de unas estadísticas que no reflejan ningún evento conocido. */
+    public static final long SIN_OFFSET = -1L;
+
+    public EventoRespuesta {
+        if (dificultad == null) {
+            throw new IllegalArgumentException("La dificultad del evento no puede ser nula");
+        }
+        if (tiempoMs < 0) {
+            throw new IllegalArgumentException("El tiempo de respuesta no puede ser negativo");
+        }
+        if (indiceOpcion < -1) {
+            throw new IllegalArgumentException("La posición de la opción no puede ser menor que -1");
+        }
+    }
+
+    /**
+     * Constructor sin la opción elegida.
+     */
+    public EventoRespuesta(long usuarioId, long preguntaId, Dificultad dificultad, long tematicaId,
+                           boolean correcta, int tiempoMs, long instanteMs) {
+        this(usuarioId, preguntaId, dificultad, tematicaId, correcta, tiempoMs, instanteMs, -1);
+    }
+
+    /**
+     * Crea el evento de una sesión completada con la clasificación de su pregunta.
+     *
+     * @param sesion Sesión completada
+     * @param pregunta Pregunta de la sesión
+     * @return Evento de la respuesta
+     */
+    public static EventoRespuesta desde(SesionRespuesta sesion, Pregunta pregunta) {
+        if (sesion == null || !sesion.estaCompleta()) {
+            throw new IllegalArgumentException("Solo se pueden anotar sesiones completadas");
+        }
+        Dificultad dificultad = pregunta.dificultad() != null ? pregunta.dificultad() : Dificultad.FACIL;
+        Tematica principal = pregunta.getTematicaPrincipal();
+        long tematicaId = principal != null && principal.id() != null ? principal.id() : SIN_TEMATICA;
+        int tiempoMs = (int) Math.max(0, Math.min(sesion.getTiempoRespuestaMillis(), Integer.MAX_VALUE));
+        long instanteMs = sesion.finRespuesta().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        return new EventoRespuesta(sesion.usuarioId(), sesion.preguntaId(), dificultad, tematicaId,
+                                   sesion.esCorrecta(), tiempoMs, instanteMs, sesion.indiceOpcionEn(pregunta));
+    }
+
+    /**
+     * Reconstruye la sesión completada del evento para aplicarla a agregados que trabajan
+     * con sesiones. La respuesta seleccionada no se anota en el diario y queda vacía.
+     */
+    public SesionRespuesta aSesion() {
+        LocalDateTime fin = LocalDateTime.ofInstant(Instant.ofEpochMilli(instanteMs), ZoneId.systemDefault());
+        Duration tiempo = Duration.ofMillis(tiempoMs);
+        return new SesionRespuesta(usuarioId, preguntaId, "", correcta, fin.minus(tiempo), fin, tiempo);
+    }
+
+    public boolean tieneTematica() {
+        return tematicaId != SIN_TEMATICA;
+    }
+}
@@ -0,0 +1,38 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales del historial de sesiones completadas de un usuario.
+ * Un campo nulo significa que no se filtra por él.
+ * 
+ * @param dificultad Dificultad de la pregunta
+ * @param tematica Nombre de alguna de las temáticas de la pregunta
+ * @param correcta Si la respuesta fue correcta
+ * @param desde Fin de respuesta mínimo (inclusive)
+ * @param hasta Fin de respuesta máximo (inclusive)
+ */
+public record FiltroHistorialSesiones(
+    Dificultad dificultad,
+    String tematica,
+    Boolean correcta,
+    LocalDateTime desde,
+    LocalDateTime hasta
+) {
+    
+    public FiltroHistorialSesiones {
+        if (tematica != null && tematica.isBlank()) {
+            tematica = null;
+        }
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+    }
+    
+    /**
+     * Filtro que no restringe ninguna sesión.
+     */
+    public static FiltroHistorialSesiones sinFiltros() {
+        return new FiltroHistorialSesiones(null, null, null, null, null);
+    }
+}
@@ -0,0 +1,335 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Histograma de tiempos de respuesta con cubetas logarítmicas (estilo HdrHistogram).
+ *
+ * Los valores se registran en milisegundos: de 0 a 31 ms cada cubeta es exacta y a partir
+ * de ahí cada potencia de dos se divide en 16 sub-cubetas, con un error relativo máximo
+ * de ~6%. Es combinable (la suma de dos histogramas es el histograma de la unión) y se
+ * codifica en un formato binario disperso de pocos cientos de bytes.
+ *
+ * Objeto inmutable del dominio - sin anotaciones de frameworks externos.
+ */
+public final class HistogramaTiempos {
+
+    private static final int BITS_SUB_CUBETA = 5;
+    private static final int SUB_CUBETAS = 1 << BITS_SUB_CUBETA;
+    private static final int MEDIA_SUB_CUBETAS = SUB_CUBETAS / 2;
+
+    /** Valor máximo registrable (~70 minutos); los valores mayores se acumulan en la última cubeta. */
+    public static final long VALOR_MAXIMO_MS = (1L << 22) - 1;
+
+    private static final int NUMERO_CUBETAS = indiceCubeta(VALOR_MAXIMO_MS) + 1;
+
+    private static final byte VERSION_FORMATO = 1;
+
+    private static final HistogramaTiempos VACIO = new HistogramaTiempos(new long[NUMERO_CUBETAS], 0, 0);
+
+    private final long[] cubetas;
+    private final long total;
+    private final long sumaMillis;
+
+    private HistogramaTiempos(long[] cubetas, long total, long sumaMillis) {
+        this.cubetas = cubetas;
+        this.total = total;
+        this.sumaMillis = sumaMillis;
+    }
+
+    /**
+     * Crea un histograma sin registros.
+     */
+    public static HistogramaTiempos vacio() {
+        return VACIO;
+    }
+
+    /**
+     * Devuelve un nuevo histograma con el tiempo indicado registrado.
+     */
+    public HistogramaTiempos registrar(Duration tiempo) {
+        return registrar(tiempo != null ? tiempo.toMillis() : 0);
+    }
+
+    /**
+     * Devuelve un nuevo histograma con el valor en milisegundos registrado.
+     */
+    public HistogramaTiempos registrar(long millis) {
+        long valor = Math.max(0, Math.min(millis, VALOR_MAXIMO_MS));
+        long[] copia = cubetas.clone();
+        copia[indiceCubeta(valor)]++;
+        return new HistogramaTiempos(copia, total + 1, sumaMillis + valor);
+    }
+
+    /**
+     * Combina este histograma con otro (la suma cubeta a cubeta).
+     */
+    public HistogramaTiempos combinar(HistogramaTiempos otro) {
+        if (otro == null || otro.total == 0) {
+            return this;
+        }
+        if (this.total == 0) {
+            return otro;
+        }
+
+        long[] suma = cubetas.clone();
+        for (int i = 0; i < NUMERO_CUBETAS; i++) {
+            suma[i] += otro.cubetas[i];
+        }
+        return new HistogramaTiempos(suma, total + otro.total, sumaMillis + otro.sumaMillis);
+    }
+
+    /**
+     * Obtiene el valor (en milisegundos) bajo el cual cae el percentil indicado.
+     *
+     * @param percentil Valor entre 0 y 100
+     * @return Punto medio de la cubeta que contiene el percentil, o 0 si no hay registros
+     */
+    public long percentil(double percentil) {
+        if (percentil < 0.0 || percentil > 100.0) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100");
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < NUMERO_CUBETAS; i++) {
+            acumulado += cubetas[i];
+            if (acumulado >= objetivo) {
+                return valorMedioCubeta(i);
+            }
+        }
+        return valorMedioCubeta(NUMERO_CUBETAS - 1);
+    }
+
+    public long getP50Millis() {
+        return percentil(50.0);
+    }
+
+    public long getP90Millis() {
+        return percentil(90.0);
+    }
+
+    public long getP99Millis() {
+        return percentil(99.0);
+    }
+
+    /**
+     * Obtiene el número total de valores registrados.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene la suma exacta de los valores registrados, en ms.
+     */
+    public long getSumaMillis() {
+        return sumaMillis;
+    }
+
+    /**
+     * Obtiene el tiempo promedio exacto (la suma se guarda aparte de las cubetas).
+     */
+    public Duration getPromedio() {
+        return total > 0 ? Duration.ofMillis(sumaMillis / total) : Duration.ZERO;
+    }
+
+    /**
+     * Verifica si el histograma no tiene registros.
+     */
+    public boolean estaVacio() {
+        return total == 0;
+    }
+
+    /**
+     * Estimación de la memoria ocupada por el histograma, en bytes.
+     * El histograma vacío es compartido y no cuenta.
+     */
+    public long estimarBytes() {
+        return this == VACIO ? 0 : 48L + cubetas.length * 8L;
+    }
+
+    /**
+     * Crea un acumulador mutable para construir un histograma registrando muchos valores
+     * sin copiar las cubetas en cada registro.
+     */
+    public static Acumulador acumulador() {
+        return new Acumulador();
+    }
+
+    /**
+     * Acumulador mutable (no thread-safe) para construir histogramas en bloque.
+     */
+    public static final class Acumulador {
+
+        private final long[] cubetas = new long[NUMERO_CUBETAS];
+        private long total;
+        private long sumaMillis;
+
+        private Acumulador() {
+        }
+
+        public Acumulador registrar(long millis) {
+            long valor = Math.max(0, Math.min(millis, VALOR_MAXIMO_MS));
+            cubetas[indiceCubeta(valor)]++;
+            total++;
+            sumaMillis += valor;
+            return this;
+        }
+
+        public Acumulador combinar(HistogramaTiempos otro) {
+            if (otro != null && otro.total > 0) {
+                for (int i = 0; i < NUMERO_CUBETAS; i++) {
+                    cubetas[i] += otro.cubetas[i];
+                }
+                total += otro.total;
+                sumaMillis += otro.sumaMillis;
+            }
+            return this;
+        }
+
+        public HistogramaTiempos construir() {
+            return total == 0 ? VACIO : new HistogramaTiempos(cubetas.clone(), total, sumaMillis);
+        }
+    }
+
+    // ===== CODIFICACIÓN BINARIA =====
+
+    /**
+     * Codifica el histograma en formato binario compacto.
+     *
+     * Formato: versión (1 byte), suma en ms (varint), número de cubetas no vacías (varint)
+     * y por cada una el salto de índice respecto a la anterior y su contador (ambos varint).
+     */
+    public byte[] codificar() {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(16);
+        salida.write(VERSION_FORMATO);
+        escribirVarint(salida, sumaMillis);
+
+        int noVacias = 0;
+        for (long contador : cubetas) {
+            if (contador > 0) noVacias++;
+        }
+        escribirVarint(salida, noVacias);
+
+        int anterior = 0;
+        for (int i = 0; i < NUMERO_CUBETAS; i++) {
+            if (cubetas[i] > 0) {
+                escribirVarint(salida, i - anterior);
+                escribirVarint(salida, cubetas[i]);
+                anterior = i;
+            }
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Decodifica un histograma generado por {@link #codificar()}.
+     *
+     * @param datos Bytes codificados (null o vacío equivale a un histograma vacío)
+     * @return Histograma decodificado
+     */
+    public static HistogramaTiempos decodificar(byte[] datos) {
+        if (datos == null || datos.length == 0) {
+            return VACIO;
+        }
+        if (datos[0] != VERSION_FORMATO) {
+            throw new IllegalArgumentException("Versión de histograma no soportada: " + datos[0]);
+        }
+
+        int[] posicion = {1};
+        long suma = leerVarint(datos, posicion);
+        long noVacias = leerVarint(datos, posicion);
+
+        long[] cubetas = new long[NUMERO_CUBETAS];
+        long total = 0;
+        int indice = 0;
+        for (long i = 0; i < noVacias; i++) {
+            indice += (int) leerVarint(datos, posicion);
+            if (indice < 0 || indice >= NUMERO_CUBETAS) {
+                throw new IllegalArgumentException("Índice de cubeta fuera de rango: " + indice);
+            }
+            long contador = leerVarint(datos, posicion);
+            cubetas[indice] = contador;
+            total += contador;
+        }
+        return new HistogramaTiempos(cubetas, total, suma);
+    }
+
+    /**
+     * Escribe un entero sin signo en formato varint (7 bits por byte).
+     */
+    public static void escribirVarint(ByteArrayOutputStream salida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            salida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.write((int) valor);
+    }
+
+    /**
+     * Lee un entero varint avanzando la posición indicada.
+     */
+    public static long leerVarint(byte[] datos, int[] posicion) {
+        long resultado = 0;
+        int desplazamiento = 0;
+        while (true) {
+            if (posicion[0] >= datos.length || desplazamiento > 63) {
+                throw new IllegalArgumentException("Varint truncado o inválido");
+            }
+            byte b = datos[posicion[0]++];
+            resultado |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return resultado;
+            }
+            desplazamiento += 7;
+        }
+    }
+
+    // ===== CÁLCULO DE CUBETAS =====
+
+    private static int indiceCubeta(long valor) {
+        if (valor < SUB_CUBETAS) {
+            return (int) valor;
+        }
+        int bitMasAlto = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = bitMasAlto - (BITS_SUB_CUBETA - 1);
+        int superior = (int) (valor >>> desplazamiento);
+        return SUB_CUBETAS + (desplazamiento - 1) * MEDIA_SUB_CUBETAS + (superior - MEDIA_SUB_CUBETAS);
+    }
+
+    private static long valorMedioCubeta(int indice) {
+        if (indice < SUB_CUBETAS) {
+            return indice;
+        }
+        int relativo = indice - SUB_CUBETAS;
+        int desplazamiento = relativo / MEDIA_SUB_CUBETAS + 1;
+        long superior = relativo % MEDIA_SUB_CUBETAS + MEDIA_SUB_CUBETAS;
+        long inferior = superior << desplazamiento;
+        long ancho = 1L << desplazamiento;
+        return inferior + ancho / 2;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistogramaTiempos that)) return false;
+        return total == that.total && sumaMillis == that.sumaMillis && Arrays.equals(cubetas, that.cubetas);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(total) + Arrays.hashCode(cubetas);
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramaTiempos[total=" + total + ", p50=" + getP50Millis() +
+               "ms, p90=" + getP90Millis() + "ms, p99=" + getP99Millis() + "ms]";
+    }
+}
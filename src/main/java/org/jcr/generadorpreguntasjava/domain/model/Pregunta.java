@@ -16,9 +16,30 @@ public record Pregunta(
     String respuestaCorrecta,
     String explicacion,
     List<Opcion> opciones,
-    List<Tematica> tematicas
+    List<Tematica> tematicas,
+    int indiceRespuestaCorrecta
 ) {
     
+    /**
+     * Si no se indica la posición de la respuesta correcta (valor negativo), se calcula a partir
+     * de las opciones; queda en -1 si la respuesta no coincide con ninguna.
+     */
+    public Pregunta {
+        if (indiceRespuestaCorrecta < 0) {
+            indiceRespuestaCorrecta = buscarOpcion(opciones, respuestaCorrecta);
+        }
+    }
+    
+    /**
+     * Constructor sin la posición de la respuesta correcta, que se calcula a partir de las opciones.
+     */
+    public Pregunta(Long id, String codigoJava, String enunciado, Dificultad dificultad,
+                   String respuestaCorrecta, String explicacion,
+                   List<Opcion> opciones, List<Tematica> tematicas) {
+        this(id, codigoJava, enunciado, dificultad, respuestaCorrecta,
+             explicacion, opciones, tematicas, -1);
+    }
+    
     /**
      * Constructor para crear una nueva pregunta sin ID (para persistir).
      */
@@ -35,7 +56,8 @@ public record Pregunta(
     public Pregunta withId(Long nuevoId) {
         return new Pregunta(nuevoId, this.codigoJava, this.enunciado, 
                            this.dificultad, this.respuestaCorrecta, 
-                           this.explicacion, this.opciones, this.tematicas);
+                           this.explicacion, this.opciones, this.tematicas,
+                           this.indiceRespuestaCorrecta);
     }
     
     /**
@@ -48,6 +70,43 @@ public record Pregunta(
         return Objects.equals(respuestaCorrecta.trim(), respuestaDada.trim());
     }
     
+    /**
+     * Valida si la opción seleccionada (por su posición) es la correcta, sin comparar textos.
+     */
+    public boolean validarOpcion(int opcionIndex) {
+        return indiceRespuestaCorrecta >= 0 && opcionIndex == indiceRespuestaCorrecta;
+    }
+    
+    /**
+     * Verifica si la posición corresponde a alguna de las opciones de la pregunta.
+     */
+    public boolean tieneOpcion(int opcionIndex) {
+        return opciones != null && opcionIndex >= 0 && opcionIndex < opciones.size();
+    }
+    
+    /**
+     * Obtiene la posición (0-3) de la opción cuyo contenido coincide con la respuesta dada.
+     * 
+     * @return Índice de la opción, o -1 si la respuesta no corresponde a ninguna opción
+     */
+    public int indiceDeOpcion(String respuestaDada) {
+        return buscarOpcion(opciones, respuestaDada);
+    }
+    
+    private static int buscarOpcion(List<Opcion> opciones, String respuestaDada) {
+        if (respuestaDada == null || opciones == null) {
+            return -1;
+        }
+        String buscada = respuestaDada.trim();
+        for (int i = 0; i < opciones.size(); i++) {
+            String contenido = opciones.get(i).contenido();
+            if (contenido != null && contenido.trim().equals(buscada)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
     /**
      * Obtiene la temática principal (primera en la lista).
      */
@@ -0,0 +1,67 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Resumen de las sesiones completadas de un usuario en un día, para una dificultad y una
+ * temática principal. Sustituye a las sesiones archivadas en el cálculo de estadísticas.
+ *
+ * El histograma solo incluye los tiempos válidos, igual que las estadísticas de usuario.
+ * Objeto inmutable del dominio - sin anotaciones de frameworks externos.
+ */
+public record ResumenDiarioSesiones(
+    Long usuarioId,
+    LocalDate fecha,
+    Dificultad dificultad,
+    String tematica,
+    int total,
+    int correctas,
+    HistogramaTiempos histograma
+) {
+    
+    public ResumenDiarioSesiones {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        if (fecha == null || dificultad == null || tematica == null) {
+            throw new IllegalArgumentException("La fecha, la dificultad y la temática del resumen son obligatorias");
+        }
+        if (total < 0 || correctas < 0 || correctas > total) {
+            throw new IllegalArgumentException("Los contadores del resumen no son válidos");
+        }
+        histograma = histograma != null ? histograma : HistogramaTiempos.vacio();
+    }
+    
+    /**
+     * Combina dos resúmenes del mismo usuario, día, dificultad y temática.
+     * 
+     * @throws IllegalArgumentException si los resúmenes no tienen la misma clave
+     */
+    public ResumenDiarioSesiones combinar(ResumenDiarioSesiones otro) {
+        if (!mismaClave(otro)) {
+            throw new IllegalArgumentException("Solo se pueden combinar resúmenes con la misma clave");
+        }
+        return new ResumenDiarioSesiones(usuarioId, fecha, dificultad, tematica,
+                                         total + otro.total, correctas + otro.correctas,
+                                         histograma.combinar(otro.histograma));
+    }
+    
+    /**
+     * Verifica si otro resumen es del mismo usuario, día, dificultad y temática.
+     */
+    public boolean mismaClave(ResumenDiarioSesiones otro) {
+        return otro != null
+            && usuarioId.equals(otro.usuarioId)
+            && fecha.equals(otro.fecha)
+            && dificultad == otro.dificultad
+            && Objects.equals(tematica, otro.tematica);
+    }
+    
+    /**
+     * Obtiene la suma de los tiempos válidos del día, en ms.
+     */
+    public long getTiempoTotalMs() {
+        return histograma.getSumaMillis();
+    }
+}
@@ -0,0 +1,26 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+
+/**
+ * Resumen de las estadísticas de un usuario con solo los totales necesarios para
+ * rankings y comparativas (sin los desgloses por dificultad y temática).
+ */
+public record ResumenRankingUsuario(
+    Long usuarioId,
+    int totalPreguntas,
+    int respuestasCorrectas,
+    double porcentajeAciertos,
+    Duration tiempoPromedio
+) {
+    public ResumenRankingUsuario {
+        if (tiempoPromedio == null) tiempoPromedio = Duration.ZERO;
+    }
+    
+    /**
+     * Obtiene el tiempo promedio en segundos.
+     */
+    public long getTiempoPromedioSegundos() {
+        return tiempoPromedio.getSeconds();
+    }
+}
@@ -6,6 +6,9 @@ import java.time.LocalDateTime;
 /**
  * Entidad de dominio que representa una sesión de respuesta a una pregunta.
  * Permite rastrear el tiempo de respuesta para estadísticas.
+ * 
+ * La respuesta se guarda como texto o, si se respondió por posición, como el índice
+ * de la opción seleccionada (sin texto).
  */
 public record SesionRespuesta(
     Long id,
@@ -15,9 +18,20 @@ public record SesionRespuesta(
     boolean esCorrecta,
     LocalDateTime inicioRespuesta,
     LocalDateTime finRespuesta,
-    Duration tiempoRespuesta
+    Duration tiempoRespuesta,
+    Integer opcionSeleccionada
 ) {
     
+    /**
+     * Constructor para una sesión respondida con texto.
+     */
+    public SesionRespuesta(Long id, Long usuarioId, Long preguntaId, String respuestaSeleccionada,
+                          boolean esCorrecta, LocalDateTime inicioRespuesta,
+                          LocalDateTime finRespuesta, Duration tiempoRespuesta) {
+        this(id, usuarioId, preguntaId, respuestaSeleccionada, esCorrecta,
+             inicioRespuesta, finRespuesta, tiempoRespuesta, null);
+    }
+    
     /**
      * Constructor para iniciar una nueva sesión de respuesta.
      */
@@ -42,7 +56,8 @@ public record SesionRespuesta(
     public SesionRespuesta withId(Long nuevoId) {
         return new SesionRespuesta(nuevoId, this.usuarioId, this.preguntaId,
                                   this.respuestaSeleccionada, this.esCorrecta,
-                                  this.inicioRespuesta, this.finRespuesta, this.tiempoRespuesta);
+                                  this.inicioRespuesta, this.finRespuesta, this.tiempoRespuesta,
+                                  this.opcionSeleccionada);
     }
     
     /**
@@ -56,11 +71,54 @@ public record SesionRespuesta(
                                   respuesta, correcta, this.inicioRespuesta, fin, tiempo);
     }
     
+    /**
+     * Completa la sesión con un tiempo de respuesta ya medido (por ejemplo, con un reloj monótono).
+     * El fin de la respuesta se calcula a partir del inicio y el tiempo medido.
+     */
+    public SesionRespuesta completarRespuesta(String respuesta, boolean correcta, Duration tiempo) {
+        if (tiempo == null || tiempo.isNegative()) {
+            throw new IllegalArgumentException("El tiempo de respuesta debe ser positivo");
+        }
+        
+        return new SesionRespuesta(this.id, this.usuarioId, this.preguntaId,
+                                  respuesta, correcta, this.inicioRespuesta,
+                                  this.inicioRespuesta.plus(tiempo), tiempo);
+    }
+    
+    /**
+     * Sustituye la respuesta por la posición de la opción seleccionada, que se guarda sin texto.
+     */
+    public SesionRespuesta conOpcionSeleccionada(int opcion) {
+        if (opcion < 0) {
+            throw new IllegalArgumentException("La opción seleccionada no puede ser negativa");
+        }
+        
+        return new SesionRespuesta(this.id, this.usuarioId, this.preguntaId,
+                                  null, this.esCorrecta, this.inicioRespuesta,
+                                  this.finRespuesta, this.tiempoRespuesta, opcion);
+    }
+    
+    /**
+     * Verifica si la sesión tiene respuesta, como texto o como opción seleccionada.
+     */
+    public boolean tieneRespuesta() {
+        return respuestaSeleccionada != null || opcionSeleccionada != null;
+    }
+    
+    /**
+     * Obtiene la posición de la opción seleccionada en la pregunta respondida.
+     * 
+     * @return Índice de la opción, o -1 si la respuesta no corresponde a ninguna opción
+     */
+    public int indiceOpcionEn(Pregunta pregunta) {
+        return opcionSeleccionada != null ? opcionSeleccionada : pregunta.indiceDeOpcion(respuestaSeleccionada);
+    }
+    
     /**
      * Verifica si la sesión está completa.
      */
     public boolean estaCompleta() {
-        return respuestaSeleccionada != null && finRespuesta != null && tiempoRespuesta != null;
+        return tieneRespuesta() && finRespuesta != null && tiempoRespuesta != null;
     }
     
     /**
@@ -101,10 +159,14 @@ public record SesionRespuesta(
         }
         
         if (estaCompleta()) {
-            if (respuestaSeleccionada == null || respuestaSeleccionada.trim().isEmpty()) {
+            if (opcionSeleccionada == null && respuestaSeleccionada.trim().isEmpty()) {
                 throw new IllegalArgumentException("La respuesta seleccionada no puede estar vacía");
             }
             
+            if (opcionSeleccionada != null && opcionSeleccionada < 0) {
+                throw new IllegalArgumentException("La opción seleccionada no puede ser negativa");
+            }
+            
             if (finRespuesta == null) {
                 throw new IllegalArgumentException("El tiempo de fin no puede ser nulo para una sesión completa");
             }
@@ -124,10 +186,16 @@ public record SesionRespuesta(
      */
     public boolean esRespuestaValida() {
         if (!estaCompleta()) return false;
-        
+        return esTiempoRespuestaValido(getTiempoRespuestaMillis());
+    }
+    
+    /**
+     * Verifica si un tiempo de respuesta (en milisegundos) es razonable.
+     */
+    public static boolean esTiempoRespuestaValido(long millis) {
         // Tiempo mínimo: 5 segundos (evitar respuestas automáticas)
         // Tiempo máximo: 10 minutos (evitar sesiones abandonadas)
-        long segundos = getTiempoRespuestaSegundos();
+        long segundos = millis / 1000;
         return segundos >= 5 && segundos <= 600;
     }
 }
@@ -0,0 +1,195 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sesiones completadas de un usuario en formato columnar con arrays primitivos.
+ *
+ * Cada sesión es una posición en los arrays: id de pregunta, tiempo en ms, acierto (bit),
+ * ordinal de dificultad e índice de temática. Evita crear un {@link SesionRespuesta}
+ * (ids en caja, dos {@code LocalDateTime}, {@code Duration} y respuesta) por sesión
+ * cuando solo se necesita agregarlas.
+ *
+ * Se construye en dos pasos: primero se cargan las columnas de las sesiones y después
+ * se clasifican con la dificultad y la temática principal de cada pregunta distinta.
+ * Los índices de temática son posiciones en el diccionario {@link #getNombresTematicas()}.
+ */
+public final class SesionesColumnares {
+
+    private static final Dificultad[] DIFICULTADES = Dificultad.values();
+    private static final String SIN_TEMATICA = "Sin temática";
+
+    private final int tamano;
+    private final long[] preguntaIds;
+    private final int[] tiemposMs;
+    private final BitSet correctas;
+    private final byte[] dificultades;
+    private final int[] tematicas;
+    private final String[] nombresTematicas;
+
+    private SesionesColumnares(int tamano, long[] preguntaIds, int[] tiemposMs, BitSet correctas,
+                               byte[] dificultades, int[] tematicas, String[] nombresTematicas) {
+        this.tamano = tamano;
+        this.preguntaIds = preguntaIds;
+        this.tiemposMs = tiemposMs;
+        this.correctas = correctas;
+        this.dificultades = dificultades;
+        this.tematicas = tematicas;
+        this.nombresTematicas = nombresTematicas;
+    }
+
+    /**
+     * Crea un constructor para cargar las columnas de las sesiones.
+     *
+     * @param capacidadEstimada Número esperado de sesiones (los arrays crecen si se supera)
+     */
+    public static Constructor constructor(int capacidadEstimada) {
+        return new Constructor(capacidadEstimada);
+    }
+
+    /**
+     * Obtiene los IDs de pregunta distintos, para resolver cada pregunta una sola vez.
+     */
+    public long[] preguntasDistintas() {
+        return Arrays.stream(preguntaIds, 0, tamano).distinct().toArray();
+    }
+
+    /**
+     * Devuelve las sesiones clasificadas con la dificultad y la temática principal de su pregunta.
+     * Las preguntas que no estén en el mapa se clasifican como fáciles y sin temática.
+     *
+     * @param preguntas Preguntas de las sesiones indexadas por ID
+     * @return Sesiones clasificadas
+     */
+    public SesionesColumnares clasificar(Map<Long, Pregunta> preguntas) {
+        // Clasificación por pregunta distinta: dificultad e índice de temática
+        Map<Long, Integer> clasificacion = new HashMap<>();
+        Map<String, Integer> indicePorTematica = new HashMap<>();
+        byte[] nuevasDificultades = new byte[tamano];
+        int[] nuevasTematicas = new int[tamano];
+
+        for (int i = 0; i < tamano; i++) {
+            long preguntaId = preguntaIds[i];
+            Integer codigo = clasificacion.get(preguntaId);
+            if (codigo == null) {
+                Pregunta pregunta = preguntas.get(preguntaId);
+                Dificultad dificultad = pregunta != null && pregunta.dificultad() != null
+                    ? pregunta.dificultad() : Dificultad.FACIL;
+                Tematica principal = pregunta != null ? pregunta.getTematicaPrincipal() : null;
+                String tematica = principal != null ? principal.nombre() : SIN_TEMATICA;
+                int indiceTematica = indicePorTematica.computeIfAbsent(tematica, t -> indicePorTematica.size());
+
+                // Dificultad en los 8 bits bajos, temática en el resto
+                codigo = (indiceTematica << 8) | dificultad.ordinal();
+                clasificacion.put(preguntaId, codigo);
+            }
+            nuevasDificultades[i] = (byte) (codigo & 0xFF);
+            nuevasTematicas[i] = codigo >>> 8;
+        }
+
+        String[] nombres = new String[indicePorTematica.size()];
+        indicePorTematica.forEach((nombre, indice) -> nombres[indice] = nombre);
+
+        return new SesionesColumnares(tamano, preguntaIds, tiemposMs, correctas,
+                                      nuevasDificultades, nuevasTematicas, nombres);
+    }
+
+    /**
+     * Agrega las sesiones en las estadísticas del usuario recorriendo los arrays.
+     *
+     * @param usuarioId ID del usuario
+     * @return Estadísticas agregadas
+     * @throws IllegalStateException si las sesiones no se han clasificado
+     */
+    public EstadisticasUsuario agregar(Long usuarioId) {
+        return agregarEn(new AcumuladorEstadisticasUsuario(usuarioId));
+    }
+
+    /**
+     * Agrega las sesiones en un acumulador que puede contener ya otras respuestas del usuario
+     * (por ejemplo, los resúmenes de sus sesiones archivadas).
+     *
+     * @param acumulador Acumulador del usuario
+     * @return Estadísticas agregadas
+     * @throws IllegalStateException si las sesiones no se han clasificado
+     */
+    public EstadisticasUsuario agregarEn(AcumuladorEstadisticasUsuario acumulador) {
+        if (!estaClasificada()) {
+            throw new IllegalStateException("Las sesiones deben clasificarse antes de agregarse");
+        }
+
+        // Traducir el diccionario de temáticas a los índices del acumulador
+        int[] indices = new int[nombresTematicas.length];
+        for (int t = 0; t < nombresTematicas.length; t++) {
+            indices[t] = acumulador.registrarTematica(nombresTematicas[t]);
+        }
+        for (int i = 0; i < tamano; i++) {
+            acumulador.registrar(DIFICULTADES[dificultades[i]], indices[tematicas[i]], correctas.get(i), tiemposMs[i]);
+        }
+        return acumulador.construir();
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    public boolean estaClasificada() {
+        return dificultades != null;
+    }
+
+    public String[] getNombresTematicas() {
+        return nombresTematicas != null ? nombresTematicas.clone() : new String[0];
+    }
+
+    /**
+     * Constructor mutable (no thread-safe) que carga las columnas sesión a sesión.
+     */
+    public static final class Constructor {
+
+        private long[] preguntaIds;
+        private int[] tiemposMs;
+        private final BitSet correctas = new BitSet();
+        private int tamano;
+
+        private Constructor(int capacidadEstimada) {
+            int capacidad = Math.max(16, capacidadEstimada);
+            this.preguntaIds = new long[capacidad];
+            this.tiemposMs = new int[capacidad];
+        }
+
+        /**
+         * Añade una sesión completada.
+         *
+         * @param preguntaId ID de la pregunta
+         * @param correcta Si la respuesta fue correcta
+         * @param tiempoMs Tiempo de respuesta en ms (0 si no se registró)
+         */
+        public Constructor agregar(long preguntaId, boolean correcta, long tiempoMs) {
+            if (tamano == preguntaIds.length) {
+                int capacidad = preguntaIds.length * 2;
+                preguntaIds = Arrays.copyOf(preguntaIds, capacidad);
+                tiemposMs = Arrays.copyOf(tiemposMs, capacidad);
+            }
+            preguntaIds[tamano] = preguntaId;
+            tiemposMs[tamano] = (int) Math.max(0, Math.min(tiempoMs, Integer.MAX_VALUE));
+            if (correcta) {
+                correctas.set(tamano);
+            }
+            tamano++;
+            return this;
+        }
+
+        public SesionesColumnares construir() {
+            return new SesionesColumnares(tamano, Arrays.copyOf(preguntaIds, tamano),
+                                          Arrays.copyOf(tiemposMs, tamano), (BitSet) correctas.clone(),
+                                          null, null, null);
+        }
+    }
+}
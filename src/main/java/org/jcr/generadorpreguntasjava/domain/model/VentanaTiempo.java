@@ -0,0 +1,53 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import java.time.Duration;
+
+/**
+ * Enum que representa las ventanas de tiempo móviles para estadísticas recientes.
+ * 
+ * Cada ventana se resuelve sumando las últimas cubetas de un anillo de contadores:
+ * la de 24 horas usa cubetas horarias y las de 7 y 30 días cubetas diarias.
+ * 
+ * Entidad del dominio - sin anotaciones de frameworks externos.
+ */
+public enum VentanaTiempo {
+    ULTIMAS_24_HORAS("24h", Duration.ofHours(1), 24),
+    ULTIMOS_7_DIAS("7d", Duration.ofDays(1), 7),
+    ULTIMOS_30_DIAS("30d", Duration.ofDays(1), 30);
+    
+    private final String codigo;
+    private final Duration anchoCubeta;
+    private final int numeroCubetas;
+    
+    VentanaTiempo(String codigo, Duration anchoCubeta, int numeroCubetas) {
+        this.codigo = codigo;
+        this.anchoCubeta = anchoCubeta;
+        this.numeroCubetas = numeroCubetas;
+    }
+    
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public Duration getAnchoCubeta() {
+        return anchoCubeta;
+    }
+    
+    public int getNumeroCubetas() {
+        return numeroCubetas;
+    }
+    
+    public static VentanaTiempo fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        for (VentanaTiempo ventana : VentanaTiempo.values()) {
+            if (ventana.name().equalsIgnoreCase(value) || ventana.codigo.equalsIgnoreCase(value)) {
+                return ventana;
+            }
+        }
+        
+        throw new IllegalArgumentException("Ventana de tiempo no válida: " + value);
+    }
+}
@@ -0,0 +1,56 @@
+package org.jcr.generadorpreguntasjava.infrastructure.cache;
+
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Caché por pregunta de sus estadísticas agregadas.
+ *
+ * Las entradas se identifican por el número de intentos, que solo crece: las escrituras se
+ * aplican a la caché solo cuando la transacción confirma y nunca sustituyen unas
+ * estadísticas con más intentos.
+ */
+@Component
+public class CacheEstadisticasPregunta implements ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "cache_estadisticas_pregunta";
+
+    // Estimación aproximada del tamaño en memoria del registro sin el histograma
+    private static final long BYTES_BASE = 200;
+
+    private final CacheLru<Long, EstadisticasPregunta> cache;
+
+    public CacheEstadisticasPregunta(
+            @Value("${estadisticas.pregunta.cache.max-entradas:20000}") int maxEntradas,
+            @Value("${estadisticas.pregunta.cache.max-bytes:33554432}") long maxBytes) {
+        this.cache = new CacheLru<>(maxEntradas, maxBytes, CacheEstadisticasPregunta::estimarBytes);
+    }
+
+    /**
+     * Obtiene las estadísticas cacheadas de la pregunta.
+     */
+    public Optional<EstadisticasPregunta> obtener(Long preguntaId) {
+        return cache.obtener(preguntaId);
+    }
+
+    /**
+     * Cachea las estadísticas leídas o escritas. Dentro de una transacción, se aplica al confirmarla.
+     */
+    public void actualizar(EstadisticasPregunta estadisticas) {
+        ConfirmacionTransaccion.alConfirmar(
+            () -> cache.poner(estadisticas.preguntaId(), estadisticas, estadisticas.intentos()));
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        return new Metricas(COMPONENTE, cache.metricas());
+    }
+
+    private static long estimarBytes(EstadisticasPregunta estadisticas) {
+        return BYTES_BASE + estadisticas.histograma().estimarBytes();
+    }
+}
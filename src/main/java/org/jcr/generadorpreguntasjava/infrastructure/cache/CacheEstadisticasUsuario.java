@@ -0,0 +1,85 @@
+package org.jcr.generadorpreguntasjava.infrastructure.cache;
+
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Caché por usuario de las estadísticas ya deserializadas.
+ * 
+ * Evita leer la fila y parsear sus columnas JSON en cada consulta. Las entradas se
+ * identifican por la versión de la fila: las escrituras se aplican a la caché solo
+ * cuando la transacción confirma y nunca sustituyen una versión más reciente.
+ */
+@Component
+public class CacheEstadisticasUsuario implements ProveedorMetricasPort {
+    
+    private static final String COMPONENTE = "cache_estadisticas_usuario";
+    
+    // Estimaciones aproximadas del tamaño en memoria de cada parte del registro
+    private static final long BYTES_BASE = 160;
+    private static final long BYTES_POR_DIFICULTAD = 120;
+    private static final long BYTES_POR_TEMATICA = 200;
+    
+    private final CacheLru<Long, EstadisticasUsuario> cache;
+    
+    public CacheEstadisticasUsuario(
+            @Value("${estadisticas.cache.max-entradas:10000}") int maxEntradas,
+            @Value("${estadisticas.cache.max-bytes:67108864}") long maxBytes) {
+        this.cache = new CacheLru<>(maxEntradas, maxBytes, CacheEstadisticasUsuario::estimarBytes);
+    }
+    
+    /**
+     * Obtiene las estadísticas cacheadas del usuario.
+     */
+    public Optional<EstadisticasUsuario> obtener(Long usuarioId) {
+        return cache.obtener(usuarioId);
+    }
+    
+    /**
+     * Cachea las estadísticas leídas o escritas con la versión de su fila.
+     * Dentro de una transacción, se aplica al confirmarla.
+     */
+    public void actualizar(EstadisticasUsuario estadisticas, Long version) {
+        long versionFila = version != null ? version : 0L;
+        ConfirmacionTransaccion.alConfirmar(() -> cache.poner(estadisticas.usuarioId(), estadisticas, versionFila));
+    }
+    
+    /**
+     * Elimina las estadísticas cacheadas del usuario.
+     */
+    public void invalidar(Long usuarioId) {
+        cache.invalidar(usuarioId);
+        ConfirmacionTransaccion.alConfirmar(() -> cache.invalidar(usuarioId));
+    }
+    
+    /**
+     * Elimina las estadísticas cacheadas de los usuarios de un rango de IDs (ambos incluidos).
+     */
+    public void invalidarRango(long desdeUsuarioId, long hastaUsuarioId) {
+        cache.invalidarSi(usuarioId -> usuarioId >= desdeUsuarioId && usuarioId <= hastaUsuarioId);
+    }
+    
+    @Override
+    public Metricas obtenerMetricas() {
+        return new Metricas(COMPONENTE, cache.metricas());
+    }
+    
+    private static long estimarBytes(EstadisticasUsuario estadisticas) {
+        long bytes = BYTES_BASE + estadisticas.histogramaTiempos().estimarBytes();
+        for (EstadisticasPorDificultad porDificultad : estadisticas.porDificultad().values()) {
+            bytes += BYTES_POR_DIFICULTAD + porDificultad.histograma().estimarBytes();
+        }
+        for (Map.Entry<String, EstadisticasPorTematica> porTematica : estadisticas.porTematica().entrySet()) {
+            bytes += BYTES_POR_TEMATICA + 2L * porTematica.getKey().length()
+                + porTematica.getValue().histograma().estimarBytes();
+        }
+        return bytes;
+    }
+}
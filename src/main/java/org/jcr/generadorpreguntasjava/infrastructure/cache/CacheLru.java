@@ -0,0 +1,151 @@
+package org.jcr.generadorpreguntasjava.infrastructure.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché en memoria acotada por número de entradas y por peso estimado en bytes,
+ * con desalojo LRU (la entrada usada hace más tiempo sale primero).
+ * 
+ * Cada entrada guarda la versión de la fila de la que procede: una escritura con una
+ * versión anterior a la ya cacheada se descarta, de modo que una lectura lenta nunca
+ * pisa el resultado de una escritura más reciente.
+ * 
+ * Todas las operaciones están sincronizadas sobre la propia instancia.
+ */
+public class CacheLru<K, V> {
+    
+    private final int maxEntradas;
+    private final long maxBytes;
+    private final ToLongFunction<V> estimadorBytes;
+    private final LinkedHashMap<K, Entrada<V>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private long bytesActuales;
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long escriturasDescartadas;
+    
+    public CacheLru(int maxEntradas, long maxBytes, ToLongFunction<V> estimadorBytes) {
+        if (maxEntradas <= 0) {
+            throw new IllegalArgumentException("El número máximo de entradas debe ser mayor a 0");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo en bytes debe ser mayor a 0");
+        }
+        this.maxEntradas = maxEntradas;
+        this.maxBytes = maxBytes;
+        this.estimadorBytes = estimadorBytes;
+    }
+    
+    /**
+     * Obtiene el valor cacheado y lo marca como usado recientemente.
+     */
+    public synchronized Optional<V> obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            fallos++;
+            return Optional.empty();
+        }
+        aciertos++;
+        return Optional.of(entrada.valor());
+    }
+    
+    /**
+     * Guarda el valor si su versión no es anterior a la ya cacheada.
+     * 
+     * @return true si el valor quedó en la caché
+     */
+    public synchronized boolean poner(K clave, V valor, long version) {
+        Entrada<V> actual = entradas.get(clave);
+        if (actual != null && actual.version() > version) {
+            escriturasDescartadas++;
+            return false;
+        }
+        
+        long bytes = estimadorBytes.applyAsLong(valor);
+        if (bytes > maxBytes) {
+            // Una entrada mayor que la caché entera no se guarda
+            eliminar(clave);
+            return false;
+        }
+        
+        Entrada<V> anterior = entradas.put(clave, new Entrada<>(valor, version, bytes));
+        if (anterior != null) {
+            bytesActuales -= anterior.bytes();
+        }
+        bytesActuales += bytes;
+        desalojarSobrante();
+        return true;
+    }
+    
+    /**
+     * Elimina la entrada de la clave, si existe.
+     */
+    public synchronized void invalidar(K clave) {
+        eliminar(clave);
+    }
+    
+    /**
+     * Elimina todas las entradas cuya clave cumpla la condición.
+     */
+    public synchronized void invalidarSi(Predicate<K> condicion) {
+        Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entrada<V>> entrada = it.next();
+            if (condicion.test(entrada.getKey())) {
+                bytesActuales -= entrada.getValue().bytes();
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * Vacía la caché sin reiniciar los contadores.
+     */
+    public synchronized void invalidarTodo() {
+        entradas.clear();
+        bytesActuales = 0;
+    }
+    
+    /**
+     * Obtiene una instantánea de los contadores de la caché.
+     */
+    public synchronized Map<String, Number> metricas() {
+        long lecturas = aciertos + fallos;
+        Map<String, Number> metricas = new LinkedHashMap<>();
+        metricas.put("entradas", entradas.size());
+        metricas.put("max_entradas", maxEntradas);
+        metricas.put("bytes_estimados", bytesActuales);
+        metricas.put("max_bytes", maxBytes);
+        metricas.put("aciertos", aciertos);
+        metricas.put("fallos", fallos);
+        metricas.put("ratio_aciertos", lecturas > 0 ? (double) aciertos / lecturas : 0.0);
+        metricas.put("desalojos", desalojos);
+        metricas.put("escrituras_descartadas", escriturasDescartadas);
+        return metricas;
+    }
+    
+    private void eliminar(K clave) {
+        Entrada<V> anterior = entradas.remove(clave);
+        if (anterior != null) {
+            bytesActuales -= anterior.bytes();
+        }
+    }
+    
+    private void desalojarSobrante() {
+        Iterator<Entrada<V>> it = entradas.values().iterator();
+        while ((entradas.size() > maxEntradas || bytesActuales > maxBytes) && it.hasNext()) {
+            bytesActuales -= it.next().bytes();
+            it.remove();
+            desalojos++;
+        }
+    }
+    
+    private record Entrada<V>(V valor, long version, long bytes) {
+    }
+}
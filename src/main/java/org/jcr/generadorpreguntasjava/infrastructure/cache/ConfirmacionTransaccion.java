@@ -0,0 +1,52 @@
+package org.jcr.generadorpreguntasjava.infrastructure.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplaza las escrituras en las cachés y almacenes en memoria hasta que la transacción en curso
+ * termina, para que una transacción revertida nunca deje en ellos cambios que no llegaron a la
+ * base de datos.
+ */
+public final class ConfirmacionTransaccion {
+    
+    private ConfirmacionTransaccion() {
+    }
+    
+    /**
+     * Ejecuta la acción al confirmar la transacción activa, o inmediatamente si no hay ninguna.
+     */
+    public static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+    
+    /**
+     * Ejecuta una acción u otra según la transacción activa confirme o se revierta,
+     * o la de confirmación inmediatamente si no hay ninguna.
+     */
+    public static void alTerminar(Runnable siConfirma, Runnable siRevierte) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_COMMITTED) {
+                        siConfirma.run();
+                    } else {
+                        siRevierte.run();
+                    }
+                }
+            });
+        } else {
+            siConfirma.run();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.jcr.generadorpreguntasjava.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter.PreguntaJpaAdapter;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Repositorio de preguntas con caché de lectura delante del adaptador JPA.
+ *
+ * Las preguntas generadas no cambian una vez guardadas, así que se cachean por ID sin
+ * versión ni invalidación: evita la consulta con fetch-join de opciones y temáticas en
+ * cada respuesta. Las temáticas cacheadas conservan los contadores de uso del momento
+ * en que se cargó la pregunta. Los listados completos y por temática no pasan por la caché.
+ */
+@Slf4j
+@Primary
+@Component
+public class PreguntaRepositoryConCache implements PreguntaRepositoryPort, ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "cache_preguntas";
+
+    // Las preguntas son inmutables: todas las entradas tienen la misma versión
+    private static final long VERSION = 0L;
+
+    // Estimaciones aproximadas del tamaño en memoria de cada parte de la pregunta
+    private static final long BYTES_BASE = 200;
+    private static final long BYTES_POR_OPCION = 80;
+    private static final long BYTES_POR_TEMATICA = 120;
+
+    private final PreguntaJpaAdapter delegado;
+    private final CacheLru<Long, Pregunta> cache;
+
+    public PreguntaRepositoryConCache(
+            PreguntaJpaAdapter delegado,
+            @Value("${preguntas.cache.max-entradas:20000}") int maxEntradas,
+            @Value("${preguntas.cache.max-bytes:33554432}") long maxBytes) {
+        this.delegado = delegado;
+        this.cache = new CacheLru<>(maxEntradas, maxBytes, PreguntaRepositoryConCache::estimarBytes);
+    }
+
+    @Override
+    public Pregunta guardar(Pregunta pregunta) {
+        Pregunta guardada = delegado.guardar(pregunta);
+        cachear(guardada);
+        return guardada;
+    }
+
+    @Override
+    public Optional<Pregunta> buscarPorId(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<Pregunta> cacheada = cache.obtener(id);
+        if (cacheada.isPresent()) {
+            return cacheada;
+        }
+        Optional<Pregunta> pregunta = delegado.buscarPorId(id);
+        pregunta.ifPresent(this::cachear);
+        return pregunta;
+    }
+
+    @Override
+    public List<Pregunta> buscarPorIds(Collection<Long> ids) {
+        List<Pregunta> encontradas = new ArrayList<>(ids.size());
+        Set<Long> fallos = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            cache.obtener(id).ifPresentOrElse(encontradas::add, () -> fallos.add(id));
+        }
+
+        // Una sola consulta IN para las preguntas que no estaban en la caché
+        if (!fallos.isEmpty()) {
+            log.debug("Caché de preguntas: {} de {} IDs leídos de la base de datos", fallos.size(), ids.size());
+            for (Pregunta pregunta : delegado.buscarPorIds(fallos)) {
+                cachear(pregunta);
+                encontradas.add(pregunta);
+            }
+        }
+        return encontradas;
+    }
+
+    @Override
+    public List<Pregunta> obtenerTodas() {
+        return delegado.obtenerTodas();
+    }
+
+    @Override
+    public List<Pregunta> buscarPorTematica(String nombreTematica) {
+        return delegado.buscarPorTematica(nombreTematica);
+    }
+
+    @Override
+    public boolean existeAlguna() {
+        return delegado.existeAlguna();
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        return new Metricas(COMPONENTE, cache.metricas());
+    }
+
+    /**
+     * Cachea una copia con listas inmutables, ya que la misma instancia se comparte entre
+     * peticiones. Dentro de una transacción, se aplica al confirmarla.
+     */
+    private void cachear(Pregunta pregunta) {
+        if (pregunta.id() == null) {
+            return;
+        }
+        Pregunta inmutable = new Pregunta(pregunta.id(), pregunta.codigoJava(), pregunta.enunciado(),
+            pregunta.dificultad(), pregunta.respuestaCorrecta(), pregunta.explicacion(),
+            pregunta.opciones() != null ? List.copyOf(pregunta.opciones()) : List.of(),
+            pregunta.tematicas() != null ? List.copyOf(pregunta.tematicas()) : List.of(),
+            pregunta.indiceRespuestaCorrecta());
+        ConfirmacionTransaccion.alConfirmar(() -> cache.poner(inmutable.id(), inmutable, VERSION));
+    }
+
+    private static long estimarBytes(Pregunta pregunta) {
+        long bytes = BYTES_BASE + 2L * (longitud(pregunta.codigoJava()) + longitud(pregunta.enunciado())
+            + longitud(pregunta.respuestaCorrecta()) + longitud(pregunta.explicacion()));
+        for (Opcion opcion : pregunta.opciones()) {
+            bytes += BYTES_POR_OPCION + 2L * longitud(opcion.contenido());
+        }
+        for (Tematica tematica : pregunta.tematicas()) {
+            bytes += BYTES_POR_TEMATICA + 2L * longitud(tematica.nombre());
+        }
+        return bytes;
+    }
+
+    private static int longitud(String texto) {
+        return texto != null ? texto.length() : 0;
+    }
+}
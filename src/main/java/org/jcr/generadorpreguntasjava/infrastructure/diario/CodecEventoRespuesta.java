@@ -0,0 +1,118 @@
+package org.jcr.generadorpreguntasjava.infrastructure.diario;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Codificación binaria de tamaño fijo de un {@link EventoRespuesta} en el diario.
+ *
+ * Formato (48 bytes, big-endian):
+ * <pre>
+ *  0  usuarioId    long
+ *  8  preguntaId   long
+ * 16  tematicaId   long
+ * 24  instanteMs   long
+ * 32  tiempoMs     int
+ * 36  dificultad   byte (ordinal)
+ * 37  flags        byte (bit 0: registro presente, bit 1: correcta)
+ * 38  opcion       byte (posición de la opción elegida + 1, 0 si no se conoce)
+ * 39  reservado    byte
+ * 40  crc32        int (de los bytes 0-39)
+ * 44  estado       byte (0: confirmado, 1: pendiente de su transacción, 2: anulado)
+ * 45  reservado    3 bytes
+ * </pre>
+ * Un registro a ceros (espacio sin escribir del segmento) o con el CRC incorrecto
+ * (escritura interrumpida) no es válido y marca el final del diario.
+ *
+ * El estado queda fuera del CRC para poder cambiarlo sin reescribir el registro cuando
+ * termina la transacción que lo anotó. Los registros anteriores al estado lo tienen a 0.
+ */
+final class CodecEventoRespuesta {
+
+    static final int TAMANO = 48;
+
+    static final byte CONFIRMADO = 0;
+    static final byte PENDIENTE = 1;
+    static final byte ANULADO = 2;
+
+    private static final int BYTES_CON_CRC = 40;
+    private static final int POSICION_CRC = 40;
+    private static final int POSICION_ESTADO = 44;
+    private static final byte PRESENTE = 1;
+    private static final byte CORRECTA = 1 << 1;
+    private static final Dificultad[] DIFICULTADES = Dificultad.values();
+
+    private CodecEventoRespuesta() {
+    }
+
+    /**
+     * Escribe el evento con su estado en la posición indicada del buffer (sin modificar su
+     * posición actual).
+     */
+    static void escribir(ByteBuffer destino, int posicion, EventoRespuesta evento, byte estado) {
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO);
+        registro.putLong(0, evento.usuarioId());
+        registro.putLong(8, evento.preguntaId());
+        registro.putLong(16, evento.tematicaId());
+        registro.putLong(24, evento.instanteMs());
+        registro.putInt(32, evento.tiempoMs());
+        registro.put(36, (byte) evento.dificultad().ordinal());
+        registro.put(37, (byte) (PRESENTE | (evento.correcta() ? CORRECTA : 0)));
+        int opcion = evento.indiceOpcion();
+        registro.put(38, (byte) (opcion >= 0 && opcion < Byte.MAX_VALUE ? opcion + 1 : 0));
+        registro.putInt(POSICION_CRC, crc(registro, 0));
+        registro.put(POSICION_ESTADO, estado);
+
+        destino.put(posicion, registro.array());
+    }
+
+    /**
+     * Lee el evento de la posición indicada del buffer.
+     *
+     * @return Evento leído, o null si el registro no es válido
+     */
+    static EventoRespuesta leer(ByteBuffer origen, int posicion) {
+        byte flags = origen.get(posicion + 37);
+        if ((flags & PRESENTE) == 0 || origen.getInt(posicion + POSICION_CRC) != crc(origen, posicion)) {
+            return null;
+        }
+        int dificultad = origen.get(posicion + 36);
+        if (dificultad < 0 || dificultad >= DIFICULTADES.length) {
+            return null;
+        }
+
+        return new EventoRespuesta(
+            origen.getLong(posicion),
+            origen.getLong(posicion + 8),
+            DIFICULTADES[dificultad],
+            origen.getLong(posicion + 16),
+            (flags & CORRECTA) != 0,
+            origen.getInt(posicion + 32),
+            origen.getLong(posicion + 24),
+            Math.max(origen.get(posicion + 38) - 1, -1)
+        );
+    }
+
+    /**
+     * Lee el estado del registro de la posición indicada del buffer.
+     */
+    static byte estado(ByteBuffer origen, int posicion) {
+        return origen.get(posicion + POSICION_ESTADO);
+    }
+
+    /**
+     * Cambia el estado del registro de la posición indicada del buffer.
+     */
+    static void marcar(ByteBuffer destino, int posicion, byte estado) {
+        destino.put(posicion + POSICION_ESTADO, estado);
+    }
+
+    private static int crc(ByteBuffer buffer, int posicion) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(posicion, BYTES_CON_CRC));
+        return (int) crc.getValue();
+    }
+}
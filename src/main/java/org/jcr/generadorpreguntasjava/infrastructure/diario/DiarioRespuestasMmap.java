@@ -0,0 +1,433 @@
+package org.jcr.generadorpreguntasjava.infrastructure.diario;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.ConfirmacionTransaccion;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Diario de respuestas en ficheros de segmento mapeados en memoria.
+ *
+ * Cada segmento es un fichero de tamaño fijo con registros de {@link CodecEventoRespuesta#TAMANO}
+ * bytes, nombrado con el offset de su primer evento. Los eventos se escriben en el mapeo del
+ * segmento activo al anotarlos, dentro de la transacción que los produce, para que esta pueda
+ * guardar su offset junto con los agregados que actualiza. Se escriben pendientes y, al
+ * terminar la transacción, se marcan confirmados o anulados: la reproducción solo recorre los
+ * confirmados. La escritura no espera al disco: un hilo de fondo fuerza el segmento activo
+ * cada pocos milisegundos para todos los eventos escritos o marcados desde el forzado
+ * anterior. Una caída del proceso no pierde eventos (siguen en la caché de páginas del
+ * sistema); una caída del sistema puede perder los del último intervalo o dejar pendientes
+ * eventos ya confirmados, que no se reproducen pero sí constan en los agregados.
+ *
+ * El diario es local de la instancia y el directorio se bloquea al abrirlo, de modo que dos
+ * instancias no pueden compartirlo. Con varias instancias cada diario solo contiene las
+ * respuestas atendidas por la suya, así que reproducirlo solo reconstruye las estadísticas
+ * en despliegues de una sola instancia.
+ *
+ * Al arrancar se recorre el último segmento hasta el primer registro no válido (espacio sin
+ * escribir o escritura interrumpida por una caída), que pasa a ser el siguiente offset.
+ */
+@Slf4j
+@Component
+public class DiarioRespuestasMmap implements DiarioRespuestasPort, ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "diario_respuestas";
+    private static final String PREFIJO = "segmento-";
+    private static final String EXTENSION = ".diario";
+    private static final String FICHERO_BLOQUEO = "diario.lock";
+
+    private final Path directorio;
+    private final int eventosPorSegmento;
+
+    // Estado de escritura, protegido por el monitor 'escritura'
+    private final Object escritura = new Object();
+    private final NavigableMap<Long, Path> segmentos = new TreeMap<>();
+    private Segmento activo;
+    private volatile long siguiente;
+    private volatile long duraderoHasta;
+    private final AtomicBoolean marcasSinForzar = new AtomicBoolean();
+
+    private final FileChannel canalBloqueo;
+    private final FileLock bloqueo;
+    private final ScheduledExecutorService forzador;
+
+    private final AtomicLong eventosAnotados = new AtomicLong();
+    private final AtomicLong eventosPerdidos = new AtomicLong();
+    private final AtomicLong eventosAnulados = new AtomicLong();
+    private final AtomicLong forzadosDisco = new AtomicLong();
+    private final AtomicLong nanosForzado = new AtomicLong();
+
+    public DiarioRespuestasMmap(
+            @Value("${diario.respuestas.directorio:./data/diario}") String directorio,
+            @Value("${diario.respuestas.eventos-por-segmento:1048576}") int eventosPorSegmento,
+            @Value("${diario.respuestas.intervalo-forzado-ms:20}") long intervaloForzadoMs) {
+        if (eventosPorSegmento <= 0 || (long) eventosPorSegmento * CodecEventoRespuesta.TAMANO > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Número de eventos por segmento no válido: " + eventosPorSegmento);
+        }
+        if (intervaloForzadoMs <= 0) {
+            throw new IllegalArgumentException("El intervalo de forzado debe ser mayor a 0");
+        }
+        this.directorio = Paths.get(directorio);
+        this.eventosPorSegmento = eventosPorSegmento;
+        this.canalBloqueo = abrirBloqueo();
+        this.bloqueo = bloquear();
+        recuperar();
+        this.forzador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "diario-respuestas-forzado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.forzador.scheduleWithFixedDelay(this::forzarPendientes, intervaloForzadoMs, intervaloForzadoMs,
+                                             TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long anotar(List<EventoRespuesta> eventos) {
+        if (eventos == null || eventos.isEmpty()) {
+            return EventoRespuesta.SIN_OFFSET;
+        }
+        Escritos escritos;
+        try {
+            escritos = escribir(eventos);
+        } catch (RuntimeException e) {
+            // El evento se pierde del diario, no la respuesta
+            eventosPerdidos.addAndGet(eventos.size());
+            log.error("No se pudieron anotar {} eventos en el diario de respuestas: {}", eventos.size(), e.getMessage(), e);
+            return EventoRespuesta.SIN_OFFSET;
+        }
+        ConfirmacionTransaccion.alTerminar(
+            () -> marcar(escritos, CodecEventoRespuesta.CONFIRMADO),
+            () -> marcar(escritos, CodecEventoRespuesta.ANULADO));
+        return escritos.primero();
+    }
+
+    @Override
+    public long reproducir(long desdeOffset, ObjLongConsumer<EventoRespuesta> consumidor) {
+        if (desdeOffset < 0) {
+            throw new IllegalArgumentException("El offset no puede ser negativo");
+        }
+
+        // Solo se recorren los eventos ya escritos al empezar
+        Map<Long, Path> instantanea;
+        long limite;
+        synchronized (escritura) {
+            limite = siguiente;
+            Long primerSegmento = segmentos.floorKey(desdeOffset);
+            instantanea = new TreeMap<>(segmentos.tailMap(primerSegmento != null ? primerSegmento : 0L, true));
+        }
+
+        long offset = desdeOffset;
+        for (Map.Entry<Long, Path> entrada : instantanea.entrySet()) {
+            if (offset >= limite) {
+                break;
+            }
+            try (FileChannel canal = FileChannel.open(entrada.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                long base = entrada.getKey();
+                long finSegmento = Math.min(limite, base + canal.size() / CodecEventoRespuesta.TAMANO);
+                for (; offset < finSegmento; offset++) {
+                    int posicion = (int) ((offset - base) * CodecEventoRespuesta.TAMANO);
+                    EventoRespuesta evento = CodecEventoRespuesta.leer(buffer, posicion);
+                    if (evento == null) {
+                        throw new IllegalStateException("Registro no válido en el diario de respuestas, offset " + offset);
+                    }
+                    if (CodecEventoRespuesta.estado(buffer, posicion) == CodecEventoRespuesta.CONFIRMADO) {
+                        consumidor.accept(evento, offset);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al leer el segmento " + entrada.getValue(), e);
+            }
+        }
+        return offset;
+    }
+
+    @Override
+    public long siguienteOffset() {
+        return siguiente;
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        long forzados = forzadosDisco.get();
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("eventos_anotados", eventosAnotados.get());
+        valores.put("eventos_perdidos", eventosPerdidos.get());
+        valores.put("eventos_anulados", eventosAnulados.get());
+        valores.put("forzados_disco", forzados);
+        valores.put("eventos_por_forzado", forzados > 0 ? (double) eventosAnotados.get() / forzados : 0.0);
+        valores.put("forzado_medio_micros", forzados > 0 ? nanosForzado.get() / forzados / 1_000 : 0);
+        valores.put("siguiente_offset", siguiente);
+        valores.put("pendientes_forzado", siguiente - duraderoHasta);
+        synchronized (escritura) {
+            valores.put("segmentos", segmentos.size());
+        }
+        return new Metricas(COMPONENTE, valores);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        forzador.shutdown();
+        try {
+            forzador.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (escritura) {
+            activo.cerrar();
+            duraderoHasta = siguiente;
+        }
+        try {
+            bloqueo.release();
+            canalBloqueo.close();
+        } catch (IOException e) {
+            log.warn("Error al liberar el bloqueo del diario en {}: {}", directorio, e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe los eventos, pendientes de su transacción, al final del segmento activo,
+     * rotándolo cuando se llena.
+     */
+    private Escritos escribir(List<EventoRespuesta> eventos) {
+        Segmento[] segmentosEscritos = new Segmento[eventos.size()];
+        long primero;
+        synchronized (escritura) {
+            primero = siguiente;
+            long offset = primero;
+            for (int i = 0; i < segmentosEscritos.length; i++) {
+                if (offset - activo.base == activo.capacidad) {
+                    rotar(offset);
+                }
+                CodecEventoRespuesta.escribir(activo.buffer, activo.posicion(offset), eventos.get(i),
+                                              CodecEventoRespuesta.PENDIENTE);
+                segmentosEscritos[i] = activo;
+                offset++;
+            }
+            siguiente = offset;
+        }
+        eventosAnotados.addAndGet(eventos.size());
+        return new Escritos(primero, segmentosEscritos);
+    }
+
+    /**
+     * Marca como confirmados o anulados los eventos escritos al terminar su transacción.
+     * Los de segmentos ya rotados se fuerzan aquí, porque el hilo de fondo solo fuerza el activo.
+     */
+    private void marcar(Escritos escritos, byte estado) {
+        try {
+            Segmento[] segmentos = escritos.segmentos();
+            for (int i = 0; i < segmentos.length; i++) {
+                CodecEventoRespuesta.marcar(segmentos[i].buffer, segmentos[i].posicion(escritos.primero() + i), estado);
+                boolean ultimoDelSegmento = i + 1 == segmentos.length || segmentos[i + 1] != segmentos[i];
+                if (ultimoDelSegmento && segmentos[i].cerrado) {
+                    segmentos[i].buffer.force();
+                }
+            }
+            marcasSinForzar.set(true);
+        } catch (RuntimeException e) {
+            // Se ejecuta al terminar la transacción: el evento queda pendiente y no se reproduce
+            log.error("No se pudieron marcar {} eventos del diario de respuestas: {}",
+                    escritos.segmentos().length, e.getMessage(), e);
+        }
+        if (estado == CodecEventoRespuesta.ANULADO) {
+            eventosAnulados.addAndGet(escritos.segmentos().length);
+        }
+    }
+
+    /**
+     * Fuerza a disco el segmento activo si tiene eventos escritos o marcados desde el último
+     * forzado. Lo ejecuta periódicamente el hilo de fondo, fuera del camino de las peticiones.
+     */
+    private void forzarPendientes() {
+        boolean marcas = marcasSinForzar.getAndSet(false);
+        try {
+            Segmento segmento;
+            long objetivo;
+            synchronized (escritura) {
+                objetivo = siguiente;
+                segmento = activo;
+            }
+            if (objetivo <= duraderoHasta && !marcas) {
+                return;
+            }
+            // Los segmentos anteriores se forzaron completos al rotar
+            long inicio = System.nanoTime();
+            segmento.buffer.force();
+            nanosForzado.addAndGet(System.nanoTime() - inicio);
+            forzadosDisco.incrementAndGet();
+            duraderoHasta = objetivo;
+        } catch (RuntimeException e) {
+            // Se reintenta en la siguiente pasada; una excepción detendría el hilo programado
+            if (marcas) {
+                marcasSinForzar.set(true);
+            }
+            log.warn("Error al forzar el diario de respuestas a disco: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el segmento activo (forzándolo a disco) y abre uno nuevo que empieza en el offset dado.
+     * Se llama con el monitor de escritura adquirido.
+     */
+    private void rotar(long base) {
+        activo.cerrar();
+        activo = abrir(base, eventosPorSegmento);
+        log.info("Diario de respuestas: nuevo segmento a partir del offset {}", base);
+    }
+
+    private FileChannel abrirBloqueo() {
+        try {
+            Files.createDirectories(directorio);
+            return FileChannel.open(directorio.resolve(FICHERO_BLOQUEO), StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al abrir el diario de respuestas en " + directorio, e);
+        }
+    }
+
+    /**
+     * Bloquea el directorio para esta instancia: dos escritores sobre los mismos segmentos
+     * se pisarían los offsets.
+     */
+    private FileLock bloquear() {
+        FileLock adquirido;
+        try {
+            adquirido = canalBloqueo.tryLock();
+        } catch (OverlappingFileLockException e) {
+            adquirido = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al bloquear el diario de respuestas en " + directorio, e);
+        }
+        if (adquirido == null) {
+            try {
+                canalBloqueo.close();
+            } catch (IOException e) {
+                log.debug("Error al cerrar el fichero de bloqueo del diario: {}", e.getMessage());
+            }
+            throw new IllegalStateException("El diario de respuestas en " + directorio + " está en uso por otra instancia");
+        }
+        return adquirido;
+    }
+
+    private void recuperar() {
+        try {
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                ficheros.filter(f -> f.getFileName().toString().startsWith(PREFIJO)
+                                  && f.getFileName().toString().endsWith(EXTENSION))
+                        .forEach(f -> segmentos.put(base(f), f));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al abrir el diario de respuestas en " + directorio, e);
+        }
+
+        if (segmentos.isEmpty()) {
+            activo = abrir(0, eventosPorSegmento);
+            siguiente = 0;
+            return;
+        }
+
+        // El último segmento se continúa desde su primer registro no válido
+        Map.Entry<Long, Path> ultimo = segmentos.lastEntry();
+        long tamano;
+        try {
+            tamano = Files.size(ultimo.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el segmento " + ultimo.getValue(), e);
+        }
+        activo = abrir(ultimo.getKey(), (int) (tamano / CodecEventoRespuesta.TAMANO));
+        long offset = activo.base;
+        while (offset - activo.base < activo.capacidad
+               && CodecEventoRespuesta.leer(activo.buffer, activo.posicion(offset)) != null) {
+            offset++;
+        }
+        siguiente = offset;
+        duraderoHasta = offset;
+        log.info("Diario de respuestas recuperado: {} segmentos, siguiente offset {}", segmentos.size(), offset);
+    }
+
+    private Segmento abrir(long base, int capacidad) {
+        Path fichero = directorio.resolve(String.format("%s%020d%s", PREFIJO, base, EXTENSION));
+        try {
+            FileChannel canal = FileChannel.open(fichero, StandardOpenOption.CREATE,
+                                                 StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0,
+                                                (long) capacidad * CodecEventoRespuesta.TAMANO);
+            segmentos.put(base, fichero);
+            return new Segmento(base, capacidad, canal, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al abrir el segmento " + fichero, e);
+        }
+    }
+
+    private static long base(Path fichero) {
+        String nombre = fichero.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    /**
+     * Offset del primer evento de una escritura y segmento en que quedó cada uno.
+     */
+    private record Escritos(long primero, Segmento[] segmentos) {}
+
+    /**
+     * Segmento abierto para escritura. El mapeo sigue siendo válido tras cerrarlo, para
+     * marcar los eventos cuya transacción termina después de rotar.
+     */
+    private static final class Segmento {
+
+        private final long base;
+        private final int capacidad;
+        private final FileChannel canal;
+        private final MappedByteBuffer buffer;
+        private volatile boolean cerrado;
+
+        private Segmento(long base, int capacidad, FileChannel canal, MappedByteBuffer buffer) {
+            this.base = base;
+            this.capacidad = capacidad;
+            this.canal = canal;
+            this.buffer = buffer;
+        }
+
+        private int posicion(long offset) {
+            return (int) ((offset - base) * CodecEventoRespuesta.TAMANO);
+        }
+
+        private void cerrar() {
+            cerrado = true;
+            buffer.force();
+            try {
+                canal.close();
+            } catch (IOException e) {
+                log.warn("Error al cerrar el segmento del diario que empieza en {}: {}", base, e.getMessage());
+            }
+        }
+    }
+}
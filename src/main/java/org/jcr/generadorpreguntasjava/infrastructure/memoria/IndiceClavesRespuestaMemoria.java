@@ -0,0 +1,163 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.ClaveRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.ConfirmacionTransaccion;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.CodecOpciones;
+import org.jcr.generadorpreguntasjava.port.out.IndiceClavesRespuestaPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de las claves de respuesta (respuesta correcta y explicación) por ID de pregunta.
+ *
+ * Se carga por JDBC la primera vez que se consulta, recorriendo solo esas columnas de preguntas
+ * (más la posición de la opción correcta y las opciones empaquetadas, de las que solo se cuenta
+ * cuántas hay), y se amplía con cada pregunta guardada al confirmar su transacción. Las
+ * consultas no pasan por Hibernate ni toman cerrojos. Las preguntas que no están en el índice
+ * (guardadas por otra instancia o fuera del presupuesto de memoria) se leen de una en una de la
+ * base de datos, igual que las indexadas antes de empaquetar sus opciones: en cuanto la migración
+ * las empaqueta, esa lectura completa su entrada y las siguientes consultas ya no salen del índice.
+ */
+@Slf4j
+@Component
+public class IndiceClavesRespuestaMemoria implements IndiceClavesRespuestaPort, ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "indice_claves_respuesta";
+
+    private static final String SQL_CLAVES =
+        "SELECT id, respuesta_correcta, explicacion, indice_respuesta_correcta, opciones_empaquetadas FROM preguntas";
+
+    private static final String SQL_CLAVE =
+        "SELECT respuesta_correcta, explicacion, indice_respuesta_correcta, opciones_empaquetadas " +
+        "FROM preguntas WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TablaClavesRespuesta tabla;
+    private final int fetchSize;
+
+    private volatile boolean cargado;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong lecturasBaseDatos = new AtomicLong();
+    private final AtomicLong duracionCargaMs = new AtomicLong();
+
+    public IndiceClavesRespuestaMemoria(
+            JdbcTemplate jdbcTemplate,
+            @Value("${preguntas.claves.max-bytes:268435456}") long maxBytes,
+            @Value("${preguntas.claves.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tabla = new TablaClavesRespuesta(maxBytes);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Optional<ClaveRespuesta> buscar(Long preguntaId) {
+        if (preguntaId == null || preguntaId <= 0) {
+            return Optional.empty();
+        }
+        if (!cargado) {
+            cargar();
+        }
+
+        ClaveRespuesta clave = tabla.buscar(preguntaId);
+        if (clave != null && clave.conoceOpciones()) {
+            aciertos.incrementAndGet();
+            return Optional.of(clave);
+        }
+
+        lecturasBaseDatos.incrementAndGet();
+        List<ClaveRespuesta> filas = jdbcTemplate.query(SQL_CLAVE,
+            (rs, fila) -> new ClaveRespuesta(rs.getString(1), rs.getString(2), leerIndice(rs, 3),
+                                             leerNumeroOpciones(rs, 4)), preguntaId);
+        if (filas.isEmpty()) {
+            return Optional.empty();
+        }
+        ClaveRespuesta leida = filas.get(0);
+        if (clave != null) {
+            tabla.completar(preguntaId, leida.indiceRespuestaCorrecta(), leida.numeroOpciones());
+        } else {
+            tabla.registrar(preguntaId, leida.respuestaCorrecta(), leida.explicacion(),
+                            leida.indiceRespuestaCorrecta(), leida.numeroOpciones());
+        }
+        return Optional.of(leida);
+    }
+
+    @Override
+    public void registrar(Pregunta pregunta) {
+        if (pregunta.id() == null) {
+            throw new IllegalArgumentException("La pregunta debe estar guardada para indexar su clave de respuesta");
+        }
+        ClaveRespuesta clave = ClaveRespuesta.de(pregunta);
+        ConfirmacionTransaccion.alConfirmar(
+            () -> tabla.registrar(pregunta.id(), clave.respuestaCorrecta(), clave.explicacion(),
+                                  clave.indiceRespuestaCorrecta(), clave.numeroOpciones()));
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("entradas", tabla.getEntradas());
+        valores.put("bytes_reservados", tabla.getBytesReservados());
+        valores.put("max_bytes", tabla.getMaxBytes());
+        valores.put("descartadas", tabla.getDescartadas());
+        valores.put("aciertos", aciertos.get());
+        valores.put("lecturas_base_datos", lecturasBaseDatos.get());
+        valores.put("duracion_carga_ms", duracionCargaMs.get());
+        return new Metricas(COMPONENTE, valores);
+    }
+
+    /**
+     * Carga todas las claves de respuesta la primera vez que se consulta el índice.
+     * Si la carga falla se reintenta en la siguiente consulta.
+     */
+    private synchronized void cargar() {
+        if (cargado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                SQL_CLAVES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            tabla.registrar(rs.getLong(1), rs.getString(2), rs.getString(3), leerIndice(rs, 4),
+                            leerNumeroOpciones(rs, 5));
+        });
+        cargado = true;
+
+        duracionCargaMs.set(Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        log.info("Índice de claves de respuesta cargado: {} preguntas, {} bytes, {} fuera del presupuesto ({} ms)",
+                tabla.getEntradas(), tabla.getBytesReservados(), tabla.getDescartadas(), duracionCargaMs.get());
+    }
+
+    /**
+     * Posición de la opción correcta, o -1 en las preguntas guardadas antes de registrarla.
+     */
+    private static int leerIndice(ResultSet rs, int columna) throws SQLException {
+        int indice = rs.getInt(columna);
+        return rs.wasNull() ? -1 : indice;
+    }
+
+    /**
+     * Número de opciones, o -1 en las preguntas cuyas opciones aún no se han empaquetado.
+     */
+    private static int leerNumeroOpciones(ResultSet rs, int columna) throws SQLException {
+        byte[] opciones = rs.getBytes(columna);
+        return opciones != null ? CodecOpciones.contar(opciones) : -1;
+    }
+}
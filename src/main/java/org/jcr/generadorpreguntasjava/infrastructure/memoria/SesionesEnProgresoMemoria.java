@@ -0,0 +1,368 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.ConfirmacionTransaccion;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionesEnProgresoPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Almacén en memoria de las sesiones de respuesta en progreso.
+ * 
+ * Las sesiones se indexan por (usuarioId, preguntaId) y por su ID provisional. El inicio se
+ * guarda también como {@link System#nanoTime()} para medir el tiempo de respuesta con un reloj
+ * monótono. Las sesiones caducan tras el TTL configurado: se ignoran al consultarlas y se
+ * retiran en barridos periódicos que se hacen al iniciar sesiones o bajo demanda.
+ * 
+ * Las escrituras de un usuario se serializan con un cerrojo de un conjunto fijo (lock striping
+ * por usuario), de modo que los dos índices cambian juntos y dos inicios simultáneos de la misma
+ * pregunta (doble clic) obtienen la misma sesión. Las lecturas no toman cerrojos.
+ * 
+ * Completar una sesión solo la reserva: se retira cuando confirma la transacción que guarda la
+ * sesión completada, y vuelve a estar en progreso si se revierte. El número de sesiones está
+ * acotado: al llegar al máximo se retiran primero las caducadas y después las más antiguas.
+ */
+@Slf4j
+@Component
+public class SesionesEnProgresoMemoria implements SesionesEnProgresoPort, ProveedorMetricasPort {
+    
+    private static final String COMPONENTE = "sesiones_en_progreso";
+    private static final int CERROJOS = 64;
+    
+    private final ConcurrentHashMap<Clave, Entrada> porClave = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Clave> porId = new ConcurrentHashMap<>();
+    // Entradas en orden de inicio, para desalojar las más antiguas. Puede contener entradas ya
+    // retiradas: se descartan al llegar a la cabeza o al compactar la cola
+    private final ConcurrentLinkedQueue<Entrada> porAntiguedad = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    private final AtomicLong siguienteId = new AtomicLong();
+    private final long ttlNanos;
+    private final int maximoSesiones;
+    private final long intervaloBarridoNanos;
+    private final AtomicLong ultimoBarrido = new AtomicLong(System.nanoTime());
+    private final ReentrantLock[] cerrojos = new ReentrantLock[CERROJOS];
+    
+    private final AtomicLong iniciadas = new AtomicLong();
+    private final AtomicLong reutilizadas = new AtomicLong();
+    private final AtomicLong esperasCerrojo = new AtomicLong();
+    private final AtomicLong completadas = new AtomicLong();
+    private final AtomicLong caducadas = new AtomicLong();
+    private final AtomicLong desalojadas = new AtomicLong();
+    private final AtomicLong restauradas = new AtomicLong();
+    
+    public SesionesEnProgresoMemoria(
+            @Value("${estadisticas.sesiones-en-progreso.ttl-minutos:30}") long ttlMinutos,
+            @Value("${estadisticas.sesiones-en-progreso.maximo:100000}") int maximoSesiones) {
+        if (ttlMinutos <= 0) {
+            throw new IllegalArgumentException("El TTL de las sesiones en progreso debe ser mayor a 0");
+        }
+        if (maximoSesiones <= 0) {
+            throw new IllegalArgumentException("El máximo de sesiones en progreso debe ser mayor a 0");
+        }
+        this.ttlNanos = Duration.ofMinutes(ttlMinutos).toNanos();
+        this.maximoSesiones = maximoSesiones;
+        // Barrido como mucho una vez por minuto (o por TTL si es menor)
+        this.intervaloBarridoNanos = Math.min(ttlNanos, Duration.ofMinutes(1).toNanos());
+        for (int i = 0; i < CERROJOS; i++) {
+            cerrojos[i] = new ReentrantLock();
+        }
+    }
+    
+    @Override
+    public SesionRespuesta iniciar(Long usuarioId, Long preguntaId) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
+        }
+        if (preguntaId == null) {
+            throw new IllegalArgumentException("El ID de la pregunta no puede ser nulo");
+        }
+        barrerSiToca();
+        
+        Clave clave = new Clave(usuarioId, preguntaId);
+        ReentrantLock cerrojo = bloquear(usuarioId);
+        try {
+            long ahora = System.nanoTime();
+            Entrada actual = porClave.get(clave);
+            if (actual != null && !actual.caducada(ahora, ttlNanos)) {
+                // Inicio repetido: se devuelve la sesión existente en lugar de crear otra
+                reutilizadas.incrementAndGet();
+                return actual.sesion();
+            }
+            if (actual != null) {
+                porId.remove(actual.sesion().id());
+                caducadas.incrementAndGet();
+            } else if (porClave.size() >= maximoSesiones) {
+                liberarEspacio();
+            }
+            
+            SesionRespuesta sesion = new SesionRespuesta(-siguienteId.incrementAndGet(), usuarioId, preguntaId,
+                                                         null, false, LocalDateTime.now(), null, null);
+            Entrada entrada = new Entrada(sesion, ahora, false);
+            porClave.put(clave, entrada);
+            porId.put(sesion.id(), clave);
+            encolar(entrada);
+            iniciadas.incrementAndGet();
+            return sesion;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+    
+    @Override
+    public Optional<SesionRespuesta> buscar(Long usuarioId, Long preguntaId) {
+        return vigente(porClave.get(new Clave(usuarioId, preguntaId)));
+    }
+    
+    @Override
+    public Optional<SesionRespuesta> buscarPorId(Long sesionId) {
+        Clave clave = porId.get(sesionId);
+        if (clave == null) {
+            return Optional.empty();
+        }
+        return vigente(porClave.get(clave)).filter(sesion -> sesion.id().equals(sesionId));
+    }
+    
+    @Override
+    public Optional<SesionRespuesta> completar(Long sesionId, String respuesta, boolean correcta) {
+        Clave clave = porId.get(sesionId);
+        if (clave == null) {
+            return Optional.empty();
+        }
+        
+        long ahora = System.nanoTime();
+        Entrada entrada;
+        Entrada reservada;
+        ReentrantLock cerrojo = bloquear(clave.usuarioId());
+        try {
+            entrada = porClave.get(clave);
+            // Solo una de dos respuestas simultáneas a la misma sesión la reserva
+            if (entrada == null || entrada.reservada() || !entrada.sesion().id().equals(sesionId)) {
+                return Optional.empty();
+            }
+            if (entrada.caducada(ahora, ttlNanos)) {
+                porClave.remove(clave);
+                porId.remove(sesionId);
+                caducadas.incrementAndGet();
+                return Optional.empty();
+            }
+            reservada = entrada.reservar();
+            porClave.put(clave, reservada);
+        } finally {
+            cerrojo.unlock();
+        }
+        
+        // Se retira cuando la sesión completada queda guardada; si no, la respuesta puede repetirse
+        ConfirmacionTransaccion.alTerminar(
+            () -> retirar(clave, reservada),
+            () -> restaurar(clave, reservada, entrada));
+        
+        completadas.incrementAndGet();
+        Duration tiempo = Duration.ofNanos(ahora - entrada.inicioNanos());
+        return Optional.of(entrada.sesion().completarRespuesta(respuesta, correcta, tiempo));
+    }
+    
+    @Override
+    public List<SesionRespuesta> obtenerPorUsuario(Long usuarioId) {
+        long ahora = System.nanoTime();
+        return porClave.entrySet().stream()
+            .filter(e -> e.getKey().usuarioId().equals(usuarioId))
+            .map(Map.Entry::getValue)
+            .filter(entrada -> !entrada.caducada(ahora, ttlNanos))
+            .map(Entrada::sesion)
+            .toList();
+    }
+    
+    @Override
+    public int eliminarCaducadas() {
+        long ahora = System.nanoTime();
+        ultimoBarrido.set(ahora);
+        int eliminadas = 0;
+        
+        for (Map.Entry<Clave, Entrada> e : porClave.entrySet()) {
+            if (!e.getValue().caducada(ahora, ttlNanos)) {
+                continue;
+            }
+            ReentrantLock cerrojo = bloquear(e.getKey().usuarioId());
+            try {
+                Entrada entrada = e.getValue();
+                if (porClave.remove(e.getKey(), entrada)) {
+                    porId.remove(entrada.sesion().id());
+                    eliminadas++;
+                }
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+        
+        recortarCola();
+        
+        if (eliminadas > 0) {
+            caducadas.addAndGet(eliminadas);
+            log.debug("Retiradas {} sesiones en progreso caducadas", eliminadas);
+        }
+        return eliminadas;
+    }
+    
+    @Override
+    public Metricas obtenerMetricas() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("en_progreso", porClave.size());
+        valores.put("iniciadas", iniciadas.get());
+        valores.put("inicios_reutilizados", reutilizadas.get());
+        valores.put("esperas_cerrojo", esperasCerrojo.get());
+        valores.put("completadas", completadas.get());
+        valores.put("caducadas", caducadas.get());
+        valores.put("desalojadas", desalojadas.get());
+        valores.put("restauradas", restauradas.get());
+        return new Metricas(COMPONENTE, valores);
+    }
+    
+    /**
+     * Adquiere el cerrojo del usuario, contando las veces que hay que esperar a otro hilo.
+     */
+    private ReentrantLock bloquear(Long usuarioId) {
+        ReentrantLock cerrojo = cerrojos[Long.hashCode(usuarioId * 0x9E3779B97F4A7C15L) & (CERROJOS - 1)];
+        if (!cerrojo.tryLock()) {
+            esperasCerrojo.incrementAndGet();
+            cerrojo.lock();
+        }
+        return cerrojo;
+    }
+    
+    private void retirar(Clave clave, Entrada reservada) {
+        ReentrantLock cerrojo = bloquear(clave.usuarioId());
+        try {
+            if (porClave.remove(clave, reservada)) {
+                porId.remove(reservada.sesion().id());
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+    
+    private void restaurar(Clave clave, Entrada reservada, Entrada original) {
+        ReentrantLock cerrojo = bloquear(clave.usuarioId());
+        try {
+            if (porClave.replace(clave, reservada, original)) {
+                // Puede haber salido ya de la cola de antigüedad mientras estaba reservada
+                encolar(original);
+                restauradas.incrementAndGet();
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+    
+    /**
+     * Hace sitio para una sesión nueva: retira las caducadas y, si no basta, las más antiguas
+     * que no estén reservadas por una respuesta en curso. Se llama con el cerrojo de un usuario
+     * tomado, así que no toma otros: retira cada entrada solo si sigue siendo la misma.
+     */
+    private void liberarEspacio() {
+        long ahora = System.nanoTime();
+        Entrada masAntigua;
+        while (porClave.size() >= maximoSesiones && (masAntigua = porAntiguedad.poll()) != null) {
+            enCola.decrementAndGet();
+            SesionRespuesta sesion = masAntigua.sesion();
+            if (porClave.remove(new Clave(sesion.usuarioId(), sesion.preguntaId()), masAntigua)) {
+                porId.remove(sesion.id());
+                if (masAntigua.caducada(ahora, ttlNanos)) {
+                    caducadas.incrementAndGet();
+                } else {
+                    desalojadas.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    private void encolar(Entrada entrada) {
+        porAntiguedad.add(entrada);
+        // Las entradas completadas siguen en la cola hasta llegar a la cabeza: si llegan a
+        // doblar el máximo se compacta, con un coste amortizado constante por inicio
+        if (enCola.incrementAndGet() > 2 * maximoSesiones && compactando.compareAndSet(false, true)) {
+            try {
+                compactarCola();
+            } finally {
+                compactando.set(false);
+            }
+        }
+    }
+    
+    /**
+     * Descarta de la cola las entradas que ya no están en progreso y recuenta las que quedan.
+     */
+    private void compactarCola() {
+        int quedan = 0;
+        Iterator<Entrada> it = porAntiguedad.iterator();
+        while (it.hasNext()) {
+            if (enProgreso(it.next())) {
+                quedan++;
+            } else {
+                it.remove();
+            }
+        }
+        enCola.set(quedan);
+    }
+    
+    /**
+     * Descarta las entradas de la cabeza de la cola que ya no están en progreso.
+     */
+    private void recortarCola() {
+        Entrada cabeza;
+        while ((cabeza = porAntiguedad.peek()) != null && !enProgreso(cabeza)) {
+            if (porAntiguedad.remove(cabeza)) {
+                enCola.decrementAndGet();
+            }
+        }
+    }
+    
+    private boolean enProgreso(Entrada entrada) {
+        SesionRespuesta sesion = entrada.sesion();
+        Entrada actual = porClave.get(new Clave(sesion.usuarioId(), sesion.preguntaId()));
+        return actual != null && actual.sesion().id().equals(sesion.id());
+    }
+    
+    private Optional<SesionRespuesta> vigente(Entrada entrada) {
+        if (entrada == null || entrada.caducada(System.nanoTime(), ttlNanos)) {
+            return Optional.empty();
+        }
+        return Optional.of(entrada.sesion());
+    }
+    
+    private void barrerSiToca() {
+        long ahora = System.nanoTime();
+        long anterior = ultimoBarrido.get();
+        if (ahora - anterior >= intervaloBarridoNanos && ultimoBarrido.compareAndSet(anterior, ahora)) {
+            eliminarCaducadas();
+        }
+    }
+    
+    private record Clave(Long usuarioId, Long preguntaId) {}
+    
+    private record Entrada(SesionRespuesta sesion, long inicioNanos, boolean reservada) {
+        boolean caducada(long ahora, long ttlNanos) {
+            return ahora - inicioNanos > ttlNanos;
+        }
+        
+        Entrada reservar() {
+            return new Entrada(sesion, inicioNanos, true);
+        }
+    }
+}
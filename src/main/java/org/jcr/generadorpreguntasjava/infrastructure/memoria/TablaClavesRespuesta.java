@@ -0,0 +1,357 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import org.jcr.generadorpreguntasjava.domain.model.ClaveRespuesta;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tabla compacta de claves de respuesta indexada por ID de pregunta.
+ *
+ * Los IDs van en una tabla hash de direccionamiento abierto con arrays primitivos
+ * (long[] de IDs e int[] de posiciones, sin objetos por entrada). Cada posición apunta a
+ * un área de bytes dividida en trozos de 1 MiB, donde se guardan seguidas la posición de
+ * la opción correcta y el número de opciones (un byte cada uno) y la respuesta correcta y la explicación en UTF-8, cada una
+ * precedida de su longitud (varint). La longitud de la explicación va desplazada en uno para
+ * distinguir la explicación nula (0) de la vacía.
+ *
+ * Las lecturas no toman cerrojos: el ID de una entrada se publica con semántica release
+ * después de escribir sus bytes y su posición, y se lee con acquire. Las escrituras se
+ * serializan sobre la instancia. Registrar un ID ya presente no cambia nada; solo
+ * {@link #completar} rellena después la posición de la opción correcta y el número de opciones
+ * si se guardaron como desconocidos. Cada uno ocupa un byte, así que un lector ve el valor
+ * desconocido o el definitivo, nunca uno intermedio. La tabla no supera el presupuesto de memoria indicado; lo que no cabe
+ * no se indexa y {@link #registrar} devuelve false. El ID rechazado queda marcado en la tabla
+ * hash, de modo que volver a registrarlo no intenta otra reserva ni vuelve a contarlo como
+ * descartado; si ni la marca cabe (tabla hash llena al 7/8 sin poder crecer), se cuenta cada vez.
+ */
+public class TablaClavesRespuesta {
+
+    private static final VarHandle IDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int BITS_TROZO = 20;
+    private static final int TAMANO_TROZO = 1 << BITS_TROZO;
+    private static final long VACIA = 0L;
+    private static final int RECHAZADA = -1;
+    private static final int CAPACIDAD_MINIMA = 1024;
+    
+    // La posición de la opción correcta y el número de opciones se guardan desplazados en uno:
+    // 0 significa desconocido
+    private static final int MAX_DESPLAZADO = Byte.MAX_VALUE - 1;
+
+    // Bytes por hueco de la tabla hash (long del ID + int de la posición)
+    private static final int BYTES_POR_HUECO = Long.BYTES + Integer.BYTES;
+
+    private final long maxBytes;
+    private final byte[][] trozos;
+    private volatile Tabla tabla;
+
+    // Estado del escritor, protegido por el monitor de la instancia
+    private int entradas;
+    private int marcadas;
+    private int trozosReservados;
+    private long siguientePosicion;
+    private long descartadas;
+
+    /**
+     * Huecos de la tabla hash. Al crecer se publica una tabla nueva; las anteriores
+     * siguen siendo válidas para los lectores que aún las usan.
+     */
+    private record Tabla(long[] ids, int[] posiciones, int mascara) {
+
+        private Tabla(int capacidad) {
+            this(new long[capacidad], new int[capacidad], capacidad - 1);
+        }
+    }
+
+    public TablaClavesRespuesta(long maxBytes) {
+        long minimo = (long) CAPACIDAD_MINIMA * BYTES_POR_HUECO + TAMANO_TROZO;
+        if (maxBytes < minimo) {
+            throw new IllegalArgumentException("El presupuesto de memoria debe ser al menos " + minimo + " bytes");
+        }
+        // Las posiciones son int: el área de bytes no puede pasar de 2 GiB
+        this.maxBytes = Math.min(maxBytes, Integer.MAX_VALUE);
+        this.trozos = new byte[(int) ((this.maxBytes + TAMANO_TROZO - 1) >>> BITS_TROZO)][];
+        this.tabla = new Tabla(CAPACIDAD_MINIMA);
+    }
+
+    /**
+     * Busca la clave de respuesta de una pregunta sin tomar cerrojos.
+     *
+     * @return Clave de respuesta, o null si el ID no está indexado
+     */
+    public ClaveRespuesta buscar(long preguntaId) {
+        Tabla actual = tabla;
+        int hueco = huecoInicial(preguntaId, actual.mascara());
+        while (true) {
+            long id = (long) IDS.getAcquire(actual.ids(), hueco);
+            if (id == VACIA) {
+                return null;
+            }
+            if (id == preguntaId) {
+                int posicion = actual.posiciones()[hueco];
+                return posicion != RECHAZADA ? leer(posicion) : null;
+            }
+            hueco = (hueco + 1) & actual.mascara();
+        }
+    }
+
+    /**
+     * Indexa la clave de respuesta de una pregunta.
+     *
+     * @return true si la pregunta queda indexada; false si no cabe en el presupuesto de memoria,
+     *         ahora o en un registro anterior
+     */
+    public synchronized boolean registrar(long preguntaId, String respuestaCorrecta, String explicacion,
+                                          int indiceRespuestaCorrecta, int numeroOpciones) {
+        if (preguntaId <= 0) {
+            throw new IllegalArgumentException("El ID de la pregunta debe ser mayor a 0");
+        }
+        if (respuestaCorrecta == null) {
+            throw new IllegalArgumentException("La respuesta correcta no puede ser nula");
+        }
+        int existente = buscarHueco(tabla, preguntaId);
+        if (existente < 0) {
+            return tabla.posiciones()[-existente - 1] != RECHAZADA;
+        }
+
+        byte[] respuesta = respuestaCorrecta.getBytes(StandardCharsets.UTF_8);
+        byte[] texto = explicacion != null ? explicacion.getBytes(StandardCharsets.UTF_8) : null;
+        int longitudTexto = texto != null ? texto.length + 1 : 0;
+        int tamano = 2 + longitudVarint(respuesta.length) + respuesta.length
+            + longitudVarint(longitudTexto) + (texto != null ? texto.length : 0);
+
+        // Carga máxima del 60%: crecer antes de llenar los huecos
+        if ((entradas + marcadas + 1) * 5L > tabla.ids().length * 3L && !crecer()) {
+            return descartar(preguntaId);
+        }
+        long posicion = reservar(tamano);
+        if (posicion < 0) {
+            return descartar(preguntaId);
+        }
+
+        byte[] trozo = trozos[(int) (posicion >>> BITS_TROZO)];
+        int desplazamiento = (int) (posicion & (TAMANO_TROZO - 1));
+        trozo[desplazamiento++] = desplazado(indiceRespuestaCorrecta);
+        trozo[desplazamiento++] = desplazado(numeroOpciones);
+        desplazamiento = escribir(trozo, desplazamiento, respuesta.length, respuesta);
+        escribir(trozo, desplazamiento, longitudTexto, texto);
+
+        publicar(preguntaId, (int) posicion);
+        entradas++;
+        return true;
+    }
+
+    /**
+     * Rellena la posición de la opción correcta y el número de opciones de una entrada que los
+     * guardó como desconocidos (pregunta indexada antes de empaquetar sus opciones). Los valores
+     * ya conocidos no se cambian.
+     *
+     * @return true si la pregunta está indexada
+     */
+    public synchronized boolean completar(long preguntaId, int indiceRespuestaCorrecta, int numeroOpciones) {
+        int existente = buscarHueco(tabla, preguntaId);
+        if (existente >= 0) {
+            return false;
+        }
+        int posicion = tabla.posiciones()[-existente - 1];
+        if (posicion == RECHAZADA) {
+            return false;
+        }
+        byte[] trozo = trozos[posicion >>> BITS_TROZO];
+        int desplazamiento = posicion & (TAMANO_TROZO - 1);
+        if (trozo[desplazamiento] == 0) {
+            trozo[desplazamiento] = desplazado(indiceRespuestaCorrecta);
+        }
+        if (trozo[desplazamiento + 1] == 0) {
+            trozo[desplazamiento + 1] = desplazado(numeroOpciones);
+        }
+        return true;
+    }
+
+    /**
+     * Número de preguntas indexadas.
+     */
+    public synchronized int getEntradas() {
+        return entradas;
+    }
+
+    /**
+     * Bytes reservados entre la tabla hash y los trozos de texto.
+     */
+    public synchronized long getBytesReservados() {
+        return bytesReservados(tabla.ids().length, trozosReservados);
+    }
+
+    /**
+     * Preguntas rechazadas por no caber en el presupuesto de memoria (cada ID una vez).
+     */
+    public synchronized long getDescartadas() {
+        return descartadas;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private ClaveRespuesta leer(int posicion) {
+        byte[] trozo = trozos[posicion >>> BITS_TROZO];
+        int desplazamiento = posicion & (TAMANO_TROZO - 1);
+        int indice = trozo[desplazamiento++] - 1;
+        int numeroOpciones = trozo[desplazamiento++] - 1;
+
+        int longitud = 0;
+        for (int bits = 0; ; bits += 7) {
+            byte b = trozo[desplazamiento++];
+            longitud |= (b & 0x7F) << bits;
+            if (b >= 0) {
+                break;
+            }
+        }
+        String respuesta = new String(trozo, desplazamiento, longitud, StandardCharsets.UTF_8);
+        desplazamiento += longitud;
+
+        longitud = 0;
+        for (int bits = 0; ; bits += 7) {
+            byte b = trozo[desplazamiento++];
+            longitud |= (b & 0x7F) << bits;
+            if (b >= 0) {
+                break;
+            }
+        }
+        String explicacion = longitud > 0
+            ? new String(trozo, desplazamiento, longitud - 1, StandardCharsets.UTF_8)
+            : null;
+        return new ClaveRespuesta(respuesta, explicacion, indice, numeroOpciones);
+    }
+
+    /**
+     * Hueco libre donde insertar el ID, o -(hueco + 1) si el ID ya está en la tabla.
+     */
+    private static int buscarHueco(Tabla tabla, long preguntaId) {
+        int hueco = huecoInicial(preguntaId, tabla.mascara());
+        while (true) {
+            long id = tabla.ids()[hueco];
+            if (id == VACIA) {
+                return hueco;
+            }
+            if (id == preguntaId) {
+                return -hueco - 1;
+            }
+            hueco = (hueco + 1) & tabla.mascara();
+        }
+    }
+
+    private static int huecoInicial(long preguntaId, int mascara) {
+        // Los IDs son consecutivos: mezclar los bits para repartirlos por la tabla
+        long h = preguntaId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private boolean crecer() {
+        Tabla actual = tabla;
+        int capacidad = actual.ids().length * 2;
+        if (capacidad <= 0 || bytesReservados(capacidad, trozosReservados) > maxBytes) {
+            return false;
+        }
+
+        Tabla nueva = new Tabla(capacidad);
+        for (int i = 0; i < actual.ids().length; i++) {
+            long id = actual.ids()[i];
+            if (id != VACIA) {
+                int hueco = huecoInicial(id, nueva.mascara());
+                while (nueva.ids()[hueco] != VACIA) {
+                    hueco = (hueco + 1) & nueva.mascara();
+                }
+                nueva.ids()[hueco] = id;
+                nueva.posiciones()[hueco] = actual.posiciones()[i];
+            }
+        }
+        // Escritura volátil: publica la tabla completa a los lectores
+        tabla = nueva;
+        return true;
+    }
+
+    /**
+     * Reserva espacio contiguo dentro de un trozo, abriendo uno nuevo si no cabe en el actual.
+     *
+     * @return Posición reservada, o -1 si se supera el presupuesto
+     */
+    private long reservar(int tamano) {
+        if (tamano > TAMANO_TROZO) {
+            return -1;
+        }
+        long posicion = siguientePosicion;
+        int trozo = (int) (posicion >>> BITS_TROZO);
+        if (trozo < trozosReservados && (posicion & (TAMANO_TROZO - 1)) + tamano > TAMANO_TROZO) {
+            trozo++;
+            posicion = (long) trozo << BITS_TROZO;
+        }
+        if (trozo >= trozosReservados) {
+            if (trozo >= trozos.length || bytesReservados(tabla.ids().length, trozo + 1) > maxBytes) {
+                return -1;
+            }
+            // El trozo queda visible a los lectores al publicar el ID que lo referencia
+            trozos[trozo] = new byte[TAMANO_TROZO];
+            trozosReservados = trozo + 1;
+        }
+        siguientePosicion = posicion + tamano;
+        return posicion;
+    }
+
+    /**
+     * Publica el ID en la tabla hash actual, después de escribir su posición.
+     */
+    private void publicar(long preguntaId, int posicion) {
+        Tabla actual = tabla;
+        int hueco = buscarHueco(actual, preguntaId);
+        actual.posiciones()[hueco] = posicion;
+        IDS.setRelease(actual.ids(), hueco, preguntaId);
+    }
+
+    /**
+     * Cuenta el ID como descartado y lo marca como rechazado, sin crecer la tabla hash:
+     * la marca solo ocupa un hueco libre mientras la carga no pase de 7/8.
+     */
+    private boolean descartar(long preguntaId) {
+        descartadas++;
+        if ((entradas + marcadas + 1) * 8L <= tabla.ids().length * 7L) {
+            publicar(preguntaId, RECHAZADA);
+            marcadas++;
+        }
+        return false;
+    }
+
+    private static byte desplazado(int valor) {
+        return (byte) (valor >= 0 && valor <= MAX_DESPLAZADO ? valor + 1 : 0);
+    }
+
+    private static long bytesReservados(int capacidad, int trozos) {
+        return (long) capacidad * BYTES_POR_HUECO + (long) trozos * TAMANO_TROZO;
+    }
+
+    private static int escribir(byte[] trozo, int desplazamiento, int longitud, byte[] datos) {
+        while ((longitud & ~0x7F) != 0) {
+            trozo[desplazamiento++] = (byte) ((longitud & 0x7F) | 0x80);
+            longitud >>>= 7;
+        }
+        trozo[desplazamiento++] = (byte) longitud;
+        if (datos == null) {
+            return desplazamiento;
+        }
+        System.arraycopy(datos, 0, trozo, desplazamiento, datos.length);
+        return desplazamiento + datos.length;
+    }
+
+    private static int longitudVarint(int valor) {
+        int bytes = 1;
+        while ((valor & ~0x7F) != 0) {
+            valor >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+}
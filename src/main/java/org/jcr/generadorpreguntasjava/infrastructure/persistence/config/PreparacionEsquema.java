@@ -0,0 +1,99 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ajustes del esquema que ddl-auto=update no hace por sí solo, aplicados antes de que
+ * Hibernate actualice el esquema al crear el EntityManagerFactory.
+ *
+ * Hibernate solo crea índices: los que se renombran o dejan de declararse en las entidades
+ * seguirían en la base de datos, ocupando espacio y encareciendo cada escritura. Tampoco
+ * puede crear una restricción única sobre filas que ya la incumplen: los datos se depuran
+ * antes de que la declare.
+ */
+@Slf4j
+@Component(PreparacionEsquema.NOMBRE)
+public class PreparacionEsquema {
+
+    static final String NOMBRE = "preparacionEsquema";
+
+    // Índices que ya no declaran las entidades
+    private static final List<String> INDICES_OBSOLETOS = List.of(
+        "idx_sesiones_usuario_fin",      // sustituido por idx_sesiones_usuario_fin_id
+        "idx_sesiones_usuario_tiempo",   // solo servía a la consulta de mejores tiempos, eliminada
+        "idx_pregunta_tematica_tematica" // los filtros por temática ya no leen pregunta_tematica
+    );
+
+    private static final String SQL_EXISTE_TABLA_SESIONES =
+        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE LOWER(TABLE_NAME) = 'sesiones_respuesta'";
+
+    private static final String SQL_EXISTE_RESTRICCION_EN_PROGRESO =
+        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE LOWER(CONSTRAINT_NAME) = 'uk_sesiones_en_progreso'";
+
+    // Deja la sesión en progreso más reciente de cada usuario y pregunta
+    private static final String SQL_ELIMINAR_EN_PROGRESO_DUPLICADAS =
+        "DELETE FROM sesiones_respuesta WHERE fin_respuesta IS NULL AND id NOT IN (" +
+        "SELECT MAX(id) FROM sesiones_respuesta WHERE fin_respuesta IS NULL GROUP BY usuario_id, pregunta_id)";
+
+    public PreparacionEsquema(JdbcTemplate jdbcTemplate) {
+        eliminarIndicesObsoletos(jdbcTemplate);
+        depurarSesionesEnProgreso(jdbcTemplate);
+    }
+
+    private static void eliminarIndicesObsoletos(JdbcTemplate jdbcTemplate) {
+        for (String indice : INDICES_OBSOLETOS) {
+            try {
+                jdbcTemplate.execute("DROP INDEX IF EXISTS " + indice);
+            } catch (Exception e) {
+                // No impide arrancar: el índice sobrante solo cuesta espacio y escrituras
+                log.warn("No se pudo eliminar el índice obsoleto {}: {}", indice, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Elimina las sesiones en progreso duplicadas de las bases de datos anteriores a
+     * uk_sesiones_en_progreso, que si no impedirían crearla. Las sesiones en progreso ya no se
+     * guardan en la tabla, así que solo puede haberlas en datos heredados y basta con hacerlo
+     * mientras la restricción no exista.
+     */
+    private static void depurarSesionesEnProgreso(JdbcTemplate jdbcTemplate) {
+        try {
+            if (contar(jdbcTemplate, SQL_EXISTE_TABLA_SESIONES) == 0
+                    || contar(jdbcTemplate, SQL_EXISTE_RESTRICCION_EN_PROGRESO) > 0) {
+                return;
+            }
+            int eliminadas = jdbcTemplate.update(SQL_ELIMINAR_EN_PROGRESO_DUPLICADAS);
+            if (eliminadas > 0) {
+                log.info("Eliminadas {} sesiones en progreso duplicadas antes de crear uk_sesiones_en_progreso", eliminadas);
+            }
+        } catch (Exception e) {
+            // Sin depurar, Hibernate no podrá crear la restricción y lo registrará al actualizar el esquema
+            log.warn("No se pudieron depurar las sesiones en progreso duplicadas: {}", e.getMessage());
+        }
+    }
+
+    private static int contar(JdbcTemplate jdbcTemplate, String sql) {
+        Integer total = jdbcTemplate.queryForObject(sql, Integer.class);
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Hace que el EntityManagerFactory (y con él la actualización del esquema) espere a esta preparación.
+     */
+    @Configuration
+    static class Dependencia {
+
+        @Bean
+        static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependeDePreparacionEsquema() {
+            return new EntityManagerFactoryDependsOnPostProcessor(NOMBRE);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para los bloqueos con concesión entre instancias.
+ * Define la tabla; las adquisiciones se hacen con UPDATE/INSERT atómicos por JDBC.
+ */
+@Entity
+@Table(name = "bloqueos_distribuidos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoDistribuidoEntity {
+    
+    @Id
+    @Column(name = "nombre", length = 100)
+    private String nombre;
+    
+    @Column(name = "propietario", nullable = false, length = 200)
+    private String propietario;
+    
+    @Column(name = "bloqueado_hasta", nullable = false)
+    private LocalDateTime bloqueadoHasta;
+}
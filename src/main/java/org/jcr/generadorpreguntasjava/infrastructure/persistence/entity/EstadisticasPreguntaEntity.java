@@ -0,0 +1,71 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para estadísticas agregadas por pregunta.
+ * Se mantiene de forma incremental con cada respuesta completada.
+ */
+@Entity
+@Table(name = "estadisticas_pregunta")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasPreguntaEntity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "pregunta_id", nullable = false, unique = true)
+    private Long preguntaId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dificultad", length = 20)
+    private Dificultad dificultad;
+    
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+    
+    @Column(name = "aciertos", nullable = false)
+    private int aciertos;
+    
+    // Número de veces que se eligió cada una de las 4 opciones (en el orden de la pregunta)
+    @Column(name = "respuestas_opcion_1", nullable = false)
+    private int respuestasOpcion1;
+    
+    @Column(name = "respuestas_opcion_2", nullable = false)
+    private int respuestasOpcion2;
+    
+    @Column(name = "respuestas_opcion_3", nullable = false)
+    private int respuestasOpcion3;
+    
+    @Column(name = "respuestas_opcion_4", nullable = false)
+    private int respuestasOpcion4;
+    
+    // Histograma de tiempos de respuesta codificado en binario (ver HistogramaTiempos)
+    @Column(name = "histograma_tiempos", length = 4096)
+    private byte[] histogramaTiemposBinario;
+    
+    // Último offset del diario de respuestas que refleja la fila; NULL en las filas anteriores
+    // a esta columna o sin ningún evento conocido
+    @Column(name = "offset_diario")
+    private Long offsetDiario;
+    
+    @Column(name = "ultima_actualizacion", nullable = false)
+    private LocalDateTime ultimaActualizacion;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        if (ultimaActualizacion == null) {
+            ultimaActualizacion = LocalDateTime.now();
+        }
+    }
+}
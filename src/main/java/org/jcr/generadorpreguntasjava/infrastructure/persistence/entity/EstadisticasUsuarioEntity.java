@@ -37,14 +37,38 @@ public class EstadisticasUsuarioEntity {
     @Column(name = "tiempo_promedio_ms")
     private Long tiempoPromedioMs;
     
-    // Estadísticas por dificultad almacenadas como JSON
+    // Estadísticas por dificultad almacenadas como JSON (formato anterior, solo lectura)
     @Column(name = "estadisticas_por_dificultad", columnDefinition = "TEXT")
     private String estadisticasPorDificultadJson;
     
-    // Estadísticas por temática almacenadas como JSON
+    // Estadísticas por temática almacenadas como JSON (formato anterior, solo lectura)
     @Column(name = "estadisticas_por_tematica", columnDefinition = "TEXT")
     private String estadisticasPorTematicaJson;
     
+    // Estadísticas por dificultad en formato binario compacto (ver CodecEstadisticasBinario).
+    // Sustituye a la columna JSON, que solo se lee en filas anteriores a este formato.
+    @Column(name = "estadisticas_por_dificultad_bin", length = 8192)
+    private byte[] estadisticasPorDificultadBinario;
+    
+    // Estadísticas por temática en formato binario compacto (ver CodecEstadisticasBinario)
+    @Column(name = "estadisticas_por_tematica_bin", length = 262144)
+    private byte[] estadisticasPorTematicaBinario;
+    
+    // Histograma de tiempos de respuesta codificado en binario (ver HistogramaTiempos)
+    @Column(name = "histograma_tiempos", length = 4096)
+    private byte[] histogramaTiemposBinario;
+    
+    // Versión de la fila para el control optimista de concurrencia, incrementada en cada
+    // escritura; identifica también las entradas de la caché
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
+    // Último offset del diario de respuestas que refleja la fila; NULL en las filas anteriores
+    // a esta columna o sin ningún evento conocido
+    @Column(name = "offset_diario")
+    private Long offsetDiario;
+    
     @Column(name = "ultima_actualizacion", nullable = false)
     private LocalDateTime ultimaActualizacion;
     
@@ -0,0 +1,60 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.EstadoParticion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para el progreso de la reconstrucción masiva de estadísticas.
+ * Cada fila es un rango de usuarios; las completadas se saltan al reanudar tras una caída.
+ */
+@Entity
+@Table(name = "reconstruccion_particiones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticionReconstruccionEntity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "desde_usuario_id", nullable = false)
+    private Long desdeUsuarioId;
+    
+    @Column(name = "hasta_usuario_id", nullable = false)
+    private Long hastaUsuarioId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoParticion estado;
+    
+    @Column(name = "usuarios_procesados", nullable = false)
+    private long usuariosProcesados;
+    
+    @Column(name = "sesiones_procesadas", nullable = false)
+    private long sesionesProcesadas;
+    
+    @Column(name = "ultima_actualizacion", nullable = false)
+    private LocalDateTime ultimaActualizacion;
+    
+    /**
+     * Constructor para crear una partición pendiente.
+     */
+    public ParticionReconstruccionEntity(Long desdeUsuarioId, Long hastaUsuarioId) {
+        this.desdeUsuarioId = desdeUsuarioId;
+        this.hastaUsuarioId = hastaUsuarioId;
+        this.estado = EstadoParticion.PENDIENTE;
+        this.ultimaActualizacion = LocalDateTime.now();
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        ultimaActualizacion = LocalDateTime.now();
+    }
+}
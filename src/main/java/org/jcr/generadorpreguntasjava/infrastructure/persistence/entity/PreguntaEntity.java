@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
 
 import java.util.List;
@@ -13,7 +14,11 @@ import java.util.Set;
  * Entidad JPA para preguntas.
  */
 @Entity
-@Table(name = "preguntas")
+@Table(name = "preguntas", indexes = {
+    @Index(name = "idx_preguntas_dificultad", columnList = "dificultad"),
+    @Index(name = "idx_preguntas_tematica_principal", columnList = "tematica_principal_id"),
+    @Index(name = "idx_preguntas_tematica_secundaria", columnList = "tematica_secundaria_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,17 +41,43 @@ public class PreguntaEntity {
     @Column(name = "respuesta_correcta", nullable = false, length = 500)
     private String respuestaCorrecta;
     
+    // Posición de la respuesta correcta entre las opciones (NULL en preguntas guardadas antes de registrarla)
+    @Column(name = "indice_respuesta_correcta")
+    private Integer indiceRespuestaCorrecta;
+    
     @Column(name = "explicacion", nullable = false, columnDefinition = "TEXT")
     private String explicacion;
     
-    @OneToMany(mappedBy = "pregunta", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    // Opciones empaquetadas en una sola columna, en su orden (ver CodecOpciones)
+    @Column(name = "opciones_empaquetadas", length = 8192)
+    private byte[] opcionesEmpaquetadas;
+    
+    // Formato anterior, una fila por opción: solo se lee en preguntas aún sin migrar
+    // (ver MigracionOpcionesEmpaquetadas). Las respuestas por posición dependen del orden.
+    // Se cargan por lotes para no lanzar una consulta por pregunta al leer listas.
+    @OneToMany(mappedBy = "pregunta", fetch = FetchType.LAZY)
+    @OrderBy("id")
+    @BatchSize(size = 100)
     private List<OpcionEntity> opciones;
     
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
+    // Temáticas principal y secundaria de la pregunta (NULL en preguntas aún sin migrar,
+    // ver MigracionTematicasPregunta). Los filtros por temática usan estas columnas.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tematica_principal_id")
+    private TematicaEntity tematicaPrincipal;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tematica_secundaria_id")
+    private TematicaEntity tematicaSecundaria;
+    
+    // Relación anterior, que no conserva el orden: ya no se escribe, solo se lee en preguntas
+    // aún sin migrar. La migración elimina las filas de cada pregunta al migrarla.
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "pregunta_tematica",
         joinColumns = @JoinColumn(name = "pregunta_id"),
         inverseJoinColumns = @JoinColumn(name = "tematica_id")
     )
+    @BatchSize(size = 100)
     private Set<TematicaEntity> tematicas;
 }
@@ -0,0 +1,53 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Entidad JPA para los resúmenes diarios de las sesiones archivadas.
+ * Cada fila agrega las sesiones completadas de un usuario en un día, por dificultad y temática
+ * principal. Define la tabla; el archivo y las lecturas se hacen por JDBC.
+ */
+@Entity
+@Table(name = "resumenes_diarios_sesiones",
+       uniqueConstraints = @UniqueConstraint(name = "uk_resumen_usuario_fecha_clasificacion",
+                                             columnNames = {"usuario_id", "fecha", "dificultad", "tematica"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenDiarioSesionesEntity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+    
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+    
+    @Column(name = "dificultad", nullable = false, length = 20)
+    private String dificultad;
+    
+    @Column(name = "tematica", nullable = false, length = 100)
+    private String tematica;
+    
+    @Column(name = "total", nullable = false)
+    private int total;
+    
+    @Column(name = "correctas", nullable = false)
+    private int correctas;
+    
+    // Suma de los tiempos válidos (los que cuenta el histograma)
+    @Column(name = "tiempo_total_ms", nullable = false)
+    private long tiempoTotalMs;
+    
+    // Histograma de tiempos de respuesta codificado en binario (ver HistogramaTiempos)
+    @Column(name = "histograma_tiempos", length = 4096)
+    private byte[] histogramaTiemposBinario;
+}
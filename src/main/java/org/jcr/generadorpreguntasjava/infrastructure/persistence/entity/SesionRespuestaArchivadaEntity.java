@@ -0,0 +1,50 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para las sesiones de respuesta archivadas.
+ * Conserva las filas originales (con su ID) que el archivo retira de sesiones_respuesta
+ * una vez agregadas en resúmenes diarios. Define la tabla; las filas se mueven por JDBC.
+ */
+@Entity
+@Table(name = "sesiones_respuesta_archivo", indexes = {
+    @Index(name = "idx_sesiones_archivo_usuario_fin", columnList = "usuario_id, fin_respuesta")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SesionRespuestaArchivadaEntity {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+    
+    @Column(name = "pregunta_id", nullable = false)
+    private Long preguntaId;
+    
+    @Column(name = "respuesta_seleccionada", length = 500)
+    private String respuestaSeleccionada;
+    
+    @Column(name = "opcion_seleccionada")
+    private Byte opcionSeleccionada;
+    
+    @Column(name = "es_correcta", nullable = false)
+    private boolean esCorrecta;
+    
+    @Column(name = "inicio_respuesta", nullable = false)
+    private LocalDateTime inicioRespuesta;
+    
+    @Column(name = "fin_respuesta")
+    private LocalDateTime finRespuesta;
+    
+    @Column(name = "tiempo_respuesta_ms")
+    private Long tiempoRespuestaMs;
+}
@@ -13,7 +13,19 @@ import java.time.LocalDateTime;
  * Rastrea el tiempo de respuesta y resultados de cada pregunta respondida por un usuario.
  */
 @Entity
-@Table(name = "sesiones_respuesta")
+@Table(name = "sesiones_respuesta", indexes = {
+    // Índices para que las consultas por usuario con ORDER BY + LIMIT no recorran todo el historial
+    // (fin_respuesta, id) es además la clave del cursor del historial paginado
+    @Index(name = "idx_sesiones_usuario_fin_id", columnList = "usuario_id, fin_respuesta, id"),
+    @Index(name = "idx_sesiones_usuario_correcta_fin_id", columnList = "usuario_id, es_correcta, fin_respuesta, id"),
+    // Listado de sesiones de un usuario ordenado por inicio (obtenerPorUsuario)
+    @Index(name = "idx_sesiones_usuario_inicio", columnList = "usuario_id, inicio_respuesta"),
+    // Localiza las sesiones sin completar para la limpieza de abandonadas
+    @Index(name = "idx_sesiones_fin_inicio", columnList = "fin_respuesta, inicio_respuesta")
+}, uniqueConstraints = {
+    // Como mucho una sesión en progreso por usuario y pregunta
+    @UniqueConstraint(name = "uk_sesiones_en_progreso", columnNames = {"usuario_en_progreso", "pregunta_en_progreso"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +44,10 @@ public class SesionRespuestaEntity {
     @Column(name = "respuesta_seleccionada", length = 500)
     private String respuestaSeleccionada;
     
+    // Respuestas por posición: solo se guarda el índice de la opción, sin el texto
+    @Column(name = "opcion_seleccionada")
+    private Byte opcionSeleccionada;
+    
     @Column(name = "es_correcta", nullable = false)
     private boolean esCorrecta;
     
@@ -44,6 +60,16 @@ public class SesionRespuestaEntity {
     @Column(name = "tiempo_respuesta_ms")
     private Long tiempoRespuestaMs;
     
+    // Columnas generadas para la restricción única de sesiones en progreso: solo tienen valor
+    // mientras la sesión no se ha completado, y las filas con NULL no entran en la restricción
+    @Column(name = "usuario_en_progreso", insertable = false, updatable = false,
+            columnDefinition = "BIGINT GENERATED ALWAYS AS (CASE WHEN fin_respuesta IS NULL THEN usuario_id END)")
+    private Long usuarioEnProgreso;
+    
+    @Column(name = "pregunta_en_progreso", insertable = false, updatable = false,
+            columnDefinition = "BIGINT GENERATED ALWAYS AS (CASE WHEN fin_respuesta IS NULL THEN pregunta_id END)")
+    private Long preguntaEnProgreso;
+    
     // Relaciones (lazy loading por defecto)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", insertable = false, updatable = false)
@@ -96,7 +122,8 @@ public class SesionRespuestaEntity {
      * Verifica si la sesión está completa.
      */
     public boolean estaCompleta() {
-        return respuestaSeleccionada != null && finRespuesta != null && tiempoRespuestaMs != null;
+        return (respuestaSeleccionada != null || opcionSeleccionada != null)
+            && finRespuesta != null && tiempoRespuestaMs != null;
     }
     
     /**
@@ -0,0 +1,213 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
+import org.jcr.generadorpreguntasjava.domain.model.HistogramaTiempos;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codificación binaria compacta de las estadísticas por dificultad y por temática.
+ * 
+ * Sustituye al JSON de las columnas de estadísticas: no repite nombres de campo,
+ * usa varints para los contadores y reutiliza el formato binario de {@link HistogramaTiempos}.
+ * El porcentaje de aciertos no se guarda: se deriva de los contadores al decodificar.
+ * 
+ * Formato por dificultad (versión 1): versión (1 byte), máscara de dificultades presentes
+ * (1 byte, bit = ordinal) y, por cada dificultad presente en orden de ordinal, su bloque.
+ * 
+ * Formato por temática (versión 1): versión (1 byte), número de temáticas (varint) y por
+ * cada una su nombre (longitud varint + UTF-8) seguido de su bloque.
+ * 
+ * Bloque: total, correctas, tiempo promedio en ms y longitud del histograma (varints),
+ * seguidos de los bytes del histograma (ninguno si está vacío).
+ */
+public final class CodecEstadisticasBinario {
+    
+    private static final byte VERSION_FORMATO = 1;
+    private static final Dificultad[] DIFICULTADES = Dificultad.values();
+    
+    private CodecEstadisticasBinario() {
+    }
+    
+    // ===== POR DIFICULTAD =====
+    
+    public static byte[] codificarPorDificultad(Map<Dificultad, EstadisticasPorDificultad> porDificultad) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(32);
+        salida.write(VERSION_FORMATO);
+        
+        int mascara = 0;
+        if (porDificultad != null) {
+            for (Dificultad dificultad : porDificultad.keySet()) {
+                mascara |= 1 << dificultad.ordinal();
+            }
+        }
+        salida.write(mascara);
+        
+        for (Dificultad dificultad : DIFICULTADES) {
+            if ((mascara & (1 << dificultad.ordinal())) != 0) {
+                EstadisticasPorDificultad stats = porDificultad.get(dificultad);
+                escribirBloque(salida, stats.totalPreguntas(), stats.respuestasCorrectas(),
+                        stats.tiempoPromedio(), stats.histograma());
+            }
+        }
+        return salida.toByteArray();
+    }
+    
+    public static Map<Dificultad, EstadisticasPorDificultad> decodificarPorDificultad(byte[] datos) {
+        Lector lector = new Lector(datos);
+        Map<Dificultad, EstadisticasPorDificultad> resultado = new EnumMap<>(Dificultad.class);
+        int mascara = lector.leerByte();
+        
+        for (Dificultad dificultad : DIFICULTADES) {
+            if ((mascara & (1 << dificultad.ordinal())) != 0) {
+                int total = lector.leerEntero();
+                int correctas = lector.leerEntero();
+                Duration tiempoPromedio = Duration.ofMillis(lector.leerVarint());
+                resultado.put(dificultad, new EstadisticasPorDificultad(dificultad, total, correctas,
+                        porcentaje(total, correctas), tiempoPromedio, lector.leerHistograma()));
+            }
+        }
+        return resultado;
+    }
+    
+    // ===== POR TEMÁTICA =====
+    
+    public static byte[] codificarPorTematica(Map<String, EstadisticasPorTematica> porTematica) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(64);
+        salida.write(VERSION_FORMATO);
+        escribirVarint(salida, porTematica != null ? porTematica.size() : 0);
+        
+        if (porTematica != null) {
+            for (Map.Entry<String, EstadisticasPorTematica> entrada : porTematica.entrySet()) {
+                byte[] nombre = entrada.getKey().getBytes(StandardCharsets.UTF_8);
+                escribirVarint(salida, nombre.length);
+                salida.writeBytes(nombre);
+                
+                EstadisticasPorTematica stats = entrada.getValue();
+                escribirBloque(salida, stats.totalPreguntas(), stats.respuestasCorrectas(),
+                        stats.tiempoPromedio(), stats.histograma());
+            }
+        }
+        return salida.toByteArray();
+    }
+    
+    public static Map<String, EstadisticasPorTematica> decodificarPorTematica(byte[] datos) {
+        Lector lector = new Lector(datos);
+        int cantidad = lector.leerEntero();
+        Map<String, EstadisticasPorTematica> resultado = new HashMap<>(Math.max(4, cantidad * 2));
+        
+        for (int i = 0; i < cantidad; i++) {
+            String tematica = lector.leerTexto();
+            int total = lector.leerEntero();
+            int correctas = lector.leerEntero();
+            Duration tiempoPromedio = Duration.ofMillis(lector.leerVarint());
+            resultado.put(tematica, new EstadisticasPorTematica(tematica, total, correctas,
+                    porcentaje(total, correctas), tiempoPromedio, lector.leerHistograma()));
+        }
+        return resultado;
+    }
+    
+    // ===== AUXILIARES =====
+    
+    private static double porcentaje(int total, int correctas) {
+        return total > 0 ? (double) correctas / total * 100.0 : 0.0;
+    }
+    
+    private static void escribirBloque(ByteArrayOutputStream salida, int total, int correctas,
+                                       Duration tiempoPromedio, HistogramaTiempos histograma) {
+        escribirVarint(salida, total);
+        escribirVarint(salida, correctas);
+        escribirVarint(salida, tiempoPromedio != null ? Math.max(0, tiempoPromedio.toMillis()) : 0L);
+        
+        byte[] histogramaCodificado = histograma != null && !histograma.estaVacio()
+                ? histograma.codificar() : new byte[0];
+        escribirVarint(salida, histogramaCodificado.length);
+        salida.writeBytes(histogramaCodificado);
+    }
+    
+    private static void escribirVarint(ByteArrayOutputStream salida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            salida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.write((int) valor);
+    }
+    
+    /**
+     * Lector secuencial sobre los bytes codificados.
+     */
+    private static final class Lector {
+        
+        private final byte[] datos;
+        private int posicion;
+        
+        Lector(byte[] datos) {
+            if (datos == null || datos.length == 0) {
+                throw new IllegalArgumentException("Datos de estadísticas vacíos");
+            }
+            if (datos[0] != VERSION_FORMATO) {
+                throw new IllegalArgumentException("Versión de formato de estadísticas no soportada: " + datos[0]);
+            }
+            this.datos = datos;
+            this.posicion = 1;
+        }
+        
+        int leerByte() {
+            comprobarDisponibles(1);
+            return datos[posicion++] & 0xFF;
+        }
+        
+        int leerEntero() {
+            long valor = leerVarint();
+            if (valor > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Contador fuera de rango: " + valor);
+            }
+            return (int) valor;
+        }
+        
+        long leerVarint() {
+            long valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+                int b = leerByte();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new IllegalArgumentException("Varint mal formado en las estadísticas");
+        }
+        
+        String leerTexto() {
+            int longitud = leerEntero();
+            comprobarDisponibles(longitud);
+            String texto = new String(datos, posicion, longitud, StandardCharsets.UTF_8);
+            posicion += longitud;
+            return texto;
+        }
+        
+        HistogramaTiempos leerHistograma() {
+            int longitud = leerEntero();
+            if (longitud == 0) {
+                return HistogramaTiempos.vacio();
+            }
+            comprobarDisponibles(longitud);
+            byte[] histograma = new byte[longitud];
+            System.arraycopy(datos, posicion, histograma, 0, longitud);
+            posicion += longitud;
+            return HistogramaTiempos.decodificar(histograma);
+        }
+        
+        private void comprobarDisponibles(int cantidad) {
+            if (cantidad < 0 || posicion + cantidad > datos.length) {
+                throw new IllegalArgumentException("Estadísticas codificadas truncadas");
+            }
+        }
+    }
+}
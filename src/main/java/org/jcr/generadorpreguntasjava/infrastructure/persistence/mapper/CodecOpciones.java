@@ -0,0 +1,104 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificación compacta de las opciones de una pregunta en una sola columna de preguntas.
+ *
+ * Sustituye a la tabla opciones (una fila por opción): las opciones se guardan y se leen
+ * con la propia fila de la pregunta, sin INSERT por opción ni fetch-join.
+ *
+ * Formato (versión 1): versión (1 byte), número de opciones (varint) y, por cada opción en
+ * su orden, su contenido en UTF-8 precedido de su longitud (varint). Las opciones
+ * decodificadas no tienen ID: se identifican por su posición.
+ */
+public final class CodecOpciones {
+
+    private static final byte VERSION_FORMATO = 1;
+
+    private CodecOpciones() {
+    }
+
+    public static byte[] codificar(List<Opcion> opciones) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(256);
+        salida.write(VERSION_FORMATO);
+        escribirVarint(salida, opciones != null ? opciones.size() : 0);
+        if (opciones != null) {
+            for (Opcion opcion : opciones) {
+                byte[] contenido = opcion.contenido() != null
+                    ? opcion.contenido().getBytes(StandardCharsets.UTF_8) : new byte[0];
+                escribirVarint(salida, contenido.length);
+                salida.write(contenido, 0, contenido.length);
+            }
+        }
+        return salida.toByteArray();
+    }
+
+    public static List<Opcion> decodificar(byte[] datos) {
+        if (datos == null || datos.length == 0) {
+            throw new IllegalArgumentException("Datos de opciones vacíos");
+        }
+        if (datos[0] != VERSION_FORMATO) {
+            throw new IllegalArgumentException("Versión de formato de opciones no soportada: " + datos[0]);
+        }
+
+        int[] posicion = {1};
+        int numero = leerVarint(datos, posicion);
+        List<Opcion> opciones = new ArrayList<>(numero);
+        for (int i = 0; i < numero; i++) {
+            int longitud = leerVarint(datos, posicion);
+            if (posicion[0] + longitud > datos.length) {
+                throw new IllegalArgumentException("Opciones codificadas truncadas");
+            }
+            opciones.add(new Opcion(new String(datos, posicion[0], longitud, StandardCharsets.UTF_8)));
+            posicion[0] += longitud;
+        }
+        return List.copyOf(opciones);
+    }
+
+    /**
+     * Número de opciones codificadas, sin decodificar sus contenidos.
+     */
+    public static int contar(byte[] datos) {
+        if (datos == null || datos.length == 0) {
+            throw new IllegalArgumentException("Datos de opciones vacíos");
+        }
+        if (datos[0] != VERSION_FORMATO) {
+            throw new IllegalArgumentException("Versión de formato de opciones no soportada: " + datos[0]);
+        }
+        return leerVarint(datos, new int[]{1});
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private static void escribirVarint(ByteArrayOutputStream salida, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            salida.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.write(valor);
+    }
+
+    private static int leerVarint(byte[] datos, int[] posicion) {
+        int valor = 0;
+        for (int bits = 0; bits < 32; bits += 7) {
+            if (posicion[0] >= datos.length) {
+                throw new IllegalArgumentException("Opciones codificadas truncadas");
+            }
+            byte b = datos[posicion[0]++];
+            valor |= (b & 0x7F) << bits;
+            if (b >= 0) {
+                if (valor < 0) {
+                    break;
+                }
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varint mal formado en las opciones");
+    }
+}
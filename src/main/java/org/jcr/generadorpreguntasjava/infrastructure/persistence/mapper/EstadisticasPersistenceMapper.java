@@ -6,12 +6,16 @@ import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.HistogramaTiempos;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasUsuarioEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
 import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,14 +24,22 @@ public interface EstadisticasPersistenceMapper {
 
     ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    TypeReference<Map<String, Map<String, Object>>> TIPO_JSON = new TypeReference<>() {};
+
     @Mapping(target = "tiempoPromedio", source = "tiempoPromedioMs", qualifiedByName = "msToDuration")
-    @Mapping(target = "porDificultad", source = "estadisticasPorDificultadJson", qualifiedByName = "jsonToDificultadMap")
-    @Mapping(target = "porTematica", source = "estadisticasPorTematicaJson", qualifiedByName = "jsonToTematicaMap")
+    @Mapping(target = "porDificultad", source = ".", qualifiedByName = "leerPorDificultad")
+    @Mapping(target = "porTematica", source = ".", qualifiedByName = "leerPorTematica")
+    @Mapping(target = "histogramaTiempos", source = "histogramaTiemposBinario", qualifiedByName = "bytesToHistograma")
+    @Mapping(target = "offsetDiario", source = "offsetDiario", qualifiedByName = "leerOffsetDiario")
     EstadisticasUsuario toDomain(EstadisticasUsuarioEntity entity);
 
     @Mapping(target = "tiempoPromedioMs", source = "tiempoPromedio", qualifiedByName = "durationToMs")
-    @Mapping(target = "estadisticasPorDificultadJson", source = "porDificultad", qualifiedByName = "dificultadMapToJson")
-    @Mapping(target = "estadisticasPorTematicaJson", source = "porTematica", qualifiedByName = "tematicaMapToJson")
+    @Mapping(target = "estadisticasPorDificultadBinario", source = "porDificultad", qualifiedByName = "dificultadMapToBytes")
+    @Mapping(target = "estadisticasPorTematicaBinario", source = "porTematica", qualifiedByName = "tematicaMapToBytes")
+    @Mapping(target = "estadisticasPorDificultadJson", ignore = true)
+    @Mapping(target = "estadisticasPorTematicaJson", ignore = true)
+    @Mapping(target = "histogramaTiemposBinario", source = "histogramaTiempos", qualifiedByName = "histogramaToBytes")
+    @Mapping(target = "offsetDiario", source = "offsetDiario", qualifiedByName = "escribirOffsetDiario")
     EstadisticasUsuarioEntity toEntity(EstadisticasUsuario domain);
 
     List<EstadisticasUsuario> toDomainList(List<EstadisticasUsuarioEntity> entities);
@@ -44,23 +56,75 @@ public interface EstadisticasPersistenceMapper {
         return duration != null ? duration.toMillis() : 0L;
     }
 
+    @Named("leerOffsetDiario")
+    default long leerOffsetDiario(Long offset) {
+        return offset != null ? offset : EventoRespuesta.SIN_OFFSET;
+    }
+
+    @Named("escribirOffsetDiario")
+    default Long escribirOffsetDiario(long offset) {
+        return offset != EventoRespuesta.SIN_OFFSET ? offset : null;
+    }
+
+    @Named("bytesToHistograma")
+    default HistogramaTiempos bytesToHistograma(byte[] datos) {
+        return HistogramaTiempos.decodificar(datos);
+    }
+
+    @Named("histogramaToBytes")
+    default byte[] histogramaToBytes(HistogramaTiempos histograma) {
+        return histograma != null && !histograma.estaVacio() ? histograma.codificar() : null;
+    }
+
+    // === COLUMNAS DE ESTADÍSTICAS ===
+    // Se escribe siempre el formato binario; el JSON solo se lee en filas anteriores a él.
+
+    @Named("leerPorDificultad")
+    default Map<Dificultad, EstadisticasPorDificultad> leerPorDificultad(EstadisticasUsuarioEntity entity) {
+        return entity.getEstadisticasPorDificultadBinario() != null
+                ? CodecEstadisticasBinario.decodificarPorDificultad(entity.getEstadisticasPorDificultadBinario())
+                : jsonToDificultadMap(entity.getEstadisticasPorDificultadJson());
+    }
+
+    @Named("leerPorTematica")
+    default Map<String, EstadisticasPorTematica> leerPorTematica(EstadisticasUsuarioEntity entity) {
+        return entity.getEstadisticasPorTematicaBinario() != null
+                ? CodecEstadisticasBinario.decodificarPorTematica(entity.getEstadisticasPorTematicaBinario())
+                : jsonToTematicaMap(entity.getEstadisticasPorTematicaJson());
+    }
+
+    @Named("dificultadMapToBytes")
+    default byte[] dificultadMapToBytes(Map<Dificultad, EstadisticasPorDificultad> map) {
+        return CodecEstadisticasBinario.codificarPorDificultad(map);
+    }
+
+    @Named("tematicaMapToBytes")
+    default byte[] tematicaMapToBytes(Map<String, EstadisticasPorTematica> map) {
+        return CodecEstadisticasBinario.codificarPorTematica(map);
+    }
+
     @Named("jsonToDificultadMap")
     default Map<Dificultad, EstadisticasPorDificultad> jsonToDificultadMap(String json) {
         try {
             if (json == null || json.isBlank()) return Map.of();
-            return OBJECT_MAPPER.readValue(json,
-                    new TypeReference<Map<Dificultad, EstadisticasPorDificultad>>() {});
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Error al convertir JSON a Map<Dificultad, EstadisticasPorDificultad>", e);
-        }
-    }
+            Map<String, Map<String, Object>> jsonMap = OBJECT_MAPPER.readValue(json, TIPO_JSON);
 
-    @Named("dificultadMapToJson")
-    default String dificultadMapToJson(Map<Dificultad, EstadisticasPorDificultad> map) {
-        try {
-            return map != null ? OBJECT_MAPPER.writeValueAsString(map) : "{}";
+            Map<Dificultad, EstadisticasPorDificultad> resultado = new HashMap<>();
+            for (Map.Entry<String, Map<String, Object>> entry : jsonMap.entrySet()) {
+                Dificultad dificultad = Dificultad.valueOf(entry.getKey());
+                Map<String, Object> datos = entry.getValue();
+                resultado.put(dificultad, new EstadisticasPorDificultad(
+                        dificultad,
+                        entero(datos, "totalPreguntas"),
+                        entero(datos, "respuestasCorrectas"),
+                        decimal(datos, "porcentajeAciertos"),
+                        Duration.ofMillis(largo(datos, "tiempoPromedioMs")),
+                        histograma(datos)
+                ));
+            }
+            return resultado;
         } catch (Exception e) {
-            throw new IllegalArgumentException("Error al convertir Map<Dificultad, EstadisticasPorDificultad> a JSON", e);
+            throw new IllegalArgumentException("Error al convertir JSON a Map<Dificultad, EstadisticasPorDificultad>", e);
         }
     }
 
@@ -68,19 +132,48 @@ public interface EstadisticasPersistenceMapper {
     default Map<String, EstadisticasPorTematica> jsonToTematicaMap(String json) {
         try {
             if (json == null || json.isBlank()) return Map.of();
-            return OBJECT_MAPPER.readValue(json,
-                    new TypeReference<Map<String, EstadisticasPorTematica>>() {});
+            Map<String, Map<String, Object>> jsonMap = OBJECT_MAPPER.readValue(json, TIPO_JSON);
+
+            Map<String, EstadisticasPorTematica> resultado = new HashMap<>();
+            for (Map.Entry<String, Map<String, Object>> entry : jsonMap.entrySet()) {
+                Map<String, Object> datos = entry.getValue();
+                resultado.put(entry.getKey(), new EstadisticasPorTematica(
+                        entry.getKey(),
+                        entero(datos, "totalPreguntas"),
+                        entero(datos, "respuestasCorrectas"),
+                        decimal(datos, "porcentajeAciertos"),
+                        Duration.ofMillis(largo(datos, "tiempoPromedioMs")),
+                        histograma(datos)
+                ));
+            }
+            return resultado;
         } catch (Exception e) {
             throw new IllegalArgumentException("Error al convertir JSON a Map<String, EstadisticasPorTematica>", e);
         }
     }
 
-    @Named("tematicaMapToJson")
-    default String tematicaMapToJson(Map<String, EstadisticasPorTematica> map) {
-        try {
-            return map != null ? OBJECT_MAPPER.writeValueAsString(map) : "{}";
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Error al convertir Map<String, EstadisticasPorTematica> a JSON", e);
-        }
+    // === AUXILIARES DE JSON ===
+    // Solo se lee el formato JSON de las filas anteriores al binario; ya no se escribe.
+
+    private static HistogramaTiempos histograma(Map<String, Object> datos) {
+        Object codificado = datos.get("histograma");
+        return codificado instanceof String texto
+                ? HistogramaTiempos.decodificar(Base64.getDecoder().decode(texto))
+                : HistogramaTiempos.vacio();
+    }
+
+    private static int entero(Map<String, Object> datos, String campo) {
+        Object valor = datos.get(campo);
+        return valor instanceof Number numero ? numero.intValue() : 0;
+    }
+
+    private static long largo(Map<String, Object> datos, String campo) {
+        Object valor = datos.get(campo);
+        return valor instanceof Number numero ? numero.longValue() : 0L;
+    }
+
+    private static double decimal(Map<String, Object> datos, String campo) {
+        Object valor = datos.get(campo);
+        return valor instanceof Number numero ? numero.doubleValue() : 0.0;
     }
-}
\ No newline at end of file
+}
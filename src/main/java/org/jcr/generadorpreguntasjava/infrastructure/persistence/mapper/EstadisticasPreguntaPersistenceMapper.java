@@ -0,0 +1,57 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.HistogramaTiempos;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasPreguntaEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface EstadisticasPreguntaPersistenceMapper {
+
+    @Mapping(target = "respuestasPorOpcion", source = ".", qualifiedByName = "columnasToOpciones")
+    @Mapping(target = "histograma", source = "histogramaTiemposBinario", qualifiedByName = "bytesToHistograma")
+    @Mapping(target = "offsetDiario", source = "offsetDiario", qualifiedByName = "leerOffsetDiario")
+    EstadisticasPregunta toDomain(EstadisticasPreguntaEntity entity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "respuestasOpcion1", expression = "java(domain.respuestasPorOpcion().get(0))")
+    @Mapping(target = "respuestasOpcion2", expression = "java(domain.respuestasPorOpcion().get(1))")
+    @Mapping(target = "respuestasOpcion3", expression = "java(domain.respuestasPorOpcion().get(2))")
+    @Mapping(target = "respuestasOpcion4", expression = "java(domain.respuestasPorOpcion().get(3))")
+    @Mapping(target = "histogramaTiemposBinario", source = "histograma", qualifiedByName = "histogramaToBytes")
+    @Mapping(target = "offsetDiario", source = "offsetDiario", qualifiedByName = "escribirOffsetDiario")
+    EstadisticasPreguntaEntity toEntity(EstadisticasPregunta domain);
+
+    List<EstadisticasPregunta> toDomainList(List<EstadisticasPreguntaEntity> entities);
+
+    @Named("columnasToOpciones")
+    default List<Integer> columnasToOpciones(EstadisticasPreguntaEntity entity) {
+        return List.of(entity.getRespuestasOpcion1(), entity.getRespuestasOpcion2(),
+                entity.getRespuestasOpcion3(), entity.getRespuestasOpcion4());
+    }
+
+    @Named("leerOffsetDiario")
+    default long leerOffsetDiario(Long offset) {
+        return offset != null ? offset : EventoRespuesta.SIN_OFFSET;
+    }
+
+    @Named("escribirOffsetDiario")
+    default Long escribirOffsetDiario(long offset) {
+        return offset != EventoRespuesta.SIN_OFFSET ? offset : null;
+    }
+
+    @Named("bytesToHistograma")
+    default HistogramaTiempos bytesToHistograma(byte[] datos) {
+        return HistogramaTiempos.decodificar(datos);
+    }
+
+    @Named("histogramaToBytes")
+    default byte[] histogramaToBytes(HistogramaTiempos histograma) {
+        return histograma != null && !histograma.estaVacio() ? histograma.codificar() : null;
+    }
+}
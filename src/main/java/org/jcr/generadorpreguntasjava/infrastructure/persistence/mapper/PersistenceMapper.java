@@ -12,7 +12,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 import java.util.HashMap;
 
 /**
@@ -23,12 +23,16 @@ public interface PersistenceMapper {
     
     // === MAPPING DE PREGUNTA ===
     
-    @Mapping(target = "opciones", source = "opciones", qualifiedByName = "mapOpcionesFromEntity")
-    @Mapping(target = "tematicas", source = "tematicas", qualifiedByName = "mapTematicasFromEntity")
+    @Mapping(target = "opciones", source = ".", qualifiedByName = "mapOpcionesFromEntity")
+    @Mapping(target = "tematicas", source = ".", qualifiedByName = "mapTematicasFromEntity")
+    @Mapping(target = "indiceRespuestaCorrecta", source = "indiceRespuestaCorrecta", qualifiedByName = "mapIndiceRespuestaCorrectaFromEntity")
     Pregunta toDomain(PreguntaEntity entity);
     
-    @Mapping(target = "opciones", source = "opciones", qualifiedByName = "mapOpcionesToEntity")
-    @Mapping(target = "tematicas", source = "tematicas", qualifiedByName = "mapTematicasToEntity")
+    @Mapping(target = "opcionesEmpaquetadas", source = "opciones", qualifiedByName = "mapOpcionesToEntity")
+    @Mapping(target = "opciones", ignore = true)
+    @Mapping(target = "tematicas", ignore = true)
+    @Mapping(target = "tematicaPrincipal", source = ".", qualifiedByName = "mapTematicaPrincipalToEntity")
+    @Mapping(target = "tematicaSecundaria", source = ".", qualifiedByName = "mapTematicaSecundariaToEntity")
     PreguntaEntity toEntity(Pregunta domain);
     
     List<Pregunta> toDomainList(List<PreguntaEntity> entities);
@@ -37,9 +41,6 @@ public interface PersistenceMapper {
 
     Opcion toDomain(OpcionEntity entity);
     
-    @Mapping(target = "pregunta", ignore = true)
-    OpcionEntity toEntity(Opcion domain);
-    
     // === MAPPING DE TEMATICA ===
 
 
@@ -53,35 +54,55 @@ public interface PersistenceMapper {
     // === MÉTODOS AUXILIARES ===
     
     @Named("mapOpcionesFromEntity")
-    default List<Opcion> mapOpcionesFromEntity(List<OpcionEntity> entities) {
-        if (entities == null) return List.of();
-        return entities.stream()
+    default List<Opcion> mapOpcionesFromEntity(PreguntaEntity entity) {
+        if (entity.getOpcionesEmpaquetadas() != null) {
+            return CodecOpciones.decodificar(entity.getOpcionesEmpaquetadas());
+        }
+        // Pregunta aún sin migrar: opciones en filas de la tabla opciones
+        if (entity.getOpciones() == null) return List.of();
+        return entity.getOpciones().stream()
             .map(this::toDomain)
             .toList();
     }
     
+    @Named("mapIndiceRespuestaCorrectaFromEntity")
+    default int mapIndiceRespuestaCorrectaFromEntity(Integer indice) {
+        // Sin valor guardado, la pregunta lo calcula a partir de sus opciones
+        return indice != null ? indice : -1;
+    }
+    
     @Named("mapOpcionesToEntity")
-    default List<OpcionEntity> mapOpcionesToEntity(List<Opcion> domain) {
-        if (domain == null) return List.of();
-        return domain.stream()
-            .map(this::toEntity)
-            .toList();
+    default byte[] mapOpcionesToEntity(List<Opcion> domain) {
+        return CodecOpciones.codificar(domain);
     }
     
     @Named("mapTematicasFromEntity")
-    default List<Tematica> mapTematicasFromEntity(Set<TematicaEntity> entities) {
-        if (entities == null) return List.of();
-        return entities.stream()
+    default List<Tematica> mapTematicasFromEntity(PreguntaEntity entity) {
+        if (entity.getTematicaPrincipal() != null) {
+            // Principal primero y secundaria después (si es distinta)
+            TematicaEntity secundaria = entity.getTematicaSecundaria();
+            if (secundaria == null || Objects.equals(secundaria.getId(), entity.getTematicaPrincipal().getId())) {
+                return List.of(toDomain(entity.getTematicaPrincipal()));
+            }
+            return List.of(toDomain(entity.getTematicaPrincipal()), toDomain(secundaria));
+        }
+        // Pregunta aún sin migrar: temáticas de la tabla pregunta_tematica, sin orden
+        if (entity.getTematicas() == null) return List.of();
+        return entity.getTematicas().stream()
             .map(this::toDomain)
             .toList();
     }
     
-    @Named("mapTematicasToEntity")
-    default Set<TematicaEntity> mapTematicasToEntity(List<Tematica> domain) {
-        if (domain == null) return Set.of();
-        return domain.stream()
-            .map(this::toEntity)
-            .collect(java.util.stream.Collectors.toSet());
+    @Named("mapTematicaPrincipalToEntity")
+    default TematicaEntity mapTematicaPrincipalToEntity(Pregunta domain) {
+        Tematica principal = domain.getTematicaPrincipal();
+        return principal != null ? toEntity(principal) : null;
+    }
+    
+    @Named("mapTematicaSecundariaToEntity")
+    default TematicaEntity mapTematicaSecundariaToEntity(Pregunta domain) {
+        List<Tematica> secundarias = domain.getTematicasSecundarias();
+        return secundarias.isEmpty() ? null : toEntity(secundarias.get(0));
     }
     
     // === MAPPING DE USUARIO ===
@@ -100,6 +121,8 @@ public interface PersistenceMapper {
     @Mapping(target = "tiempoRespuestaMs", source = ".", qualifiedByName = "mapTiempoRespuestaToEntity")
     @Mapping(target = "usuario", ignore = true)
     @Mapping(target = "pregunta", ignore = true)
+    @Mapping(target = "usuarioEnProgreso", ignore = true)
+    @Mapping(target = "preguntaEnProgreso", ignore = true)
     SesionRespuestaEntity toEntity(SesionRespuesta domain);
     
     List<SesionRespuesta> toDomainSesionList(List<SesionRespuestaEntity> entities);
@@ -112,8 +135,10 @@ public interface PersistenceMapper {
     EstadisticasUsuario toDomain(EstadisticasUsuarioEntity entity);
     
     @Mapping(target = "tiempoPromedioMs", source = ".", qualifiedByName = "mapTiempoPromedioToEntity")
-    @Mapping(target = "estadisticasPorDificultadJson", source = ".", qualifiedByName = "mapEstadisticasDificultadToEntity")
-    @Mapping(target = "estadisticasPorTematicaJson", source = ".", qualifiedByName = "mapEstadisticasTematicaToEntity")
+    @Mapping(target = "estadisticasPorDificultadBinario", source = "porDificultad", qualifiedByName = "mapEstadisticasDificultadToBinario")
+    @Mapping(target = "estadisticasPorTematicaBinario", source = "porTematica", qualifiedByName = "mapEstadisticasTematicaToBinario")
+    @Mapping(target = "estadisticasPorDificultadJson", ignore = true)
+    @Mapping(target = "estadisticasPorTematicaJson", ignore = true)
     @Mapping(target = "usuario", ignore = true)
     EstadisticasUsuarioEntity toEntity(EstadisticasUsuario domain);
     
@@ -143,6 +168,9 @@ public interface PersistenceMapper {
     
     @Named("mapEstadisticasDificultadFromEntity")
     default Map<Dificultad, EstadisticasPorDificultad> mapEstadisticasDificultadFromEntity(EstadisticasUsuarioEntity entity) {
+        if (entity.getEstadisticasPorDificultadBinario() != null) {
+            return CodecEstadisticasBinario.decodificarPorDificultad(entity.getEstadisticasPorDificultadBinario());
+        }
         if (entity.getEstadisticasPorDificultadJson() == null) {
             return new HashMap<>();
         }
@@ -179,6 +207,16 @@ public interface PersistenceMapper {
         }
     }
     
+    @Named("mapEstadisticasDificultadToBinario")
+    default byte[] mapEstadisticasDificultadToBinario(Map<Dificultad, EstadisticasPorDificultad> porDificultad) {
+        return CodecEstadisticasBinario.codificarPorDificultad(porDificultad);
+    }
+    
+    @Named("mapEstadisticasTematicaToBinario")
+    default byte[] mapEstadisticasTematicaToBinario(Map<String, EstadisticasPorTematica> porTematica) {
+        return CodecEstadisticasBinario.codificarPorTematica(porTematica);
+    }
+    
     @Named("mapEstadisticasDificultadToEntity")
     default String mapEstadisticasDificultadToEntity(EstadisticasUsuario domain) {
         if (domain.porDificultad() == null || domain.porDificultad().isEmpty()) {
@@ -208,6 +246,9 @@ public interface PersistenceMapper {
     
     @Named("mapEstadisticasTematicaFromEntity")
     default Map<String, EstadisticasPorTematica> mapEstadisticasTematicaFromEntity(EstadisticasUsuarioEntity entity) {
+        if (entity.getEstadisticasPorTematicaBinario() != null) {
+            return CodecEstadisticasBinario.decodificarPorTematica(entity.getEstadisticasPorTematicaBinario());
+        }
         if (entity.getEstadisticasPorTematicaJson() == null) {
             return new HashMap<>();
         }
@@ -0,0 +1,239 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.HistogramaTiempos;
+import org.jcr.generadorpreguntasjava.domain.model.ResumenDiarioSesiones;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ClasificacionPregunta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptador JDBC para el archivo de sesiones antiguas en resúmenes diarios.
+ *
+ * Archiva por tramos de usuarios: recorre las sesiones completadas antes del límite, las
+ * agrupa por usuario, día, dificultad y temática principal, combina cada grupo con su resumen
+ * si ya existía y mueve las filas originales a sesiones_respuesta_archivo (o las elimina si
+ * no se conservan). Cada tramo se escribe en una única transacción, así que las estadísticas
+ * nunca ven una sesión a la vez en su resumen y en la tabla de sesiones.
+ */
+@Slf4j
+@Component
+public class ArchivoSesionesJdbcAdapter implements ArchivoSesionesRepositoryPort {
+
+    private static final String SQL_USUARIOS_CON_SESIONES_ANTIGUAS =
+        "SELECT DISTINCT usuario_id FROM sesiones_respuesta WHERE fin_respuesta < ? AND usuario_id > ? " +
+        "ORDER BY usuario_id LIMIT ?";
+
+    private static final String SQL_PREGUNTAS_SESIONES_ANTIGUAS =
+        "SELECT DISTINCT pregunta_id FROM sesiones_respuesta " +
+        "WHERE usuario_id BETWEEN ? AND ? AND fin_respuesta < ?";
+
+    private static final String SQL_SESIONES_ANTIGUAS =
+        "SELECT usuario_id, pregunta_id, es_correcta, tiempo_respuesta_ms, fin_respuesta FROM sesiones_respuesta " +
+        "WHERE usuario_id BETWEEN ? AND ? AND fin_respuesta < ?";
+
+    private static final String SQL_RESUMENES_RANGO =
+        "SELECT id, usuario_id, fecha, dificultad, tematica, total, correctas, histograma_tiempos " +
+        "FROM resumenes_diarios_sesiones WHERE usuario_id BETWEEN ? AND ?";
+
+    private static final String SQL_RESUMENES_USUARIO =
+        "SELECT id, usuario_id, fecha, dificultad, tematica, total, correctas, histograma_tiempos " +
+        "FROM resumenes_diarios_sesiones WHERE usuario_id = ?";
+
+    private static final String SQL_ACTUALIZAR_RESUMEN =
+        "UPDATE resumenes_diarios_sesiones SET total = ?, correctas = ?, tiempo_total_ms = ?, histograma_tiempos = ? " +
+        "WHERE id = ?";
+
+    private static final String SQL_INSERTAR_RESUMEN =
+        "INSERT INTO resumenes_diarios_sesiones (total, correctas, tiempo_total_ms, histograma_tiempos, " +
+        "usuario_id, fecha, dificultad, tematica) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_COPIAR_A_ARCHIVO =
+        "INSERT INTO sesiones_respuesta_archivo (id, usuario_id, pregunta_id, respuesta_seleccionada, " +
+        "opcion_seleccionada, es_correcta, inicio_respuesta, fin_respuesta, tiempo_respuesta_ms) " +
+        "SELECT id, usuario_id, pregunta_id, respuesta_seleccionada, opcion_seleccionada, es_correcta, " +
+        "inicio_respuesta, fin_respuesta, tiempo_respuesta_ms " +
+        "FROM sesiones_respuesta WHERE usuario_id BETWEEN ? AND ? AND fin_respuesta < ?";
+
+    private static final String SQL_ELIMINAR_SESIONES =
+        "DELETE FROM sesiones_respuesta WHERE usuario_id BETWEEN ? AND ? AND fin_respuesta < ?";
+
+    private static final ClasificacionPregunta SIN_CLASIFICAR =
+        new ClasificacionPregunta(Dificultad.FACIL, "Sin temática");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean conservarFilas;
+
+    public ArchivoSesionesJdbcAdapter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${archivo.sesiones.conservar-filas:true}") boolean conservarFilas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.conservarFilas = conservarFilas;
+    }
+
+    @Override
+    public List<Long> obtenerUsuariosConSesionesAntiguas(LocalDateTime limite, long despuesDeUsuarioId, int maximo) {
+        return jdbcTemplate.queryForList(SQL_USUARIOS_CON_SESIONES_ANTIGUAS, Long.class,
+                                         Timestamp.valueOf(limite), despuesDeUsuarioId, maximo);
+    }
+
+    @Override
+    public List<Long> obtenerPreguntasConSesionesAntiguas(long desdeUsuarioId, long hastaUsuarioId,
+                                                          LocalDateTime limite) {
+        return jdbcTemplate.queryForList(SQL_PREGUNTAS_SESIONES_ANTIGUAS, Long.class,
+                                         desdeUsuarioId, hastaUsuarioId, Timestamp.valueOf(limite));
+    }
+
+    @Override
+    public ResultadoArchivo archivar(long desdeUsuarioId, long hastaUsuarioId, LocalDateTime limite,
+                                     Map<Long, ClasificacionPregunta> clasificacion) {
+        Timestamp limiteSql = Timestamp.valueOf(limite);
+
+        return transactionTemplate.execute(status -> {
+            // Agrupar las sesiones antiguas del tramo por usuario, día y clasificación
+            Map<ClaveResumen, Grupo> grupos = new HashMap<>();
+            long[] sesiones = {0};
+            jdbcTemplate.query(SQL_SESIONES_ANTIGUAS, rs -> {
+                ClasificacionPregunta pregunta = clasificacion.getOrDefault(rs.getLong(2), SIN_CLASIFICAR);
+                ClaveResumen clave = new ClaveResumen(rs.getLong(1), rs.getTimestamp(5).toLocalDateTime().toLocalDate(),
+                                                      pregunta.dificultad(), pregunta.tematica());
+                long tiempoMs = rs.getLong(4);
+                if (rs.wasNull()) {
+                    tiempoMs = -1;
+                }
+                grupos.computeIfAbsent(clave, c -> new Grupo()).registrar(rs.getBoolean(3), tiempoMs);
+                sesiones[0]++;
+            }, desdeUsuarioId, hastaUsuarioId, limiteSql);
+
+            if (grupos.isEmpty()) {
+                return new ResultadoArchivo(0, 0);
+            }
+
+            // Combinar con los resúmenes existentes del tramo
+            Map<ClaveResumen, Long> existentes = new HashMap<>();
+            Map<ClaveResumen, ResumenDiarioSesiones> resumenes = new HashMap<>();
+            jdbcTemplate.query(SQL_RESUMENES_RANGO, rs -> {
+                ResumenDiarioSesiones existente = leerResumen(rs);
+                ClaveResumen clave = ClaveResumen.de(existente);
+                if (grupos.containsKey(clave)) {
+                    existentes.put(clave, rs.getLong(1));
+                    resumenes.put(clave, existente);
+                }
+            }, desdeUsuarioId, hastaUsuarioId);
+
+            List<Object[]> actualizaciones = new ArrayList<>();
+            List<Object[]> inserciones = new ArrayList<>();
+            grupos.forEach((clave, grupo) -> {
+                ResumenDiarioSesiones nuevo = grupo.construir(clave);
+                ResumenDiarioSesiones anterior = resumenes.get(clave);
+                ResumenDiarioSesiones resumen = anterior != null ? anterior.combinar(nuevo) : nuevo;
+                Object[] valores = {resumen.total(), resumen.correctas(), resumen.getTiempoTotalMs(),
+                                    resumen.histograma().codificar()};
+                if (anterior != null) {
+                    actualizaciones.add(new Object[]{valores[0], valores[1], valores[2], valores[3],
+                                                     existentes.get(clave)});
+                } else {
+                    inserciones.add(new Object[]{valores[0], valores[1], valores[2], valores[3],
+                                                 clave.usuarioId(), Date.valueOf(clave.fecha()),
+                                                 clave.dificultad().name(), clave.tematica()});
+                }
+            });
+            if (!actualizaciones.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_ACTUALIZAR_RESUMEN, actualizaciones);
+            }
+            if (!inserciones.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_INSERTAR_RESUMEN, inserciones);
+            }
+
+            // Retirar las filas originales de la tabla caliente
+            if (conservarFilas) {
+                jdbcTemplate.update(SQL_COPIAR_A_ARCHIVO, desdeUsuarioId, hastaUsuarioId, limiteSql);
+            }
+            int eliminadas = jdbcTemplate.update(SQL_ELIMINAR_SESIONES, desdeUsuarioId, hastaUsuarioId, limiteSql);
+            if (eliminadas != sesiones[0]) {
+                throw new IllegalStateException("Las sesiones del tramo han cambiado durante el archivo");
+            }
+
+            log.debug("Tramo de usuarios [{}-{}] archivado: {} sesiones en {} resúmenes",
+                    desdeUsuarioId, hastaUsuarioId, sesiones[0], grupos.size());
+            return new ResultadoArchivo(sesiones[0], grupos.size());
+        });
+    }
+
+    @Override
+    public List<ResumenDiarioSesiones> obtenerResumenesPorUsuario(Long usuarioId) {
+        return jdbcTemplate.query(SQL_RESUMENES_USUARIO, (rs, fila) -> leerResumen(rs), usuarioId);
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    /**
+     * Lee un resumen de una fila con las columnas (id, usuario_id, fecha, dificultad, tematica,
+     * total, correctas, histograma_tiempos).
+     */
+    static ResumenDiarioSesiones leerResumen(ResultSet rs) throws SQLException {
+        byte[] histograma = rs.getBytes(8);
+        return new ResumenDiarioSesiones(
+            rs.getLong(2),
+            rs.getDate(3).toLocalDate(),
+            Dificultad.valueOf(rs.getString(4)),
+            rs.getString(5),
+            rs.getInt(6),
+            rs.getInt(7),
+            histograma != null ? HistogramaTiempos.decodificar(histograma) : HistogramaTiempos.vacio()
+        );
+    }
+
+    private record ClaveResumen(long usuarioId, LocalDate fecha, Dificultad dificultad, String tematica) {
+
+        private static ClaveResumen de(ResumenDiarioSesiones resumen) {
+            return new ClaveResumen(resumen.usuarioId(), resumen.fecha(), resumen.dificultad(), resumen.tematica());
+        }
+    }
+
+    /**
+     * Contadores mutables de un grupo de sesiones mientras se recorre el tramo.
+     */
+    private static final class Grupo {
+
+        private int total;
+        private int correctas;
+        private final HistogramaTiempos.Acumulador histograma = HistogramaTiempos.acumulador();
+
+        private void registrar(boolean correcta, long tiempoMs) {
+            total++;
+            if (correcta) {
+                correctas++;
+            }
+            // Igual que en las estadísticas de usuario, solo cuentan los tiempos razonables
+            if (SesionRespuesta.esTiempoRespuestaValido(tiempoMs)) {
+                histograma.registrar(tiempoMs);
+            }
+        }
+
+        private ResumenDiarioSesiones construir(ClaveResumen clave) {
+            return new ResumenDiarioSesiones(clave.usuarioId(), clave.fecha(), clave.dificultad(), clave.tematica(),
+                                             total, correctas, histograma.construir());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.port.out.BloqueoDistribuidoPort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Adaptador JDBC de los bloqueos con concesión sobre la tabla {@code bloqueos_distribuidos}.
+ * 
+ * Cada operación es una sentencia atómica en su propia transacción (autocommit), así la
+ * concesión es visible para el resto de instancias en cuanto se adquiere. Adquirir es un
+ * UPDATE condicionado a que la concesión haya vencido o sea del mismo propietario y, si la
+ * fila no existe, un INSERT: si otra instancia la inserta a la vez, la clave primaria decide.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BloqueoDistribuidoJdbcAdapter implements BloqueoDistribuidoPort {
+    
+    private static final String SQL_RENOVAR =
+        "UPDATE bloqueos_distribuidos SET propietario = ?, bloqueado_hasta = ? " +
+        "WHERE nombre = ? AND (bloqueado_hasta <= ? OR propietario = ?)";
+    
+    private static final String SQL_INSERTAR =
+        "INSERT INTO bloqueos_distribuidos (nombre, propietario, bloqueado_hasta) VALUES (?, ?, ?)";
+    
+    private static final String SQL_LIBERAR =
+        "UPDATE bloqueos_distribuidos SET bloqueado_hasta = ? WHERE nombre = ? AND propietario = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public boolean adquirir(String nombre, String propietario, Duration duracion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Timestamp hasta = Timestamp.valueOf(ahora.plus(duracion));
+        
+        int renovadas = jdbcTemplate.update(SQL_RENOVAR, propietario, hasta, nombre, Timestamp.valueOf(ahora), propietario);
+        if (renovadas > 0) {
+            return true;
+        }
+        
+        try {
+            jdbcTemplate.update(SQL_INSERTAR, nombre, propietario, hasta);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // La fila existe y su concesión sigue vigente para otro propietario
+            log.debug("Bloqueo {} en poder de otra instancia", nombre);
+            return false;
+        }
+    }
+    
+    @Override
+    public void liberar(String nombre, String propietario) {
+        // Se vence la concesión en lugar de borrar la fila, para que el siguiente la renueve con un UPDATE
+        jdbcTemplate.update(SQL_LIBERAR, Timestamp.valueOf(LocalDateTime.now()), nombre, propietario);
+    }
+}
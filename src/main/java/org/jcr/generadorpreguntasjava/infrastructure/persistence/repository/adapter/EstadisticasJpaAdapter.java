@@ -1,47 +1,163 @@
 package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.ResumenRankingUsuario;
 import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.CacheEstadisticasUsuario;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasUsuarioEntity;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.SesionRespuestaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.UsuarioEntity;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.EstadisticasPersistenceMapper;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataEstadisticasRepository;
 import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPort;
 import org.jcr.generadorpreguntasjava.port.in.GuardarEstadisticasPort;
 import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
 import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * Adaptador JPA para manejar estadísticas de usuario.
+ *
+ * Las escrituras sobre una fila existente son condicionales a la versión leída
+ * (UPDATE ... WHERE version = ?): una escritura que se cruza con otra no la pisa, sino que
+ * relee la fila con bloqueo de escritura y vuelve a aplicar su cambio. La lectura bloqueante
+ * lee la última versión confirmada (no la instantánea de la transacción) y retiene la fila
+ * hasta el final, así que el segundo intento ya no puede chocar. La primera inserción de un
+ * usuario se serializa bloqueando su fila de usuarios: dos primeras escrituras concurrentes
+ * no llegan a violar la clave única, que dejaría inservible la transacción de quien llama.
  */
-
+@Slf4j
 @Component
 @RequiredArgsConstructor
 @Transactional
-public class EstadisticasJpaAdapter implements EstadisticasRepositoryPort {
+public class EstadisticasJpaAdapter implements EstadisticasRepositoryPort, ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "escritura_estadisticas_usuario";
 
     private final SpringDataEstadisticasRepository estadisticasRepository;
     private final EstadisticasPersistenceMapper estadisticasPersistenceMapper;
+    private final CacheEstadisticasUsuario cacheEstadisticas;
+    private final EntityManager entityManager;
+
+    private final AtomicLong escrituras = new AtomicLong();
+    private final AtomicLong intentos = new AtomicLong();
+    private final AtomicLong conflictos = new AtomicLong();
+    private final AtomicLong cambiosReaplicados = new AtomicLong();
+    private final AtomicLong recalculosDescartados = new AtomicLong();
+    private final AtomicLong conflictosIrresolubles = new AtomicLong();
 
     @Override
     public EstadisticasUsuario guardar(EstadisticasUsuario estadisticas) {
-        var entidad = estadisticasPersistenceMapper.toEntity(estadisticas);
-        var guardado = estadisticasRepository.save(entidad);
-        return estadisticasPersistenceMapper.toDomain(guardado);
+        // Sobrescritura: se escribe sobre la versión vigente
+        Optional<EstadisticasUsuario> guardadas =
+            escribirSiVersion(estadisticas, obtenerVersion(estadisticas.usuarioId()));
+        if (guardadas.isPresent()) {
+            return guardadas.get();
+        }
+
+        // Otra escritura se ha cruzado: se bloquea la fila y se escribe sobre su versión
+        Optional<EstadisticasUsuarioEntity> fila = leerBloqueada(estadisticas.usuarioId());
+        fila.ifPresent(entityManager::detach);
+        OptionalLong version = fila.isPresent() ? OptionalLong.of(versionDe(fila.get())) : OptionalLong.empty();
+        return escribirSiVersion(estadisticas, version)
+            .orElseThrow(() -> conflictoIrresoluble(estadisticas.usuarioId()));
+    }
+
+    @Override
+    public Optional<EstadisticasUsuario> aplicarCambio(Long usuarioId, UnaryOperator<EstadisticasUsuario> cambio) {
+        Optional<EstadisticasUsuarioEntity> fila = estadisticasRepository.findByUsuarioId(usuarioId);
+        for (int intento = 0; fila.isPresent(); intento++) {
+            EstadisticasUsuarioEntity leida = fila.get();
+            EstadisticasUsuario actualizadas = cambio.apply(estadisticasPersistenceMapper.toDomain(leida));
+            if (actualizadas == null) {
+                return Optional.empty();
+            }
+            if (intento > 0) {
+                cambiosReaplicados.incrementAndGet();
+            }
+            Optional<EstadisticasUsuario> guardadas = escribirSiVersion(actualizadas, OptionalLong.of(versionDe(leida)));
+            if (guardadas.isPresent()) {
+                // El UPDATE no pasa por la entidad leída: se desvincula para que no se relea su estado anterior
+                entityManager.detach(leida);
+                return guardadas;
+            }
+            if (intento > 0) {
+                throw conflictoIrresoluble(usuarioId);
+            }
+            // Otra escritura se ha cruzado: se relee con bloqueo y el cambio se aplica sobre la fila nueva
+            fila = releerBloqueada(leida);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OptionalLong obtenerVersion(Long usuarioId) {
+        return estadisticasRepository.findVersionByUsuarioId(usuarioId)
+                .map(OptionalLong::of)
+                .orElseGet(OptionalLong::empty);
+    }
+
+    @Override
+    public Optional<EstadisticasUsuario> guardarSiNoHaCambiado(EstadisticasUsuario estadisticas,
+                                                               OptionalLong versionLeida) {
+        Optional<EstadisticasUsuario> guardadas = escribirSiVersion(estadisticas, versionLeida);
+        if (guardadas.isEmpty()) {
+            recalculosDescartados.incrementAndGet();
+        }
+        return guardadas;
+    }
+
+    @Override
+    public int asignarOffsetDiarioSinRegistrar(long offsetDiario) {
+        return estadisticasRepository.asignarOffsetDiarioSinRegistrar(offsetDiario);
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        long totalIntentos = intentos.get();
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("escrituras", escrituras.get());
+        valores.put("intentos", totalIntentos);
+        valores.put("conflictos", conflictos.get());
+        valores.put("tasa_conflictos", totalIntentos > 0 ? (double) conflictos.get() / totalIntentos : 0.0);
+        valores.put("cambios_reaplicados", cambiosReaplicados.get());
+        valores.put("recalculos_descartados", recalculosDescartados.get());
+        valores.put("conflictos_irresolubles", conflictosIrresolubles.get());
+        return new Metricas(COMPONENTE, valores);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<EstadisticasUsuario> buscarPorUsuario(Long usuarioId) {
+        var cacheadas = cacheEstadisticas.obtener(usuarioId);
+        if (cacheadas.isPresent()) {
+            return cacheadas;
+        }
         return estadisticasRepository.findByUsuarioId(usuarioId)
-                .map(estadisticasPersistenceMapper::toDomain);
+                .map(entidad -> {
+                    var estadisticas = estadisticasPersistenceMapper.toDomain(entidad);
+                    cacheEstadisticas.actualizar(estadisticas, entidad.getVersion());
+                    return estadisticas;
+                });
     }
 
     @Override
@@ -60,6 +176,7 @@ public class EstadisticasJpaAdapter implements EstadisticasRepositoryPort {
 
     @Override
     public boolean eliminarPorUsuario(Long usuarioId) {
+        cacheEstadisticas.invalidar(usuarioId);
         return estadisticasRepository.deleteByUsuarioId(usuarioId) > 0;
     }
 
@@ -74,26 +191,101 @@ public class EstadisticasJpaAdapter implements EstadisticasRepositoryPort {
     }
 
     @Override
-    public List<EstadisticasUsuario> obtenerRankingPorAciertos(int limite) {
-        var resultados = estadisticasRepository
-                .findTopByOrderByPorcentajeAciertosDesc(PageRequest.of(0, limite));
-        return estadisticasPersistenceMapper.toDomainList(resultados);
+    @Transactional(readOnly = true)
+    public List<ResumenRankingUsuario> obtenerRanking(CriterioRanking criterio, int limite) {
+        var pagina = PageRequest.of(0, limite);
+        var resultados = switch (criterio) {
+            case ACIERTOS -> estadisticasRepository.findResumenRankingPorAciertos(pagina);
+            case VOLUMEN -> estadisticasRepository.findResumenRankingPorVolumen(pagina);
+            case TIEMPO -> estadisticasRepository.findResumenRankingPorTiempo(pagina);
+        };
+        return resultados.stream().map(this::toResumen).toList();
     }
 
     @Override
-    public List<EstadisticasUsuario> obtenerRankingPorVolumen(int limite) {
-        var resultados = estadisticasRepository
-                .findTopByOrderByTotalPreguntasDesc(PageRequest.of(0, limite));
-        return estadisticasPersistenceMapper.toDomainList(resultados);
+    @Transactional(readOnly = true)
+    public List<ResumenRankingUsuario> obtenerResumenesDeUsuariosActivos() {
+        return estadisticasRepository.findResumenDeUsuariosActivos().stream()
+                .map(this::toResumen)
+                .toList();
     }
 
-    @Override
-    public List<EstadisticasUsuario> obtenerRankingPorTiempo(int limite) {
-        var resultados = estadisticasRepository
-                .findTopByOrderByTiempoPromedioAsc(PageRequest.of(0, limite));
-        return estadisticasPersistenceMapper.toDomainList(resultados);
+    /**
+     * Inserta la fila si no existía, o la sobrescribe si sigue en la versión esperada.
+     * Devuelve vacío, sin escribir, si otra escritura se ha adelantado.
+     */
+    private Optional<EstadisticasUsuario> escribirSiVersion(EstadisticasUsuario estadisticas,
+                                                            OptionalLong versionEsperada) {
+        intentos.incrementAndGet();
+        var entidad = estadisticasPersistenceMapper.toEntity(estadisticas);
+        if (entidad.getUltimaActualizacion() == null) {
+            entidad.setUltimaActualizacion(LocalDateTime.now());
+        }
+
+        long version;
+        if (versionEsperada.isEmpty()) {
+            // Las primeras escrituras de un usuario esperan aquí una detrás de otra, así que la
+            // comprobación ve la fila que haya insertado la anterior y nunca se viola usuario_id único
+            entityManager.find(UsuarioEntity.class, estadisticas.usuarioId(), LockModeType.PESSIMISTIC_WRITE);
+            if (estadisticasRepository.existsByUsuarioId(estadisticas.usuarioId())) {
+                conflictos.incrementAndGet();
+                return Optional.empty();
+            }
+            entidad.setVersion(null);
+            version = estadisticasRepository.save(entidad).getVersion();
+        } else {
+            if (estadisticasRepository.actualizarSiVersion(entidad, versionEsperada.getAsLong()) == 0) {
+                conflictos.incrementAndGet();
+                return Optional.empty();
+            }
+            version = versionEsperada.getAsLong() + 1;
+        }
+
+        escrituras.incrementAndGet();
+        var resultado = estadisticasPersistenceMapper.toDomain(entidad);
+        cacheEstadisticas.actualizar(resultado, version);
+        return Optional.of(resultado);
+    }
+
+    /**
+     * Lee la fila del usuario con bloqueo de escritura hasta el final de la transacción.
+     */
+    private Optional<EstadisticasUsuarioEntity> leerBloqueada(Long usuarioId) {
+        return estadisticasRepository.findByUsuarioId(usuarioId).flatMap(this::releerBloqueada);
+    }
+
+    /**
+     * Relee una fila ya cargada con bloqueo de escritura. Refrescar la entidad, a diferencia de
+     * volver a consultarla, sustituye el estado que el contexto de persistencia tenía de ella.
+     */
+    private Optional<EstadisticasUsuarioEntity> releerBloqueada(EstadisticasUsuarioEntity fila) {
+        try {
+            entityManager.refresh(fila, LockModeType.PESSIMISTIC_WRITE);
+            return Optional.of(fila);
+        } catch (EntityNotFoundException e) {
+            // Eliminada entre tanto
+            return Optional.empty();
+        }
     }
 
+    private OptimisticLockingFailureException conflictoIrresoluble(Long usuarioId) {
+        conflictosIrresolubles.incrementAndGet();
+        return new OptimisticLockingFailureException(
+            "Las estadísticas del usuario " + usuarioId + " han cambiado con la fila bloqueada");
+    }
+
+    private static long versionDe(EstadisticasUsuarioEntity fila) {
+        return fila.getVersion() != null ? fila.getVersion() : 0L;
+    }
+
+    private ResumenRankingUsuario toResumen(SpringDataEstadisticasRepository.ResumenEstadisticas resumen) {
+        return new ResumenRankingUsuario(
+                resumen.getUsuarioId(),
+                resumen.getTotalPreguntas(),
+                resumen.getRespuestasCorrectas(),
+                resumen.getPorcentajeAciertos(),
+                estadisticasPersistenceMapper.msToDuration(resumen.getTiempoPromedioMs()));
+    }
 
     /*
     private final SpringDataEstadisticasRepository estadisticasRepository;
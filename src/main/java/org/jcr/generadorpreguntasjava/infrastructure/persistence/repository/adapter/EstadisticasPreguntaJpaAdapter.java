@@ -0,0 +1,131 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.CacheEstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasPreguntaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.EstadisticasPreguntaPersistenceMapper;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataEstadisticasPreguntaRepository;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasPreguntaRepositoryPort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Adaptador JPA para manejar estadísticas por pregunta.
+ *
+ * Las lecturas pasan por una caché acotada que se actualiza al confirmar cada escritura.
+ * Las escrituras leen la fila con bloqueo de escritura, de modo que dos respuestas a la
+ * misma pregunta (en esta u otra instancia) aplican su delta una detrás de otra.
+ */
+@Component
+@Transactional
+public class EstadisticasPreguntaJpaAdapter implements EstadisticasPreguntaRepositoryPort {
+
+    private final SpringDataEstadisticasPreguntaRepository estadisticasPreguntaRepository;
+    private final EstadisticasPreguntaPersistenceMapper mapper;
+    private final CacheEstadisticasPregunta cache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaccionNueva;
+
+    public EstadisticasPreguntaJpaAdapter(
+            SpringDataEstadisticasPreguntaRepository estadisticasPreguntaRepository,
+            EstadisticasPreguntaPersistenceMapper mapper,
+            CacheEstadisticasPregunta cache,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.estadisticasPreguntaRepository = estadisticasPreguntaRepository;
+        this.mapper = mapper;
+        this.cache = cache;
+        this.entityManager = entityManager;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public EstadisticasPregunta guardar(EstadisticasPregunta estadisticas) {
+        var entidad = mapper.toEntity(estadisticas);
+        // pregunta_id es único: reutilizar la fila existente para actualizarla
+        estadisticasPreguntaRepository.findByPreguntaId(estadisticas.preguntaId())
+                .ifPresent(existente -> entidad.setId(existente.getId()));
+        var guardadas = mapper.toDomain(estadisticasPreguntaRepository.save(entidad));
+        cache.actualizar(guardadas);
+        return guardadas;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<EstadisticasPregunta> buscarPorPregunta(Long preguntaId) {
+        var cacheadas = cache.obtener(preguntaId);
+        if (cacheadas.isPresent()) {
+            return cacheadas;
+        }
+        return estadisticasPreguntaRepository.findByPreguntaId(preguntaId)
+                .map(entidad -> {
+                    var estadisticas = mapper.toDomain(entidad);
+                    cache.actualizar(estadisticas);
+                    return estadisticas;
+                });
+    }
+
+    @Override
+    public Optional<EstadisticasPregunta> buscarPorPreguntaParaActualizar(Long preguntaId) {
+        return estadisticasPreguntaRepository.findByPreguntaIdParaActualizar(preguntaId)
+                .map(mapper::toDomain);
+    }
+
+    @Override
+    public boolean crearSiNoExiste(EstadisticasPregunta estadisticas) {
+        try {
+            // En su propia transacción: si otra escritura crea la fila antes, la violación de
+            // la clave única no marca como fallida la transacción de quien llama
+            Boolean creada = transaccionNueva.execute(status -> {
+                if (estadisticasPreguntaRepository.findByPreguntaId(estadisticas.preguntaId()).isPresent()) {
+                    return false;
+                }
+                estadisticasPreguntaRepository.saveAndFlush(mapper.toEntity(estadisticas));
+                return true;
+            });
+            return Boolean.TRUE.equals(creada);
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int asignarOffsetDiarioSinRegistrar(long offsetDiario) {
+        return estadisticasPreguntaRepository.asignarOffsetDiarioSinRegistrar(offsetDiario);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EstadisticasPregunta> obtenerPeorCalibradas(int limite, int minimoIntentos) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EstadisticasPreguntaEntity> consulta = cb.createQuery(EstadisticasPreguntaEntity.class);
+        Root<EstadisticasPreguntaEntity> e = consulta.from(EstadisticasPreguntaEntity.class);
+
+        // Misma desviación que EstadisticasPregunta.desviacionCalibracion, calculada en la base de datos
+        Expression<Number> porcentaje = cb.quot(cb.prod(e.<Integer>get("aciertos"), 100.0), e.<Integer>get("intentos"));
+        CriteriaBuilder.Case<Number> desviacion = cb.selectCase();
+        for (Dificultad dificultad : Dificultad.values()) {
+            desviacion = desviacion.when(cb.equal(e.get("dificultad"), dificultad),
+                    cb.abs(cb.diff(porcentaje, dificultad.getPorcentajeAciertosEsperado())));
+        }
+
+        consulta.select(e)
+                .where(cb.ge(e.<Integer>get("intentos"), Math.max(1, minimoIntentos)))
+                .orderBy(cb.desc(desviacion.otherwise(0.0)), cb.asc(e.get("preguntaId")));
+        return mapper.toDomainList(entityManager.createQuery(consulta).setMaxResults(limite).getResultList());
+    }
+}
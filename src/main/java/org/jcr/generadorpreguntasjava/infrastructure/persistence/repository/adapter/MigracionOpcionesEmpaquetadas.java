@@ -0,0 +1,195 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.CodecOpciones;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migración de las opciones de las preguntas existentes de la tabla opciones (una fila por
+ * opción) a la columna empaquetada de preguntas.
+ *
+ * Se ejecuta al arrancar, por tramos de preguntas en orden de ID, cada uno en su transacción.
+ * De paso registra la posición de la respuesta correcta en las preguntas que no la tienen.
+ * El UPDATE solo afecta a preguntas aún sin migrar, así que varias instancias pueden
+ * ejecutarla a la vez. Mientras tanto, las preguntas pendientes se siguen leyendo de la
+ * tabla opciones. Las filas originales se conservan salvo que se configure lo contrario.
+ */
+@Slf4j
+@Component
+public class MigracionOpcionesEmpaquetadas implements ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "migracion_opciones";
+
+    private static final String SQL_PENDIENTES =
+        "SELECT id, respuesta_correcta FROM preguntas WHERE opciones_empaquetadas IS NULL AND id > ? " +
+        "ORDER BY id LIMIT ?";
+
+    private static final String SQL_OPCIONES =
+        "SELECT pregunta_id, contenido FROM opciones WHERE pregunta_id BETWEEN ? AND ? ORDER BY pregunta_id, id";
+
+    private static final String SQL_EMPAQUETAR =
+        "UPDATE preguntas SET opciones_empaquetadas = ?, " +
+        "indice_respuesta_correcta = COALESCE(indice_respuesta_correcta, ?) " +
+        "WHERE id = ? AND opciones_empaquetadas IS NULL";
+
+    private static final String SQL_ELIMINAR_FILAS = "DELETE FROM opciones WHERE pregunta_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final int preguntasPorTramo;
+    private final boolean eliminarFilas;
+
+    private final AtomicLong preguntasMigradas = new AtomicLong();
+    private final AtomicLong filasEliminadas = new AtomicLong();
+    private final AtomicLong duracionMs = new AtomicLong();
+
+    public MigracionOpcionesEmpaquetadas(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${preguntas.opciones.migracion.habilitada:true}") boolean habilitada,
+            @Value("${preguntas.opciones.migracion.preguntas-por-tramo:500}") int preguntasPorTramo,
+            @Value("${preguntas.opciones.migracion.eliminar-filas:false}") boolean eliminarFilas) {
+        if (preguntasPorTramo <= 0) {
+            throw new IllegalArgumentException("El número de preguntas por tramo debe ser mayor a 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitada = habilitada;
+        this.preguntasPorTramo = preguntasPorTramo;
+        this.eliminarFilas = eliminarFilas;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrarAlArrancar() {
+        if (!habilitada) {
+            return;
+        }
+
+        try {
+            migrar();
+        } catch (Exception e) {
+            log.error("Error en la migración de opciones empaquetadas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Empaqueta las opciones de todas las preguntas pendientes.
+     *
+     * @return Número de preguntas migradas por esta ejecución
+     */
+    public long migrar() {
+        long inicio = System.nanoTime();
+        long migradas = 0;
+        long despuesDe = 0;
+
+        while (true) {
+            long desde = despuesDe;
+            Tramo tramo = transactionTemplate.execute(status -> migrarTramo(desde));
+            if (tramo == null) {
+                break;
+            }
+            migradas += tramo.migradas();
+            despuesDe = tramo.hasta();
+        }
+
+        duracionMs.set(Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        if (migradas > 0) {
+            log.info("Migración de opciones: {} preguntas empaquetadas en {} ms", migradas, duracionMs.get());
+        }
+        return migradas;
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("preguntas_migradas", preguntasMigradas.get());
+        valores.put("filas_eliminadas", filasEliminadas.get());
+        valores.put("duracion_ms", duracionMs.get());
+        return new Metricas(COMPONENTE, valores);
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private record Tramo(long hasta, int migradas) {}
+
+    /**
+     * Migra el siguiente tramo de preguntas pendientes con ID mayor al indicado.
+     *
+     * @return Último ID y preguntas migradas del tramo, o null si no quedan pendientes
+     */
+    private Tramo migrarTramo(long despuesDe) {
+        Map<Long, String> respuestas = new LinkedHashMap<>();
+        jdbcTemplate.query(SQL_PENDIENTES, rs -> {
+            respuestas.put(rs.getLong(1), rs.getString(2));
+        }, despuesDe, preguntasPorTramo);
+        if (respuestas.isEmpty()) {
+            return null;
+        }
+
+        List<Long> ids = new ArrayList<>(respuestas.keySet());
+        long desde = ids.get(0);
+        long hasta = ids.get(ids.size() - 1);
+
+        Map<Long, List<Opcion>> opciones = new HashMap<>();
+        jdbcTemplate.query(SQL_OPCIONES, rs -> {
+            opciones.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(new Opcion(rs.getString(2)));
+        }, desde, hasta);
+
+        List<Object[]> actualizaciones = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            List<Opcion> deLaPregunta = opciones.getOrDefault(id, List.of());
+            int indice = indiceDeOpcion(deLaPregunta, respuestas.get(id));
+            actualizaciones.add(new Object[]{CodecOpciones.codificar(deLaPregunta),
+                                             indice >= 0 ? indice : null, id});
+        }
+        int migradas = 0;
+        for (int filas : jdbcTemplate.batchUpdate(SQL_EMPAQUETAR, actualizaciones)) {
+            migradas += Math.max(0, filas);
+        }
+        preguntasMigradas.addAndGet(migradas);
+
+        if (eliminarFilas) {
+            List<Object[]> eliminaciones = ids.stream().map(id -> new Object[]{id}).toList();
+            for (int filas : jdbcTemplate.batchUpdate(SQL_ELIMINAR_FILAS, eliminaciones)) {
+                filasEliminadas.addAndGet(Math.max(0, filas));
+            }
+        }
+
+        log.debug("Tramo de preguntas [{}-{}] migrado: {} preguntas", desde, hasta, migradas);
+        return new Tramo(hasta, migradas);
+    }
+
+    /**
+     * Posición de la respuesta correcta, con el mismo criterio que Pregunta.indiceDeOpcion.
+     */
+    private static int indiceDeOpcion(List<Opcion> opciones, String respuestaCorrecta) {
+        if (respuestaCorrecta == null) {
+            return -1;
+        }
+        String buscada = respuestaCorrecta.trim();
+        for (int i = 0; i < opciones.size(); i++) {
+            String contenido = opciones.get(i).contenido();
+            if (contenido != null && contenido.trim().equals(buscada)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
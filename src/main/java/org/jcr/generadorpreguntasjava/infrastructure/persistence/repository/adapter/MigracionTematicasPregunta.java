@@ -0,0 +1,173 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migración de las temáticas de las preguntas existentes de la tabla pregunta_tematica a las
+ * columnas tematica_principal_id y tematica_secundaria_id de preguntas.
+ *
+ * Se ejecuta al arrancar, por tramos de preguntas en orden de ID, cada uno en su transacción.
+ * La tabla pregunta_tematica no guarda qué temática era la principal: se toma como principal
+ * la de menor ID (la creada antes), para que al menos el resultado sea estable. El UPDATE solo
+ * afecta a preguntas aún sin migrar, así que varias instancias pueden ejecutarla a la vez.
+ *
+ * Las preguntas nuevas ya no se escriben en pregunta_tematica, y las filas de cada pregunta se
+ * eliminan en la misma transacción que la migra: lo que queda en la tabla es exactamente lo
+ * pendiente, y las columnas son la única fuente de las temáticas. Las preguntas sin temáticas
+ * no tienen filas, así que no se vuelven a recorrer en cada arranque. Mientras tanto, las
+ * temáticas de las preguntas pendientes se leen de pregunta_tematica, pero los filtros por
+ * temática no las encuentran.
+ */
+@Slf4j
+@Component
+public class MigracionTematicasPregunta implements ProveedorMetricasPort {
+
+    private static final String COMPONENTE = "migracion_tematicas";
+
+    private static final String SQL_PENDIENTES =
+        "SELECT DISTINCT pregunta_id FROM pregunta_tematica WHERE pregunta_id > ? ORDER BY pregunta_id LIMIT ?";
+
+    private static final String SQL_TEMATICAS =
+        "SELECT pregunta_id, tematica_id FROM pregunta_tematica WHERE pregunta_id BETWEEN ? AND ? " +
+        "ORDER BY pregunta_id, tematica_id";
+
+    private static final String SQL_ASIGNAR =
+        "UPDATE preguntas SET tematica_principal_id = ?, tematica_secundaria_id = ? " +
+        "WHERE id = ? AND tematica_principal_id IS NULL";
+
+    private static final String SQL_ELIMINAR_FILAS = "DELETE FROM pregunta_tematica WHERE pregunta_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final int preguntasPorTramo;
+
+    private final AtomicLong preguntasMigradas = new AtomicLong();
+    private final AtomicLong filasEliminadas = new AtomicLong();
+    private final AtomicLong duracionMs = new AtomicLong();
+
+    public MigracionTematicasPregunta(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${preguntas.tematicas.migracion.habilitada:true}") boolean habilitada,
+            @Value("${preguntas.tematicas.migracion.preguntas-por-tramo:500}") int preguntasPorTramo) {
+        if (preguntasPorTramo <= 0) {
+            throw new IllegalArgumentException("El número de preguntas por tramo debe ser mayor a 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitada = habilitada;
+        this.preguntasPorTramo = preguntasPorTramo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrarAlArrancar() {
+        if (!habilitada) {
+            return;
+        }
+
+        try {
+            migrar();
+        } catch (Exception e) {
+            log.error("Error en la migración de temáticas de preguntas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Asigna la temática principal y secundaria de todas las preguntas pendientes.
+     *
+     * @return Número de preguntas migradas por esta ejecución
+     */
+    public long migrar() {
+        long inicio = System.nanoTime();
+        long migradas = 0;
+        long despuesDe = 0;
+
+        while (true) {
+            long desde = despuesDe;
+            Tramo tramo = transactionTemplate.execute(status -> migrarTramo(desde));
+            if (tramo == null) {
+                break;
+            }
+            migradas += tramo.migradas();
+            despuesDe = tramo.hasta();
+        }
+
+        duracionMs.set(Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        if (migradas > 0) {
+            log.info("Migración de temáticas: {} preguntas actualizadas en {} ms", migradas, duracionMs.get());
+        }
+        return migradas;
+    }
+
+    @Override
+    public Metricas obtenerMetricas() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        valores.put("preguntas_migradas", preguntasMigradas.get());
+        valores.put("filas_eliminadas", filasEliminadas.get());
+        valores.put("duracion_ms", duracionMs.get());
+        return new Metricas(COMPONENTE, valores);
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private record Tramo(long hasta, int migradas) {}
+
+    /**
+     * Migra el siguiente tramo de preguntas pendientes con ID mayor al indicado.
+     *
+     * @return Último ID y preguntas migradas del tramo, o null si no quedan pendientes
+     */
+    private Tramo migrarTramo(long despuesDe) {
+        List<Long> ids = jdbcTemplate.queryForList(SQL_PENDIENTES, Long.class, despuesDe, preguntasPorTramo);
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        long desde = ids.get(0);
+        long hasta = ids.get(ids.size() - 1);
+
+        Map<Long, List<Long>> tematicas = new HashMap<>();
+        jdbcTemplate.query(SQL_TEMATICAS, rs -> {
+            tematicas.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>(2)).add(rs.getLong(2));
+        }, desde, hasta);
+
+        List<Object[]> actualizaciones = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            List<Long> deLaPregunta = tematicas.get(id);
+            Long secundaria = deLaPregunta.size() > 1 ? deLaPregunta.get(1) : null;
+            actualizaciones.add(new Object[]{deLaPregunta.get(0), secundaria, id});
+        }
+        int migradas = 0;
+        for (int filas : jdbcTemplate.batchUpdate(SQL_ASIGNAR, actualizaciones)) {
+            migradas += Math.max(0, filas);
+        }
+        preguntasMigradas.addAndGet(migradas);
+
+        // También las de preguntas que ya tenían las columnas (guardadas de nuevo o migradas
+        // antes de eliminar filas): las columnas mandan
+        List<Object[]> eliminaciones = ids.stream().map(id -> new Object[]{id}).toList();
+        for (int filas : jdbcTemplate.batchUpdate(SQL_ELIMINAR_FILAS, eliminaciones)) {
+            filasEliminadas.addAndGet(Math.max(0, filas));
+        }
+
+        log.debug("Tramo de preguntas [{}-{}] migrado: {} preguntas", desde, hasta, migradas);
+        return new Tramo(hasta, migradas);
+    }
+}
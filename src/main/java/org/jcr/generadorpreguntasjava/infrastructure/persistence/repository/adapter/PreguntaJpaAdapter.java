@@ -3,7 +3,6 @@ package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.ada
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
-import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.OpcionEntity;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.PreguntaEntity;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.TematicaEntity;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.PersistenceMapper;
@@ -13,11 +12,9 @@ import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Adaptador secundario que implementa el puerto de salida para persistencia de preguntas.
@@ -44,25 +41,8 @@ public class PreguntaJpaAdapter implements PreguntaRepositoryPort {
             PreguntaEntity entity = persistenceMapper.toEntity(pregunta);
 
             // ✅ Asegurar que las temáticas estén gestionadas
-            Set<TematicaEntity> tematicas = entity.getTematicas();
-            if (tematicas != null && !tematicas.isEmpty()) {
-                // Crear copia para evitar ConcurrentModificationException
-                Set<TematicaEntity> tematicasCopia = new HashSet<>(tematicas);
-
-                Set<TematicaEntity> managedTematicas = tematicasCopia.stream()
-                        .map(t -> tematicaJpaRepository.findById(t.getId())
-                                .orElseThrow(() -> new IllegalArgumentException("Temática no encontrada con ID: " + t.getId())))
-                        .collect(Collectors.toSet());
-
-                entity.setTematicas(managedTematicas);
-            }
-
-            // Establecer relaciones bidireccionales para opciones
-            if (entity.getOpciones() != null) {
-                for (OpcionEntity opcion : entity.getOpciones()) {
-                    opcion.setPregunta(entity);
-                }
-            }
+            entity.setTematicaPrincipal(gestionada(entity.getTematicaPrincipal()));
+            entity.setTematicaSecundaria(gestionada(entity.getTematicaSecundaria()));
 
             // Guardar usando Spring Data JPA
             PreguntaEntity savedEntity = springDataRepository.save(entity);
@@ -102,27 +82,42 @@ public class PreguntaJpaAdapter implements PreguntaRepositoryPort {
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public List<Pregunta> buscarPorIds(Collection<Long> ids) {
+        log.debug("Buscando {} preguntas por ID", ids.size());
+        
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        try {
+            List<PreguntaEntity> entities = springDataRepository.findByIdInWithDetails(ids);
+            return entities.stream()
+                    .map(persistenceMapper::toDomain)
+                    .toList();
+            
+        } catch (Exception e) {
+            log.error("Error al buscar preguntas por IDs: {}", e.getMessage(), e);
+            throw new RuntimeException("Error al buscar preguntas", e);
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<Pregunta> obtenerTodas() {
         log.debug("Obteniendo todas las preguntas");
         
         try {
-            // Primera consulta: obtener preguntas con opciones
-            List<PreguntaEntity> preguntasConOpciones = springDataRepository.findAllWithOpciones();
+            // Una sola consulta: las opciones van empaquetadas en la fila de la pregunta
+            List<PreguntaEntity> entities = springDataRepository.findAllWithTematicas();
             
-            if (preguntasConOpciones.isEmpty()) {
+            if (entities.isEmpty()) {
                 log.debug("No se encontraron preguntas");
                 return List.of();
             }
             
-            // Segunda consulta: obtener las mismas preguntas con temáticas
-            List<PreguntaEntity> preguntasConTematicas = springDataRepository.findWithTematicas(preguntasConOpciones);
-
-            // Combinar los resultados manualmente
-            List<PreguntaEntity> preguntasCompletas = combinarPreguntasConDetalles(preguntasConOpciones, preguntasConTematicas);
-            
-            List<Pregunta> preguntas = persistenceMapper.toDomainList(preguntasCompletas);
+            List<Pregunta> preguntas = persistenceMapper.toDomainList(entities);
             
             log.debug("Se obtuvieron {} preguntas", preguntas.size());
             return preguntas;
@@ -133,33 +128,19 @@ public class PreguntaJpaAdapter implements PreguntaRepositoryPort {
         }
     }
     
-    /**
-     * Combina las listas de preguntas con opciones y temáticas para evitar duplicados.
-     */
-    private List<PreguntaEntity> combinarPreguntasConDetalles(List<PreguntaEntity> preguntasConOpciones, 
-                                                             List<PreguntaEntity> preguntasConTematicas) {
-        // Crear un mapa de las preguntas con temáticas por ID para búsqueda rápida
-        var tematicasPorId = preguntasConTematicas.stream()
-                .collect(Collectors.toMap(PreguntaEntity::getId, p -> p.getTematicas()));
-        
-        // Asignar las temáticas a las preguntas que ya tienen opciones
-        return preguntasConOpciones.stream()
-                .peek(p -> {
-                    Set<TematicaEntity> tematicas = tematicasPorId.get(p.getId());
-                    if (tematicas != null) {
-                        p.setTematicas(tematicas);
-                    }
-                })
-                .toList();
-    }
-    
     @Override
     @Transactional(readOnly = true)
     public List<Pregunta> buscarPorTematica(String nombreTematica) {
         log.debug("Buscando preguntas por temática: {}", nombreTematica);
         
         try {
-            List<PreguntaEntity> entities = springDataRepository.findByTematicasNombre(nombreTematica);
+            Optional<TematicaEntity> tematica = tematicaJpaRepository.findByNombre(nombreTematica);
+            if (tematica.isEmpty()) {
+                log.debug("No existe la temática '{}'", nombreTematica);
+                return List.of();
+            }
+            
+            List<PreguntaEntity> entities = springDataRepository.findByTematica(tematica.get());
             List<Pregunta> preguntas = persistenceMapper.toDomainList(entities);
             
             log.debug("Se encontraron {} preguntas para la temática '{}'", preguntas.size(), nombreTematica);
@@ -188,4 +169,14 @@ public class PreguntaJpaAdapter implements PreguntaRepositoryPort {
             throw new RuntimeException("Error al verificar existencia de preguntas", e);
         }
     }
+    
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+    
+    private TematicaEntity gestionada(TematicaEntity tematica) {
+        if (tematica == null) {
+            return null;
+        }
+        return tematicaJpaRepository.findById(tematica.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Temática no encontrada con ID: " + tematica.getId()));
+    }
 }
@@ -0,0 +1,329 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.AcumuladorEstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.ResumenDiarioSesiones;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.CacheEstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasUsuarioEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.ParticionReconstruccionEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.EstadisticasPersistenceMapper;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataParticionReconstruccionRepository;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptador JDBC para la reconstrucción masiva de estadísticas.
+ * 
+ * Recorre las sesiones completadas de una partición ordenadas por usuario con un cursor
+ * de solo avance (fetch size configurable), acumula cada usuario con contadores primitivos
+ * junto con los resúmenes diarios de sus sesiones archivadas y escribe los resultados en
+ * lotes JDBC: primero un UPDATE por lote y después un INSERT para los usuarios que aún no
+ * tenían fila. Toda la partición, incluida la marca de completada, se escribe en una única
+ * transacción. Cada lote guarda el offset del diario de respuestas leído al escribirlo.
+ */
+@Slf4j
+@Component
+public class ReconstruccionEstadisticasJdbcAdapter implements ReconstruccionEstadisticasRepositoryPort {
+    
+    private static final String SQL_USUARIOS_CON_SESIONES =
+        "SELECT usuario_id FROM sesiones_respuesta WHERE fin_respuesta IS NOT NULL " +
+        "UNION SELECT usuario_id FROM resumenes_diarios_sesiones ORDER BY usuario_id";
+    
+    private static final String SQL_SESIONES_PARTICION =
+        "SELECT usuario_id, pregunta_id, es_correcta, tiempo_respuesta_ms FROM sesiones_respuesta " +
+        "WHERE usuario_id BETWEEN ? AND ? AND fin_respuesta IS NOT NULL ORDER BY usuario_id";
+    
+    private static final String SQL_RESUMENES_PARTICION =
+        "SELECT id, usuario_id, fecha, dificultad, tematica, total, correctas, histograma_tiempos " +
+        "FROM resumenes_diarios_sesiones WHERE usuario_id BETWEEN ? AND ?";
+    
+    private static final String SQL_ACTUALIZAR =
+        "UPDATE estadisticas_usuario SET total_preguntas = ?, respuestas_correctas = ?, porcentaje_aciertos = ?, " +
+        "tiempo_promedio_ms = ?, estadisticas_por_dificultad_bin = ?, estadisticas_por_tematica_bin = ?, " +
+        "estadisticas_por_dificultad = NULL, estadisticas_por_tematica = NULL, " +
+        "histograma_tiempos = ?, ultima_actualizacion = ?, offset_diario = ?, version = COALESCE(version, 0) + 1 " +
+        "WHERE usuario_id = ?";
+    
+    private static final String SQL_INSERTAR =
+        "INSERT INTO estadisticas_usuario (total_preguntas, respuestas_correctas, porcentaje_aciertos, " +
+        "tiempo_promedio_ms, estadisticas_por_dificultad_bin, estadisticas_por_tematica_bin, histograma_tiempos, " +
+        "ultima_actualizacion, offset_diario, version, usuario_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+    
+    private static final ClasificacionPregunta SIN_CLASIFICAR =
+        new ClasificacionPregunta(Dificultad.FACIL, "Sin temática");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SpringDataParticionReconstruccionRepository particionRepository;
+    private final EstadisticasPersistenceMapper estadisticasPersistenceMapper;
+    private final CacheEstadisticasUsuario cacheEstadisticas;
+    private final int fetchSize;
+    private final int tamanoLote;
+    
+    public ReconstruccionEstadisticasJdbcAdapter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SpringDataParticionReconstruccionRepository particionRepository,
+            EstadisticasPersistenceMapper estadisticasPersistenceMapper,
+            CacheEstadisticasUsuario cacheEstadisticas,
+            @Value("${estadisticas.reconstruccion.fetch-size:1000}") int fetchSize,
+            @Value("${estadisticas.reconstruccion.tamano-lote:500}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.particionRepository = particionRepository;
+        this.estadisticasPersistenceMapper = estadisticasPersistenceMapper;
+        this.cacheEstadisticas = cacheEstadisticas;
+        this.fetchSize = fetchSize;
+        this.tamanoLote = tamanoLote;
+    }
+    
+    @Override
+    public List<ParticionUsuarios> crearParticiones(int usuariosPorParticion) {
+        if (usuariosPorParticion <= 0) {
+            throw new IllegalArgumentException("El número de usuarios por partición debe ser mayor a 0");
+        }
+        
+        return transactionTemplate.execute(status -> {
+            particionRepository.deleteAllInBatch();
+            
+            List<ParticionReconstruccionEntity> particiones = new ArrayList<>();
+            long[] rango = {-1, -1};
+            int[] enRango = {0};
+            jdbcTemplate.query(SQL_USUARIOS_CON_SESIONES, rs -> {
+                long usuarioId = rs.getLong(1);
+                if (enRango[0] == 0) {
+                    rango[0] = usuarioId;
+                }
+                rango[1] = usuarioId;
+                if (++enRango[0] == usuariosPorParticion) {
+                    particiones.add(new ParticionReconstruccionEntity(rango[0], rango[1]));
+                    enRango[0] = 0;
+                }
+            });
+            if (enRango[0] > 0) {
+                particiones.add(new ParticionReconstruccionEntity(rango[0], rango[1]));
+            }
+            
+            return particionRepository.saveAll(particiones).stream().map(this::toParticion).toList();
+        });
+    }
+    
+    @Override
+    public List<ParticionUsuarios> obtenerParticiones() {
+        return particionRepository.findAllByOrderByDesdeUsuarioIdAsc().stream()
+            .map(this::toParticion)
+            .toList();
+    }
+    
+    @Override
+    public ResultadoParticion reconstruirParticion(ParticionUsuarios particion,
+                                                   Map<Long, ClasificacionPregunta> clasificacion,
+                                                   LongSupplier offsetDiario) {
+        ResultadoParticion resultado = transactionTemplate.execute(status -> {
+            // Los resúmenes de la partición son pocos por usuario: se cargan antes de recorrer las sesiones
+            TreeMap<Long, List<ResumenDiarioSesiones>> resumenes = new TreeMap<>();
+            jdbcTemplate.query(SQL_RESUMENES_PARTICION, rs -> {
+                ResumenDiarioSesiones resumen = ArchivoSesionesJdbcAdapter.leerResumen(rs);
+                resumenes.computeIfAbsent(resumen.usuarioId(), id -> new ArrayList<>()).add(resumen);
+            }, particion.desdeUsuarioId(), particion.hastaUsuarioId());
+            
+            RecorridoParticion recorrido = new RecorridoParticion(clasificacion, resumenes, offsetDiario);
+            
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                    SQL_SESIONES_PARTICION, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, particion.desdeUsuarioId());
+                ps.setLong(2, particion.hastaUsuarioId());
+                return ps;
+            }, recorrido::procesarFila);
+            recorrido.terminar();
+            
+            ParticionReconstruccionEntity entidad = particionRepository.findById(particion.id())
+                .orElseThrow(() -> new IllegalStateException("Partición no encontrada: " + particion.id()));
+            entidad.setEstado(EstadoParticion.COMPLETADA);
+            entidad.setUsuariosProcesados(recorrido.usuarios);
+            entidad.setSesionesProcesadas(recorrido.sesiones);
+            particionRepository.save(entidad);
+            
+            return new ResultadoParticion(recorrido.usuarios, recorrido.sesiones);
+        });
+        
+        // Las filas se escribieron por JDBC sin pasar por la caché: descartar las entradas de la partición
+        cacheEstadisticas.invalidarRango(particion.desdeUsuarioId(), particion.hastaUsuarioId());
+        return resultado;
+    }
+    
+    @Override
+    public void marcarError(Long particionId) {
+        transactionTemplate.executeWithoutResult(status ->
+            particionRepository.findById(particionId).ifPresent(entidad -> {
+                entidad.setEstado(EstadoParticion.ERROR);
+                particionRepository.save(entidad);
+            }));
+    }
+    
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+    
+    /**
+     * Estado del recorrido de una partición: acumulador del usuario en curso y lote pendiente de escribir.
+     */
+    private final class RecorridoParticion {
+        
+        private final Map<Long, ClasificacionPregunta> clasificacion;
+        private final TreeMap<Long, List<ResumenDiarioSesiones>> resumenesPendientes;
+        private final LongSupplier offsetDiario;
+        private final List<EstadisticasUsuario> lote = new ArrayList<>(tamanoLote);
+        private AcumuladorEstadisticasUsuario actual;
+        private long usuarios;
+        private long sesiones;
+        
+        private RecorridoParticion(Map<Long, ClasificacionPregunta> clasificacion,
+                                   TreeMap<Long, List<ResumenDiarioSesiones>> resumenes,
+                                   LongSupplier offsetDiario) {
+            this.clasificacion = clasificacion;
+            this.resumenesPendientes = resumenes;
+            this.offsetDiario = offsetDiario;
+        }
+        
+        private void procesarFila(ResultSet rs) throws SQLException {
+            long usuarioId = rs.getLong(1);
+            long preguntaId = rs.getLong(2);
+            boolean correcta = rs.getBoolean(3);
+            long tiempoMs = rs.getLong(4);
+            if (rs.wasNull()) {
+                tiempoMs = -1;
+            }
+            
+            if (actual == null || actual.getUsuarioId() != usuarioId) {
+                cerrarUsuario();
+                // Usuarios anteriores que solo tienen sesiones archivadas
+                cerrarUsuariosArchivados(usuarioId);
+                actual = abrirUsuario(usuarioId);
+            }
+            
+            ClasificacionPregunta pregunta = clasificacion.getOrDefault(preguntaId, SIN_CLASIFICAR);
+            actual.registrar(pregunta.dificultad(), pregunta.tematica(), correcta, tiempoMs);
+            sesiones++;
+        }
+        
+        private void terminar() {
+            cerrarUsuario();
+            cerrarUsuariosArchivados(Long.MAX_VALUE);
+            escribirLote(lote, offsetDiario.getAsLong());
+            lote.clear();
+        }
+        
+        private AcumuladorEstadisticasUsuario abrirUsuario(long usuarioId) {
+            AcumuladorEstadisticasUsuario acumulador = new AcumuladorEstadisticasUsuario(usuarioId);
+            List<ResumenDiarioSesiones> resumenes = resumenesPendientes.remove(usuarioId);
+            if (resumenes != null) {
+                resumenes.forEach(acumulador::registrarResumen);
+            }
+            return acumulador;
+        }
+        
+        private void cerrarUsuariosArchivados(long antesDeUsuarioId) {
+            while (!resumenesPendientes.isEmpty() && resumenesPendientes.firstKey() < antesDeUsuarioId) {
+                actual = abrirUsuario(resumenesPendientes.firstKey());
+                cerrarUsuario();
+            }
+        }
+        
+        private void cerrarUsuario() {
+            if (actual == null) {
+                return;
+            }
+            lote.add(actual.construir());
+            usuarios++;
+            actual = null;
+            if (lote.size() >= tamanoLote) {
+                escribirLote(lote, offsetDiario.getAsLong());
+                lote.clear();
+            }
+        }
+    }
+    
+    private void escribirLote(List<EstadisticasUsuario> lote, long offsetDiario) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        
+        List<EstadisticasUsuarioEntity> filas = lote.stream()
+            .map(estadisticas -> estadisticasPersistenceMapper.toEntity(estadisticas.conOffsetDiario(offsetDiario)))
+            .toList();
+        
+        int[] actualizadas = jdbcTemplate.batchUpdate(SQL_ACTUALIZAR, new SetterFilas(filas));
+        
+        List<EstadisticasUsuarioEntity> nuevas = new ArrayList<>();
+        for (int i = 0; i < actualizadas.length; i++) {
+            // SUCCESS_NO_INFO (-2) se considera actualizada
+            if (actualizadas[i] == 0) {
+                nuevas.add(filas.get(i));
+            }
+        }
+        if (!nuevas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, new SetterFilas(nuevas));
+        }
+        
+        log.debug("Lote de estadísticas escrito: {} actualizadas, {} insertadas",
+                filas.size() - nuevas.size(), nuevas.size());
+    }
+    
+    /**
+     * Asigna los parámetros comunes de UPDATE e INSERT (usuario_id siempre el último).
+     */
+    private record SetterFilas(List<EstadisticasUsuarioEntity> filas) implements BatchPreparedStatementSetter {
+        
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            EstadisticasUsuarioEntity fila = filas.get(i);
+            ps.setInt(1, fila.getTotalPreguntas());
+            ps.setInt(2, fila.getRespuestasCorrectas());
+            ps.setDouble(3, fila.getPorcentajeAciertos());
+            ps.setLong(4, fila.getTiempoPromedioMs() != null ? fila.getTiempoPromedioMs() : 0L);
+            ps.setBytes(5, fila.getEstadisticasPorDificultadBinario());
+            ps.setBytes(6, fila.getEstadisticasPorTematicaBinario());
+            if (fila.getHistogramaTiemposBinario() != null) {
+                ps.setBytes(7, fila.getHistogramaTiemposBinario());
+            } else {
+                ps.setNull(7, Types.VARBINARY);
+            }
+            ps.setTimestamp(8, Timestamp.valueOf(fila.getUltimaActualizacion()));
+            if (fila.getOffsetDiario() != null) {
+                ps.setLong(9, fila.getOffsetDiario());
+            } else {
+                ps.setNull(9, Types.BIGINT);
+            }
+            ps.setLong(10, fila.getUsuarioId());
+        }
+        
+        @Override
+        public int getBatchSize() {
+            return filas.size();
+        }
+    }
+    
+    private ParticionUsuarios toParticion(ParticionReconstruccionEntity entidad) {
+        return new ParticionUsuarios(entidad.getId(), entidad.getDesdeUsuarioId(), entidad.getHastaUsuarioId(),
+                entidad.getEstado(), entidad.getUsuariosProcesados(), entidad.getSesionesProcesadas());
+    }
+}
@@ -1,21 +1,38 @@
 package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.domain.model.CursorHistorial;
 import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.FiltroHistorialSesiones;
 import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionesColumnares;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.SesionRespuestaEntity;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.PersistenceMapper;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataSesionRespuestaRepository;
 import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Adaptador secundario que implementa el puerto de salida para persistencia de sesiones de respuesta.
@@ -26,8 +43,14 @@ import java.util.Optional;
 @Transactional
 public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort {
     
+    private static final String SQL_INSERTAR =
+        "INSERT INTO sesiones_respuesta (usuario_id, pregunta_id, respuesta_seleccionada, es_correcta, " +
+        "inicio_respuesta, fin_respuesta, tiempo_respuesta_ms, opcion_seleccionada) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
     private final SpringDataSesionRespuestaRepository springDataRepository;
     private final PersistenceMapper persistenceMapper;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
     
     @Override
     public SesionRespuesta guardar(SesionRespuesta sesion) {
@@ -47,6 +70,42 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
         }
     }
     
+    @Override
+    public List<SesionRespuesta> guardarTodas(List<SesionRespuesta> sesiones) {
+        log.debug("Insertando lote de {} sesiones de respuesta", sesiones.size());
+        
+        if (sesiones.isEmpty()) {
+            return List.of();
+        }
+        
+        try {
+            // Batch JDBC: con IDs IDENTITY Hibernate inserta fila a fila, así que el lote
+            // se envía directamente y se leen las claves generadas al final
+            KeyHolder claves = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(SQL_INSERTAR, new String[]{"id"}),
+                new SetterSesiones(sesiones),
+                claves);
+            
+            List<Map<String, Object>> generadas = claves.getKeyList();
+            if (generadas.size() != sesiones.size()) {
+                throw new IllegalStateException("Se esperaban " + sesiones.size() + " IDs generados y se obtuvieron "
+                                                + generadas.size());
+            }
+            
+            List<SesionRespuesta> guardadas = new ArrayList<>(sesiones.size());
+            for (int i = 0; i < sesiones.size(); i++) {
+                Number id = (Number) generadas.get(i).values().iterator().next();
+                guardadas.add(sesiones.get(i).withId(id.longValue()));
+            }
+            return guardadas;
+            
+        } catch (Exception e) {
+            log.error("Error al insertar lote de sesiones: {}", e.getMessage(), e);
+            throw new RuntimeException("Error al insertar lote de sesiones", e);
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Optional<SesionRespuesta> buscarPorId(Long id) {
@@ -92,6 +151,40 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public SesionesColumnares obtenerColumnasCompletadasPorUsuario(Long usuarioId) {
+        log.debug("Obteniendo columnas de sesiones completadas por usuario: {}", usuarioId);
+        
+        try (Stream<Object[]> filas = springDataRepository.streamColumnasCompletadasByUsuarioId(usuarioId)) {
+            SesionesColumnares.Constructor constructor = SesionesColumnares.constructor(0);
+            filas.forEach(fila -> {
+                Long tiempoMs = (Long) fila[2];
+                constructor.agregar((Long) fila[0], (Boolean) fila[1], tiempoMs != null ? tiempoMs : 0L);
+            });
+            return constructor.construir();
+            
+        } catch (Exception e) {
+            log.error("Error al obtener columnas de sesiones del usuario {}: {}", usuarioId, e.getMessage(), e);
+            throw new RuntimeException("Error al obtener sesiones completadas", e);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<SesionRespuesta> obtenerCompletadasPorPregunta(Long preguntaId) {
+        log.debug("Obteniendo sesiones completadas por pregunta: {}", preguntaId);
+        
+        try {
+            List<SesionRespuestaEntity> entities = springDataRepository.findCompletadasByPreguntaId(preguntaId);
+            return persistenceMapper.toDomainSesionList(entities);
+            
+        } catch (Exception e) {
+            log.error("Error al obtener sesiones completadas por pregunta {}: {}", preguntaId, e.getMessage(), e);
+            throw new RuntimeException("Error al obtener sesiones completadas por pregunta", e);
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<SesionRespuesta> obtenerPorUsuarioYDificultad(Long usuarioId, Dificultad dificultad) {
@@ -158,7 +251,8 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
         log.debug("Buscando sesión en progreso para usuario {} y pregunta {}", usuarioId, preguntaId);
         
         try {
-            return springDataRepository.findSesionEnProgreso(usuarioId, preguntaId)
+            return springDataRepository.findSesionesEnProgreso(usuarioId, preguntaId, PageRequest.of(0, 1)).stream()
+                .findFirst()
                 .map(persistenceMapper::toDomain);
                 
         } catch (Exception e) {
@@ -196,14 +290,26 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
     }
     
     @Override
-    public int eliminarSesionesAbandonadas() {
-        log.info("Eliminando sesiones abandonadas");
-        
+    @Transactional(readOnly = true)
+    public Optional<RangoIds> obtenerTramoSesionesAbandonadas(long despuesDeId, LocalDateTime limite, int tamano) {
         try {
-            LocalDateTime tiempoLimite = LocalDateTime.now().minusMinutes(30);
-            int eliminadas = springDataRepository.eliminarSesionesAbandonadas(tiempoLimite);
+            List<Long> ids = springDataRepository.findIdsAbandonadas(despuesDeId, limite, PageRequest.of(0, tamano));
+            if (ids.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new RangoIds(ids.get(0), ids.get(ids.size() - 1)));
             
-            log.info("Se eliminaron {} sesiones abandonadas", eliminadas);
+        } catch (Exception e) {
+            log.error("Error al obtener tramo de sesiones abandonadas: {}", e.getMessage(), e);
+            throw new RuntimeException("Error al obtener tramo de sesiones abandonadas", e);
+        }
+    }
+    
+    @Override
+    public int eliminarSesionesAbandonadas(long desdeId, long hastaId, LocalDateTime limite) {
+        try {
+            int eliminadas = springDataRepository.eliminarSesionesAbandonadas(desdeId, hastaId, limite);
+            log.debug("Eliminadas {} sesiones abandonadas con ID entre {} y {}", eliminadas, desdeId, hastaId);
             return eliminadas;
             
         } catch (Exception e) {
@@ -218,15 +324,10 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
         log.debug("Obteniendo últimas {} sesiones para usuario: {}", limite, usuarioId);
         
         try {
+            // El límite se aplica en la base de datos (LIMIT), no sobre el historial completo
             Pageable pageable = PageRequest.of(0, limite);
-            List<SesionRespuestaEntity> entities = springDataRepository.findTopByUsuarioIdOrderByFinRespuestaDesc(usuarioId);
-            
-            // Aplicar límite manualmente ya que la query no lo soporta directamente
-            List<SesionRespuestaEntity> limitedEntities = entities.stream()
-                .limit(limite)
-                .toList();
-                
-            return persistenceMapper.toDomainSesionList(limitedEntities);
+            List<SesionRespuestaEntity> entities = springDataRepository.findUltimasCompletadasByUsuarioId(usuarioId, pageable);
+            return persistenceMapper.toDomainSesionList(entities);
             
         } catch (Exception e) {
             log.error("Error al obtener últimas sesiones para usuario {}: {}", usuarioId, e.getMessage(), e);
@@ -234,6 +335,71 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public List<SesionRespuesta> obtenerPaginaCompletadas(Long usuarioId, FiltroHistorialSesiones filtro,
+                                                          CursorHistorial cursor, int limite) {
+        log.debug("Obteniendo página de {} sesiones para usuario {} desde cursor {}", limite, usuarioId, cursor);
+        
+        try {
+            // La consulta se compone solo con los filtros presentes para que el plan use el índice
+            // (usuario_id, fin_respuesta, id) como rango, sin condiciones del tipo ":param IS NULL OR ..."
+            StringBuilder jpql = new StringBuilder(
+                "SELECT s FROM SesionRespuestaEntity s WHERE s.usuarioId = :usuarioId AND s.finRespuesta IS NOT NULL");
+            if (filtro.correcta() != null) {
+                jpql.append(" AND s.esCorrecta = :correcta");
+            }
+            if (filtro.desde() != null) {
+                jpql.append(" AND s.finRespuesta >= :desde");
+            }
+            if (filtro.hasta() != null) {
+                jpql.append(" AND s.finRespuesta <= :hasta");
+            }
+            if (cursor != null) {
+                jpql.append(" AND (s.finRespuesta < :cursorFin OR (s.finRespuesta = :cursorFin AND s.id < :cursorId))");
+            }
+            if (filtro.dificultad() != null) {
+                jpql.append(" AND s.preguntaId IN (SELECT p.id FROM PreguntaEntity p WHERE p.dificultad = :dificultad)");
+            }
+            if (filtro.tematica() != null) {
+                // Por las columnas indexadas de temática principal y secundaria
+                jpql.append(" AND s.preguntaId IN (SELECT p.id FROM PreguntaEntity p, TematicaEntity t")
+                    .append(" WHERE t.nombre = :tematica AND (p.tematicaPrincipal = t OR p.tematicaSecundaria = t))");
+            }
+            jpql.append(" ORDER BY s.finRespuesta DESC, s.id DESC");
+            
+            TypedQuery<SesionRespuestaEntity> query = entityManager
+                .createQuery(jpql.toString(), SesionRespuestaEntity.class)
+                .setParameter("usuarioId", usuarioId)
+                .setMaxResults(limite);
+            if (filtro.correcta() != null) {
+                query.setParameter("correcta", filtro.correcta());
+            }
+            if (filtro.desde() != null) {
+                query.setParameter("desde", filtro.desde());
+            }
+            if (filtro.hasta() != null) {
+                query.setParameter("hasta", filtro.hasta());
+            }
+            if (cursor != null) {
+                query.setParameter("cursorFin", cursor.finRespuesta());
+                query.setParameter("cursorId", cursor.sesionId());
+            }
+            if (filtro.dificultad() != null) {
+                query.setParameter("dificultad", filtro.dificultad());
+            }
+            if (filtro.tematica() != null) {
+                query.setParameter("tematica", filtro.tematica());
+            }
+            
+            return persistenceMapper.toDomainSesionList(query.getResultList());
+            
+        } catch (Exception e) {
+            log.error("Error al obtener página de sesiones para usuario {}: {}", usuarioId, e.getMessage(), e);
+            throw new RuntimeException("Error al obtener página de sesiones", e);
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public boolean existeSesion(Long usuarioId, Long preguntaId) {
@@ -247,4 +413,83 @@ public class SesionRespuestaJpaAdapter implements SesionRespuestaRepositoryPort
             throw new RuntimeException("Error al verificar existencia de sesión", e);
         }
     }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long recorrerCompletadasPorPregunta(Long preguntaId, Consumer<SesionRespuesta> consumidor) {
+        log.debug("Recorriendo sesiones completadas por pregunta: {}", preguntaId);
+        
+        try (Stream<SesionRespuestaEntity> entidades = springDataRepository.streamCompletadasByPreguntaId(preguntaId)) {
+            return recorrer(entidades, consumidor);
+        } catch (Exception e) {
+            log.error("Error al recorrer sesiones completadas de la pregunta {}: {}", preguntaId, e.getMessage(), e);
+            throw new RuntimeException("Error al recorrer sesiones completadas", e);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long recorrerPorUsuarioYFechas(Long usuarioId, LocalDateTime desde, LocalDateTime hasta,
+                                          Consumer<SesionRespuesta> consumidor) {
+        log.debug("Recorriendo sesiones del usuario {} entre {} y {}", usuarioId, desde, hasta);
+        
+        try (Stream<SesionRespuestaEntity> entidades =
+                 springDataRepository.streamByUsuarioIdAndFechas(usuarioId, desde, hasta)) {
+            return recorrer(entidades, consumidor);
+        } catch (Exception e) {
+            log.error("Error al recorrer sesiones del usuario {} por fechas: {}", usuarioId, e.getMessage(), e);
+            throw new RuntimeException("Error al recorrer sesiones por fechas", e);
+        }
+    }
+    
+    /**
+     * Asigna los parámetros del INSERT de una sesión completada.
+     */
+    private record SetterSesiones(List<SesionRespuesta> sesiones) implements BatchPreparedStatementSetter {
+        
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            SesionRespuesta sesion = sesiones.get(i);
+            ps.setLong(1, sesion.usuarioId());
+            ps.setLong(2, sesion.preguntaId());
+            ps.setString(3, sesion.respuestaSeleccionada());
+            ps.setBoolean(4, sesion.esCorrecta());
+            ps.setTimestamp(5, Timestamp.valueOf(sesion.inicioRespuesta()));
+            if (sesion.finRespuesta() != null) {
+                ps.setTimestamp(6, Timestamp.valueOf(sesion.finRespuesta()));
+            } else {
+                ps.setNull(6, Types.TIMESTAMP);
+            }
+            if (sesion.tiempoRespuesta() != null) {
+                ps.setLong(7, sesion.tiempoRespuesta().toMillis());
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+            if (sesion.opcionSeleccionada() != null) {
+                ps.setByte(8, sesion.opcionSeleccionada().byteValue());
+            } else {
+                ps.setNull(8, Types.TINYINT);
+            }
+        }
+        
+        @Override
+        public int getBatchSize() {
+            return sesiones.size();
+        }
+    }
+    
+    /**
+     * Entrega cada entidad mapeada al consumidor y la desvincula del contexto de persistencia
+     * para que no se acumulen en él durante el recorrido.
+     */
+    private long recorrer(Stream<SesionRespuestaEntity> entidades, Consumer<SesionRespuesta> consumidor) {
+        long[] recorridas = {0};
+        entidades.forEach(entidad -> {
+            SesionRespuesta sesion = persistenceMapper.toDomain(entidad);
+            entityManager.detach(entidad);
+            consumidor.accept(sesion);
+            recorridas[0]++;
+        });
+        return recorridas[0];
+    }
 }
@@ -0,0 +1,38 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa;
+
+import jakarta.persistence.LockModeType;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasPreguntaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositorio Spring Data JPA para estadísticas por pregunta.
+ */
+@Repository
+public interface SpringDataEstadisticasPreguntaRepository extends JpaRepository<EstadisticasPreguntaEntity, Long> {
+    
+    /**
+     * Busca estadísticas por ID de pregunta.
+     */
+    Optional<EstadisticasPreguntaEntity> findByPreguntaId(Long preguntaId);
+    
+    /**
+     * Busca estadísticas por ID de pregunta bloqueando la fila hasta el final de la transacción.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EstadisticasPreguntaEntity e WHERE e.preguntaId = :preguntaId")
+    Optional<EstadisticasPreguntaEntity> findByPreguntaIdParaActualizar(@Param("preguntaId") Long preguntaId);
+    
+    /**
+     * Asigna el offset del diario a las filas que no tienen ninguno.
+     */
+    @Modifying
+    @Query("UPDATE EstadisticasPreguntaEntity e SET e.offsetDiario = :offsetDiario WHERE e.offsetDiario IS NULL")
+    int asignarOffsetDiarioSinRegistrar(@Param("offsetDiario") long offsetDiario);
+}
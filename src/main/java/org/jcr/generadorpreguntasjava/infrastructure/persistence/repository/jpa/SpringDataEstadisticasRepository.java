@@ -3,6 +3,7 @@ package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasUsuarioEntity;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,29 +16,45 @@ import java.util.Optional;
  */
 @Repository
 public interface SpringDataEstadisticasRepository extends JpaRepository<EstadisticasUsuarioEntity, Long> {
-    @Query("SELECT e FROM EstadisticasUsuarioEntity e ORDER BY e.porcentajeAciertos DESC")
-    List<EstadisticasUsuarioEntity> findTopByOrderByPorcentajeAciertosDesc(Pageable pageable);
-
-    @Query("SELECT e FROM EstadisticasUsuarioEntity e ORDER BY e.totalPreguntas DESC")
-    List<EstadisticasUsuarioEntity> findTopByOrderByTotalPreguntasDesc(Pageable pageable);
-
-    @Query("SELECT e FROM EstadisticasUsuarioEntity e ORDER BY e.tiempoPromedioMs ASC")
-    List<EstadisticasUsuarioEntity> findTopByOrderByTiempoPromedioAsc(Pageable pageable);
-
     /**
-     * Busca estadísticas por ID de usuario.
+     * Proyección con los totales de un usuario, sin las columnas de desglose.
      */
-    Optional<EstadisticasUsuarioEntity> findByUsuarioId(Long usuarioId);
+    interface ResumenEstadisticas {
+        Long getUsuarioId();
+        int getTotalPreguntas();
+        int getRespuestasCorrectas();
+        double getPorcentajeAciertos();
+        Long getTiempoPromedioMs();
+    }
+    
+    String SELECT_RESUMEN = "SELECT e.usuarioId AS usuarioId, e.totalPreguntas AS totalPreguntas, " +
+           "e.respuestasCorrectas AS respuestasCorrectas, e.porcentajeAciertos AS porcentajeAciertos, " +
+           "e.tiempoPromedioMs AS tiempoPromedioMs FROM EstadisticasUsuarioEntity e ";
     
     /**
-     * Verifica si existen estadísticas para un usuario.
+     * Ranking por porcentaje de aciertos leyendo solo los totales.
      */
-    boolean existsByUsuarioId(Long usuarioId);
+    @Query(SELECT_RESUMEN + "WHERE e.totalPreguntas > 0 ORDER BY e.porcentajeAciertos DESC, e.totalPreguntas DESC")
+    List<ResumenEstadisticas> findResumenRankingPorAciertos(Pageable pageable);
     
     /**
-     * Elimina estadísticas por ID de usuario.
+     * Ranking por volumen de preguntas leyendo solo los totales.
      */
-    int deleteByUsuarioId(Long usuarioId);
+    @Query(SELECT_RESUMEN + "WHERE e.totalPreguntas > 0 ORDER BY e.totalPreguntas DESC, e.porcentajeAciertos DESC")
+    List<ResumenEstadisticas> findResumenRankingPorVolumen(Pageable pageable);
+    
+    /**
+     * Ranking por mejor tiempo promedio leyendo solo los totales.
+     */
+    @Query(SELECT_RESUMEN + "WHERE e.totalPreguntas > 0 AND e.tiempoPromedioMs IS NOT NULL AND e.tiempoPromedioMs > 0 " +
+           "ORDER BY e.tiempoPromedioMs ASC, e.porcentajeAciertos DESC")
+    List<ResumenEstadisticas> findResumenRankingPorTiempo(Pageable pageable);
+    
+    /**
+     * Totales de los usuarios con al menos una pregunta respondida.
+     */
+    @Query(SELECT_RESUMEN + "WHERE e.totalPreguntas > 0")
+    List<ResumenEstadisticas> findResumenDeUsuariosActivos();
     
     /**
      * Obtiene estadísticas de usuarios con al menos una pregunta respondida.
@@ -46,32 +63,61 @@ public interface SpringDataEstadisticasRepository extends JpaRepository<Estadist
     List<EstadisticasUsuarioEntity> findDeUsuariosActivos();
     
     /**
-     * Cuenta usuarios con estadísticas.
+     * Busca estadísticas por ID de usuario.
      */
-    @Query("SELECT COUNT(e) FROM EstadisticasUsuarioEntity e WHERE e.totalPreguntas > 0")
-    long countUsuariosConEstadisticas();
+    Optional<EstadisticasUsuarioEntity> findByUsuarioId(Long usuarioId);
     
     /**
-     * Obtiene ranking por porcentaje de aciertos.
+     * Versión actual de la fila de un usuario (las filas anteriores al versionado cuentan como 0).
      */
-    @Query("SELECT e FROM EstadisticasUsuarioEntity e WHERE e.totalPreguntas > 0 " +
-           "ORDER BY e.porcentajeAciertos DESC, e.totalPreguntas DESC")
-    List<EstadisticasUsuarioEntity> findRankingPorAciertos();
+    @Query("SELECT COALESCE(e.version, 0) FROM EstadisticasUsuarioEntity e WHERE e.usuarioId = :usuarioId")
+    Optional<Long> findVersionByUsuarioId(@Param("usuarioId") Long usuarioId);
     
     /**
-     * Obtiene ranking por volumen de preguntas respondidas.
+     * Sobrescribe la fila del usuario solo si sigue en la versión esperada, incrementándola.
+     * Devuelve 0 si otra escritura la ha modificado antes.
+     *
+     * No vacía el contexto de persistencia, que desvincularía todas las entidades de quien
+     * llama: si la entidad del usuario está cargada, hay que desvincularla tras la escritura.
      */
-    @Query("SELECT e FROM EstadisticasUsuarioEntity e WHERE e.totalPreguntas > 0 " +
-           "ORDER BY e.totalPreguntas DESC, e.porcentajeAciertos DESC")
-    List<EstadisticasUsuarioEntity> findRankingPorVolumen();
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE EstadisticasUsuarioEntity e SET e.totalPreguntas = :#{#e.totalPreguntas}, " +
+           "e.respuestasCorrectas = :#{#e.respuestasCorrectas}, e.porcentajeAciertos = :#{#e.porcentajeAciertos}, " +
+           "e.tiempoPromedioMs = :#{#e.tiempoPromedioMs}, " +
+           "e.estadisticasPorDificultadBinario = :#{#e.estadisticasPorDificultadBinario}, " +
+           "e.estadisticasPorTematicaBinario = :#{#e.estadisticasPorTematicaBinario}, " +
+           "e.estadisticasPorDificultadJson = NULL, e.estadisticasPorTematicaJson = NULL, " +
+           "e.histogramaTiemposBinario = :#{#e.histogramaTiemposBinario}, " +
+           "e.ultimaActualizacion = :#{#e.ultimaActualizacion}, e.offsetDiario = :#{#e.offsetDiario}, " +
+           "e.version = :versionEsperada + 1 " +
+           "WHERE e.usuarioId = :#{#e.usuarioId} AND COALESCE(e.version, 0) = :versionEsperada")
+    int actualizarSiVersion(@Param("e") EstadisticasUsuarioEntity entidad,
+                            @Param("versionEsperada") long versionEsperada);
     
     /**
-     * Obtiene ranking por mejor tiempo promedio.
+     * Asigna el offset del diario a las filas que no tienen ninguno, incrementando su versión
+     * para que las escrituras que las leyeron antes vuelvan a leerlas.
      */
-    @Query("SELECT e FROM EstadisticasUsuarioEntity e WHERE e.totalPreguntas > 0 " +
-           "AND e.tiempoPromedioMs IS NOT NULL AND e.tiempoPromedioMs > 0 " +
-           "ORDER BY e.tiempoPromedioMs ASC, e.porcentajeAciertos DESC")
-    List<EstadisticasUsuarioEntity> findRankingPorTiempo();
+    @Modifying
+    @Query("UPDATE EstadisticasUsuarioEntity e SET e.offsetDiario = :offsetDiario, " +
+           "e.version = COALESCE(e.version, 0) + 1 WHERE e.offsetDiario IS NULL")
+    int asignarOffsetDiarioSinRegistrar(@Param("offsetDiario") long offsetDiario);
+    
+    /**
+     * Verifica si existen estadísticas para un usuario.
+     */
+    boolean existsByUsuarioId(Long usuarioId);
+    
+    /**
+     * Elimina estadísticas por ID de usuario.
+     */
+    int deleteByUsuarioId(Long usuarioId);
+    
+    /**
+     * Cuenta usuarios con estadísticas.
+     */
+    @Query("SELECT COUNT(e) FROM EstadisticasUsuarioEntity e WHERE e.totalPreguntas > 0")
+    long countUsuariosConEstadisticas();
     
     /**
      * Obtiene estadísticas por rango de porcentaje de aciertos.
@@ -117,23 +163,4 @@ public interface SpringDataEstadisticasRepository extends JpaRepository<Estadist
     @Query("SELECT AVG(e.tiempoPromedioMs) FROM EstadisticasUsuarioEntity e " +
            "WHERE e.totalPreguntas > 0 AND e.tiempoPromedioMs IS NOT NULL AND e.tiempoPromedioMs > 0")
     Double calcularTiempoPromedioGlobal();
-    
-    /**
-     * Obtiene top N por cada categoría con limit personalizado.
-     */
-    @Query(value = "SELECT * FROM estadisticas_usuario e WHERE e.total_preguntas > 0 " +
-           "ORDER BY e.porcentaje_aciertos DESC, e.total_preguntas DESC LIMIT :limite", 
-           nativeQuery = true)
-    List<EstadisticasUsuarioEntity> findTopPorAciertos(@Param("limite") int limite);
-    
-    @Query(value = "SELECT * FROM estadisticas_usuario e WHERE e.total_preguntas > 0 " +
-           "ORDER BY e.total_preguntas DESC, e.porcentaje_aciertos DESC LIMIT :limite", 
-           nativeQuery = true)
-    List<EstadisticasUsuarioEntity> findTopPorVolumen(@Param("limite") int limite);
-    
-    @Query(value = "SELECT * FROM estadisticas_usuario e WHERE e.total_preguntas > 0 " +
-           "AND e.tiempo_promedio_ms IS NOT NULL AND e.tiempo_promedio_ms > 0 " +
-           "ORDER BY e.tiempo_promedio_ms ASC, e.porcentaje_aciertos DESC LIMIT :limite", 
-           nativeQuery = true)
-    List<EstadisticasUsuarioEntity> findTopPorTiempo(@Param("limite") int limite);
 }
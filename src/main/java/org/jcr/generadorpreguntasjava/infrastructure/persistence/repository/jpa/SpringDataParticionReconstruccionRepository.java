@@ -0,0 +1,19 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa;
+
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.ParticionReconstruccionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio Spring Data JPA para el progreso de la reconstrucción de estadísticas.
+ */
+@Repository
+public interface SpringDataParticionReconstruccionRepository extends JpaRepository<ParticionReconstruccionEntity, Long> {
+    
+    /**
+     * Obtiene las particiones ordenadas por rango de usuarios.
+     */
+    List<ParticionReconstruccionEntity> findAllByOrderByDesdeUsuarioIdAsc();
+}
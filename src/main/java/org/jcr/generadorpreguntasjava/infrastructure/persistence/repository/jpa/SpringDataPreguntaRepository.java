@@ -1,11 +1,13 @@
 package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa;
 
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.PreguntaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.TematicaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,32 +17,40 @@ import java.util.List;
 public interface SpringDataPreguntaRepository extends JpaRepository<PreguntaEntity, Long> {
     
     /**
-     * Busca preguntas que contengan una temática específica.
+     * Busca las preguntas con la temática como principal o secundaria, por los índices de
+     * tematica_principal_id y tematica_secundaria_id. Las preguntas aún sin migrar (ver
+     * MigracionTematicasPregunta) no aparecen hasta que la migración las alcanza.
      */
-    @Query("SELECT DISTINCT p FROM PreguntaEntity p " +
-           "JOIN p.tematicas t " +
-           "WHERE t.nombre = :nombreTematica")
-    List<PreguntaEntity> findByTematicasNombre(@Param("nombreTematica") String nombreTematica);
+    @Query("SELECT p FROM PreguntaEntity p " +
+           "LEFT JOIN FETCH p.tematicaPrincipal " +
+           "LEFT JOIN FETCH p.tematicaSecundaria " +
+           "WHERE p.tematicaPrincipal = :tematica OR p.tematicaSecundaria = :tematica")
+    List<PreguntaEntity> findByTematica(@Param("tematica") TematicaEntity tematica);
     
     /**
-     * Obtiene todas las preguntas con sus opciones y temáticas.
-     * Usando dos consultas separadas para evitar producto cartesiano.
+     * Obtiene todas las preguntas con sus temáticas principal y secundaria. Las opciones van
+     * empaquetadas en la fila de la pregunta, así que no se multiplican las filas.
      */
-    @Query("SELECT DISTINCT p FROM PreguntaEntity p " +
-           "LEFT JOIN FETCH p.opciones")
-    List<PreguntaEntity> findAllWithOpciones();
-    
-    @Query("SELECT DISTINCT p FROM PreguntaEntity p " +
-           "LEFT JOIN FETCH p.tematicas " +
-           "WHERE p IN :preguntas")
-    List<PreguntaEntity> findWithTematicas(@Param("preguntas") List<PreguntaEntity> preguntas);
+    @Query("SELECT p FROM PreguntaEntity p " +
+           "LEFT JOIN FETCH p.tematicaPrincipal " +
+           "LEFT JOIN FETCH p.tematicaSecundaria")
+    List<PreguntaEntity> findAllWithTematicas();
     
     /**
      * Busca una pregunta por ID con todos sus detalles.
      */
     @Query("SELECT p FROM PreguntaEntity p " +
-           "LEFT JOIN FETCH p.opciones " +
-           "LEFT JOIN FETCH p.tematicas " +
+           "LEFT JOIN FETCH p.tematicaPrincipal " +
+           "LEFT JOIN FETCH p.tematicaSecundaria " +
            "WHERE p.id = :id")
     PreguntaEntity findByIdWithDetails(@Param("id") Long id);
+    
+    /**
+     * Busca varias preguntas por ID con todos sus detalles en una sola consulta.
+     */
+    @Query("SELECT p FROM PreguntaEntity p " +
+           "LEFT JOIN FETCH p.tematicaPrincipal " +
+           "LEFT JOIN FETCH p.tematicaSecundaria " +
+           "WHERE p.id IN :ids")
+    List<PreguntaEntity> findByIdInWithDetails(@Param("ids") Collection<Long> ids);
 }
@@ -1,15 +1,19 @@
 package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.SesionRespuestaEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio Spring Data JPA para sesiones de respuesta.
@@ -29,6 +33,55 @@ public interface SpringDataSesionRespuestaRepository extends JpaRepository<Sesio
            "AND s.finRespuesta IS NOT NULL ORDER BY s.finRespuesta DESC")
     List<SesionRespuestaEntity> findCompletadasByUsuarioId(@Param("usuarioId") Long usuarioId);
     
+    // ===== LECTURAS EN STREAMING =====
+    // Recorren el historial con un cursor (fetch size acotado) en lugar de cargarlo entero.
+    // Los streams deben consumirse dentro de una transacción y cerrarse al terminar.
+    
+    String FETCH_SIZE_STREAMING = "500";
+    
+    /**
+     * Recorre pregunta, acierto y tiempo de las sesiones completadas de un usuario,
+     * sin cargar las entidades.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_STREAMING),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s.preguntaId, s.esCorrecta, s.tiempoRespuestaMs FROM SesionRespuestaEntity s " +
+           "WHERE s.usuarioId = :usuarioId AND s.finRespuesta IS NOT NULL")
+    Stream<Object[]> streamColumnasCompletadasByUsuarioId(@Param("usuarioId") Long usuarioId);
+    
+    /**
+     * Recorre las sesiones completadas de una pregunta.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_STREAMING),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM SesionRespuestaEntity s WHERE s.preguntaId = :preguntaId " +
+           "AND s.finRespuesta IS NOT NULL")
+    Stream<SesionRespuestaEntity> streamCompletadasByPreguntaId(@Param("preguntaId") Long preguntaId);
+    
+    /**
+     * Recorre las sesiones completadas de un usuario iniciadas en un rango de fechas.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_STREAMING),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM SesionRespuestaEntity s WHERE s.usuarioId = :usuarioId " +
+           "AND s.inicioRespuesta BETWEEN :desde AND :hasta AND s.finRespuesta IS NOT NULL")
+    Stream<SesionRespuestaEntity> streamByUsuarioIdAndFechas(@Param("usuarioId") Long usuarioId,
+                                                            @Param("desde") LocalDateTime desde,
+                                                            @Param("hasta") LocalDateTime hasta);
+    
+    /**
+     * Obtiene las sesiones completadas de una pregunta.
+     */
+    @Query("SELECT s FROM SesionRespuestaEntity s WHERE s.preguntaId = :preguntaId " +
+           "AND s.finRespuesta IS NOT NULL")
+    List<SesionRespuestaEntity> findCompletadasByPreguntaId(@Param("preguntaId") Long preguntaId);
+    
     /**
      * Obtiene las sesiones en progreso de un usuario.
      */
@@ -37,12 +90,15 @@ public interface SpringDataSesionRespuestaRepository extends JpaRepository<Sesio
     List<SesionRespuestaEntity> findEnProgresoByUsuarioId(@Param("usuarioId") Long usuarioId);
     
     /**
-     * Busca una sesión en progreso específica para usuario y pregunta.
+     * Busca las sesiones en progreso para usuario y pregunta, la más reciente primero.
+     * Las filas anteriores a la restricción única pueden estar duplicadas: se pagina en lugar
+     * de esperar un único resultado.
      */
     @Query("SELECT s FROM SesionRespuestaEntity s WHERE s.usuarioId = :usuarioId " +
-           "AND s.preguntaId = :preguntaId AND s.finRespuesta IS NULL")
-    Optional<SesionRespuestaEntity> findSesionEnProgreso(@Param("usuarioId") Long usuarioId, 
-                                                        @Param("preguntaId") Long preguntaId);
+           "AND s.preguntaId = :preguntaId AND s.finRespuesta IS NULL ORDER BY s.inicioRespuesta DESC")
+    List<SesionRespuestaEntity> findSesionesEnProgreso(@Param("usuarioId") Long usuarioId,
+                                                       @Param("preguntaId") Long preguntaId,
+                                                       Pageable pageable);
     
     /**
      * Obtiene sesiones de un usuario filtradas por dificultad.
@@ -54,10 +110,11 @@ public interface SpringDataSesionRespuestaRepository extends JpaRepository<Sesio
                                                             @Param("dificultad") String dificultad);
     
     /**
-     * Obtiene sesiones de un usuario filtradas por temática.
+     * Obtiene sesiones de un usuario filtradas por temática (principal o secundaria).
      */
-    @Query("SELECT s FROM SesionRespuestaEntity s JOIN s.pregunta p JOIN p.tematicas t " +
+    @Query("SELECT s FROM SesionRespuestaEntity s JOIN s.pregunta p, TematicaEntity t " +
            "WHERE s.usuarioId = :usuarioId AND t.nombre = :tematica " +
+           "AND (p.tematicaPrincipal = t OR p.tematicaSecundaria = t) " +
            "AND s.finRespuesta IS NOT NULL ORDER BY s.finRespuesta DESC")
     List<SesionRespuestaEntity> findByUsuarioIdAndTematica(@Param("usuarioId") Long usuarioId, 
                                                           @Param("tematica") String tematica);
@@ -73,11 +130,12 @@ public interface SpringDataSesionRespuestaRepository extends JpaRepository<Sesio
                                                         @Param("hasta") LocalDateTime hasta);
     
     /**
-     * Obtiene las últimas N sesiones de un usuario.
+     * Obtiene las últimas N sesiones completadas de un usuario (N = tamaño de la página).
      */
     @Query("SELECT s FROM SesionRespuestaEntity s WHERE s.usuarioId = :usuarioId " +
            "AND s.finRespuesta IS NOT NULL ORDER BY s.finRespuesta DESC")
-    List<SesionRespuestaEntity> findTopByUsuarioIdOrderByFinRespuestaDesc(@Param("usuarioId") Long usuarioId);
+    List<SesionRespuestaEntity> findUltimasCompletadasByUsuarioId(@Param("usuarioId") Long usuarioId,
+                                                                 Pageable pageable);
     
     /**
      * Cuenta las sesiones completadas de un usuario.
@@ -94,12 +152,24 @@ public interface SpringDataSesionRespuestaRepository extends JpaRepository<Sesio
     long countCorrectasByUsuarioId(@Param("usuarioId") Long usuarioId);
     
     /**
-     * Elimina sesiones abandonadas (más de 30 minutos sin completar).
+     * Obtiene en orden los IDs de las sesiones abandonadas (sin completar e iniciadas antes del
+     * límite) posteriores a uno dado, hasta el tamaño de la página.
+     */
+    @Query("SELECT s.id FROM SesionRespuestaEntity s WHERE s.finRespuesta IS NULL " +
+           "AND s.inicioRespuesta < :tiempoLimite AND s.id > :despuesDeId ORDER BY s.id")
+    List<Long> findIdsAbandonadas(@Param("despuesDeId") long despuesDeId,
+                                  @Param("tiempoLimite") LocalDateTime tiempoLimite,
+                                  Pageable pageable);
+    
+    /**
+     * Elimina las sesiones abandonadas de un tramo de IDs.
      */
     @Modifying
-    @Query("DELETE FROM SesionRespuestaEntity s WHERE s.finRespuesta IS NULL " +
-           "AND s.inicioRespuesta < :tiempoLimite")
-    int eliminarSesionesAbandonadas(@Param("tiempoLimite") LocalDateTime tiempoLimite);
+    @Query("DELETE FROM SesionRespuestaEntity s WHERE s.id BETWEEN :desdeId AND :hastaId " +
+           "AND s.finRespuesta IS NULL AND s.inicioRespuesta < :tiempoLimite")
+    int eliminarSesionesAbandonadas(@Param("desdeId") long desdeId,
+                                    @Param("hastaId") long hastaId,
+                                    @Param("tiempoLimite") LocalDateTime tiempoLimite);
     
     /**
      * Verifica si existe una sesión para usuario y pregunta específicos.
@@ -113,13 +183,4 @@ public interface SpringDataSesionRespuestaRepository extends JpaRepository<Sesio
            "WHERE s.usuarioId = :usuarioId AND s.finRespuesta IS NOT NULL " +
            "AND s.tiempoRespuestaMs BETWEEN 5000 AND 600000") // Entre 5 segundos y 10 minutos
     Double obtenerTiempoPromedioByUsuarioId(@Param("usuarioId") Long usuarioId);
-    
-    /**
-     * Obtiene las mejores N sesiones por tiempo de respuesta de un usuario.
-     */
-    @Query("SELECT s FROM SesionRespuestaEntity s WHERE s.usuarioId = :usuarioId " +
-           "AND s.finRespuesta IS NOT NULL AND s.esCorrecta = true " +
-           "AND s.tiempoRespuestaMs BETWEEN 5000 AND 600000 " +
-           "ORDER BY s.tiempoRespuestaMs ASC")
-    List<SesionRespuestaEntity> findMejoresTiemposByUsuarioId(@Param("usuarioId") Long usuarioId);
 }
@@ -4,8 +4,10 @@ import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
+import org.jcr.generadorpreguntasjava.domain.model.ResumenRankingUsuario;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -137,9 +139,9 @@ public interface ConsultarEstadisticasPort {
      * Rankings globales.
      */
     record RankingGlobal(
-        List<EstadisticasUsuario> topPorAciertos,
-        List<EstadisticasUsuario> topPorVolumen,
-        List<EstadisticasUsuario> topPorTiempo
+        List<ResumenRankingUsuario> topPorAciertos,
+        List<ResumenRankingUsuario> topPorVolumen,
+        List<ResumenRankingUsuario> topPorTiempo
     ) {}
     
     /**
@@ -150,4 +152,41 @@ public interface ConsultarEstadisticasPort {
      * @throws IllegalArgumentException si limite <= 0
      */
     RankingGlobal obtenerRankingsGlobales(int limite);
+    
+    /**
+     * Percentiles de tiempo de respuesta (en milisegundos).
+     */
+    record PercentilesTiempo(
+        long totalRespuestas,
+        long promedioMs,
+        long p50Ms,
+        long p90Ms,
+        long p99Ms
+    ) {}
+    
+    /**
+     * Distribución de tiempos de respuesta general, por dificultad y por temática.
+     */
+    record DistribucionTiempos(
+        PercentilesTiempo general,
+        Map<String, PercentilesTiempo> porDificultad,
+        Map<String, PercentilesTiempo> porTematica
+    ) {}
+    
+    /**
+     * Obtiene la distribución de tiempos de respuesta de un usuario a partir de sus histogramas.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Percentiles p50/p90/p99 generales, por dificultad y por temática
+     * @throws IllegalArgumentException si el usuarioId es null
+     */
+    DistribucionTiempos obtenerDistribucionTiempos(Long usuarioId);
+    
+    /**
+     * Obtiene la distribución global de tiempos de respuesta, combinando los histogramas
+     * de todos los usuarios con respuestas.
+     * 
+     * @return Percentiles p50/p90/p99 globales, por dificultad y por temática
+     */
+    DistribucionTiempos obtenerDistribucionTiemposGlobal();
 }
@@ -0,0 +1,42 @@
+package org.jcr.generadorpreguntasjava.port.in;
+
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+
+import java.util.List;
+
+/**
+ * Puerto de entrada para estadísticas agregadas por pregunta.
+ * Define el contrato para consultar cómo se comporta cada pregunta frente a su dificultad asignada.
+ */
+public interface ConsultarEstadisticasPreguntaPort {
+    
+    /**
+     * Obtiene las estadísticas agregadas de una pregunta.
+     * 
+     * @param preguntaId ID de la pregunta
+     * @return Estadísticas de la pregunta (vacías si nunca se ha respondido)
+     * @throws IllegalArgumentException si el preguntaId es null
+     * @throws RuntimeException si la pregunta no existe
+     */
+    EstadisticasPregunta obtenerEstadisticasPregunta(Long preguntaId);
+    
+    /**
+     * Obtiene las preguntas cuyo porcentaje de aciertos más se aleja del esperado para su dificultad.
+     * 
+     * @param limite Número máximo de preguntas
+     * @param minimoIntentos Intentos mínimos para considerar una pregunta
+     * @return Lista ordenada de mayor a menor desviación
+     */
+    List<EstadisticasPregunta> obtenerPeorCalibradas(int limite, int minimoIntentos);
+    
+    /**
+     * Registra una sesión completada en las estadísticas de su pregunta.
+     * 
+     * @param pregunta Pregunta respondida
+     * @param sesion Sesión completada
+     * @param offsetDiario Offset del evento de la sesión en el diario de respuestas, o -1 si no se anotó
+     */
+    void registrarRespuesta(Pregunta pregunta, SesionRespuesta sesion, long offsetDiario);
+}
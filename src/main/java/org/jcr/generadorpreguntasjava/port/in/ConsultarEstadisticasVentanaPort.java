@@ -0,0 +1,48 @@
+package org.jcr.generadorpreguntasjava.port.in;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasVentana;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.VentanaTiempo;
+
+import java.util.List;
+
+/**
+ * Puerto de entrada para estadísticas en ventanas de tiempo recientes.
+ * Define el contrato para consultar la actividad de las últimas 24 horas, 7 días y 30 días.
+ */
+public interface ConsultarEstadisticasVentanaPort {
+    
+    /**
+     * Obtiene las estadísticas de un usuario en una ventana de tiempo.
+     * 
+     * @param usuarioId ID del usuario
+     * @param ventana Ventana de tiempo a consultar
+     * @return Estadísticas de la ventana
+     * @throws IllegalArgumentException si algún parámetro es null
+     */
+    EstadisticasVentana obtenerEstadisticasVentana(Long usuarioId, VentanaTiempo ventana);
+    
+    /**
+     * Obtiene las estadísticas de un usuario en todas las ventanas disponibles.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Estadísticas de cada ventana, de la más corta a la más larga
+     */
+    List<EstadisticasVentana> obtenerTodasLasVentanas(Long usuarioId);
+    
+    /**
+     * Registra una sesión completada en los contadores recientes del usuario
+     * cuando se confirma la transacción en curso.
+     * 
+     * @param sesion Sesión completada
+     * @param dificultad Dificultad de la pregunta respondida
+     */
+    void registrarRespuesta(SesionRespuesta sesion, Dificultad dificultad);
+    
+    /**
+     * Descarta los contadores en memoria de todos los usuarios, que se volverán a
+     * inicializar desde las sesiones guardadas en su próxima consulta.
+     */
+    void descartarContadores();
+}
@@ -0,0 +1,24 @@
+package org.jcr.generadorpreguntasjava.port.in;
+
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort.Metricas;
+
+import java.util.List;
+
+/**
+ * Puerto de entrada para consultar las métricas internas de la aplicación.
+ */
+public interface ConsultarMetricasPort {
+    
+    /**
+     * Obtiene las métricas de todos los componentes registrados.
+     */
+    List<Metricas> obtenerMetricas();
+    
+    /**
+     * Obtiene las métricas de un componente concreto.
+     * 
+     * @param componente Nombre del componente
+     * @return Métricas del componente
+     */
+    Metricas obtenerMetricas(String componente);
+}
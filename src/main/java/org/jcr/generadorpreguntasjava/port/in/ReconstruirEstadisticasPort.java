@@ -0,0 +1,45 @@
+package org.jcr.generadorpreguntasjava.port.in;
+
+import java.time.LocalDateTime;
+
+/**
+ * Puerto de entrada para la reconstrucción masiva de estadísticas de usuario.
+ * Define el contrato para lanzar el trabajo de administración y seguir su progreso.
+ */
+public interface ReconstruirEstadisticasPort {
+    
+    /**
+     * Progreso de la reconstrucción de estadísticas.
+     */
+    record ProgresoReconstruccion(
+        String estado,
+        int particionesTotales,
+        int particionesCompletadas,
+        int particionesConError,
+        long usuariosProcesados,
+        long sesionesProcesadas,
+        LocalDateTime inicio,
+        LocalDateTime fin
+    ) {
+        public double porcentajeCompletado() {
+            return particionesTotales > 0 ? (double) particionesCompletadas / particionesTotales * 100.0 : 0.0;
+        }
+    }
+    
+    /**
+     * Lanza la reconstrucción de las estadísticas de todos los usuarios en segundo plano.
+     * 
+     * @param reanudar Si es true, solo procesa las particiones pendientes o con error de la
+     *                 ejecución anterior; si es false, empieza una reconstrucción completa
+     * @return Progreso inicial de la reconstrucción
+     * @throws IllegalStateException si ya hay una reconstrucción en ejecución
+     */
+    ProgresoReconstruccion iniciarReconstruccion(boolean reanudar);
+    
+    /**
+     * Obtiene el progreso de la reconstrucción en curso o de la última ejecutada.
+     * 
+     * @return Progreso de la reconstrucción
+     */
+    ProgresoReconstruccion obtenerProgreso();
+}
@@ -1,5 +1,6 @@
 package org.jcr.generadorpreguntasjava.port.in;
 
+import org.jcr.generadorpreguntasjava.domain.model.FiltroHistorialSesiones;
 import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
 
 import java.util.List;
@@ -12,13 +13,14 @@ import java.util.Optional;
 public interface RegistrarRespuestaPort {
     
     /**
-     * Inicia una nueva sesión de respuesta para un usuario y pregunta.
+     * Inicia una nueva sesión de respuesta para un usuario y pregunta, o devuelve la que ya
+     * está en progreso (un inicio repetido no crea otra sesión ni reinicia el tiempo).
+     * La sesión no se persiste hasta completarse y mientras tanto tiene un ID provisional negativo.
      * 
      * @param usuarioId ID del usuario
      * @param preguntaId ID de la pregunta
-     * @return Sesión de respuesta iniciada
+     * @return Sesión de respuesta en progreso
      * @throws IllegalArgumentException si los IDs son null
-     * @throws RuntimeException si ya existe una sesión en progreso o si el usuario/pregunta no existen
      */
     SesionRespuesta iniciarRespuesta(Long usuarioId, Long preguntaId);
     
@@ -27,7 +29,7 @@ public interface RegistrarRespuestaPort {
      * 
      * @param sesionId ID de la sesión a completar
      * @param respuesta Respuesta seleccionada por el usuario
-     * @return Sesión completada con resultado y tiempo
+     * @return Sesión completada y persistida (con su ID definitivo) con resultado y tiempo
      * @throws IllegalArgumentException si los parámetros son null o vacíos
      * @throws RuntimeException si la sesión no existe o ya está completada
      */
@@ -70,6 +72,35 @@ public interface RegistrarRespuestaPort {
      */
     List<SesionRespuesta> obtenerUltimasSesiones(Long usuarioId, int limite);
     
+    /**
+     * Página del historial de sesiones, de la más reciente a la más antigua.
+     * 
+     * @param sesiones Sesiones de la página
+     * @param siguienteCursor Cursor para pedir la página siguiente, o null si no hay más
+     */
+    record PaginaHistorial(
+        List<SesionRespuesta> sesiones,
+        String siguienteCursor
+    ) {
+        public boolean hayMas() {
+            return siguienteCursor != null;
+        }
+    }
+    
+    /**
+     * Obtiene una página del historial de sesiones completadas de un usuario.
+     * El tamaño de la página está acotado, así que la respuesta no crece con el historial.
+     * 
+     * @param usuarioId ID del usuario
+     * @param filtro Filtros opcionales (dificultad, temática, acierto y rango de fechas)
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página
+     * @param tamanoPagina Número de sesiones por página (se limita al máximo configurado)
+     * @return Página de sesiones con el cursor de la siguiente
+     * @throws IllegalArgumentException si el usuarioId es null, el tamaño es <= 0 o el cursor no es válido
+     */
+    PaginaHistorial obtenerHistorialSesiones(Long usuarioId, FiltroHistorialSesiones filtro,
+                                             String cursor, int tamanoPagina);
+    
     /**
      * Cancela sesiones abandonadas (más de 30 minutos sin completar).
      * 
@@ -87,16 +118,19 @@ public interface RegistrarRespuestaPort {
     
     /**
      * Resultado de completar una respuesta, incluyendo validación y timing.
+     * En las respuestas por posición, respuestaSeleccionada es null y se informa opcionSeleccionada.
      */
     record ResultadoRespuesta(
         Long sesionId,
         Long usuarioId,
         Long preguntaId,
         String respuestaSeleccionada,
+        Integer opcionSeleccionada,
         boolean esCorrecta,
         long tiempoRespuestaMs,
         String explicacion,
-        String respuestaCorrecta
+        String respuestaCorrecta,
+        int indiceRespuestaCorrecta
     ) {}
     
     /**
@@ -111,4 +145,53 @@ public interface RegistrarRespuestaPort {
      * @throws RuntimeException si no hay sesión en progreso o hay errores de validación
      */
     ResultadoRespuesta responderPregunta(Long usuarioId, Long preguntaId, String respuesta);
+    
+    /**
+     * Igual que {@link #responderPregunta(Long, Long, String)}, pero la respuesta es la posición
+     * de la opción seleccionada: se valida comparando índices y la sesión no guarda el texto.
+     * 
+     * @param usuarioId ID del usuario
+     * @param preguntaId ID de la pregunta
+     * @param opcionIndex Posición (desde 0) de la opción seleccionada
+     * @return Resultado completo de la respuesta
+     * @throws IllegalArgumentException si los parámetros son null o la posición es negativa
+     * @throws RuntimeException si la pregunta no existe o no tiene esa opción
+     */
+    ResultadoRespuesta responderPreguntaPorOpcion(Long usuarioId, Long preguntaId, int opcionIndex);
+    
+    /**
+     * Respuesta de un lote con el tiempo medido por el cliente.
+     * 
+     * @param preguntaId ID de la pregunta
+     * @param respuesta Respuesta seleccionada (se ignora si se indica la posición de la opción)
+     * @param opcionIndex Posición (desde 0) de la opción seleccionada, o null si se responde con texto
+     * @param tiempoRespuestaMs Tiempo de respuesta medido por el cliente en ms (null si no se midió)
+     */
+    record RespuestaLote(
+        Long preguntaId,
+        String respuesta,
+        Integer opcionIndex,
+        Long tiempoRespuestaMs
+    ) {
+        
+        /**
+         * Respuesta con texto.
+         */
+        public RespuestaLote(Long preguntaId, String respuesta, Long tiempoRespuestaMs) {
+            this(preguntaId, respuesta, null, tiempoRespuestaMs);
+        }
+    }
+    
+    /**
+     * Registra de una vez todas las respuestas de un usuario (por ejemplo, un examen completo).
+     * Las preguntas se cargan en una consulta, las sesiones se insertan en un lote y las
+     * estadísticas del usuario se actualizan una sola vez.
+     * 
+     * @param usuarioId ID del usuario
+     * @param respuestas Respuestas del lote
+     * @return Resultado de cada respuesta, en el mismo orden
+     * @throws IllegalArgumentException si los parámetros no son válidos o el lote supera el máximo
+     * @throws RuntimeException si alguna pregunta no existe (no se registra ninguna respuesta)
+     */
+    List<ResultadoRespuesta> responderLote(Long usuarioId, List<RespuestaLote> respuestas);
 }
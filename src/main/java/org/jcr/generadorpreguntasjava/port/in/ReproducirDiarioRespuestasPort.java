@@ -0,0 +1,34 @@
+package org.jcr.generadorpreguntasjava.port.in;
+
+/**
+ * Puerto de entrada para reconstruir las estadísticas de usuario y de pregunta reproduciendo
+ * el diario de respuestas.
+ */
+public interface ReproducirDiarioRespuestasPort {
+
+    /**
+     * Resultado de una reproducción del diario.
+     */
+    record ResultadoReproduccion(
+        long desdeOffset,
+        long hastaOffset,
+        long eventos,   // eventos aplicados: los ya reflejados en las estadísticas no cuentan
+        int usuarios    // escrituras de estadísticas de usuario con eventos aplicados: una por usuario y lote
+    ) {}
+
+    /**
+     * Aplica los eventos del diario desde un offset sobre las estadísticas guardadas, por
+     * ejemplo para ponerlas al día tras restaurar una copia de la base de datos.
+     *
+     * Cada fila de estadísticas omite los eventos hasta el offset que ya refleja, así que
+     * reproducir respuestas ya contadas, o repetir una reproducción, no las cuenta dos veces.
+     * Solo es válido con una única instancia, ya que cada instancia anota sus respuestas en
+     * su diario.
+     *
+     * @param desdeOffset Offset del primer evento a reproducir si no está ya aplicado
+     * @return Resultado de la reproducción
+     * @throws IllegalArgumentException si el offset es negativo o posterior al final del diario
+     * @throws IllegalStateException si ya hay una reproducción en ejecución
+     */
+    ResultadoReproduccion reconstruirEstadisticas(long desdeOffset);
+}
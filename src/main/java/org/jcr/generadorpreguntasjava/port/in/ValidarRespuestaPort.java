@@ -12,7 +12,8 @@ public interface ValidarRespuestaPort {
     record ResultadoValidacion(
         boolean esCorrecta,
         String explicacion,
-        String respuestaCorrecta
+        String respuestaCorrecta,
+        int indiceRespuestaCorrecta
     ) {}
     
     /**
@@ -25,4 +26,16 @@ public interface ValidarRespuestaPort {
      * @throws RuntimeException si la pregunta no existe
      */
     ResultadoValidacion validarRespuesta(Long preguntaId, String respuestaDada);
+    
+    /**
+     * Valida si la opción seleccionada (por su posición) es la correcta para una pregunta,
+     * comparando índices en lugar del texto de las opciones.
+     * 
+     * @param preguntaId ID de la pregunta
+     * @param opcionIndex Posición (desde 0) de la opción seleccionada
+     * @return Resultado de la validación incluyendo explicación
+     * @throws IllegalArgumentException si los parámetros no son válidos
+     * @throws RuntimeException si la pregunta no existe
+     */
+    ResultadoValidacion validarOpcion(Long preguntaId, int opcionIndex);
 }
@@ -0,0 +1,83 @@
+package org.jcr.generadorpreguntasjava.port.in.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.port.in.ReconstruirEstadisticasPort;
+import org.jcr.generadorpreguntasjava.port.in.ReproducirDiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.shared.response.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para operaciones de administración de estadísticas.
+ *
+ * Adaptador primario que expone los trabajos de mantenimiento de estadísticas,
+ * como la reconstrucción masiva tras corregir el cálculo o la reproducción
+ * del diario de respuestas.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/admin/estadisticas")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class AdminEstadisticasController {
+
+    private final ReconstruirEstadisticasPort reconstruirEstadisticasPort;
+    private final ReproducirDiarioRespuestasPort reproducirDiarioRespuestasPort;
+
+    /**
+     * Lanza la reconstrucción de las estadísticas de todos los usuarios en segundo plano.
+     *
+     * POST /api/v1/admin/estadisticas/reconstruir?reanudar=false
+     */
+    @PostMapping("/reconstruir")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ApiResponse<ReconstruirEstadisticasPort.ProgresoReconstruccion> reconstruir(
+            @RequestParam(defaultValue = "false") boolean reanudar) {
+
+        log.info("Solicitud de reconstrucción de estadísticas (reanudar={})", reanudar);
+        try {
+            var progreso = reconstruirEstadisticasPort.iniciarReconstruccion(reanudar);
+            return ApiResponse.exito(progreso, "Reconstrucción de estadísticas iniciada");
+        } catch (Exception e) {
+            log.error("Error al iniciar la reconstrucción de estadísticas: {}", e.getMessage(), e);
+            return ApiResponse.error("No se pudo iniciar la reconstrucción", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el progreso de la reconstrucción en curso o de la última ejecutada.
+     *
+     * GET /api/v1/admin/estadisticas/reconstruir/progreso
+     */
+    @GetMapping("/reconstruir/progreso")
+    public ApiResponse<ReconstruirEstadisticasPort.ProgresoReconstruccion> obtenerProgreso() {
+        try {
+            var progreso = reconstruirEstadisticasPort.obtenerProgreso();
+            return ApiResponse.exito(progreso, "Progreso de la reconstrucción obtenido");
+        } catch (Exception e) {
+            log.error("Error al obtener el progreso de la reconstrucción: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener el progreso", e.getMessage());
+        }
+    }
+
+    /**
+     * Pone al día las estadísticas de usuario y de pregunta reproduciendo el diario de respuestas
+     * desde un offset (por defecto, desde el principio). Los eventos ya contados se omiten.
+     *
+     * POST /api/v1/admin/estadisticas/diario/reproducir?desde={offset}
+     */
+    @PostMapping("/diario/reproducir")
+    public ApiResponse<ReproducirDiarioRespuestasPort.ResultadoReproduccion> reproducirDiario(
+            @RequestParam(defaultValue = "0") long desde) {
+
+        log.info("Solicitud de reproducción del diario de respuestas desde el offset {}", desde);
+        try {
+            var resultado = reproducirDiarioRespuestasPort.reconstruirEstadisticas(desde);
+            return ApiResponse.exito(resultado, "Diario de respuestas reproducido");
+        } catch (Exception e) {
+            log.error("Error al reproducir el diario de respuestas: {}", e.getMessage(), e);
+            return ApiResponse.error("No se pudo reproducir el diario", e.getMessage());
+        }
+    }
+}
@@ -3,16 +3,27 @@ package org.jcr.generadorpreguntasjava.port.in.web.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jcr.generadorpreguntasjava.application.mapper.SesionRespuestaMapper;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasVentana;
+import org.jcr.generadorpreguntasjava.domain.model.FiltroHistorialSesiones;
+import org.jcr.generadorpreguntasjava.domain.model.VentanaTiempo;
 import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPort;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPreguntaPort;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
 import org.jcr.generadorpreguntasjava.port.in.RegistrarRespuestaPort;
+import org.jcr.generadorpreguntasjava.port.in.web.dto.request.ResponderLoteRequest;
+import org.jcr.generadorpreguntasjava.port.in.web.dto.response.PaginaSesionesResponse;
 import org.jcr.generadorpreguntasjava.port.in.web.dto.response.SesionRespuestaResponse;
 import org.jcr.generadorpreguntasjava.shared.response.ApiResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -30,6 +41,8 @@ public class EstadisticasController {
 
     private final RegistrarRespuestaPort registrarRespuestaPort;
     private final ConsultarEstadisticasPort consultarEstadisticasPort;
+    private final ConsultarEstadisticasVentanaPort consultarEstadisticasVentanaPort;
+    private final ConsultarEstadisticasPreguntaPort consultarEstadisticasPreguntaPort;
     private final SesionRespuestaMapper sesionMapper;
 
     /**
@@ -55,19 +68,24 @@ public class EstadisticasController {
     }
 
     /**
-     * Registra la respuesta y finaliza la sesión.
+     * Registra la respuesta y finaliza la sesión. La respuesta se envía como posición de la
+     * opción (opcionIndex) o, por compatibilidad, como su texto (respuesta).
      *
-     * POST /api/v1/estadisticas/responder
+     * POST /api/v1/estadisticas/responder?usuarioId=1&preguntaId=2&opcionIndex=0
      */
     @PostMapping("/responder")
     public ApiResponse<RegistrarRespuestaPort.ResultadoRespuesta> responderPregunta(
             @RequestParam Long usuarioId,
             @RequestParam Long preguntaId,
-            @RequestParam String respuesta) {
+            @RequestParam(required = false) String respuesta,
+            @RequestParam(required = false) Integer opcionIndex) {
 
-        log.info("Respondiendo pregunta {} del usuario {} con opción {}", preguntaId, usuarioId, respuesta);
+        log.info("Respondiendo pregunta {} del usuario {} con opción {}", preguntaId, usuarioId,
+                opcionIndex != null ? opcionIndex : respuesta);
         try {
-            var resultado = registrarRespuestaPort.responderPregunta(usuarioId, preguntaId, respuesta);
+            var resultado = opcionIndex != null
+                ? registrarRespuestaPort.responderPreguntaPorOpcion(usuarioId, preguntaId, opcionIndex)
+                : registrarRespuestaPort.responderPregunta(usuarioId, preguntaId, respuesta);
             return ApiResponse.exito(resultado, "Respuesta registrada correctamente");
         } catch (Exception e) {
             log.error("Error al registrar respuesta: {}", e.getMessage(), e);
@@ -75,6 +93,59 @@ public class EstadisticasController {
         }
     }
 
+    /**
+     * Registra de una vez todas las respuestas de un usuario (modo examen), con el tiempo
+     * medido por el cliente, y devuelve el resultado de cada una en el mismo orden.
+     *
+     * POST /api/v1/estadisticas/responder/lote
+     */
+    @PostMapping("/responder/lote")
+    public ApiResponse<List<RegistrarRespuestaPort.ResultadoRespuesta>> responderLote(
+            @RequestBody ResponderLoteRequest request) {
+
+        log.info("Respondiendo lote de {} preguntas del usuario {}",
+                request.respuestas() != null ? request.respuestas().size() : 0, request.usuarioId());
+        try {
+            var respuestas = request.respuestas() == null ? List.<RegistrarRespuestaPort.RespuestaLote>of()
+                    : request.respuestas().stream()
+                        .map(r -> new RegistrarRespuestaPort.RespuestaLote(
+                            r.preguntaId(), r.respuesta(), r.opcionIndex(), r.tiempoRespuestaMs()))
+                        .toList();
+            var resultados = registrarRespuestaPort.responderLote(request.usuarioId(), respuestas);
+            return ApiResponse.exito(resultados, "Respuestas registradas correctamente");
+        } catch (Exception e) {
+            log.error("Error al registrar lote de respuestas: {}", e.getMessage(), e);
+            return ApiResponse.error("No se pudieron registrar las respuestas", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página del historial de sesiones completadas del usuario, de la más reciente
+     * a la más antigua. Para la página siguiente se envía el cursor devuelto en la anterior.
+     *
+     * GET /api/v1/estadisticas/usuario/{usuarioId}/sesiones?tamano=20&cursor=...&dificultad=MEDIA
+     *     &tematica=Streams&correcta=true&desde=2024-01-01T00:00:00&hasta=2024-02-01T00:00:00
+     */
+    @GetMapping("/usuario/{usuarioId}/sesiones")
+    public ApiResponse<PaginaSesionesResponse> obtenerHistorialSesiones(
+            @PathVariable Long usuarioId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(required = false) String dificultad,
+            @RequestParam(required = false) String tematica,
+            @RequestParam(required = false) Boolean correcta,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        try {
+            var filtro = new FiltroHistorialSesiones(Dificultad.fromString(dificultad), tematica, correcta, desde, hasta);
+            var pagina = registrarRespuestaPort.obtenerHistorialSesiones(usuarioId, filtro, cursor, tamano);
+            return ApiResponse.exito(sesionMapper.toResponse(pagina), "Historial de sesiones obtenido");
+        } catch (Exception e) {
+            log.error("Error al obtener historial de sesiones: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener historial de sesiones", e.getMessage());
+        }
+    }
+
     /**
      * Obtiene las estadísticas generales del usuario.
      *
@@ -139,6 +210,107 @@ public class EstadisticasController {
         }
     }
 
+    /**
+     * Obtiene las estadísticas del usuario en todas las ventanas recientes (24h, 7d y 30d).
+     *
+     * GET /api/v1/estadisticas/usuario/{usuarioId}/ventanas
+     */
+    @GetMapping("/usuario/{usuarioId}/ventanas")
+    public ApiResponse<List<EstadisticasVentana>> obtenerEstadisticasVentanas(@PathVariable Long usuarioId) {
+        try {
+            var ventanas = consultarEstadisticasVentanaPort.obtenerTodasLasVentanas(usuarioId);
+            return ApiResponse.exito(ventanas, "Estadísticas recientes obtenidas");
+        } catch (Exception e) {
+            log.error("Error al obtener estadísticas recientes: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener estadísticas recientes", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas del usuario en una ventana reciente.
+     *
+     * GET /api/v1/estadisticas/usuario/{usuarioId}/ventanas/{ventana}  (ventana: 24h, 7d o 30d)
+     */
+    @GetMapping("/usuario/{usuarioId}/ventanas/{ventana}")
+    public ApiResponse<EstadisticasVentana> obtenerEstadisticasVentana(
+            @PathVariable Long usuarioId,
+            @PathVariable String ventana) {
+        try {
+            var estadisticas = consultarEstadisticasVentanaPort.obtenerEstadisticasVentana(
+                    usuarioId, VentanaTiempo.fromString(ventana));
+            return ApiResponse.exito(estadisticas, "Estadísticas de la ventana obtenidas");
+        } catch (Exception e) {
+            log.error("Error al obtener estadísticas de la ventana {}: {}", ventana, e.getMessage(), e);
+            return ApiResponse.error("Error al obtener estadísticas de la ventana", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los percentiles de tiempo de respuesta del usuario (general, por dificultad y por temática).
+     *
+     * GET /api/v1/estadisticas/usuario/{usuarioId}/tiempos
+     */
+    @GetMapping("/usuario/{usuarioId}/tiempos")
+    public ApiResponse<ConsultarEstadisticasPort.DistribucionTiempos> obtenerDistribucionTiempos(@PathVariable Long usuarioId) {
+        try {
+            var distribucion = consultarEstadisticasPort.obtenerDistribucionTiempos(usuarioId);
+            return ApiResponse.exito(distribucion, "Distribución de tiempos obtenida");
+        } catch (Exception e) {
+            log.error("Error al obtener distribución de tiempos: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener distribución de tiempos", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los percentiles globales de tiempo de respuesta (combinando todos los usuarios).
+     *
+     * GET /api/v1/estadisticas/tiempos
+     */
+    @GetMapping("/tiempos")
+    public ApiResponse<ConsultarEstadisticasPort.DistribucionTiempos> obtenerDistribucionTiemposGlobal() {
+        try {
+            var distribucion = consultarEstadisticasPort.obtenerDistribucionTiemposGlobal();
+            return ApiResponse.exito(distribucion, "Distribución global de tiempos obtenida");
+        } catch (Exception e) {
+            log.error("Error al obtener distribución global de tiempos: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener distribución global de tiempos", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas agregadas de una pregunta (intentos, aciertos, tiempos y opciones elegidas).
+     *
+     * GET /api/v1/estadisticas/preguntas/{preguntaId}
+     */
+    @GetMapping("/preguntas/{preguntaId}")
+    public ApiResponse<EstadisticasPregunta> obtenerEstadisticasPregunta(@PathVariable Long preguntaId) {
+        try {
+            var estadisticas = consultarEstadisticasPreguntaPort.obtenerEstadisticasPregunta(preguntaId);
+            return ApiResponse.exito(estadisticas, "Estadísticas de la pregunta obtenidas");
+        } catch (Exception e) {
+            log.error("Error al obtener estadísticas de la pregunta {}: {}", preguntaId, e.getMessage(), e);
+            return ApiResponse.error("Error al obtener estadísticas de la pregunta", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las preguntas peor calibradas (aciertos observados lejos de los esperados por su dificultad).
+     *
+     * GET /api/v1/estadisticas/preguntas/peor-calibradas?limite=10&minimoIntentos=20
+     */
+    @GetMapping("/preguntas/peor-calibradas")
+    public ApiResponse<List<EstadisticasPregunta>> obtenerPreguntasPeorCalibradas(
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestParam(defaultValue = "20") int minimoIntentos) {
+        try {
+            var preguntas = consultarEstadisticasPreguntaPort.obtenerPeorCalibradas(limite, minimoIntentos);
+            return ApiResponse.exito(preguntas, "Preguntas peor calibradas obtenidas");
+        } catch (Exception e) {
+            log.error("Error al obtener preguntas peor calibradas: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener preguntas peor calibradas", e.getMessage());
+        }
+    }
+
     /**
      * Obtiene el ranking global.
      *
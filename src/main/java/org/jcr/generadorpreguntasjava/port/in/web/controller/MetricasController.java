@@ -0,0 +1,57 @@
+package org.jcr.generadorpreguntasjava.port.in.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarMetricasPort;
+import org.jcr.generadorpreguntasjava.port.out.ProveedorMetricasPort.Metricas;
+import org.jcr.generadorpreguntasjava.shared.response.ApiResponse;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para consultar métricas internas (cachés, contadores de escritura...).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/metricas")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class MetricasController {
+
+    private final ConsultarMetricasPort consultarMetricasPort;
+
+    /**
+     * Obtiene las métricas de todos los componentes.
+     *
+     * GET /api/v1/metricas
+     */
+    @GetMapping
+    public ApiResponse<List<Metricas>> obtenerMetricas() {
+        try {
+            return ApiResponse.exito(consultarMetricasPort.obtenerMetricas(), "Métricas obtenidas exitosamente");
+        } catch (Exception e) {
+            log.error("Error al obtener métricas: {}", e.getMessage(), e);
+            return ApiResponse.error("Error al obtener métricas", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las métricas de un componente.
+     *
+     * GET /api/v1/metricas/{componente}
+     */
+    @GetMapping("/{componente}")
+    public ApiResponse<Metricas> obtenerMetricasComponente(@PathVariable String componente) {
+        try {
+            return ApiResponse.exito(consultarMetricasPort.obtenerMetricas(componente),
+                    "Métricas obtenidas exitosamente");
+        } catch (IllegalArgumentException e) {
+            log.warn("Componente de métricas no válido: {}", e.getMessage());
+            return ApiResponse.error("Componente no válido", e.getMessage());
+        } catch (Exception e) {
+            log.error("Error al obtener métricas de {}: {}", componente, e.getMessage(), e);
+            return ApiResponse.error("Error al obtener métricas", e.getMessage());
+        }
+    }
+}
@@ -87,9 +87,10 @@ public class PreguntaController {
         log.info("Solicitud de validación de respuesta recibida para pregunta ID: {}", request.preguntaId());
         
         try {
-            // Validar respuesta
-            ValidarRespuestaPort.ResultadoValidacion resultado = 
-                validarRespuestaPort.validarRespuesta(request.preguntaId(), request.opcionSeleccionada());
+            // Validar respuesta: por posición si se indica, o por el texto de la opción
+            ValidarRespuestaPort.ResultadoValidacion resultado = request.opcionIndex() != null
+                ? validarRespuestaPort.validarOpcion(request.preguntaId(), request.opcionIndex())
+                : validarRespuestaPort.validarRespuesta(request.preguntaId(), request.opcionSeleccionada());
             
             // Mapear a DTO de respuesta
             ValidacionResponse response = preguntaMapper.toResponse(resultado);
@@ -0,0 +1,45 @@
+package org.jcr.generadorpreguntasjava.port.in.web.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+
+/**
+ * DTO de request para registrar de una vez todas las respuestas de un usuario.
+ */
+public record ResponderLoteRequest(
+    @NotNull
+    @JsonProperty("usuarioId")
+    Long usuarioId,
+    
+    @NotEmpty
+    @Valid
+    @JsonProperty("respuestas")
+    List<RespuestaLoteRequest> respuestas
+) {
+    
+    /**
+     * Respuesta individual del lote con el tiempo medido por el cliente.
+     * Se envía la posición de la opción (opcionIndex) o, por compatibilidad, su texto (respuesta).
+     */
+    public record RespuestaLoteRequest(
+        @NotNull
+        @JsonProperty("preguntaId")
+        Long preguntaId,
+        
+        @JsonProperty("respuesta")
+        String respuesta,
+        
+        @PositiveOrZero
+        @JsonProperty("opcionIndex")
+        Integer opcionIndex,
+        
+        @PositiveOrZero
+        @JsonProperty("tiempoRespuestaMs")
+        Long tiempoRespuestaMs
+    ) {}
+}
@@ -2,16 +2,21 @@ package org.jcr.generadorpreguntasjava.port.in.web.dto.request;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
 /**
  * DTO de request para validar respuestas.
+ * Se envía la posición de la opción (opcionIndex) o, por compatibilidad, su texto (opcionSeleccionada).
  */
 public record ValidarRespuestaRequest(
     @NotNull
     @JsonProperty("preguntaId")
     Long preguntaId,
     
-    @NotNull
     @JsonProperty("opcionSeleccionada")
-    String opcionSeleccionada
+    String opcionSeleccionada,
+    
+    @PositiveOrZero
+    @JsonProperty("opcionIndex")
+    Integer opcionIndex
 ) {}
@@ -1,9 +1,10 @@
 package org.jcr.generadorpreguntasjava.port.in.web.dto.response;
 
 /**
- * DTO de respuesta para opciones.
+ * DTO de respuesta para opciones. Las opciones se identifican por su posición, la misma
+ * que se envía como opcionIndex al responder.
  */
 public record OpcionResponse(
-    Long id,
+    int posicion,
     String contenido
 ) {}
@@ -0,0 +1,12 @@
+package org.jcr.generadorpreguntasjava.port.in.web.dto.response;
+
+import java.util.List;
+
+/**
+ * DTO para una página del historial de sesiones de un usuario.
+ */
+public record PaginaSesionesResponse(
+        List<SesionRespuestaResponse> sesiones,
+        String siguienteCursor,
+        boolean hayMas
+) {}
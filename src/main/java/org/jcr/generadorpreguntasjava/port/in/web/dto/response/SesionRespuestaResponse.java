@@ -8,6 +8,7 @@ public record SesionRespuestaResponse(
         Long usuarioId,
         Long preguntaId,
         String respuestaSeleccionada,
+        Integer opcionSeleccionada,
         boolean esCorrecta,
         String inicioRespuesta,
         String finRespuesta,
@@ -12,5 +12,8 @@ public record ValidacionResponse(
     String explicacion,
     
     @JsonProperty("respuestaCorrecta")
-    String respuestaCorrecta
+    String respuestaCorrecta,
+    
+    @JsonProperty("indiceRespuestaCorrecta")
+    int indiceRespuestaCorrecta
 ) {}
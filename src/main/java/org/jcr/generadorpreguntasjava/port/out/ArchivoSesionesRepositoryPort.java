@@ -0,0 +1,63 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import org.jcr.generadorpreguntasjava.domain.model.ResumenDiarioSesiones;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ClasificacionPregunta;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puerto de salida para el archivo de sesiones antiguas en resúmenes diarios por usuario.
+ * Define el contrato para compactar las sesiones completadas antiguas y leer sus resúmenes.
+ */
+public interface ArchivoSesionesRepositoryPort {
+    
+    /**
+     * Resultado de archivar un tramo de usuarios.
+     */
+    record ResultadoArchivo(long sesiones, long resumenes) {}
+    
+    /**
+     * Obtiene los siguientes usuarios (por ID ascendente) con sesiones completadas anteriores al límite.
+     * 
+     * @param limite Fin de respuesta a partir del cual las sesiones no se archivan
+     * @param despuesDeUsuarioId Solo usuarios con ID mayor que este
+     * @param maximo Número máximo de usuarios
+     * @return IDs de usuario ordenados
+     */
+    List<Long> obtenerUsuariosConSesionesAntiguas(LocalDateTime limite, long despuesDeUsuarioId, int maximo);
+    
+    /**
+     * Obtiene las preguntas respondidas en las sesiones completadas antes del límite de los
+     * usuarios del rango, para clasificar solo esas al archivar el tramo.
+     * 
+     * @param desdeUsuarioId Primer usuario del tramo (inclusive)
+     * @param hastaUsuarioId Último usuario del tramo (inclusive)
+     * @param limite Fin de respuesta a partir del cual las sesiones no se archivan
+     * @return IDs de pregunta distintos
+     */
+    List<Long> obtenerPreguntasConSesionesAntiguas(long desdeUsuarioId, long hastaUsuarioId, LocalDateTime limite);
+    
+    /**
+     * Agrega en resúmenes diarios las sesiones completadas antes del límite de los usuarios
+     * del rango, combinándolas con los resúmenes existentes, y las retira de sesiones_respuesta.
+     * Todo el tramo se archiva en una única transacción.
+     * 
+     * @param desdeUsuarioId Primer usuario del tramo (inclusive)
+     * @param hastaUsuarioId Último usuario del tramo (inclusive)
+     * @param limite Fin de respuesta a partir del cual las sesiones no se archivan
+     * @param clasificacion Clasificación de cada pregunta por ID
+     * @return Número de sesiones archivadas y de resúmenes escritos
+     */
+    ResultadoArchivo archivar(long desdeUsuarioId, long hastaUsuarioId, LocalDateTime limite,
+                              Map<Long, ClasificacionPregunta> clasificacion);
+    
+    /**
+     * Obtiene los resúmenes diarios de las sesiones archivadas de un usuario.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Resúmenes del usuario (vacío si no tiene sesiones archivadas)
+     */
+    List<ResumenDiarioSesiones> obtenerResumenesPorUsuario(Long usuarioId);
+}
@@ -0,0 +1,30 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import java.time.Duration;
+
+/**
+ * Puerto de salida para bloqueos con concesión (lease) compartidos entre instancias.
+ * 
+ * Un bloqueo pertenece a un propietario hasta que lo libera o hasta que vence su concesión,
+ * de modo que una instancia caída no lo retiene indefinidamente.
+ */
+public interface BloqueoDistribuidoPort {
+    
+    /**
+     * Intenta adquirir el bloqueo o renovarlo si ya pertenece al propietario.
+     * 
+     * @param nombre Nombre del bloqueo
+     * @param propietario Identificador de quien lo adquiere (por ejemplo, la instancia)
+     * @param duracion Duración de la concesión
+     * @return true si el propietario tiene el bloqueo hasta que venza la concesión
+     */
+    boolean adquirir(String nombre, String propietario, Duration duracion);
+    
+    /**
+     * Libera el bloqueo si pertenece al propietario.
+     * 
+     * @param nombre Nombre del bloqueo
+     * @param propietario Identificador de quien lo adquirió
+     */
+    void liberar(String nombre, String propietario);
+}
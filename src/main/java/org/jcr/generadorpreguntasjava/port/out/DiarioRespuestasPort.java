@@ -0,0 +1,43 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Puerto de salida para el diario de respuestas: registro de solo escritura al final
+ * (append-only) de los eventos de respuesta, del que se pueden reconstruir los agregados.
+ *
+ * Cada evento ocupa una posición (offset) consecutiva que empieza en 0. Los agregados guardan
+ * el offset hasta el que reflejan el diario, así que reproducirlo no vuelve a contar lo que
+ * ya se aplicó al responder.
+ */
+public interface DiarioRespuestasPort {
+
+    /**
+     * Anota eventos al final del diario y devuelve el offset del primero, para guardarlo en
+     * los agregados en la misma transacción. Si la transacción en curso se revierte, los
+     * eventos quedan anulados y no se reproducen; sin transacción quedan confirmados.
+     * No espera a que los eventos lleguen a disco: se fuerzan en segundo plano.
+     *
+     * @param eventos Eventos a anotar, en orden (ocupan offsets consecutivos)
+     * @return Offset del primer evento, o {@link EventoRespuesta#SIN_OFFSET} si no se pudieron anotar
+     */
+    long anotar(List<EventoRespuesta> eventos);
+
+    /**
+     * Recorre en orden los eventos confirmados a partir de un offset. Se omiten los anulados
+     * y los de transacciones aún sin terminar.
+     *
+     * @param desdeOffset Offset del primer evento a recorrer
+     * @param consumidor Consumidor de cada evento y su offset
+     * @return Offset siguiente al último evento recorrido
+     */
+    long reproducir(long desdeOffset, ObjLongConsumer<EventoRespuesta> consumidor);
+
+    /**
+     * Obtiene el offset que tendrá el próximo evento anotado.
+     */
+    long siguienteOffset();
+}
@@ -0,0 +1,65 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Puerto de salida para persistencia de estadísticas por pregunta.
+ * Define el contrato para operaciones de persistencia de estadísticas de preguntas.
+ */
+public interface EstadisticasPreguntaRepositoryPort {
+    
+    /**
+     * Guarda (inserta o actualiza) las estadísticas de una pregunta.
+     * 
+     * @param estadisticas Estadísticas a guardar
+     * @return Estadísticas guardadas
+     */
+    EstadisticasPregunta guardar(EstadisticasPregunta estadisticas);
+    
+    /**
+     * Busca las estadísticas de una pregunta.
+     * 
+     * @param preguntaId ID de la pregunta
+     * @return Optional con las estadísticas si existen
+     */
+    Optional<EstadisticasPregunta> buscarPorPregunta(Long preguntaId);
+    
+    /**
+     * Busca las estadísticas de una pregunta para modificarlas: la fila queda bloqueada
+     * hasta el final de la transacción, así que las escrituras concurrentes se serializan.
+     * 
+     * @param preguntaId ID de la pregunta
+     * @return Optional con las estadísticas si existen
+     */
+    Optional<EstadisticasPregunta> buscarPorPreguntaParaActualizar(Long preguntaId);
+    
+    /**
+     * Crea las estadísticas de una pregunta en su propia transacción si aún no existen.
+     * 
+     * @param estadisticas Estadísticas iniciales
+     * @return true si se crearon, false si ya existían
+     */
+    boolean crearSiNoExiste(EstadisticasPregunta estadisticas);
+    
+    /**
+     * Asigna un offset del diario a las filas que aún no tienen ninguno (escritas antes de
+     * registrarlo).
+     * 
+     * @param offsetDiario Último offset del diario que reflejan esas filas
+     * @return Número de filas actualizadas
+     */
+    int asignarOffsetDiarioSinRegistrar(long offsetDiario);
+    
+    /**
+     * Obtiene las preguntas cuya tasa de aciertos más se aleja de la esperada para su
+     * dificultad, ordenadas de mayor a menor desviación.
+     * 
+     * @param limite Número máximo de preguntas
+     * @param minimoIntentos Número mínimo de intentos
+     * @return Lista de estadísticas de preguntas
+     */
+    List<EstadisticasPregunta> obtenerPeorCalibradas(int limite, int minimoIntentos);
+}
@@ -1,9 +1,12 @@
 package org.jcr.generadorpreguntasjava.port.out;
 
 import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.ResumenRankingUsuario;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.UnaryOperator;
 
 /**
  * Puerto de salida para persistencia de estadísticas de usuario.
@@ -19,6 +22,45 @@ public interface EstadisticasRepositoryPort {
      */
     EstadisticasUsuario guardar(EstadisticasUsuario estadisticas);
     
+    /**
+     * Aplica un cambio sobre las estadísticas guardadas del usuario con control optimista de versión.
+     * Si otra escritura modifica la fila entre la lectura y la escritura, se relee bloqueándola y el
+     * cambio se vuelve a aplicar sobre la versión nueva, sin recalcular desde las sesiones.
+     * 
+     * @param usuarioId ID del usuario
+     * @param cambio Función que devuelve las estadísticas actualizadas, o null si el cambio no es aplicable
+     * @return Estadísticas guardadas, o vacío si el usuario no tiene estadísticas o el cambio no es aplicable
+     * @throws RuntimeException si la fila cambia pese a haberla bloqueado
+     */
+    Optional<EstadisticasUsuario> aplicarCambio(Long usuarioId, UnaryOperator<EstadisticasUsuario> cambio);
+    
+    /**
+     * Obtiene la versión actual de la fila de estadísticas de un usuario.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Versión de la fila, o vacío si el usuario no tiene estadísticas
+     */
+    OptionalLong obtenerVersion(Long usuarioId);
+    
+    /**
+     * Guarda las estadísticas solo si la fila sigue en la versión leída (o sigue sin existir).
+     * Si otra escritura se ha adelantado, se conservan sus datos y no se escribe nada.
+     * 
+     * @param estadisticas Estadísticas a guardar
+     * @param versionLeida Versión leída antes de calcularlas, vacía si no había fila
+     * @return Estadísticas guardadas, o vacío si la fila ha cambiado
+     */
+    Optional<EstadisticasUsuario> guardarSiNoHaCambiado(EstadisticasUsuario estadisticas, OptionalLong versionLeida);
+    
+    /**
+     * Asigna un offset del diario a las filas que aún no tienen ninguno (escritas antes de
+     * registrarlo), incrementando su versión.
+     * 
+     * @param offsetDiario Último offset del diario que reflejan esas filas
+     * @return Número de filas actualizadas
+     */
+    int asignarOffsetDiarioSinRegistrar(long offsetDiario);
+    
     /**
      * Busca las estadísticas de un usuario por ID.
      * 
@@ -65,26 +107,28 @@ public interface EstadisticasRepositoryPort {
     long contarUsuariosConEstadisticas();
     
     /**
-     * Obtiene el ranking de usuarios por porcentaje de aciertos.
-     * 
-     * @param limite Número máximo de usuarios en el ranking
-     * @return Lista de estadísticas ordenadas por porcentaje descendente
+     * Criterio de ordenación de los rankings.
      */
-    List<EstadisticasUsuario> obtenerRankingPorAciertos(int limite);
+    enum CriterioRanking {
+        ACIERTOS,   // porcentaje de aciertos descendente
+        VOLUMEN,    // total de preguntas descendente
+        TIEMPO      // tiempo promedio ascendente (solo usuarios con tiempo registrado)
+    }
     
     /**
-     * Obtiene el ranking de usuarios por número de preguntas respondidas.
+     * Obtiene un ranking leyendo solo los totales de cada usuario.
      * 
+     * @param criterio Criterio de ordenación
      * @param limite Número máximo de usuarios en el ranking
-     * @return Lista de estadísticas ordenadas por total de preguntas descendente
+     * @return Resúmenes ordenados según el criterio
      */
-    List<EstadisticasUsuario> obtenerRankingPorVolumen(int limite);
+    List<ResumenRankingUsuario> obtenerRanking(CriterioRanking criterio, int limite);
     
     /**
-     * Obtiene usuarios con mejor tiempo promedio de respuesta.
+     * Obtiene los totales de los usuarios con al menos una respuesta,
+     * sin cargar los desgloses por dificultad y temática.
      * 
-     * @param limite Número máximo de usuarios
-     * @return Lista de estadísticas ordenadas por tiempo promedio ascendente
+     * @return Resúmenes de los usuarios activos
      */
-    List<EstadisticasUsuario> obtenerRankingPorTiempo(int limite);
+    List<ResumenRankingUsuario> obtenerResumenesDeUsuariosActivos();
 }
@@ -0,0 +1,28 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import org.jcr.generadorpreguntasjava.domain.model.ClaveRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+
+import java.util.Optional;
+
+/**
+ * Puerto de salida para el índice de claves de respuesta por ID de pregunta.
+ * Permite validar respuestas sin cargar opciones ni temáticas.
+ */
+public interface IndiceClavesRespuestaPort {
+    
+    /**
+     * Busca la clave de respuesta de una pregunta.
+     * 
+     * @param preguntaId ID de la pregunta
+     * @return Optional con la clave si la pregunta existe
+     */
+    Optional<ClaveRespuesta> buscar(Long preguntaId);
+    
+    /**
+     * Añade al índice la clave de una pregunta recién guardada.
+     * 
+     * @param pregunta Pregunta guardada, con ID asignado
+     */
+    void registrar(Pregunta pregunta);
+}
@@ -2,6 +2,7 @@ package org.jcr.generadorpreguntasjava.port.out;
 
 import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,14 @@ public interface PreguntaRepositoryPort {
      */
     Optional<Pregunta> buscarPorId(Long id);
     
+    /**
+     * Busca varias preguntas por ID en una sola consulta.
+     * 
+     * @param ids IDs de las preguntas
+     * @return Preguntas encontradas (las que no existen se omiten), sin orden garantizado
+     */
+    List<Pregunta> buscarPorIds(Collection<Long> ids);
+    
     /**
      * Obtiene todas las preguntas.
      * 
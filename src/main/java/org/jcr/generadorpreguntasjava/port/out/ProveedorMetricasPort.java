@@ -0,0 +1,23 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import java.util.Map;
+
+/**
+ * Puerto de salida para los componentes que exponen métricas internas
+ * (cachés, contadores de escritura, etc.).
+ */
+public interface ProveedorMetricasPort {
+    
+    /**
+     * Obtiene una instantánea de las métricas del componente.
+     */
+    Metricas obtenerMetricas();
+    
+    /**
+     * Métricas de un componente identificadas por nombre.
+     */
+    record Metricas(
+        String componente,
+        Map<String, Number> valores
+    ) {}
+}
@@ -0,0 +1,78 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Puerto de salida para la reconstrucción masiva de estadísticas.
+ * Define el contrato para recorrer las sesiones por rangos de usuarios, escribir las
+ * estadísticas resultantes y registrar el progreso de cada partición.
+ */
+public interface ReconstruccionEstadisticasRepositoryPort {
+    
+    /**
+     * Estado de una partición de la reconstrucción.
+     */
+    enum EstadoParticion { PENDIENTE, COMPLETADA, ERROR }
+    
+    /**
+     * Rango de usuarios (ambos extremos incluidos) que se reconstruye como una unidad.
+     */
+    record ParticionUsuarios(
+        Long id,
+        long desdeUsuarioId,
+        long hastaUsuarioId,
+        EstadoParticion estado,
+        long usuariosProcesados,
+        long sesionesProcesadas
+    ) {}
+    
+    /**
+     * Dificultad y temática principal con las que se agregan las respuestas de una pregunta.
+     */
+    record ClasificacionPregunta(Dificultad dificultad, String tematica) {}
+    
+    /**
+     * Resultado de reconstruir una partición.
+     */
+    record ResultadoParticion(long usuarios, long sesiones) {}
+    
+    /**
+     * Divide los usuarios con sesiones completadas en particiones nuevas, descartando las anteriores.
+     * 
+     * @param usuariosPorParticion Número de usuarios por partición
+     * @return Particiones creadas, todas pendientes
+     */
+    List<ParticionUsuarios> crearParticiones(int usuariosPorParticion);
+    
+    /**
+     * Obtiene las particiones de la última reconstrucción.
+     * 
+     * @return Lista de particiones ordenadas por rango de usuarios
+     */
+    List<ParticionUsuarios> obtenerParticiones();
+    
+    /**
+     * Recalcula y escribe las estadísticas de los usuarios de una partición, y la marca
+     * como completada en la misma transacción.
+     * 
+     * @param particion Partición a reconstruir
+     * @param clasificacion Clasificación de cada pregunta por ID
+     * @param offsetDiario Último offset del diario de respuestas, que se lee al escribir cada lote
+     *                     (después de recorrer sus sesiones) y se guarda en sus filas
+     * @return Número de usuarios y sesiones procesados
+     */
+    ResultadoParticion reconstruirParticion(ParticionUsuarios particion,
+                                            Map<Long, ClasificacionPregunta> clasificacion,
+                                            LongSupplier offsetDiario);
+    
+    /**
+     * Marca una partición como fallida para reintentarla al reanudar.
+     * 
+     * @param particionId ID de la partición
+     */
+    void marcarError(Long particionId);
+}
@@ -1,11 +1,15 @@
 package org.jcr.generadorpreguntasjava.port.out;
 
+import org.jcr.generadorpreguntasjava.domain.model.CursorHistorial;
 import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.FiltroHistorialSesiones;
 import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionesColumnares;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Puerto de salida para persistencia de sesiones de respuesta.
@@ -21,6 +25,14 @@ public interface SesionRespuestaRepositoryPort {
      */
     SesionRespuesta guardar(SesionRespuesta sesion);
     
+    /**
+     * Inserta varias sesiones completadas nuevas en un único lote.
+     * 
+     * @param sesiones Sesiones sin ID a insertar
+     * @return Sesiones insertadas con su ID asignado, en el mismo orden
+     */
+    List<SesionRespuesta> guardarTodas(List<SesionRespuesta> sesiones);
+    
     /**
      * Busca una sesión por su ID.
      * 
@@ -45,6 +57,23 @@ public interface SesionRespuestaRepositoryPort {
      */
     List<SesionRespuesta> obtenerCompletadasPorUsuario(Long usuarioId);
     
+    /**
+     * Obtiene las sesiones completadas de un usuario en formato columnar (sin clasificar),
+     * leyendo solo pregunta, acierto y tiempo de cada sesión.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Columnas de las sesiones completadas del usuario
+     */
+    SesionesColumnares obtenerColumnasCompletadasPorUsuario(Long usuarioId);
+    
+    /**
+     * Obtiene todas las sesiones completadas de una pregunta (de cualquier usuario).
+     * 
+     * @param preguntaId ID de la pregunta
+     * @return Lista de sesiones completadas de la pregunta
+     */
+    List<SesionRespuesta> obtenerCompletadasPorPregunta(Long preguntaId);
+    
     /**
      * Obtiene sesiones de respuesta de un usuario filtradas por dificultad.
      * 
@@ -109,11 +138,32 @@ public interface SesionRespuestaRepositoryPort {
     long contarCorrectasPorUsuario(Long usuarioId);
     
     /**
-     * Elimina sesiones abandonadas (más de 30 minutos sin completar).
+     * Obtiene el siguiente tramo de sesiones abandonadas (sin completar e iniciadas antes del
+     * límite): el rango de IDs que cubre las primeras {@code tamano} con ID mayor al indicado.
+     * Los tramos se recorren por clave, así que nunca hay tramos vacíos aunque los IDs estén dispersos.
+     * 
+     * @param despuesDeId ID a partir del cual buscar (excluido)
+     * @param limite Inicio de respuesta a partir del cual una sesión no se considera abandonada
+     * @param tamano Número máximo de sesiones abandonadas del tramo
+     * @return Optional con el rango de IDs (ambos incluidos), vacío si no quedan sesiones abandonadas
+     */
+    Optional<RangoIds> obtenerTramoSesionesAbandonadas(long despuesDeId, LocalDateTime limite, int tamano);
+    
+    /**
+     * Elimina las sesiones abandonadas de un tramo de IDs. Cada llamada es una transacción
+     * corta que solo bloquea las filas del tramo.
      * 
+     * @param desdeId Primer ID del tramo (incluido)
+     * @param hastaId Último ID del tramo (incluido)
+     * @param limite Inicio de respuesta a partir del cual una sesión no se considera abandonada
      * @return Número de sesiones eliminadas
      */
-    int eliminarSesionesAbandonadas();
+    int eliminarSesionesAbandonadas(long desdeId, long hastaId, LocalDateTime limite);
+    
+    /**
+     * Rango de IDs de sesiones (ambos extremos incluidos).
+     */
+    record RangoIds(long desde, long hasta) {}
     
     /**
      * Obtiene las últimas N sesiones de un usuario.
@@ -124,6 +174,19 @@ public interface SesionRespuestaRepositoryPort {
      */
     List<SesionRespuesta> obtenerUltimasSesiones(Long usuarioId, int limite);
     
+    /**
+     * Obtiene una página del historial de sesiones completadas de un usuario, de la más
+     * reciente a la más antigua por (fin de respuesta, id).
+     * 
+     * @param usuarioId ID del usuario
+     * @param filtro Filtros opcionales del historial
+     * @param cursor Última sesión de la página anterior, o null para la primera página
+     * @param limite Número máximo de sesiones a obtener
+     * @return Sesiones estrictamente anteriores al cursor que cumplen los filtros
+     */
+    List<SesionRespuesta> obtenerPaginaCompletadas(Long usuarioId, FiltroHistorialSesiones filtro,
+                                                   CursorHistorial cursor, int limite);
+    
     /**
      * Verifica si existe una sesión para un usuario y pregunta específicos.
      * 
@@ -132,4 +195,29 @@ public interface SesionRespuestaRepositoryPort {
      * @return true si existe la sesión
      */
     boolean existeSesion(Long usuarioId, Long preguntaId);
+    
+    // ===== RECORRIDOS EN STREAMING =====
+    // Entregan las sesiones una a una al consumidor sin materializar el historial completo,
+    // de modo que la memoria no crece con la longitud del historial.
+    
+    /**
+     * Recorre las sesiones completadas de una pregunta (de cualquier usuario).
+     * 
+     * @param preguntaId ID de la pregunta
+     * @param consumidor Consumidor de cada sesión
+     * @return Número de sesiones recorridas
+     */
+    long recorrerCompletadasPorPregunta(Long preguntaId, Consumer<SesionRespuesta> consumidor);
+    
+    /**
+     * Recorre las sesiones completadas de un usuario iniciadas en un rango de fechas.
+     * 
+     * @param usuarioId ID del usuario
+     * @param desde Fecha desde
+     * @param hasta Fecha hasta
+     * @param consumidor Consumidor de cada sesión
+     * @return Número de sesiones recorridas
+     */
+    long recorrerPorUsuarioYFechas(Long usuarioId, LocalDateTime desde, LocalDateTime hasta,
+                                   Consumer<SesionRespuesta> consumidor);
 }
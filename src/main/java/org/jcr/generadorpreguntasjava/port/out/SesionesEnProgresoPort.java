@@ -0,0 +1,71 @@
+package org.jcr.generadorpreguntasjava.port.out;
+
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Puerto de salida para las sesiones de respuesta en progreso.
+ * 
+ * Las sesiones en progreso solo registran el inicio de la respuesta, así que no se persisten:
+ * se guardan hasta que se completan o caducan, y solo la sesión completada se escribe en el
+ * repositorio de sesiones. Mientras están en progreso tienen un ID provisional negativo,
+ * que nunca coincide con el ID de una sesión persistida.
+ */
+public interface SesionesEnProgresoPort {
+    
+    /**
+     * Inicia una sesión en progreso para un usuario y una pregunta, o devuelve la existente
+     * si ya hay una vigente (los inicios repetidos o simultáneos no crean sesiones duplicadas).
+     * 
+     * @param usuarioId ID del usuario
+     * @param preguntaId ID de la pregunta
+     * @return Sesión en progreso con su ID provisional
+     */
+    SesionRespuesta iniciar(Long usuarioId, Long preguntaId);
+    
+    /**
+     * Busca la sesión en progreso de un usuario para una pregunta.
+     * 
+     * @param usuarioId ID del usuario
+     * @param preguntaId ID de la pregunta
+     * @return Optional con la sesión si existe y no ha caducado
+     */
+    Optional<SesionRespuesta> buscar(Long usuarioId, Long preguntaId);
+    
+    /**
+     * Busca una sesión en progreso por su ID provisional.
+     * 
+     * @param sesionId ID provisional de la sesión
+     * @return Optional con la sesión si existe y no ha caducado
+     */
+    Optional<SesionRespuesta> buscarPorId(Long sesionId);
+    
+    /**
+     * Completa una sesión en progreso. Se retira cuando confirma la transacción activa y
+     * vuelve a estar en progreso si se revierte. El tiempo de respuesta se mide con un
+     * reloj monótono desde el inicio, así que no le afectan los ajustes del reloj del sistema.
+     * 
+     * @param sesionId ID provisional de la sesión
+     * @param respuesta Respuesta seleccionada (null si se responde por posición de la opción)
+     * @param correcta Si la respuesta es correcta
+     * @return Optional con la sesión completada (aún sin persistir), vacío si ya no estaba en progreso
+     */
+    Optional<SesionRespuesta> completar(Long sesionId, String respuesta, boolean correcta);
+    
+    /**
+     * Obtiene las sesiones en progreso de un usuario.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Lista de sesiones en progreso no caducadas
+     */
+    List<SesionRespuesta> obtenerPorUsuario(Long usuarioId);
+    
+    /**
+     * Retira las sesiones que han superado el tiempo máximo sin completarse.
+     * 
+     * @return Número de sesiones retiradas
+     */
+    int eliminarCaducadas();
+}
@@ -0,0 +1,86 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort.ResultadoArchivo;
+import org.jcr.generadorpreguntasjava.port.out.BloqueoDistribuidoPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ClasificacionPregunta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del archivo por tramos de sesiones antiguas.
+ */
+@DisplayName("Tests del archivo de sesiones")
+class ArchivoSesionesServiceTest {
+
+    private final ArchivoSesionesRepositoryPort archivoRepositoryPort = mock(ArchivoSesionesRepositoryPort.class);
+    private final PreguntaRepositoryPort preguntaRepositoryPort = mock(PreguntaRepositoryPort.class);
+    private final BloqueoDistribuidoPort bloqueoPort = mock(BloqueoDistribuidoPort.class);
+
+    @Test
+    @DisplayName("Debe rechazar una edad de archivo que alcance las ventanas de estadísticas recientes")
+    void debeRechazarEdadDentroDeLasVentanas() {
+        assertThrows(IllegalArgumentException.class, () -> servicio(31));
+        assertDoesNotThrow(() -> servicio(32));
+    }
+
+    @Test
+    @DisplayName("Debe archivar hasta el inicio del día límite clasificando solo las preguntas de cada tramo")
+    @SuppressWarnings("unchecked")
+    void debeArchivarClasificandoSoloPreguntasDelTramo() {
+        // Given: dos tramos de usuarios; la pregunta 10 aparece en los dos
+        ArchivoSesionesService service = servicio(90);
+        when(bloqueoPort.adquirir(anyString(), anyString(), any())).thenReturn(true);
+        when(archivoRepositoryPort.obtenerUsuariosConSesionesAntiguas(any(), eq(0L), eq(2)))
+            .thenReturn(List.of(1L, 2L));
+        when(archivoRepositoryPort.obtenerUsuariosConSesionesAntiguas(any(), eq(2L), eq(2)))
+            .thenReturn(List.of(3L));
+        when(archivoRepositoryPort.obtenerUsuariosConSesionesAntiguas(any(), eq(3L), eq(2)))
+            .thenReturn(List.of());
+        when(archivoRepositoryPort.obtenerPreguntasConSesionesAntiguas(eq(1L), eq(2L), any()))
+            .thenReturn(List.of(10L));
+        when(archivoRepositoryPort.obtenerPreguntasConSesionesAntiguas(eq(3L), eq(3L), any()))
+            .thenReturn(List.of(10L, 11L));
+        when(preguntaRepositoryPort.buscarPorIds(List.of(10L))).thenReturn(List.of(pregunta(10L)));
+        when(preguntaRepositoryPort.buscarPorIds(List.of(11L))).thenReturn(List.of(pregunta(11L)));
+        when(archivoRepositoryPort.archivar(anyLong(), anyLong(), any(), any())).thenReturn(new ResultadoArchivo(4, 2));
+
+        // When
+        long archivadas = service.archivarSesionesAntiguas();
+
+        // Then
+        assertEquals(8, archivadas);
+        verify(preguntaRepositoryPort, never()).obtenerTodas();
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<Map<Long, ClasificacionPregunta>> clasificacion = ArgumentCaptor.forClass(Map.class);
+        verify(archivoRepositoryPort).archivar(eq(3L), eq(3L), limite.capture(), clasificacion.capture());
+        assertEquals(LocalDate.now().minusDays(90).atStartOfDay(), limite.getValue());
+        assertEquals(new ClasificacionPregunta(Dificultad.MEDIA, "Streams"), clasificacion.getValue().get(11L));
+        verify(bloqueoPort).liberar(anyString(), anyString());
+    }
+
+    private ArchivoSesionesService servicio(int edadDias) {
+        return new ArchivoSesionesService(archivoRepositoryPort, preguntaRepositoryPort, bloqueoPort,
+                                          true, edadDias, 2, 0, 600);
+    }
+
+    private static Pregunta pregunta(Long id) {
+        return new Pregunta(id, "int x = 1;", "¿Qué valor tiene x?", Dificultad.MEDIA, "1", "Asignación",
+                            List.of(new Opcion("1"), new Opcion("2")), List.of(new Tematica("Streams")));
+    }
+}
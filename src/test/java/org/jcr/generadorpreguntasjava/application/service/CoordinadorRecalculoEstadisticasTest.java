@@ -0,0 +1,85 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del coordinador de recálculos de estadísticas.
+ */
+@DisplayName("Tests del coordinador de recálculos")
+class CoordinadorRecalculoEstadisticasTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final CoordinadorRecalculoEstadisticas coordinador =
+        new CoordinadorRecalculoEstadisticas(2, transactionManager);
+
+    @AfterEach
+    void detener() {
+        coordinador.detener();
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar el recálculo dentro de una transacción")
+    void debeRecalcularEnTransaccion() {
+        // Given
+        TransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        // When
+        EstadisticasUsuario resultado = coordinador.recalcular(1L, () -> new EstadisticasUsuario(1L))
+            .orTimeout(5, TimeUnit.SECONDS).join();
+
+        // Then
+        assertEquals(1L, resultado.usuarioId());
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(status);
+    }
+
+    @Test
+    @DisplayName("Debe compartir el recálculo en curso entre llamadas concurrentes del mismo usuario")
+    void debeCompartirRecalculoEnCurso() {
+        // Given: un recálculo que no termina hasta que se le indica
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // When
+        CompletableFuture<EstadisticasUsuario> primero = coordinador.recalcular(1L, () -> {
+            ejecuciones.incrementAndGet();
+            esperar(liberar);
+            return new EstadisticasUsuario(1L);
+        });
+        CompletableFuture<EstadisticasUsuario> segundo = coordinador.recalcular(1L, () -> {
+            ejecuciones.incrementAndGet();
+            return new EstadisticasUsuario(1L);
+        });
+        liberar.countDown();
+
+        // Then
+        assertSame(primero, segundo);
+        primero.orTimeout(5, TimeUnit.SECONDS).join();
+        assertEquals(1, ejecuciones.get());
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
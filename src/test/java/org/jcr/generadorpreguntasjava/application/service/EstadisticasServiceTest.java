@@ -0,0 +1,202 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasPreguntaPort;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
+import org.jcr.generadorpreguntasjava.port.in.RegistrarRespuestaPort.RespuestaLote;
+import org.jcr.generadorpreguntasjava.port.in.RegistrarRespuestaPort.ResultadoRespuesta;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionesEnProgresoPort;
+import org.jcr.generadorpreguntasjava.port.out.UsuarioRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del presupuesto de accesos a repositorios al responder una pregunta:
+ * una lectura de la pregunta, una escritura de la sesión y un delta de estadísticas
+ * aplicado con control de versión.
+ */
+@DisplayName("Tests del registro de respuestas")
+@ExtendWith(MockitoExtension.class)
+class EstadisticasServiceTest {
+
+    private static final Long USUARIO_ID = 7L;
+    private static final Long PREGUNTA_ID = 3L;
+
+    @Mock private SesionRespuestaRepositoryPort sesionRepositoryPort;
+    @Mock private SesionesEnProgresoPort sesionesEnProgresoPort;
+    @Mock private EstadisticasRepositoryPort estadisticasRepositoryPort;
+    @Mock private UsuarioRepositoryPort usuarioRepositoryPort;
+    @Mock private PreguntaRepositoryPort preguntaRepositoryPort;
+    @Mock private ConsultarEstadisticasVentanaPort estadisticasVentanaPort;
+    @Mock private ConsultarEstadisticasPreguntaPort estadisticasPreguntaPort;
+    @Mock private CoordinadorRecalculoEstadisticas coordinadorRecalculo;
+    @Mock private DiarioRespuestasPort diarioRespuestasPort;
+    @Mock private ArchivoSesionesRepositoryPort archivoSesionesPort;
+
+    @InjectMocks
+    private EstadisticasService service;
+
+    private Pregunta pregunta;
+
+    @BeforeEach
+    void setUp() {
+        pregunta = new Pregunta(PREGUNTA_ID, "int x = 1;", "¿Qué valor tiene x?", Dificultad.MEDIA,
+                                "1", "Asignación", List.of(), List.of(new Tematica("Variables")));
+        lenient().when(preguntaRepositoryPort.buscarPorId(PREGUNTA_ID)).thenReturn(Optional.of(pregunta));
+        lenient().when(sesionRepositoryPort.guardar(any()))
+            .thenAnswer(inv -> inv.<SesionRespuesta>getArgument(0).withId(100L));
+        lenient().when(estadisticasRepositoryPort.aplicarCambio(eq(USUARIO_ID), any())).thenAnswer(inv ->
+            Optional.of(inv.<UnaryOperator<EstadisticasUsuario>>getArgument(1).apply(new EstadisticasUsuario(USUARIO_ID))));
+    }
+
+    @Test
+    @DisplayName("Debe responder una sesión iniciada con una lectura de la pregunta y una escritura")
+    void debeResponderSesionIniciadaDentroDelPresupuesto() {
+        // Given
+        SesionRespuesta enProgreso = new SesionRespuesta(-1L, USUARIO_ID, PREGUNTA_ID, null, false,
+                                                         LocalDateTime.now(), null, null);
+        when(sesionesEnProgresoPort.buscar(USUARIO_ID, PREGUNTA_ID)).thenReturn(Optional.of(enProgreso));
+        when(sesionesEnProgresoPort.completar(-1L, "1", true))
+            .thenReturn(Optional.of(enProgreso.completarRespuesta("1", true, Duration.ofSeconds(12))));
+
+        // When
+        ResultadoRespuesta resultado = service.responderPregunta(USUARIO_ID, PREGUNTA_ID, "1");
+
+        // Then
+        assertTrue(resultado.esCorrecta());
+        assertEquals(100L, resultado.sesionId());
+        assertEquals(12_000, resultado.tiempoRespuestaMs());
+        assertEquals("Asignación", resultado.explicacion());
+
+        ArgumentCaptor<SesionRespuesta> guardada = ArgumentCaptor.forClass(SesionRespuesta.class);
+        verify(preguntaRepositoryPort, times(1)).buscarPorId(PREGUNTA_ID);
+        verify(sesionRepositoryPort, times(1)).guardar(guardada.capture());
+        verify(estadisticasRepositoryPort, times(1)).aplicarCambio(eq(USUARIO_ID), any());
+        verifyNoMoreInteractions(preguntaRepositoryPort, sesionRepositoryPort, estadisticasRepositoryPort);
+        verifyNoInteractions(usuarioRepositoryPort, coordinadorRecalculo);
+        assertNull(guardada.getValue().id(), "La sesión se inserta sin el ID provisional");
+    }
+
+    @Test
+    @DisplayName("Debe registrar una respuesta sin sesión iniciada con el mismo presupuesto")
+    void debeResponderSinSesionDentroDelPresupuesto() {
+        // Given
+        when(sesionesEnProgresoPort.buscar(USUARIO_ID, PREGUNTA_ID)).thenReturn(Optional.empty());
+
+        // When
+        ResultadoRespuesta resultado = service.responderPregunta(USUARIO_ID, PREGUNTA_ID, "2");
+
+        // Then
+        assertFalse(resultado.esCorrecta());
+        assertEquals(0, resultado.tiempoRespuestaMs());
+        assertEquals("1", resultado.respuestaCorrecta());
+
+        verify(preguntaRepositoryPort, times(1)).buscarPorId(PREGUNTA_ID);
+        verify(sesionRepositoryPort, times(1)).guardar(any());
+        verify(estadisticasRepositoryPort, times(1)).aplicarCambio(eq(USUARIO_ID), any());
+        verifyNoMoreInteractions(preguntaRepositoryPort, sesionRepositoryPort, estadisticasRepositoryPort);
+        verifyNoInteractions(usuarioRepositoryPort, coordinadorRecalculo);
+    }
+
+    @Test
+    @DisplayName("Debe registrar una respuesta por posición guardando solo el índice de la opción")
+    void debeResponderPorPosicion() {
+        // Given
+        Pregunta conOpciones = new Pregunta(5L, "int z = 3;", "¿Qué valor tiene z?", Dificultad.FACIL, "3", "Asignación",
+                                            List.of(new Opcion("1"), new Opcion("2"), new Opcion("3"), new Opcion("4")),
+                                            List.of(new Tematica("Variables")));
+        when(preguntaRepositoryPort.buscarPorId(5L)).thenReturn(Optional.of(conOpciones));
+        when(sesionesEnProgresoPort.buscar(USUARIO_ID, 5L)).thenReturn(Optional.empty());
+
+        // When
+        ResultadoRespuesta resultado = service.responderPreguntaPorOpcion(USUARIO_ID, 5L, 2);
+
+        // Then
+        assertTrue(resultado.esCorrecta());
+        assertEquals(2, (int) resultado.opcionSeleccionada());
+        assertEquals(2, resultado.indiceRespuestaCorrecta());
+
+        ArgumentCaptor<SesionRespuesta> guardada = ArgumentCaptor.forClass(SesionRespuesta.class);
+        verify(sesionRepositoryPort, times(1)).guardar(guardada.capture());
+        assertNull(guardada.getValue().respuestaSeleccionada());
+        assertEquals(2, (int) guardada.getValue().opcionSeleccionada());
+        assertTrue(guardada.getValue().estaCompleta());
+    }
+
+    @Test
+    @DisplayName("Debe registrar un lote con una consulta de preguntas, un INSERT en lote y un delta de estadísticas")
+    void debeResponderLoteDentroDelPresupuesto() {
+        // Given
+        Pregunta otra = new Pregunta(4L, "int y = 2;", "¿Qué valor tiene y?", Dificultad.FACIL,
+                                     "2", "Asignación", List.of(), List.of(new Tematica("Variables")));
+        when(preguntaRepositoryPort.buscarPorIds(any())).thenReturn(List.of(pregunta, otra));
+        when(sesionesEnProgresoPort.buscar(any(), any())).thenReturn(Optional.empty());
+        when(sesionRepositoryPort.guardarTodas(any())).thenAnswer(inv -> {
+            List<SesionRespuesta> sesiones = inv.getArgument(0);
+            return List.of(sesiones.get(0).withId(1L), sesiones.get(1).withId(2L), sesiones.get(2).withId(3L));
+        });
+        List<RespuestaLote> respuestas = List.of(
+            new RespuestaLote(PREGUNTA_ID, "1", 12_000L),
+            new RespuestaLote(4L, "3", 8_000L),
+            new RespuestaLote(PREGUNTA_ID, "2", null));
+
+        // When
+        List<ResultadoRespuesta> resultados = service.responderLote(USUARIO_ID, respuestas);
+
+        // Then
+        assertEquals(3, resultados.size());
+        assertTrue(resultados.get(0).esCorrecta());
+        assertEquals(12_000, resultados.get(0).tiempoRespuestaMs());
+        assertFalse(resultados.get(1).esCorrecta());
+        assertEquals("2", resultados.get(1).respuestaCorrecta());
+        assertEquals(0, resultados.get(2).tiempoRespuestaMs());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<UnaryOperator<EstadisticasUsuario>> cambio = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(preguntaRepositoryPort, times(1)).buscarPorIds(any());
+        verify(sesionRepositoryPort, times(1)).guardarTodas(any());
+        verify(estadisticasRepositoryPort, times(1)).aplicarCambio(eq(USUARIO_ID), cambio.capture());
+        verifyNoMoreInteractions(preguntaRepositoryPort, sesionRepositoryPort, estadisticasRepositoryPort);
+        EstadisticasUsuario guardadas = cambio.getValue().apply(new EstadisticasUsuario(USUARIO_ID));
+        assertEquals(3, guardadas.totalPreguntas());
+        assertEquals(1, guardadas.respuestasCorrectas());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el inicio de una sesión de un usuario inexistente sin guardarla en memoria")
+    void debeRechazarInicioDeUsuarioInexistente() {
+        // Given
+        when(usuarioRepositoryPort.buscarPorId(USUARIO_ID)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThrows(RuntimeException.class, () -> service.iniciarRespuesta(USUARIO_ID, PREGUNTA_ID));
+        verifyNoInteractions(sesionesEnProgresoPort);
+    }
+}
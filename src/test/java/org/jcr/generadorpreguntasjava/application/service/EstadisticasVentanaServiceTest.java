@@ -0,0 +1,118 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Usuario;
+import org.jcr.generadorpreguntasjava.domain.model.VentanaTiempo;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.UsuarioRepositoryPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de los contadores de ventanas recientes y de cuándo registran las respuestas.
+ */
+@DisplayName("Tests de las estadísticas en ventanas recientes")
+class EstadisticasVentanaServiceTest {
+
+    private static final Long USUARIO_ID = 7L;
+
+    private final SesionRespuestaRepositoryPort sesionRepositoryPort = mock(SesionRespuestaRepositoryPort.class);
+    private final PreguntaRepositoryPort preguntaRepositoryPort = mock(PreguntaRepositoryPort.class);
+    private final UsuarioRepositoryPort usuarioRepositoryPort = mock(UsuarioRepositoryPort.class);
+
+    private EstadisticasVentanaService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EstadisticasVentanaService(sesionRepositoryPort, preguntaRepositoryPort, usuarioRepositoryPort);
+        when(usuarioRepositoryPort.buscarPorId(USUARIO_ID))
+            .thenReturn(Optional.of(new Usuario("google-7", "a@b.c", "Ana", null)));
+        when(preguntaRepositoryPort.buscarPorId(anyLong())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe registrar la respuesta solo cuando su transacción se confirma")
+    void debeRegistrarAlConfirmar() {
+        // Given: contadores ya inicializados, sin sesiones guardadas
+        when(sesionRepositoryPort.recorrerPorUsuarioYFechas(eq(USUARIO_ID), any(), any(), any())).thenReturn(0L);
+        service.obtenerTodasLasVentanas(USUARIO_ID);
+
+        // When: una respuesta revertida y otra confirmada
+        TransactionSynchronizationManager.initSynchronization();
+        service.registrarRespuesta(sesion(1L), Dificultad.FACIL);
+        terminarTransaccion(TransactionSynchronization.STATUS_ROLLED_BACK, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.registrarRespuesta(sesion(2L), Dificultad.FACIL);
+        int antesDeConfirmar = total();
+        terminarTransaccion(TransactionSynchronization.STATUS_COMMITTED, true);
+
+        // Then
+        assertEquals(0, antesDeConfirmar);
+        assertEquals(1, total());
+    }
+
+    @Test
+    @DisplayName("Debe sumar una vez las respuestas confirmadas mientras se inicializan los contadores")
+    void debeSumarRespuestasDuranteInicializacion() {
+        // Given: el recorrido encuentra la sesión 1 mientras se confirman la 1 (ya guardada) y la 2 (nueva)
+        when(sesionRepositoryPort.recorrerPorUsuarioYFechas(eq(USUARIO_ID), any(), any(), any()))
+            .thenAnswer(invocacion -> {
+                Consumer<SesionRespuesta> consumidor = invocacion.getArgument(3);
+                consumidor.accept(sesion(1L));
+                service.registrarRespuesta(sesion(1L), Dificultad.FACIL);
+                service.registrarRespuesta(sesion(2L), Dificultad.FACIL);
+                return 1L;
+            });
+
+        // When
+        int inicial = total();
+        service.registrarRespuesta(sesion(3L), Dificultad.FACIL);
+
+        // Then
+        assertEquals(2, inicial);
+        assertEquals(3, total());
+    }
+
+    private int total() {
+        return service.obtenerEstadisticasVentana(USUARIO_ID, VentanaTiempo.ULTIMAS_24_HORAS).totalPreguntas();
+    }
+
+    private static void terminarTransaccion(int estado, boolean confirmada) {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (confirmada) {
+                sincronizacion.afterCommit();
+            }
+            sincronizacion.afterCompletion(estado);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static SesionRespuesta sesion(Long id) {
+        LocalDateTime fin = LocalDateTime.now().minusMinutes(5);
+        return new SesionRespuesta(id, USUARIO_ID, 100L + id, "1", true, fin.minusSeconds(10), fin,
+                                   Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,98 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.port.out.BloqueoDistribuidoPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort.RangoIds;
+import org.jcr.generadorpreguntasjava.port.out.SesionesEnProgresoPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la limpieza por tramos de sesiones abandonadas.
+ */
+@DisplayName("Tests del mantenimiento de sesiones")
+class MantenimientoSesionesServiceTest {
+
+    private static final int TAMANO_TRAMO = 2;
+
+    private final SesionRespuestaRepositoryPort sesionRepositoryPort = mock(SesionRespuestaRepositoryPort.class);
+    private final SesionesEnProgresoPort sesionesEnProgresoPort = mock(SesionesEnProgresoPort.class);
+    private final BloqueoDistribuidoPort bloqueoPort = mock(BloqueoDistribuidoPort.class);
+
+    private MantenimientoSesionesService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MantenimientoSesionesService(sesionRepositoryPort, sesionesEnProgresoPort, bloqueoPort,
+                                                   true, 30, TAMANO_TRAMO, 0, 300);
+    }
+
+    @Test
+    @DisplayName("Debe eliminar por tramos recorridos por clave y liberar el bloqueo")
+    void debeEliminarPorTramos() {
+        // Given: IDs abandonados dispersos (3, 950 y 100000) en dos tramos
+        when(sesionesEnProgresoPort.eliminarCaducadas()).thenReturn(1);
+        when(bloqueoPort.adquirir(anyString(), anyString(), any())).thenReturn(true);
+        when(sesionRepositoryPort.obtenerTramoSesionesAbandonadas(eq(0L), any(), eq(TAMANO_TRAMO)))
+            .thenReturn(Optional.of(new RangoIds(3, 950)));
+        when(sesionRepositoryPort.obtenerTramoSesionesAbandonadas(eq(950L), any(), eq(TAMANO_TRAMO)))
+            .thenReturn(Optional.of(new RangoIds(100_000, 100_000)));
+        when(sesionRepositoryPort.obtenerTramoSesionesAbandonadas(eq(100_000L), any(), eq(TAMANO_TRAMO)))
+            .thenReturn(Optional.empty());
+        when(sesionRepositoryPort.eliminarSesionesAbandonadas(eq(3L), eq(950L), any())).thenReturn(2);
+        when(sesionRepositoryPort.eliminarSesionesAbandonadas(eq(100_000L), eq(100_000L), any())).thenReturn(1);
+
+        // When
+        int limpiadas = service.limpiarSesionesAbandonadas();
+
+        // Then
+        assertEquals(4, limpiadas);
+        verify(sesionRepositoryPort, times(2)).eliminarSesionesAbandonadas(anyLong(), anyLong(), any());
+        verify(bloqueoPort, times(3)).adquirir(anyString(), anyString(), any());
+        verify(bloqueoPort).liberar(anyString(), anyString());
+        assertEquals(2L, service.obtenerMetricas().valores().get("tramos"));
+        assertEquals(3L, service.obtenerMetricas().valores().get("sesiones_eliminadas"));
+    }
+
+    @Test
+    @DisplayName("Debe limitarse a la memoria si otra instancia tiene el bloqueo")
+    void debeOmitirBaseDeDatosSinBloqueo() {
+        // Given
+        when(sesionesEnProgresoPort.eliminarCaducadas()).thenReturn(2);
+        when(bloqueoPort.adquirir(anyString(), anyString(), any())).thenReturn(false);
+
+        // When
+        int limpiadas = service.limpiarSesionesAbandonadas();
+
+        // Then
+        assertEquals(2, limpiadas);
+        verifyNoInteractions(sesionRepositoryPort);
+        verify(bloqueoPort, never()).liberar(anyString(), anyString());
+        assertEquals(1L, service.obtenerMetricas().valores().get("omitidas_sin_bloqueo"));
+    }
+
+    @Test
+    @DisplayName("Debe detenerse tras el tramo en curso si no puede renovar la concesión")
+    void debeDetenerseAlPerderConcesion() {
+        // Given: la concesión se adquiere, pero no se puede renovar tras el primer tramo
+        when(bloqueoPort.adquirir(anyString(), anyString(), any())).thenReturn(true, false);
+        when(sesionRepositoryPort.obtenerTramoSesionesAbandonadas(anyLong(), any(), anyInt()))
+            .thenReturn(Optional.of(new RangoIds(1, 2)));
+        when(sesionRepositoryPort.eliminarSesionesAbandonadas(anyLong(), anyLong(), any())).thenReturn(2);
+
+        // When
+        int limpiadas = service.limpiarSesionesAbandonadas();
+
+        // Then
+        assertEquals(2, limpiadas);
+        verify(sesionRepositoryPort, times(1)).eliminarSesionesAbandonadas(anyLong(), anyLong(), any());
+        verify(bloqueoPort).liberar(anyString(), anyString());
+    }
+}
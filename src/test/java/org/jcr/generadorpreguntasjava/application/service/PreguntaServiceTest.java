@@ -29,6 +29,9 @@ class PreguntaServiceTest {
     @Mock
     private PreguntaRepositoryPort preguntaRepositoryPort;
     
+    @Mock
+    private IndiceClavesRespuestaPort indiceClavesRespuestaPort;
+    
     @Mock
     private TematicaRepositoryPort tematicaRepositoryPort;
     
@@ -46,6 +49,7 @@ class PreguntaServiceTest {
     void setUp() {
         preguntaService = new PreguntaService(
             preguntaRepositoryPort,
+            indiceClavesRespuestaPort,
             tematicaRepositoryPort,
             generadorDePreguntaServicePort,
             promptBuilderService,
@@ -108,8 +112,8 @@ class PreguntaServiceTest {
         String respuestaDada = "15";
         Pregunta pregunta = crearPreguntaEjemplo();
         
-        when(preguntaRepositoryPort.buscarPorId(preguntaId))
-            .thenReturn(Optional.of(pregunta));
+        when(indiceClavesRespuestaPort.buscar(preguntaId))
+            .thenReturn(Optional.of(ClaveRespuesta.de(pregunta)));
         
         // When
         ValidarRespuestaPort.ResultadoValidacion resultado = 
@@ -119,7 +123,8 @@ class PreguntaServiceTest {
         assertTrue(resultado.esCorrecta());
         assertEquals(pregunta.explicacion(), resultado.explicacion());
         assertEquals(pregunta.respuestaCorrecta(), resultado.respuestaCorrecta());
-        verify(preguntaRepositoryPort).buscarPorId(preguntaId);
+        verify(indiceClavesRespuestaPort).buscar(preguntaId);
+        verifyNoInteractions(preguntaRepositoryPort);
     }
     
     @Test
@@ -130,8 +135,8 @@ class PreguntaServiceTest {
         String respuestaDada = "20";
         Pregunta pregunta = crearPreguntaEjemplo();
         
-        when(preguntaRepositoryPort.buscarPorId(preguntaId))
-            .thenReturn(Optional.of(pregunta));
+        when(indiceClavesRespuestaPort.buscar(preguntaId))
+            .thenReturn(Optional.of(ClaveRespuesta.de(pregunta)));
         
         // When
         ValidarRespuestaPort.ResultadoValidacion resultado = 
@@ -150,7 +155,7 @@ class PreguntaServiceTest {
         Long preguntaId = 999L;
         String respuestaDada = "A";
         
-        when(preguntaRepositoryPort.buscarPorId(preguntaId))
+        when(indiceClavesRespuestaPort.buscar(preguntaId))
             .thenReturn(Optional.empty());
         
         // When & Then
@@ -159,7 +164,22 @@ class PreguntaServiceTest {
         });
         
         assertTrue(exception.getMessage().contains("Pregunta no encontrada"));
-        verify(preguntaRepositoryPort).buscarPorId(preguntaId);
+        verify(indiceClavesRespuestaPort).buscar(preguntaId);
+    }
+    
+    @Test
+    @DisplayName("Debe rechazar una opción que la pregunta no tiene")
+    void debeRechazarOpcionFueraDeRango() {
+        // Given
+        Long preguntaId = 1L;
+        when(indiceClavesRespuestaPort.buscar(preguntaId))
+            .thenReturn(Optional.of(ClaveRespuesta.de(crearPreguntaEjemplo())));
+        
+        // When & Then
+        assertTrue(preguntaService.validarOpcion(preguntaId, 1).esCorrecta());
+        assertFalse(preguntaService.validarOpcion(preguntaId, 3).esCorrecta());
+        assertThrows(IllegalArgumentException.class, () -> preguntaService.validarOpcion(preguntaId, 4));
+        verifyNoInteractions(preguntaRepositoryPort);
     }
     
     @Test
@@ -0,0 +1,164 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
+import org.jcr.generadorpreguntasjava.port.in.ReproducirDiarioRespuestasPort.ResultadoReproduccion;
+import org.jcr.generadorpreguntasjava.port.out.DiarioRespuestasPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasPreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.TematicaRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la reproducción del diario de respuestas sobre las estadísticas guardadas.
+ */
+@DisplayName("Tests de la reproducción del diario")
+class ReproduccionDiarioServiceTest {
+
+    private static final int TAMANO_LOTE = 2;
+    private static final long USUARIO_ID = 7L;
+
+    private final DiarioRespuestasPort diarioRespuestasPort = mock(DiarioRespuestasPort.class);
+    private final EstadisticasRepositoryPort estadisticasRepositoryPort = mock(EstadisticasRepositoryPort.class);
+    private final EstadisticasPreguntaRepositoryPort estadisticasPreguntaRepositoryPort =
+        mock(EstadisticasPreguntaRepositoryPort.class);
+    private final TematicaRepositoryPort tematicaRepositoryPort = mock(TematicaRepositoryPort.class);
+    private final ConsultarEstadisticasVentanaPort estadisticasVentanaPort = mock(ConsultarEstadisticasVentanaPort.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // Filas guardadas de estadísticas de usuario
+    private final Map<Long, EstadisticasUsuario> filas = new HashMap<>();
+
+    private ReproduccionDiarioService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new ReproduccionDiarioService(diarioRespuestasPort, estadisticasRepositoryPort,
+                                                estadisticasPreguntaRepositoryPort, tematicaRepositoryPort,
+                                                estadisticasVentanaPort, transactionManager, TAMANO_LOTE);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(tematicaRepositoryPort.obtenerTodas()).thenReturn(List.of());
+        when(diarioRespuestasPort.siguienteOffset()).thenReturn(5L);
+        // El diario contiene cinco eventos del usuario 7 a las preguntas 100 a 104 (offsets 0 a 4)
+        when(diarioRespuestasPort.reproducir(anyLong(), any())).thenAnswer(invocacion -> {
+            long desde = invocacion.getArgument(0);
+            ObjLongConsumer<EventoRespuesta> consumidor = invocacion.getArgument(1);
+            for (long offset = desde; offset < 5; offset++) {
+                consumidor.accept(evento(offset), offset);
+            }
+            return 5L;
+        });
+        when(estadisticasRepositoryPort.buscarPorUsuario(anyLong()))
+            .thenAnswer(invocacion -> Optional.ofNullable(filas.get(invocacion.<Long>getArgument(0))));
+        when(estadisticasRepositoryPort.aplicarCambio(anyLong(), any())).thenAnswer(invocacion -> {
+            Long usuarioId = invocacion.getArgument(0);
+            UnaryOperator<EstadisticasUsuario> cambio = invocacion.getArgument(1);
+            return Optional.ofNullable(filas.computeIfPresent(usuarioId, (id, actuales) -> cambio.apply(actuales)));
+        });
+        when(estadisticasPreguntaRepositoryPort.buscarPorPregunta(anyLong())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar solo los eventos posteriores al offset que refleja cada fila")
+    void debeOmitirEventosYaReflejados() {
+        // Given: la fila del usuario ya refleja los eventos hasta el offset 2
+        filas.put(USUARIO_ID, estadisticasConEventos(3).conOffsetDiario(2));
+
+        // When
+        ResultadoReproduccion resultado = service.reconstruirEstadisticas(0);
+
+        // Then: lotes 0-1 (omitido), 2-3 (solo el 3) y 4
+        assertEquals(2, resultado.eventos());
+        assertEquals(5, resultado.hastaOffset());
+        assertEquals(5, filas.get(USUARIO_ID).totalPreguntas());
+        assertEquals(4, filas.get(USUARIO_ID).offsetDiario());
+        verify(estadisticasRepositoryPort, times(2)).aplicarCambio(eq(USUARIO_ID), any());
+        verify(transactionManager, times(4)).commit(any());
+        verify(estadisticasRepositoryPort).asignarOffsetDiarioSinRegistrar(4);
+        verify(estadisticasVentanaPort).descartarContadores();
+    }
+
+    @Test
+    @DisplayName("Debe contar cada evento una sola vez al repetir la reproducción")
+    void debeContarUnaVezAlRepetir() {
+        // Given
+        filas.put(USUARIO_ID, new EstadisticasUsuario(USUARIO_ID));
+
+        // When
+        ResultadoReproduccion primera = service.reconstruirEstadisticas(0);
+        ResultadoReproduccion segunda = service.reconstruirEstadisticas(0);
+
+        // Then
+        assertEquals(5, primera.eventos());
+        assertEquals(0, segunda.eventos());
+        assertEquals(5, filas.get(USUARIO_ID).totalPreguntas());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar los eventos a las estadísticas de pregunta existentes")
+    void debeAplicarEstadisticasPregunta() {
+        // Given: la pregunta 103 tiene fila sin eventos del diario y la 101 ya refleja el suyo
+        filas.put(USUARIO_ID, new EstadisticasUsuario(USUARIO_ID));
+        EstadisticasPregunta pregunta103 = EstadisticasPregunta.vacia(103L, Dificultad.FACIL);
+        when(estadisticasPreguntaRepositoryPort.buscarPorPregunta(103L)).thenReturn(Optional.of(pregunta103));
+        when(estadisticasPreguntaRepositoryPort.buscarPorPreguntaParaActualizar(103L))
+            .thenReturn(Optional.of(pregunta103));
+        when(estadisticasPreguntaRepositoryPort.buscarPorPregunta(101L))
+            .thenReturn(Optional.of(EstadisticasPregunta.vacia(101L, Dificultad.FACIL).conOffsetDiario(1)));
+
+        // When
+        service.reconstruirEstadisticas(0);
+
+        // Then: la 103 suma su respuesta con la opción anotada; la 101 y las que no tienen fila no se tocan
+        verify(estadisticasPreguntaRepositoryPort).guardar(argThat(estadisticas ->
+            estadisticas.preguntaId() == 103L && estadisticas.intentos() == 1 && estadisticas.offsetDiario() == 3
+                && estadisticas.respuestasPorOpcion().get(1) == 1));
+        verify(estadisticasPreguntaRepositoryPort, times(1)).guardar(any());
+        verify(estadisticasPreguntaRepositoryPort, never()).buscarPorPreguntaParaActualizar(101L);
+        verify(estadisticasPreguntaRepositoryPort).asignarOffsetDiarioSinRegistrar(4);
+    }
+
+    @Test
+    @DisplayName("Debe revertir el lote si no se puede aplicar a un usuario")
+    void debeRevertirSiFallaLote() {
+        // Given: el usuario no tiene fila y otra escritura impide crearla y aplicar el cambio
+        when(estadisticasRepositoryPort.guardarSiNoHaCambiado(any(), any())).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThrows(RuntimeException.class, () -> service.reconstruirEstadisticas(0));
+        verify(transactionManager).rollback(any());
+        verify(estadisticasVentanaPort, never()).descartarContadores();
+    }
+
+    private static EventoRespuesta evento(long offset) {
+        return new EventoRespuesta(USUARIO_ID, 100L + offset, Dificultad.FACIL, EventoRespuesta.SIN_TEMATICA,
+                                   true, 1_000, 1_700_000_000_000L + offset, 1);
+    }
+
+    private static EstadisticasUsuario estadisticasConEventos(int numero) {
+        EstadisticasUsuario estadisticas = new EstadisticasUsuario(USUARIO_ID);
+        for (int i = 0; i < numero; i++) {
+            estadisticas = estadisticas.registrarRespuesta(evento(i).aSesion(), Dificultad.FACIL, "Sin temática");
+        }
+        return estadisticas;
+    }
+}
@@ -0,0 +1,178 @@
+package org.jcr.generadorpreguntasjava.application.service;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPregunta;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.infrastructure.diario.DiarioRespuestasMmap;
+import org.jcr.generadorpreguntasjava.port.in.ConsultarEstadisticasVentanaPort;
+import org.jcr.generadorpreguntasjava.port.in.ReproducirDiarioRespuestasPort.ResultadoReproduccion;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasPreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.EstadisticasRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.PreguntaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionRespuestaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.SesionesEnProgresoPort;
+import org.jcr.generadorpreguntasjava.port.out.TematicaRepositoryPort;
+import org.jcr.generadorpreguntasjava.port.out.UsuarioRepositoryPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la reproducción del diario sobre estadísticas ya actualizadas por las respuestas
+ * en línea, con un diario real y filas de estadísticas en memoria.
+ */
+@DisplayName("Tests de la reproducción del diario tras responder")
+class ReproduccionDiarioTrasRespuestasTest {
+
+    private static final Long USUARIO_ID = 7L;
+    private static final Long PREGUNTA_ID = 1L;
+
+    @TempDir
+    Path directorio;
+
+    private final SesionRespuestaRepositoryPort sesionRepositoryPort = mock(SesionRespuestaRepositoryPort.class);
+    private final PreguntaRepositoryPort preguntaRepositoryPort = mock(PreguntaRepositoryPort.class);
+    private final EstadisticasRepositoryPort estadisticasRepositoryPort = mock(EstadisticasRepositoryPort.class);
+    private final EstadisticasPreguntaRepositoryPort estadisticasPreguntaRepositoryPort =
+        mock(EstadisticasPreguntaRepositoryPort.class);
+    private final TematicaRepositoryPort tematicaRepositoryPort = mock(TematicaRepositoryPort.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // Filas guardadas de estadísticas de usuario y de pregunta
+    private final Map<Long, EstadisticasUsuario> filasUsuario = new HashMap<>();
+    private final Map<Long, EstadisticasPregunta> filasPregunta = new HashMap<>();
+
+    private DiarioRespuestasMmap diario;
+    private EstadisticasService estadisticasService;
+    private ReproduccionDiarioService reproduccionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        diario = new DiarioRespuestasMmap(directorio.toString(), 4, 20);
+        ConsultarEstadisticasVentanaPort estadisticasVentanaPort = mock(ConsultarEstadisticasVentanaPort.class);
+        EstadisticasPreguntaService estadisticasPreguntaService = new EstadisticasPreguntaService(
+            estadisticasPreguntaRepositoryPort, sesionRepositoryPort, preguntaRepositoryPort, diario);
+        estadisticasService = new EstadisticasService(
+            sesionRepositoryPort, mock(SesionesEnProgresoPort.class), estadisticasRepositoryPort,
+            mock(UsuarioRepositoryPort.class), preguntaRepositoryPort, estadisticasVentanaPort,
+            estadisticasPreguntaService, mock(CoordinadorRecalculoEstadisticas.class),
+            mock(MantenimientoSesionesService.class), diario, mock(ArchivoSesionesRepositoryPort.class));
+        reproduccionService = new ReproduccionDiarioService(
+            diario, estadisticasRepositoryPort, estadisticasPreguntaRepositoryPort, tematicaRepositoryPort,
+            estadisticasVentanaPort, transactionManager, 2);
+
+        Pregunta pregunta = new Pregunta(PREGUNTA_ID, "int x = 1;", "¿Qué valor tiene x?", Dificultad.FACIL, "1",
+                                         "Asignación", List.of(new Opcion("1"), new Opcion("2")), List.of());
+        when(preguntaRepositoryPort.buscarPorId(PREGUNTA_ID)).thenReturn(Optional.of(pregunta));
+        AtomicLong ids = new AtomicLong();
+        when(sesionRepositoryPort.guardar(any()))
+            .thenAnswer(invocacion -> invocacion.<SesionRespuesta>getArgument(0).withId(ids.incrementAndGet()));
+        when(tematicaRepositoryPort.obtenerTodas()).thenReturn(List.of());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        when(estadisticasRepositoryPort.buscarPorUsuario(anyLong()))
+            .thenAnswer(invocacion -> Optional.ofNullable(filasUsuario.get(invocacion.<Long>getArgument(0))));
+        when(estadisticasRepositoryPort.aplicarCambio(anyLong(), any())).thenAnswer(invocacion -> {
+            Long usuarioId = invocacion.getArgument(0);
+            UnaryOperator<EstadisticasUsuario> cambio = invocacion.getArgument(1);
+            EstadisticasUsuario actuales = filasUsuario.get(usuarioId);
+            EstadisticasUsuario nuevas = actuales != null ? cambio.apply(actuales) : null;
+            if (nuevas != null) {
+                filasUsuario.put(usuarioId, nuevas);
+            }
+            return Optional.ofNullable(nuevas);
+        });
+        when(estadisticasPreguntaRepositoryPort.buscarPorPregunta(anyLong()))
+            .thenAnswer(invocacion -> Optional.ofNullable(filasPregunta.get(invocacion.<Long>getArgument(0))));
+        when(estadisticasPreguntaRepositoryPort.buscarPorPreguntaParaActualizar(anyLong()))
+            .thenAnswer(invocacion -> Optional.ofNullable(filasPregunta.get(invocacion.<Long>getArgument(0))));
+        when(estadisticasPreguntaRepositoryPort.crearSiNoExiste(any())).thenAnswer(invocacion -> {
+            EstadisticasPregunta estadisticas = invocacion.getArgument(0);
+            return filasPregunta.putIfAbsent(estadisticas.preguntaId(), estadisticas) == null;
+        });
+        when(estadisticasPreguntaRepositoryPort.guardar(any())).thenAnswer(invocacion -> {
+            EstadisticasPregunta estadisticas = invocacion.getArgument(0);
+            filasPregunta.put(estadisticas.preguntaId(), estadisticas);
+            return estadisticas;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        diario.cerrar();
+    }
+
+    @Test
+    @DisplayName("No debe cambiar los totales al reproducir desde el principio respuestas ya contadas")
+    void debeMantenerTotalesTrasResponder() {
+        // Given: cinco respuestas en línea sobre una fila de usuario existente
+        filasUsuario.put(USUARIO_ID, new EstadisticasUsuario(USUARIO_ID));
+        for (int i = 0; i < 5; i++) {
+            estadisticasService.responderPregunta(USUARIO_ID, PREGUNTA_ID, i % 2 == 0 ? "1" : "2");
+        }
+        EstadisticasUsuario usuarioAntes = filasUsuario.get(USUARIO_ID);
+        EstadisticasPregunta preguntaAntes = filasPregunta.get(PREGUNTA_ID);
+
+        // When
+        ResultadoReproduccion resultado = reproduccionService.reconstruirEstadisticas(0);
+
+        // Then
+        assertEquals(5, usuarioAntes.totalPreguntas());
+        assertEquals(5, preguntaAntes.intentos());
+        assertEquals(5, resultado.hastaOffset());
+        assertEquals(0, resultado.eventos());
+        assertEquals(5, filasUsuario.get(USUARIO_ID).totalPreguntas());
+        assertEquals(3, filasUsuario.get(USUARIO_ID).respuestasCorrectas());
+        assertEquals(5, filasPregunta.get(PREGUNTA_ID).intentos());
+        assertEquals(3, filasPregunta.get(PREGUNTA_ID).aciertos());
+        assertEquals(4, filasUsuario.get(USUARIO_ID).offsetDiario());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar solo las respuestas que faltan en unas estadísticas restauradas")
+    void debeAplicarRespuestasQueFaltan() {
+        // Given: tres respuestas, copia de las filas, y dos respuestas más que la copia no refleja
+        filasUsuario.put(USUARIO_ID, new EstadisticasUsuario(USUARIO_ID));
+        for (int i = 0; i < 3; i++) {
+            estadisticasService.responderPregunta(USUARIO_ID, PREGUNTA_ID, "1");
+        }
+        EstadisticasUsuario copiaUsuario = filasUsuario.get(USUARIO_ID);
+        EstadisticasPregunta copiaPregunta = filasPregunta.get(PREGUNTA_ID);
+        for (int i = 0; i < 2; i++) {
+            estadisticasService.responderPregunta(USUARIO_ID, PREGUNTA_ID, "2");
+        }
+        filasUsuario.put(USUARIO_ID, copiaUsuario);
+        filasPregunta.put(PREGUNTA_ID, copiaPregunta);
+
+        // When
+        ResultadoReproduccion resultado = reproduccionService.reconstruirEstadisticas(0);
+
+        // Then
+        assertEquals(2, resultado.eventos());
+        assertEquals(5, filasUsuario.get(USUARIO_ID).totalPreguntas());
+        assertEquals(3, filasUsuario.get(USUARIO_ID).respuestasCorrectas());
+        assertEquals(5, filasPregunta.get(PREGUNTA_ID).intentos());
+        assertEquals(2, filasPregunta.get(PREGUNTA_ID).respuestasPorOpcion().get(1));
+    }
+}
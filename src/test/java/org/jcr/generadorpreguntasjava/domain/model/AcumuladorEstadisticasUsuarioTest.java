@@ -0,0 +1,97 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para el acumulador de estadísticas usado en la reconstrucción masiva.
+ */
+@DisplayName("Tests del acumulador de estadísticas de usuario")
+class AcumuladorEstadisticasUsuarioTest {
+
+    @Test
+    @DisplayName("Debe agregar por dificultad y por temática")
+    void debeAgregarPorDificultadYTematica() {
+        // Given
+        AcumuladorEstadisticasUsuario acumulador = new AcumuladorEstadisticasUsuario(7L);
+
+        // When
+        acumulador.registrar(Dificultad.FACIL, "arrays", true, 10_000);
+        acumulador.registrar(Dificultad.FACIL, "bucles", false, 20_000);
+        acumulador.registrar(Dificultad.DIFICIL, "arrays", true, 1_000);
+        EstadisticasUsuario estadisticas = acumulador.construir();
+
+        // Then
+        assertEquals(7L, estadisticas.usuarioId());
+        assertEquals(3, estadisticas.totalPreguntas());
+        assertEquals(2, estadisticas.respuestasCorrectas());
+        assertEquals(2, estadisticas.porDificultad().get(Dificultad.FACIL).totalPreguntas());
+        assertEquals(2, estadisticas.porTematica().get("arrays").respuestasCorrectas());
+        // 1 segundo no es un tiempo válido: no entra en el promedio
+        assertEquals(Duration.ofSeconds(15), estadisticas.tiempoPromedio());
+        assertEquals(2, estadisticas.histogramaTiempos().getTotal());
+    }
+
+    @Test
+    @DisplayName("Debe coincidir con la actualización incremental")
+    void debeCoincidirConLaActualizacionIncremental() {
+        // Given
+        AcumuladorEstadisticasUsuario acumulador = new AcumuladorEstadisticasUsuario(1L);
+        EstadisticasUsuario incremental = new EstadisticasUsuario(1L);
+        String[] tematicas = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+        // When
+        for (int i = 0; i < 40; i++) {
+            Dificultad dificultad = Dificultad.values()[i % 3];
+            String tematica = tematicas[i % tematicas.length];
+            boolean correcta = i % 4 != 0;
+            long tiempoMs = 4_000 + i * 700L;
+            SesionRespuesta sesion = new SesionRespuesta(1L, (long) i, "x", correcta,
+                LocalDateTime.now().minusSeconds(60), LocalDateTime.now(),
+                Duration.ofMillis(tiempoMs));
+
+            acumulador.registrar(dificultad, tematica, correcta, tiempoMs);
+            incremental = incremental.registrarRespuesta(sesion, dificultad, tematica);
+        }
+        EstadisticasUsuario masivo = acumulador.construir();
+
+        // Then
+        assertEquals(incremental.totalPreguntas(), masivo.totalPreguntas());
+        assertEquals(incremental.respuestasCorrectas(), masivo.respuestasCorrectas());
+        assertEquals(incremental.histogramaTiempos(), masivo.histogramaTiempos());
+        assertEquals(incremental.porTematica().keySet(), masivo.porTematica().keySet());
+        assertEquals(incremental.porDificultad().get(Dificultad.MEDIA).histograma(),
+                     masivo.porDificultad().get(Dificultad.MEDIA).histograma());
+    }
+
+    @Test
+    @DisplayName("Debe agregar un resumen diario igual que sus respuestas")
+    void debeAgregarResumenDiarioComoSusRespuestas() {
+        // Given
+        AcumuladorEstadisticasUsuario porRespuestas = new AcumuladorEstadisticasUsuario(3L);
+        porRespuestas.registrar(Dificultad.MEDIA, "arrays", true, 12_000);
+        porRespuestas.registrar(Dificultad.MEDIA, "arrays", false, 2_000);
+        porRespuestas.registrar(Dificultad.MEDIA, "arrays", true, 30_000);
+        ResumenDiarioSesiones resumen = new ResumenDiarioSesiones(3L, LocalDate.of(2024, 1, 15),
+            Dificultad.MEDIA, "arrays", 3, 2, HistogramaTiempos.vacio().registrar(12_000).registrar(30_000));
+
+        // When
+        AcumuladorEstadisticasUsuario porResumen = new AcumuladorEstadisticasUsuario(3L);
+        porResumen.registrarResumen(resumen);
+        EstadisticasUsuario esperadas = porRespuestas.construir();
+        EstadisticasUsuario obtenidas = porResumen.construir();
+
+        // Then
+        assertEquals(esperadas.totalPreguntas(), obtenidas.totalPreguntas());
+        assertEquals(esperadas.respuestasCorrectas(), obtenidas.respuestasCorrectas());
+        assertEquals(esperadas.histogramaTiempos(), obtenidas.histogramaTiempos());
+        assertEquals(esperadas.porDificultad(), obtenidas.porDificultad());
+        assertEquals(esperadas.porTematica(), obtenidas.porTematica());
+    }
+}
@@ -0,0 +1,88 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para el anillo de contadores de ventanas de tiempo.
+ */
+@DisplayName("Tests del anillo de contadores")
+class AnilloContadoresTest {
+
+    private static final LocalDateTime HOY = LocalDateTime.of(2024, 5, 20, 12, 0);
+
+    @Test
+    @DisplayName("Debe sumar solo las cubetas de la ventana")
+    void debeSumarSoloLasCubetasDeLaVentana() {
+        // Given
+        AnilloContadores anillo = new AnilloContadores(Duration.ofDays(1), 30);
+        anillo.registrar(HOY, Dificultad.FACIL, true, 10_000);
+        anillo.registrar(HOY.minusDays(3), Dificultad.MEDIA, false, 20_000);
+        anillo.registrar(HOY.minusDays(10), Dificultad.DIFICIL, true, -1);
+
+        // When
+        EstadisticasVentana semana = anillo.resumir(HOY, 7, VentanaTiempo.ULTIMOS_7_DIAS);
+        EstadisticasVentana mes = anillo.resumir(HOY, 30, VentanaTiempo.ULTIMOS_30_DIAS);
+
+        // Then
+        assertEquals(2, semana.totalPreguntas());
+        assertEquals(1, semana.respuestasCorrectas());
+        assertEquals(50.0, semana.porcentajeAciertos(), 0.001);
+        assertEquals(Duration.ofSeconds(15), semana.tiempoPromedio());
+        assertFalse(semana.porDificultad().containsKey(Dificultad.DIFICIL));
+
+        assertEquals(3, mes.totalPreguntas());
+        assertEquals(1, mes.porDificultad().get(Dificultad.DIFICIL).totalPreguntas());
+        // La respuesta sin tiempo válido no cuenta para el promedio
+        assertEquals(Duration.ofSeconds(15), mes.tiempoPromedio());
+    }
+
+    @Test
+    @DisplayName("Debe descartar cubetas antiguas al avanzar de forma perezosa")
+    void debeDescartarCubetasAntiguasAlAvanzar() {
+        // Given
+        AnilloContadores anillo = new AnilloContadores(Duration.ofDays(1), 7);
+        anillo.registrar(HOY, Dificultad.FACIL, true, 8_000);
+
+        // When
+        EstadisticasVentana mismaSemana = anillo.resumir(HOY.plusDays(6), 7, VentanaTiempo.ULTIMOS_7_DIAS);
+        EstadisticasVentana semanaSiguiente = anillo.resumir(HOY.plusDays(7), 7, VentanaTiempo.ULTIMOS_7_DIAS);
+
+        // Then
+        assertEquals(1, mismaSemana.totalPreguntas());
+        assertEquals(0, semanaSiguiente.totalPreguntas());
+        assertFalse(semanaSiguiente.tieneDatos());
+    }
+
+    @Test
+    @DisplayName("Debe ignorar respuestas anteriores a la ventana del anillo")
+    void debeIgnorarRespuestasAnterioresALaVentana() {
+        // Given
+        AnilloContadores anillo = new AnilloContadores(Duration.ofHours(1), 24);
+        anillo.registrar(HOY, Dificultad.MEDIA, true, 6_000);
+
+        // When
+        anillo.registrar(HOY.minusHours(30), Dificultad.MEDIA, true, 6_000);
+        EstadisticasVentana dia = anillo.resumir(HOY, 24, VentanaTiempo.ULTIMAS_24_HORAS);
+
+        // Then
+        assertEquals(1, dia.totalPreguntas());
+        assertEquals(HOY.minusHours(23), dia.desde());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar más cubetas que la capacidad")
+    void debeRechazarMasCubetasQueLaCapacidad() {
+        // Given
+        AnilloContadores anillo = new AnilloContadores(Duration.ofDays(1), 7);
+
+        // Then
+        assertThrows(IllegalArgumentException.class,
+            () -> anillo.resumir(HOY, 30, VentanaTiempo.ULTIMOS_30_DIAS));
+    }
+}
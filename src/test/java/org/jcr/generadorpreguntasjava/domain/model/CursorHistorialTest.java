@@ -0,0 +1,39 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para el cursor del historial de sesiones.
+ */
+@DisplayName("Tests del cursor del historial")
+class CursorHistorialTest {
+
+    @Test
+    @DisplayName("Debe recuperar la misma clave al decodificar el cursor codificado")
+    void debeDecodificarLoCodificado() {
+        // Given
+        CursorHistorial cursor = new CursorHistorial(LocalDateTime.of(2024, 3, 1, 10, 0, 0, 123_456_789), 42L);
+
+        // When
+        CursorHistorial decodificado = CursorHistorial.decodificar(cursor.codificar());
+
+        // Then
+        assertEquals(cursor, decodificado);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un cursor que no generó la aplicación")
+    void debeRechazarCursorNoValido() {
+        // Given
+        String cursor = "no-es-un-cursor";
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> CursorHistorial.decodificar(cursor));
+        assertThrows(IllegalArgumentException.class, () -> CursorHistorial.decodificar(" "));
+    }
+}
@@ -0,0 +1,64 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para las estadísticas agregadas por pregunta.
+ */
+@DisplayName("Tests de las estadísticas por pregunta")
+class EstadisticasPreguntaTest {
+
+    @Test
+    @DisplayName("Debe acumular intentos, aciertos y opciones elegidas")
+    void debeAcumularIntentosAciertosYOpciones() {
+        // Given
+        EstadisticasPregunta estadisticas = EstadisticasPregunta.vacia(1L, Dificultad.MEDIA);
+
+        // When
+        estadisticas = estadisticas
+            .registrarRespuesta(0, true, Duration.ofSeconds(12))
+            .registrarRespuesta(2, false, Duration.ofSeconds(30))
+            .registrarRespuesta(2, false, null)
+            .registrarRespuesta(-1, false, null);
+
+        // Then
+        assertEquals(4, estadisticas.intentos());
+        assertEquals(1, estadisticas.aciertos());
+        assertEquals(List.of(1, 0, 2, 0), estadisticas.respuestasPorOpcion());
+        assertEquals(2, estadisticas.histograma().getTotal());
+        assertEquals(25.0, estadisticas.porcentajeAciertos(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Debe medir la desviación respecto a la dificultad asignada")
+    void debeMedirDesviacionDeCalibracion() {
+        // Given - pregunta "difícil" que acierta casi todo el mundo
+        EstadisticasPregunta estadisticas = EstadisticasPregunta.vacia(2L, Dificultad.DIFICIL);
+        for (int i = 0; i < 10; i++) {
+            estadisticas = estadisticas.registrarRespuesta(1, i < 9, null);
+        }
+
+        // Then
+        assertEquals(50.0, estadisticas.desviacionCalibracion(), 0.001);
+        assertEquals(Dificultad.FACIL, estadisticas.dificultadObservada());
+        assertFalse(estadisticas.estaBienCalibrada());
+    }
+
+    @Test
+    @DisplayName("Una pregunta sin intentos no tiene desviación")
+    void preguntaSinIntentosNoTieneDesviacion() {
+        // Given
+        EstadisticasPregunta estadisticas = EstadisticasPregunta.vacia(3L, Dificultad.FACIL);
+
+        // Then
+        assertEquals(0.0, estadisticas.desviacionCalibracion());
+        assertTrue(estadisticas.estaBienCalibrada());
+        assertEquals(List.of(0, 0, 0, 0), estadisticas.respuestasPorOpcion());
+    }
+}
@@ -0,0 +1,107 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para el histograma de tiempos de respuesta del dominio.
+ */
+@DisplayName("Tests del histograma de tiempos")
+class HistogramaTiemposTest {
+
+    @Test
+    @DisplayName("Debe calcular percentiles con error relativo acotado")
+    void debeCalcularPercentilesConErrorAcotado() {
+        // Given
+        HistogramaTiempos.Acumulador acumulador = HistogramaTiempos.acumulador();
+        for (long ms = 1; ms <= 10_000; ms++) {
+            acumulador.registrar(ms);
+        }
+
+        // When
+        HistogramaTiempos histograma = acumulador.construir();
+
+        // Then
+        assertEquals(10_000, histograma.getTotal());
+        assertEquals(5_000, histograma.getP50Millis(), 5_000 * 0.07);
+        assertEquals(9_000, histograma.getP90Millis(), 9_000 * 0.07);
+        assertEquals(9_900, histograma.getP99Millis(), 9_900 * 0.07);
+        assertEquals(Duration.ofMillis(5_000), histograma.getPromedio());
+    }
+
+    @Test
+    @DisplayName("Debe ser exacto para valores pequeños")
+    void debeSerExactoParaValoresPequenos() {
+        // Given
+        HistogramaTiempos histograma = HistogramaTiempos.vacio()
+            .registrar(3)
+            .registrar(7)
+            .registrar(20);
+
+        // Then
+        assertEquals(7, histograma.getP50Millis());
+        assertEquals(20, histograma.getP99Millis());
+    }
+
+    @Test
+    @DisplayName("Combinar debe equivaler a registrar todos los valores")
+    void combinarDebeEquivalerARegistrarTodo() {
+        // Given
+        HistogramaTiempos a = HistogramaTiempos.vacio().registrar(Duration.ofSeconds(2)).registrar(150);
+        HistogramaTiempos b = HistogramaTiempos.vacio().registrar(45_000);
+        HistogramaTiempos esperado = HistogramaTiempos.acumulador()
+            .registrar(2_000).registrar(150).registrar(45_000)
+            .construir();
+
+        // When
+        HistogramaTiempos combinado = a.combinar(b);
+
+        // Then
+        assertEquals(esperado, combinado);
+        assertSame(a, a.combinar(HistogramaTiempos.vacio()));
+    }
+
+    @Test
+    @DisplayName("Debe codificar y decodificar sin pérdida")
+    void debeCodificarYDecodificarSinPerdida() {
+        // Given
+        HistogramaTiempos.Acumulador acumulador = HistogramaTiempos.acumulador();
+        for (long ms = 0; ms < 120_000; ms += 137) {
+            acumulador.registrar(ms);
+        }
+        HistogramaTiempos original = acumulador.construir();
+
+        // When
+        byte[] codificado = original.codificar();
+        HistogramaTiempos decodificado = HistogramaTiempos.decodificar(codificado);
+
+        // Then
+        assertEquals(original, decodificado);
+        assertEquals(original.getPromedio(), decodificado.getPromedio());
+        assertTrue(codificado.length < 1024, "El formato binario debe ser compacto");
+    }
+
+    @Test
+    @DisplayName("Debe tratar null o vacío como histograma vacío")
+    void debeTratarNullComoVacio() {
+        // Then
+        assertTrue(HistogramaTiempos.decodificar(null).estaVacio());
+        assertTrue(HistogramaTiempos.decodificar(new byte[0]).estaVacio());
+        assertEquals(0, HistogramaTiempos.vacio().getP99Millis());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar percentiles fuera de rango")
+    void debeRechazarPercentilesFueraDeRango() {
+        // Given
+        HistogramaTiempos histograma = HistogramaTiempos.vacio().registrar(10);
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> histograma.percentil(-1));
+        assertThrows(IllegalArgumentException.class, () -> histograma.percentil(100.1));
+    }
+}
@@ -41,6 +41,20 @@ class PreguntaTest {
         assertFalse(resultado);
     }
     
+    @Test
+    @DisplayName("Debe validar la respuesta por la posición de la opción")
+    void debeValidarRespuestaPorPosicion() {
+        // Given
+        Pregunta pregunta = crearPreguntaEjemplo();
+        
+        // When / Then: la posición se calcula a partir de las opciones
+        assertEquals(1, pregunta.indiceRespuestaCorrecta());
+        assertTrue(pregunta.validarOpcion(1));
+        assertFalse(pregunta.validarOpcion(2));
+        assertFalse(pregunta.tieneOpcion(4));
+        assertEquals(1, pregunta.withId(9L).indiceRespuestaCorrecta());
+    }
+    
     @Test
     @DisplayName("Debe obtener temática principal correctamente")
     void debeObtenerTematicaPrincipalCorrectamente() {
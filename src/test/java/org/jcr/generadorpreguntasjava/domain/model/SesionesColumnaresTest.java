@@ -0,0 +1,81 @@
+package org.jcr.generadorpreguntasjava.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para las sesiones en formato columnar.
+ */
+@DisplayName("Tests de las sesiones columnares")
+class SesionesColumnaresTest {
+
+    private static Pregunta pregunta(long id, Dificultad dificultad, String tematica) {
+        return new Pregunta(id, "int x = 1;", "¿Qué valor tiene x?", dificultad, "1", "Asignación",
+                            List.of(), List.of(new Tematica(tematica)));
+    }
+
+    @Test
+    @DisplayName("Debe agregar igual que el acumulador sesión a sesión")
+    void debeAgregarIgualQueElAcumulador() {
+        // Given
+        Map<Long, Pregunta> preguntas = Map.of(
+            1L, pregunta(1L, Dificultad.FACIL, "Streams"),
+            2L, pregunta(2L, Dificultad.DIFICIL, "Genéricos"),
+            3L, pregunta(3L, Dificultad.MEDIA, "Streams"));
+        long[][] sesiones = {{1, 1, 12_000}, {2, 0, 45_000}, {3, 1, 2_000}, {1, 0, 900_000}, {2, 1, 30_000}};
+
+        SesionesColumnares.Constructor constructor = SesionesColumnares.constructor(2);
+        AcumuladorEstadisticasUsuario esperado = new AcumuladorEstadisticasUsuario(7L);
+        for (long[] sesion : sesiones) {
+            constructor.agregar(sesion[0], sesion[1] == 1, sesion[2]);
+            Pregunta p = preguntas.get(sesion[0]);
+            esperado.registrar(p.dificultad(), p.getTematicaPrincipal().nombre(), sesion[1] == 1, sesion[2]);
+        }
+
+        // When
+        SesionesColumnares columnas = constructor.construir();
+        EstadisticasUsuario estadisticas = columnas.clasificar(preguntas).agregar(7L);
+
+        // Then
+        EstadisticasUsuario referencia = esperado.construir();
+        assertEquals(5, columnas.getTamano());
+        assertArrayEquals(new long[] {1, 2, 3}, columnas.preguntasDistintas());
+        assertEquals(referencia.totalPreguntas(), estadisticas.totalPreguntas());
+        assertEquals(referencia.respuestasCorrectas(), estadisticas.respuestasCorrectas());
+        assertEquals(referencia.histogramaTiempos(), estadisticas.histogramaTiempos());
+        assertEquals(referencia.porDificultad(), estadisticas.porDificultad());
+        assertEquals(referencia.porTematica(), estadisticas.porTematica());
+    }
+
+    @Test
+    @DisplayName("Debe clasificar como fácil y sin temática las preguntas desconocidas")
+    void debeClasificarPreguntasDesconocidas() {
+        // Given
+        SesionesColumnares columnas = SesionesColumnares.constructor(1)
+            .agregar(99L, true, 10_000)
+            .construir();
+
+        // When
+        EstadisticasUsuario estadisticas = columnas.clasificar(Map.of()).agregar(1L);
+
+        // Then
+        assertEquals(1, estadisticas.porDificultad().get(Dificultad.FACIL).totalPreguntas());
+        assertTrue(estadisticas.porTematica().containsKey("Sin temática"));
+    }
+
+    @Test
+    @DisplayName("Debe exigir la clasificación antes de agregar")
+    void debeExigirClasificacion() {
+        // Given
+        SesionesColumnares columnas = SesionesColumnares.constructor(0).construir();
+
+        // Then
+        assertTrue(columnas.estaVacia());
+        assertThrows(IllegalStateException.class, () -> columnas.agregar(1L));
+    }
+}
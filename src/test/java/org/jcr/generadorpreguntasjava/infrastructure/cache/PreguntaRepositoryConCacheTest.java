@@ -0,0 +1,76 @@
+package org.jcr.generadorpreguntasjava.infrastructure.cache;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter.PreguntaJpaAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la caché de lectura delante del repositorio de preguntas.
+ */
+@DisplayName("Tests de la caché de preguntas")
+@ExtendWith(MockitoExtension.class)
+class PreguntaRepositoryConCacheTest {
+
+    @Mock
+    private PreguntaJpaAdapter delegado;
+
+    private PreguntaRepositoryConCache repositorio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = new PreguntaRepositoryConCache(delegado, 100, 1_000_000);
+    }
+
+    @Test
+    @DisplayName("Debe leer cada pregunta de la base de datos una sola vez")
+    void debeLeerUnaVezPorId() {
+        // Given
+        when(delegado.buscarPorId(1L)).thenReturn(Optional.of(pregunta(1L)));
+
+        // When
+        Optional<Pregunta> primera = repositorio.buscarPorId(1L);
+        Optional<Pregunta> segunda = repositorio.buscarPorId(1L);
+
+        // Then
+        assertEquals(primera, segunda);
+        verify(delegado, times(1)).buscarPorId(1L);
+    }
+
+    @Test
+    @DisplayName("Debe consultar en bloque solo las preguntas que no están en la caché")
+    void debeConsultarSoloFallosEnBloque() {
+        // Given: la pregunta 1 se cacheó al guardarla
+        when(delegado.guardar(any())).thenReturn(pregunta(1L));
+        repositorio.guardar(pregunta(null));
+        when(delegado.buscarPorIds(Set.of(2L, 3L))).thenReturn(List.of(pregunta(2L)));
+
+        // When
+        List<Pregunta> encontradas = repositorio.buscarPorIds(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(2, encontradas.size());
+        assertEquals(List.of(1L, 2L), encontradas.stream().map(Pregunta::id).toList());
+        verify(delegado, times(1)).buscarPorIds(Set.of(2L, 3L));
+        verify(delegado, never()).buscarPorId(any());
+    }
+
+    private static Pregunta pregunta(Long id) {
+        return new Pregunta(id, "int x = 1;", "¿Qué valor tiene x?", Dificultad.FACIL, "1", "Asignación",
+                            List.of(new Opcion("1"), new Opcion("2")), List.of(new Tematica("Variables")));
+    }
+}
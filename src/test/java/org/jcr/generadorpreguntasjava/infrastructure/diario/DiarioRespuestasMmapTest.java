@@ -0,0 +1,145 @@
+package org.jcr.generadorpreguntasjava.infrastructure.diario;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EventoRespuesta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del diario de respuestas en segmentos mapeados en memoria.
+ */
+@DisplayName("Tests del diario de respuestas")
+class DiarioRespuestasMmapTest {
+
+    @TempDir
+    Path directorio;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe reproducir desde un offset los eventos anotados en varios segmentos")
+    void debeReproducirDesdeOffset() {
+        // Given
+        DiarioRespuestasMmap diario = new DiarioRespuestasMmap(directorio.toString(), 4, 20);
+        List<EventoRespuesta> eventos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            eventos.add(evento(i));
+        }
+
+        // When
+        long primero = diario.anotar(eventos);
+        List<EventoRespuesta> reproducidos = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        long fin = diario.reproducir(3, (evento, offset) -> {
+            reproducidos.add(evento);
+            offsets.add(offset);
+        });
+
+        // Then
+        assertEquals(0, primero);
+        assertEquals(10, fin);
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 9L), offsets);
+        assertEquals(10, diario.siguienteOffset());
+        assertEquals(eventos.subList(3, 10), reproducidos);
+        diario.cerrar();
+    }
+
+    @Test
+    @DisplayName("Debe continuar tras el último registro válido al reabrir el diario")
+    void debeRecuperarTrasEscrituraInterrumpida() throws Exception {
+        // Given: tres eventos y un cuarto registro a medio escribir
+        DiarioRespuestasMmap diario = new DiarioRespuestasMmap(directorio.toString(), 8, 20);
+        diario.anotar(List.of(evento(0), evento(1), evento(2), evento(3)));
+        diario.cerrar();
+        Path segmento;
+        try (var ficheros = Files.list(directorio)) {
+            segmento = ficheros.filter(f -> f.toString().endsWith(".diario")).findFirst().orElseThrow();
+        }
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[]{0x7F}), 3L * CodecEventoRespuesta.TAMANO + 2);
+        }
+
+        // When
+        DiarioRespuestasMmap reabierto = new DiarioRespuestasMmap(directorio.toString(), 8, 20);
+        long offset = reabierto.siguienteOffset();
+        reabierto.anotar(List.of(evento(9)));
+        List<EventoRespuesta> reproducidos = new ArrayList<>();
+        reabierto.reproducir(0, (evento, o) -> reproducidos.add(evento));
+
+        // Then
+        assertEquals(3, offset);
+        assertEquals(List.of(evento(0), evento(1), evento(2), evento(9)), reproducidos);
+        reabierto.cerrar();
+    }
+
+    @Test
+    @DisplayName("Debe reproducir solo los eventos de transacciones confirmadas")
+    void debeAnularEventosRevertidos() {
+        // Given
+        DiarioRespuestasMmap diario = new DiarioRespuestasMmap(directorio.toString(), 8, 20);
+
+        // When: un evento revertido, otro confirmado y otro con la transacción aún abierta
+        TransactionSynchronizationManager.initSynchronization();
+        long revertido = diario.anotar(List.of(evento(0)));
+        terminarTransaccion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        long confirmado = diario.anotar(List.of(evento(1)));
+        terminarTransaccion(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        diario.anotar(List.of(evento(2)));
+        List<EventoRespuesta> reproducidos = new ArrayList<>();
+        diario.reproducir(0, (evento, offset) -> reproducidos.add(evento));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Then
+        assertEquals(0, revertido);
+        assertEquals(1, confirmado);
+        assertEquals(List.of(evento(1)), reproducidos);
+        assertEquals(1L, diario.obtenerMetricas().valores().get("eventos_anulados"));
+        diario.cerrar();
+    }
+
+    @Test
+    @DisplayName("Debe impedir que otra instancia abra el mismo diario")
+    void debeBloquearDirectorio() {
+        // Given
+        DiarioRespuestasMmap diario = new DiarioRespuestasMmap(directorio.toString(), 8, 20);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> new DiarioRespuestasMmap(directorio.toString(), 8, 20));
+        diario.cerrar();
+    }
+
+    private static void terminarTransaccion(int estado) {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.afterCompletion(estado);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static EventoRespuesta evento(int i) {
+        return new EventoRespuesta(7L, 100L + i, Dificultad.values()[i % 3], i % 2,
+                                   i % 2 == 0, 5_000 + i, 1_700_000_000_000L + i);
+    }
+}
@@ -0,0 +1,147 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import org.jcr.generadorpreguntasjava.domain.model.ClaveRespuesta;
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.CodecOpciones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del índice de claves de respuesta sobre una base de datos H2 en memoria.
+ */
+@DisplayName("Tests del índice de claves de respuesta")
+class IndiceClavesRespuestaMemoriaTest {
+
+    private static final long MEGA = 1L << 20;
+
+    private EmbeddedDatabase baseDeDatos;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        baseDeDatos = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(baseDeDatos);
+        jdbcTemplate.execute("CREATE TABLE preguntas (id BIGINT PRIMARY KEY, respuesta_correcta VARCHAR(1000000), " +
+                             "explicacion VARCHAR(1000000), indice_respuesta_correcta INT, " +
+                             "opciones_empaquetadas VARBINARY(8192))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        baseDeDatos.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe cargar las claves en la primera consulta y leer de la base de datos solo las que faltan")
+    void debeCargarYLeerLasQueFaltan() {
+        // Given
+        insertar(1, "1", "Explicación 1", 0, List.of(new Opcion("1"), new Opcion("2")));
+        insertar(2, "2", null, null, null);
+        IndiceClavesRespuestaMemoria indice = new IndiceClavesRespuestaMemoria(jdbcTemplate, 64 * MEGA, 100);
+
+        // When
+        Optional<ClaveRespuesta> primera = indice.buscar(1L);
+        Optional<ClaveRespuesta> segunda = indice.buscar(2L);
+        insertar(3, "3", "Guardada por otra instancia", 1, List.of(new Opcion("2"), new Opcion("3")));
+        Optional<ClaveRespuesta> tercera = indice.buscar(3L);
+        indice.buscar(3L);
+
+        // Then
+        assertEquals(Optional.of(new ClaveRespuesta("1", "Explicación 1", 0, 2)), primera);
+        assertEquals(Optional.of(new ClaveRespuesta("2", null, -1, -1)), segunda);
+        assertEquals(Optional.of(new ClaveRespuesta("3", "Guardada por otra instancia", 1, 2)), tercera);
+        assertTrue(indice.buscar(4L).isEmpty());
+
+        Map<String, Number> metricas = indice.obtenerMetricas().valores();
+        assertEquals(3, metricas.get("entradas"));
+        assertEquals(2L, metricas.get("aciertos"));
+        assertEquals(3L, metricas.get("lecturas_base_datos"));
+    }
+
+    @Test
+    @DisplayName("Debe completar la entrada cargada antes de empaquetar las opciones en cuanto se migra")
+    void debeCompletarEntradaTrasMigrar() {
+        // Given: una pregunta indexada antes de empaquetar sus opciones
+        insertar(1, "B", "Explicación", null, null);
+        IndiceClavesRespuestaMemoria indice = new IndiceClavesRespuestaMemoria(jdbcTemplate, 64 * MEGA, 100);
+        Optional<ClaveRespuesta> antes = indice.buscar(1L);
+
+        // When: la migración empaqueta sus opciones y registra la respuesta correcta
+        jdbcTemplate.update("UPDATE preguntas SET indice_respuesta_correcta = 1, opciones_empaquetadas = ? WHERE id = 1",
+                            CodecOpciones.codificar(List.of(new Opcion("A"), new Opcion("B"), new Opcion("C"))));
+        Optional<ClaveRespuesta> tras = indice.buscar(1L);
+        Optional<ClaveRespuesta> siguiente = indice.buscar(1L);
+
+        // Then: una lectura de la fila al migrar y después solo aciertos
+        assertEquals(Optional.of(new ClaveRespuesta("B", "Explicación", -1, -1)), antes);
+        assertEquals(Optional.of(new ClaveRespuesta("B", "Explicación", 1, 3)), tras);
+        assertEquals(tras, siguiente);
+        Map<String, Number> metricas = indice.obtenerMetricas().valores();
+        assertEquals(1, metricas.get("entradas"));
+        assertEquals(1L, metricas.get("aciertos"));
+        assertEquals(2L, metricas.get("lecturas_base_datos"));
+    }
+
+    @Test
+    @DisplayName("Debe indexar una pregunta registrada fuera de transacción sin consultar la base de datos")
+    void debeIndexarPreguntaRegistrada() {
+        // Given
+        IndiceClavesRespuestaMemoria indice = new IndiceClavesRespuestaMemoria(jdbcTemplate, 64 * MEGA, 100);
+        Pregunta pregunta = new Pregunta(5L, "int x = 1;", "¿Qué valor tiene x?", Dificultad.FACIL, "1", null,
+                                         List.of(new Opcion("1"), new Opcion("2")), List.of(new Tematica("Asignación")));
+
+        // When
+        indice.registrar(pregunta);
+        Optional<ClaveRespuesta> clave = indice.buscar(5L);
+
+        // Then
+        assertEquals(Optional.of(new ClaveRespuesta("1", null, 0, 2)), clave);
+        assertEquals(0L, indice.obtenerMetricas().valores().get("lecturas_base_datos"));
+    }
+
+    @Test
+    @DisplayName("Debe contar una sola vez la pregunta que no cabe aunque se consulte varias veces")
+    void debeContarDescartadasPorPregunta() {
+        // Given: presupuesto mínimo; la segunda explicación ya no cabe en el único trozo
+        String larga = "x".repeat(600_000);
+        insertar(1, "A", larga, 0, null);
+        insertar(2, "B", larga, 0, null);
+        IndiceClavesRespuestaMemoria indice = new IndiceClavesRespuestaMemoria(jdbcTemplate, 2 * MEGA, 100);
+
+        // When
+        indice.buscar(2L);
+        Optional<ClaveRespuesta> clave = indice.buscar(2L);
+        indice.buscar(2L);
+
+        // Then
+        assertEquals(Optional.of(new ClaveRespuesta("B", larga, 0, -1)), clave);
+        Map<String, Number> metricas = indice.obtenerMetricas().valores();
+        assertEquals(1, metricas.get("entradas"));
+        assertEquals(1L, metricas.get("descartadas"));
+        assertEquals(3L, metricas.get("lecturas_base_datos"));
+    }
+
+    private void insertar(long id, String respuesta, String explicacion, Integer indice, List<Opcion> opciones) {
+        jdbcTemplate.update("INSERT INTO preguntas (id, respuesta_correcta, explicacion, indice_respuesta_correcta, " +
+                            "opciones_empaquetadas) VALUES (?, ?, ?, ?, ?)", id, respuesta, explicacion, indice,
+                            opciones != null ? CodecOpciones.codificar(opciones) : null);
+    }
+}
@@ -0,0 +1,156 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de concurrencia, transacciones y límite de tamaño del almacén en memoria de sesiones en progreso.
+ */
+@DisplayName("Tests de las sesiones en progreso en memoria")
+class SesionesEnProgresoMemoriaTest {
+
+    private static final int HILOS = 16;
+
+    @Test
+    @DisplayName("Debe devolver la misma sesión a inicios simultáneos de la misma pregunta")
+    void debeReutilizarSesionEnIniciosSimultaneos() throws Exception {
+        // Given
+        SesionesEnProgresoMemoria sesiones = new SesionesEnProgresoMemoria(30, 1000);
+
+        // When
+        List<SesionRespuesta> iniciadas = enParalelo(() -> sesiones.iniciar(1L, 2L));
+
+        // Then
+        Set<Long> ids = iniciadas.stream().map(SesionRespuesta::id).collect(Collectors.toSet());
+        assertEquals(1, ids.size());
+        assertEquals(1, sesiones.obtenerPorUsuario(1L).size());
+        assertEquals(1L, sesiones.obtenerMetricas().valores().get("iniciadas"));
+    }
+
+    @Test
+    @DisplayName("Debe completar una sesión una sola vez aunque se responda en paralelo")
+    void debeCompletarUnaSolaVez() throws Exception {
+        // Given
+        SesionesEnProgresoMemoria sesiones = new SesionesEnProgresoMemoria(30, 1000);
+        Long sesionId = sesiones.iniciar(1L, 2L).id();
+
+        // When
+        List<Boolean> completadas = enParalelo(() -> sesiones.completar(sesionId, "1", true).isPresent());
+
+        // Then
+        assertEquals(1, completadas.stream().filter(c -> c).count());
+        assertTrue(sesiones.buscar(1L, 2L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe volver a poner en progreso la sesión si la transacción que la guarda se revierte")
+    void debeRestaurarSesionAlRevertir() {
+        // Given
+        SesionesEnProgresoMemoria sesiones = new SesionesEnProgresoMemoria(30, 1000);
+        Long sesionId = sesiones.iniciar(1L, 2L).id();
+
+        // When: se completa dentro de una transacción que después se revierte
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(sesiones.completar(sesionId, "1", true).isPresent());
+            assertTrue(sesiones.completar(sesionId, "1", true).isEmpty(), "Reservada mientras dura la transacción");
+            terminarTransaccion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertEquals(sesionId, sesiones.buscar(1L, 2L).map(SesionRespuesta::id).orElseThrow());
+        assertTrue(sesiones.completar(sesionId, "1", true).isPresent());
+        assertTrue(sesiones.buscar(1L, 2L).isEmpty());
+        assertEquals(1L, sesiones.obtenerMetricas().valores().get("restauradas"));
+    }
+
+    @Test
+    @DisplayName("Debe retirar la sesión solo al confirmar la transacción")
+    void debeRetirarSesionAlConfirmar() {
+        // Given
+        SesionesEnProgresoMemoria sesiones = new SesionesEnProgresoMemoria(30, 1000);
+        Long sesionId = sesiones.iniciar(1L, 2L).id();
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sesiones.completar(sesionId, "1", true);
+            assertTrue(sesiones.buscar(1L, 2L).isPresent(), "Sigue en progreso hasta confirmar");
+            terminarTransaccion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertTrue(sesiones.buscar(1L, 2L).isEmpty());
+        assertTrue(sesiones.buscarPorId(sesionId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe desalojar las sesiones más antiguas al llegar al máximo")
+    void debeDesalojarMasAntiguasAlLlegarAlMaximo() {
+        // Given
+        SesionesEnProgresoMemoria sesiones = new SesionesEnProgresoMemoria(30, 2);
+        Long primera = sesiones.iniciar(1L, 1L).id();
+        sesiones.iniciar(1L, 2L);
+
+        // When
+        sesiones.iniciar(2L, 3L);
+
+        // Then
+        assertTrue(sesiones.buscarPorId(primera).isEmpty());
+        assertTrue(sesiones.buscar(1L, 2L).isPresent());
+        assertTrue(sesiones.buscar(2L, 3L).isPresent());
+        assertEquals(2, sesiones.obtenerMetricas().valores().get("en_progreso"));
+        assertEquals(1L, sesiones.obtenerMetricas().valores().get("desalojadas"));
+    }
+
+    private static void terminarTransaccion(int estado) {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.afterCompletion(estado);
+        }
+    }
+
+    /**
+     * Ejecuta la tarea en varios hilos liberados a la vez.
+     */
+    private static <T> List<T> enParalelo(Callable<T> tarea) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                futuros.add(ejecutor.submit(() -> {
+                    salida.await();
+                    return tarea.call();
+                }));
+            }
+            salida.countDown();
+
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}
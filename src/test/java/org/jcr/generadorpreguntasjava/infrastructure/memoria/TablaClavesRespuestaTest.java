@@ -0,0 +1,131 @@
+package org.jcr.generadorpreguntasjava.infrastructure.memoria;
+
+import org.jcr.generadorpreguntasjava.domain.model.ClaveRespuesta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la tabla compacta de claves de respuesta.
+ */
+@DisplayName("Tests de la tabla de claves de respuesta")
+class TablaClavesRespuestaTest {
+
+    private static final long MEGA = 1L << 20;
+
+    @Test
+    @DisplayName("Debe conservar las claves al crecer la tabla y pasar de un trozo a otro")
+    void debeBuscarTrasCrecer() {
+        // Given: explicaciones de ~2 KB, más de un trozo de 1 MiB en total
+        TablaClavesRespuesta tabla = new TablaClavesRespuesta(64 * MEGA);
+        String larga = "Explicación ñ ".repeat(150);
+
+        // When
+        for (long id = 1; id <= 5_000; id++) {
+            assertTrue(tabla.registrar(id, "Respuesta " + id, larga + id, (int) (id % 4), 4));
+        }
+
+        // Then
+        assertEquals(5_000, tabla.getEntradas());
+        assertEquals(new ClaveRespuesta("Respuesta 1", larga + 1, 1, 4), tabla.buscar(1));
+        assertEquals(new ClaveRespuesta("Respuesta 4320", larga + 4320, 0, 4), tabla.buscar(4320));
+        assertNull(tabla.buscar(5_001));
+    }
+
+    @Test
+    @DisplayName("Debe conservar como desconocida la posición de la respuesta correcta no registrada")
+    void debeConservarIndiceDesconocido() {
+        // Given
+        TablaClavesRespuesta tabla = new TablaClavesRespuesta(2 * MEGA);
+
+        // When: pregunta guardada antes de registrar la posición de la opción correcta
+        tabla.registrar(7, "Respuesta", "Explicación", -1, -1);
+
+        // Then
+        ClaveRespuesta clave = tabla.buscar(7);
+        assertFalse(clave.tieneIndice());
+        assertFalse(clave.esOpcionCorrecta(0));
+        assertFalse(clave.conoceOpciones());
+        assertTrue(clave.esCorrecta(" Respuesta "));
+    }
+
+    @Test
+    @DisplayName("Debe completar solo los valores desconocidos de una entrada ya indexada")
+    void debeCompletarValoresDesconocidos() {
+        // Given
+        TablaClavesRespuesta tabla = new TablaClavesRespuesta(2 * MEGA);
+        tabla.registrar(7, "Respuesta", "Explicación", -1, -1);
+        tabla.registrar(8, "Respuesta", "Explicación", 2, 4);
+
+        // When
+        boolean completada = tabla.completar(7, 1, 3);
+        tabla.completar(8, 0, 2);
+        boolean ausente = tabla.completar(9, 1, 3);
+
+        // Then
+        assertTrue(completada);
+        assertFalse(ausente);
+        assertEquals(new ClaveRespuesta("Respuesta", "Explicación", 1, 3), tabla.buscar(7));
+        assertEquals(new ClaveRespuesta("Respuesta", "Explicación", 2, 4), tabla.buscar(8));
+        assertNull(tabla.buscar(9));
+    }
+
+    @Test
+    @DisplayName("Debe descartar las claves que no caben en el presupuesto de memoria")
+    void debeRespetarPresupuesto() {
+        // Given: presupuesto para la tabla hash mínima y un solo trozo
+        TablaClavesRespuesta tabla = new TablaClavesRespuesta(2 * MEGA);
+        String larga = "x".repeat(100_000);
+
+        // When
+        int indexadas = 0;
+        for (long id = 1; id <= 20; id++) {
+            if (tabla.registrar(id, "A", larga, 0, 4)) {
+                indexadas++;
+            }
+        }
+
+        // Then
+        assertEquals(10, indexadas);
+        assertEquals(10, tabla.getDescartadas());
+        assertTrue(tabla.getBytesReservados() <= tabla.getMaxBytes());
+        assertNotNull(tabla.buscar(10));
+        assertNull(tabla.buscar(11));
+    }
+
+    @Test
+    @DisplayName("Debe recordar las claves rechazadas sin volver a contarlas al registrarlas de nuevo")
+    void debeRecordarRechazadas() {
+        // Given: una clave que no cabe en el presupuesto
+        TablaClavesRespuesta tabla = new TablaClavesRespuesta(2 * MEGA);
+        String larga = "x".repeat(600_000);
+        tabla.registrar(1, "A", larga, 0, 4);
+
+        // When
+        boolean primera = tabla.registrar(2, "B", larga, 0, 4);
+        boolean segunda = tabla.registrar(2, "B", larga, 0, 4);
+
+        // Then
+        assertFalse(primera);
+        assertFalse(segunda);
+        assertEquals(1, tabla.getDescartadas());
+        assertEquals(1, tabla.getEntradas());
+        assertNull(tabla.buscar(2));
+    }
+
+    @Test
+    @DisplayName("Debe distinguir la explicación nula de la vacía")
+    void debeConservarExplicacionNula() {
+        // Given
+        TablaClavesRespuesta tabla = new TablaClavesRespuesta(2 * MEGA);
+
+        // When
+        tabla.registrar(1, "Respuesta", null, 0, 4);
+        tabla.registrar(2, "Respuesta", "", 0, 4);
+
+        // Then
+        assertNull(tabla.buscar(1).explicacion());
+        assertEquals("", tabla.buscar(2).explicacion());
+    }
+}
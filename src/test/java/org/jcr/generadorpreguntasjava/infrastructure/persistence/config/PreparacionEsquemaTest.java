@@ -0,0 +1,62 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la preparación del esquema sobre una base de datos H2 en memoria.
+ */
+@DisplayName("Tests de la preparación del esquema")
+class PreparacionEsquemaTest {
+
+    private EmbeddedDatabase baseDeDatos;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        baseDeDatos = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(baseDeDatos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        baseDeDatos.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe arrancar sobre una base de datos vacía")
+    void debeArrancarSinTablas() {
+        assertDoesNotThrow(() -> new PreparacionEsquema(jdbcTemplate));
+    }
+
+    @Test
+    @DisplayName("Debe dejar solo la sesión en progreso más reciente de cada usuario y pregunta")
+    void debeDepurarSesionesEnProgresoDuplicadas() {
+        // Given: datos heredados con dos sesiones en progreso duplicadas y una completada
+        jdbcTemplate.execute("CREATE TABLE sesiones_respuesta (id BIGINT PRIMARY KEY, usuario_id BIGINT NOT NULL, " +
+                             "pregunta_id BIGINT NOT NULL, inicio_respuesta TIMESTAMP NOT NULL, fin_respuesta TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO sesiones_respuesta VALUES (1, 7, 3, CURRENT_TIMESTAMP, NULL), " +
+                            "(2, 7, 3, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP), (3, 7, 3, CURRENT_TIMESTAMP, NULL), " +
+                            "(4, 7, 3, CURRENT_TIMESTAMP, NULL), (5, 8, 3, CURRENT_TIMESTAMP, NULL)");
+
+        // When
+        new PreparacionEsquema(jdbcTemplate);
+
+        // Then
+        assertEquals(List.of(2L, 4L, 5L),
+                     jdbcTemplate.queryForList("SELECT id FROM sesiones_respuesta ORDER BY id", Long.class));
+    }
+}
@@ -0,0 +1,75 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorDificultad;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasPorTematica;
+import org.jcr.generadorpreguntasjava.domain.model.HistogramaTiempos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la codificación binaria de las estadísticas por dificultad y temática.
+ */
+@DisplayName("Tests del codec binario de estadísticas")
+class CodecEstadisticasBinarioTest {
+
+    @Test
+    @DisplayName("Debe codificar y decodificar las estadísticas por dificultad sin pérdida")
+    void debeCodificarPorDificultadSinPerdida() {
+        // Given
+        HistogramaTiempos histograma = HistogramaTiempos.vacio().registrar(12_000).registrar(30_000);
+        Map<Dificultad, EstadisticasPorDificultad> original = Map.of(
+            Dificultad.FACIL, new EstadisticasPorDificultad(Dificultad.FACIL, 10, 9, HistogramaTiempos.vacio()),
+            Dificultad.DIFICIL, new EstadisticasPorDificultad(Dificultad.DIFICIL, 300, 120, histograma)
+        );
+
+        // When
+        byte[] codificado = CodecEstadisticasBinario.codificarPorDificultad(original);
+        Map<Dificultad, EstadisticasPorDificultad> decodificado =
+            CodecEstadisticasBinario.decodificarPorDificultad(codificado);
+
+        // Then
+        assertEquals(original, decodificado);
+        assertFalse(decodificado.containsKey(Dificultad.MEDIA));
+    }
+
+    @Test
+    @DisplayName("Debe conservar los nombres de temática con caracteres no ASCII")
+    void debeCodificarPorTematicaSinPerdida() {
+        // Given
+        Map<String, EstadisticasPorTematica> original = Map.of(
+            "Programación Orientada a Objetos", new EstadisticasPorTematica(
+                "Programación Orientada a Objetos", 5, 4, HistogramaTiempos.vacio().registrar(7_000)),
+            "Streams", EstadisticasPorTematica.vacia("Streams")
+        );
+
+        // When
+        byte[] codificado = CodecEstadisticasBinario.codificarPorTematica(original);
+
+        // Then
+        assertEquals(original, CodecEstadisticasBinario.decodificarPorTematica(codificado));
+        assertTrue(CodecEstadisticasBinario.decodificarPorTematica(
+            CodecEstadisticasBinario.codificarPorTematica(null)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar datos truncados o de otra versión")
+    void debeRechazarDatosInvalidos() {
+        // Given
+        byte[] codificado = CodecEstadisticasBinario.codificarPorTematica(
+            Map.of("Streams", new EstadisticasPorTematica("Streams", 2, 1, HistogramaTiempos.vacio())));
+        byte[] truncado = Arrays.copyOf(codificado, codificado.length - 1);
+        byte[] otraVersion = codificado.clone();
+        otraVersion[0] = 99;
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> CodecEstadisticasBinario.decodificarPorTematica(truncado));
+        assertThrows(IllegalArgumentException.class, () -> CodecEstadisticasBinario.decodificarPorTematica(otraVersion));
+        assertThrows(IllegalArgumentException.class, () -> CodecEstadisticasBinario.decodificarPorDificultad(new byte[0]));
+    }
+}
@@ -0,0 +1,45 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la codificación empaquetada de las opciones de una pregunta.
+ */
+@DisplayName("Tests del codec de opciones empaquetadas")
+class CodecOpcionesTest {
+
+    @Test
+    @DisplayName("Debe codificar y decodificar las opciones conservando su orden")
+    void debeCodificarSinPerdida() {
+        // Given: contenidos vacíos, con caracteres multibyte y más largos de 127 bytes
+        List<Opcion> original = List.of(
+            new Opcion("System.out.println(\"año\");"),
+            new Opcion(""),
+            new Opcion("x".repeat(500)),
+            new Opcion("Ninguna de las anteriores"));
+
+        // When
+        List<Opcion> decodificadas = CodecOpciones.decodificar(CodecOpciones.codificar(original));
+
+        // Then
+        assertEquals(original, decodificadas);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar datos truncados")
+    void debeRechazarDatosTruncados() {
+        // Given
+        byte[] codificado = CodecOpciones.codificar(List.of(new Opcion("A"), new Opcion("B")));
+        byte[] truncado = Arrays.copyOf(codificado, codificado.length - 1);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> CodecOpciones.decodificar(truncado));
+    }
+}
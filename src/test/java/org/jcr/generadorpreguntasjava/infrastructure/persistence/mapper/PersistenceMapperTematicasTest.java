@@ -0,0 +1,98 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.Pregunta;
+import org.jcr.generadorpreguntasjava.domain.model.Tematica;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.PreguntaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.TematicaEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del mapeo de las temáticas principal y secundaria de las preguntas.
+ */
+@DisplayName("Tests del mapeo de temáticas de preguntas")
+class PersistenceMapperTematicasTest {
+
+    private final PersistenceMapper mapper = Mappers.getMapper(PersistenceMapper.class);
+
+    @Test
+    @DisplayName("Debe guardar la primera temática como principal y la segunda como secundaria, sin pregunta_tematica")
+    void debeMapearPrincipalYSecundariaAEntidad() {
+        // Given
+        Pregunta pregunta = crearPregunta(List.of(new Tematica(1L, "arrays", 0, null),
+                                                  new Tematica(2L, "bucles", 0, null)));
+
+        // When
+        PreguntaEntity entidad = mapper.toEntity(pregunta);
+
+        // Then
+        assertEquals(1L, entidad.getTematicaPrincipal().getId());
+        assertEquals(2L, entidad.getTematicaSecundaria().getId());
+        assertNull(entidad.getTematicas());
+    }
+
+    @Test
+    @DisplayName("Debe leer la principal primero y omitir la secundaria repetida")
+    void debeMapearPrincipalYSecundariaADominio() {
+        // Given
+        PreguntaEntity conSecundaria = crearEntidad(tematica(2L, "bucles"), tematica(1L, "arrays"));
+        PreguntaEntity repetida = crearEntidad(tematica(1L, "arrays"), tematica(1L, "arrays"));
+
+        // When
+        List<Tematica> tematicas = mapper.toDomain(conSecundaria).tematicas();
+        List<Tematica> sinRepetir = mapper.toDomain(repetida).tematicas();
+
+        // Then
+        assertEquals(List.of("bucles", "arrays"), tematicas.stream().map(Tematica::nombre).toList());
+        assertEquals(List.of("arrays"), sinRepetir.stream().map(Tematica::nombre).toList());
+    }
+
+    @Test
+    @DisplayName("Debe leer de pregunta_tematica las temáticas de una pregunta aún sin migrar")
+    void debeLeerTematicasSinMigrar() {
+        // Given
+        PreguntaEntity entidad = crearEntidad(null, null);
+        entidad.setTematicas(Set.of(tematica(3L, "herencia")));
+
+        // When
+        List<Tematica> tematicas = mapper.toDomain(entidad).tematicas();
+
+        // Then
+        assertEquals(List.of("herencia"), tematicas.stream().map(Tematica::nombre).toList());
+    }
+
+    private static Pregunta crearPregunta(List<Tematica> tematicas) {
+        return new Pregunta(1L, "int x = 1;", "¿Qué valor tiene x?", Dificultad.FACIL, "1", "Asignación",
+                            List.of(new Opcion("1"), new Opcion("2")), tematicas);
+    }
+
+    private static PreguntaEntity crearEntidad(TematicaEntity principal, TematicaEntity secundaria) {
+        PreguntaEntity entidad = new PreguntaEntity();
+        entidad.setId(1L);
+        entidad.setCodigoJava("int x = 1;");
+        entidad.setEnunciado("¿Qué valor tiene x?");
+        entidad.setDificultad(Dificultad.FACIL);
+        entidad.setRespuestaCorrecta("1");
+        entidad.setExplicacion("Asignación");
+        entidad.setOpcionesEmpaquetadas(CodecOpciones.codificar(List.of(new Opcion("1"), new Opcion("2"))));
+        entidad.setTematicaPrincipal(principal);
+        entidad.setTematicaSecundaria(secundaria);
+        return entidad;
+    }
+
+    private static TematicaEntity tematica(Long id, String nombre) {
+        TematicaEntity tematica = new TematicaEntity();
+        tematica.setId(id);
+        tematica.setNombre(nombre);
+        tematica.setContadorUsos(0);
+        return tematica;
+    }
+}
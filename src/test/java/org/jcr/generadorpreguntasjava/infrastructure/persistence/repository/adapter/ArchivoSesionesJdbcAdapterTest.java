@@ -0,0 +1,127 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.ResumenDiarioSesiones;
+import org.jcr.generadorpreguntasjava.port.out.ArchivoSesionesRepositoryPort.ResultadoArchivo;
+import org.jcr.generadorpreguntasjava.port.out.ReconstruccionEstadisticasRepositoryPort.ClasificacionPregunta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del archivo por tramos de sesiones antiguas sobre una base de datos H2 en memoria.
+ */
+@DisplayName("Tests del archivo de sesiones por JDBC")
+class ArchivoSesionesJdbcAdapterTest {
+
+    private static final LocalDateTime LIMITE = LocalDate.of(2024, 1, 1).atStartOfDay();
+    private static final Map<Long, ClasificacionPregunta> CLASIFICACION =
+        Map.of(10L, new ClasificacionPregunta(Dificultad.DIFICIL, "Streams"));
+
+    private EmbeddedDatabase baseDeDatos;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        baseDeDatos = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(baseDeDatos);
+        String columnasSesion = "(id BIGINT PRIMARY KEY, usuario_id BIGINT NOT NULL, pregunta_id BIGINT NOT NULL, " +
+                                "respuesta_seleccionada VARCHAR(500), opcion_seleccionada INT, es_correcta BOOLEAN NOT NULL, " +
+                                "inicio_respuesta TIMESTAMP NOT NULL, fin_respuesta TIMESTAMP, tiempo_respuesta_ms BIGINT)";
+        jdbcTemplate.execute("CREATE TABLE sesiones_respuesta " + columnasSesion);
+        jdbcTemplate.execute("CREATE TABLE sesiones_respuesta_archivo " + columnasSesion);
+        jdbcTemplate.execute("CREATE TABLE resumenes_diarios_sesiones (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                             "usuario_id BIGINT NOT NULL, fecha DATE NOT NULL, dificultad VARCHAR(20) NOT NULL, " +
+                             "tematica VARCHAR(100) NOT NULL, total INT NOT NULL, correctas INT NOT NULL, " +
+                             "tiempo_total_ms BIGINT NOT NULL, histograma_tiempos VARBINARY(4096))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        baseDeDatos.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe mover las sesiones antiguas del tramo a resúmenes diarios y al archivo")
+    void debeArchivarTramo() {
+        // Given: dos sesiones antiguas del mismo día, una reciente y una de un usuario fuera del tramo
+        insertarSesion(1, 1L, LIMITE.minusDays(3), true);
+        insertarSesion(2, 1L, LIMITE.minusDays(3).plusHours(2), false);
+        insertarSesion(3, 1L, LIMITE.plusHours(1), true);
+        insertarSesion(4, 5L, LIMITE.minusDays(3), true);
+        ArchivoSesionesJdbcAdapter adapter = adapter(jdbcTemplate);
+
+        // When
+        List<Long> preguntas = adapter.obtenerPreguntasConSesionesAntiguas(1, 2, LIMITE);
+        ResultadoArchivo resultado = adapter.archivar(1, 2, LIMITE, CLASIFICACION);
+
+        // Then
+        assertEquals(List.of(10L), preguntas);
+        assertEquals(2, resultado.sesiones());
+        assertEquals(1, resultado.resumenes());
+        assertEquals(List.of(3L, 4L), ids("sesiones_respuesta"));
+        assertEquals(List.of(1L, 2L), ids("sesiones_respuesta_archivo"));
+        List<ResumenDiarioSesiones> resumenes = adapter.obtenerResumenesPorUsuario(1L);
+        assertEquals(1, resumenes.size());
+        assertEquals(LIMITE.minusDays(3).toLocalDate(), resumenes.get(0).fecha());
+        assertEquals(Dificultad.DIFICIL, resumenes.get(0).dificultad());
+        assertEquals("Streams", resumenes.get(0).tematica());
+        assertEquals(2, resumenes.get(0).total());
+        assertEquals(1, resumenes.get(0).correctas());
+    }
+
+    @Test
+    @DisplayName("Debe revertir el tramo si se eliminan más sesiones de las agregadas")
+    void debeRevertirSiCambianLasSesiones() {
+        // Given: una sesión antigua que llega entre la agregación y el borrado del tramo
+        insertarSesion(1, 1L, LIMITE.minusDays(3), true);
+        JdbcTemplate conLlegadaTardia = new JdbcTemplate(baseDeDatos) {
+            @Override
+            public int update(String sql, Object... args) throws DataAccessException {
+                if (sql.startsWith("DELETE FROM sesiones_respuesta")) {
+                    insertarSesion(2, 1L, LIMITE.minusDays(2), true);
+                }
+                return super.update(sql, args);
+            }
+        };
+        ArchivoSesionesJdbcAdapter adapter = adapter(conLlegadaTardia);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> adapter.archivar(1, 1, LIMITE, CLASIFICACION));
+        assertEquals(List.of(1L), ids("sesiones_respuesta"));
+        assertTrue(ids("sesiones_respuesta_archivo").isEmpty());
+        assertTrue(adapter.obtenerResumenesPorUsuario(1L).isEmpty());
+    }
+
+    private ArchivoSesionesJdbcAdapter adapter(JdbcTemplate plantilla) {
+        return new ArchivoSesionesJdbcAdapter(plantilla, new DataSourceTransactionManager(baseDeDatos), true);
+    }
+
+    private void insertarSesion(long id, long usuarioId, LocalDateTime fin, boolean correcta) {
+        jdbcTemplate.update("INSERT INTO sesiones_respuesta (id, usuario_id, pregunta_id, es_correcta, " +
+                            "inicio_respuesta, fin_respuesta, tiempo_respuesta_ms) VALUES (?, ?, 10, ?, ?, ?, 5000)",
+                            id, usuarioId, correcta, Timestamp.valueOf(fin.minusSeconds(5)), Timestamp.valueOf(fin));
+    }
+
+    private List<Long> ids(String tabla) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + tabla + " ORDER BY id", Long.class);
+    }
+}
@@ -0,0 +1,95 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los bloqueos con concesión sobre una base de datos H2 en memoria.
+ */
+@DisplayName("Tests del bloqueo distribuido con concesión")
+class BloqueoDistribuidoJdbcAdapterTest {
+
+    private static final String BLOQUEO = "limpieza";
+    private static final Duration CONCESION = Duration.ofMinutes(5);
+
+    private EmbeddedDatabase baseDeDatos;
+    private BloqueoDistribuidoJdbcAdapter bloqueo;
+
+    @BeforeEach
+    void setUp() {
+        baseDeDatos = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(baseDeDatos);
+        jdbcTemplate.execute("CREATE TABLE bloqueos_distribuidos (nombre VARCHAR(100) PRIMARY KEY, " +
+                             "propietario VARCHAR(200) NOT NULL, bloqueado_hasta TIMESTAMP NOT NULL)");
+        bloqueo = new BloqueoDistribuidoJdbcAdapter(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        baseDeDatos.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe conceder el bloqueo a un solo propietario mientras la concesión está vigente")
+    void debeAdquirirEnExclusiva() {
+        // When
+        boolean primero = bloqueo.adquirir(BLOQUEO, "a", CONCESION);
+        boolean segundo = bloqueo.adquirir(BLOQUEO, "b", CONCESION);
+
+        // Then
+        assertTrue(primero);
+        assertFalse(segundo);
+    }
+
+    @Test
+    @DisplayName("Debe permitir al propietario renovar su concesión")
+    void debeRenovarConcesionPropia() {
+        // Given
+        bloqueo.adquirir(BLOQUEO, "a", CONCESION);
+
+        // When / Then
+        assertTrue(bloqueo.adquirir(BLOQUEO, "a", CONCESION));
+        assertFalse(bloqueo.adquirir(BLOQUEO, "b", CONCESION));
+    }
+
+    @Test
+    @DisplayName("Debe conceder el bloqueo a otro propietario cuando la concesión vence")
+    void debeAdquirirConcesionVencida() {
+        // Given: una concesión que ya ha vencido (instancia caída sin liberar)
+        bloqueo.adquirir(BLOQUEO, "a", Duration.ofSeconds(-1));
+
+        // When / Then
+        assertTrue(bloqueo.adquirir(BLOQUEO, "b", CONCESION));
+        assertFalse(bloqueo.adquirir(BLOQUEO, "a", CONCESION));
+    }
+
+    @Test
+    @DisplayName("Debe liberar solo el bloqueo del propio propietario")
+    void debeLiberarSoloPropio() {
+        // Given
+        bloqueo.adquirir(BLOQUEO, "a", CONCESION);
+
+        // When
+        bloqueo.liberar(BLOQUEO, "b");
+        boolean trasLiberarOtro = bloqueo.adquirir(BLOQUEO, "b", CONCESION);
+        bloqueo.liberar(BLOQUEO, "a");
+        boolean trasLiberarPropio = bloqueo.adquirir(BLOQUEO, "b", CONCESION);
+
+        // Then
+        assertFalse(trasLiberarOtro);
+        assertTrue(trasLiberarPropio);
+    }
+}
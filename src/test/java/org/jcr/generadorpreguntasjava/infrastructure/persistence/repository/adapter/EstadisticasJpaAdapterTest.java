@@ -0,0 +1,123 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.jcr.generadorpreguntasjava.domain.model.EstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.infrastructure.cache.CacheEstadisticasUsuario;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.EstadisticasUsuarioEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.UsuarioEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.EstadisticasPersistenceMapper;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataEstadisticasRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de las escrituras con control de versión de las estadísticas de usuario.
+ */
+@DisplayName("Tests de las escrituras de estadísticas de usuario")
+class EstadisticasJpaAdapterTest {
+
+    private static final Long USUARIO_ID = 7L;
+
+    private final SpringDataEstadisticasRepository repository = mock(SpringDataEstadisticasRepository.class);
+    private final EstadisticasPersistenceMapper mapper = mock(EstadisticasPersistenceMapper.class);
+    private final CacheEstadisticasUsuario cache = mock(CacheEstadisticasUsuario.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    private EstadisticasJpaAdapter adapter;
+    private EstadisticasUsuarioEntity fila;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new EstadisticasJpaAdapter(repository, mapper, cache, entityManager);
+        fila = entidad(1L, 10);
+        when(repository.findByUsuarioId(USUARIO_ID)).thenReturn(Optional.of(fila));
+        // El dominio refleja el total de la fila; la entidad a escribir, el de las estadísticas
+        when(mapper.toDomain(any(EstadisticasUsuarioEntity.class)))
+            .thenAnswer(i -> estadisticas(i.<EstadisticasUsuarioEntity>getArgument(0).getTotalPreguntas()));
+        when(mapper.toEntity(any(EstadisticasUsuario.class)))
+            .thenAnswer(i -> entidad(null, i.<EstadisticasUsuario>getArgument(0).totalPreguntas()));
+    }
+
+    @Test
+    @DisplayName("Debe volver a aplicar el cambio sobre la fila releída con bloqueo tras un conflicto")
+    void debeReaplicarTrasConflicto() {
+        // Given: otra escritura deja la fila en la versión 2 con 15 preguntas
+        when(repository.actualizarSiVersion(any(), eq(1L))).thenReturn(0);
+        when(repository.actualizarSiVersion(any(), eq(2L))).thenReturn(1);
+        doAnswer(i -> {
+            fila.setVersion(2L);
+            fila.setTotalPreguntas(15);
+            return null;
+        }).when(entityManager).refresh(fila, LockModeType.PESSIMISTIC_WRITE);
+        List<Integer> vistas = new ArrayList<>();
+
+        // When
+        Optional<EstadisticasUsuario> resultado = adapter.aplicarCambio(USUARIO_ID, actuales -> {
+            vistas.add(actuales.totalPreguntas());
+            return estadisticas(actuales.totalPreguntas() + 1);
+        });
+
+        // Then
+        assertTrue(resultado.isPresent());
+        assertEquals(16, resultado.get().totalPreguntas());
+        assertEquals(List.of(10, 15), vistas);
+        verify(entityManager).detach(fila);
+        verify(cache).actualizar(any(), eq(3L));
+        assertEquals(1L, adapter.obtenerMetricas().valores().get("conflictos"));
+        assertEquals(1L, adapter.obtenerMetricas().valores().get("cambios_reaplicados"));
+    }
+
+    @Test
+    @DisplayName("Debe fallar en lugar de rendirse en silencio si la fila bloqueada también ha cambiado")
+    void debeFallarSiElConflictoPersiste() {
+        // Given
+        when(repository.actualizarSiVersion(any(), anyLong())).thenReturn(0);
+
+        // When / Then
+        assertThrows(OptimisticLockingFailureException.class,
+                     () -> adapter.aplicarCambio(USUARIO_ID, actuales -> estadisticas(actuales.totalPreguntas() + 1)));
+        verify(repository, times(2)).actualizarSiVersion(any(), anyLong());
+        assertEquals(1L, adapter.obtenerMetricas().valores().get("conflictos_irresolubles"));
+    }
+
+    @Test
+    @DisplayName("Debe serializar la primera escritura de un usuario y no insertar si otra se ha adelantado")
+    void debeSerializarPrimeraEscritura() {
+        // Given: al obtener el bloqueo del usuario, la fila ya la ha insertado otra escritura
+        when(repository.existsByUsuarioId(USUARIO_ID)).thenReturn(true);
+
+        // When
+        Optional<EstadisticasUsuario> resultado = adapter.guardarSiNoHaCambiado(estadisticas(1), OptionalLong.empty());
+
+        // Then
+        assertTrue(resultado.isEmpty());
+        verify(entityManager).find(UsuarioEntity.class, USUARIO_ID, LockModeType.PESSIMISTIC_WRITE);
+        verify(repository, never()).save(any());
+    }
+
+    private static EstadisticasUsuario estadisticas(int totalPreguntas) {
+        return new EstadisticasUsuario(USUARIO_ID, totalPreguntas, 0, 0.0, Duration.ZERO, Map.of(), Map.of());
+    }
+
+    private static EstadisticasUsuarioEntity entidad(Long version, int totalPreguntas) {
+        EstadisticasUsuarioEntity entidad = new EstadisticasUsuarioEntity();
+        entidad.setUsuarioId(USUARIO_ID);
+        entidad.setVersion(version);
+        entidad.setTotalPreguntas(totalPreguntas);
+        return entidad;
+    }
+}
@@ -0,0 +1,145 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import org.jcr.generadorpreguntasjava.domain.model.Dificultad;
+import org.jcr.generadorpreguntasjava.domain.model.FiltroHistorialSesiones;
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.domain.model.SesionRespuesta;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.PreguntaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.SesionRespuestaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.TematicaEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.entity.UsuarioEntity;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.CodecOpciones;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.PersistenceMapper;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataPreguntaRepository;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.jpa.SpringDataSesionRespuestaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los filtros por temática sobre las columnas de temática principal y secundaria.
+ *
+ * Las preguntas aún sin migrar (solo en pregunta_tematica) no aparecen en los filtros.
+ */
+@DataJpaTest
+@DisplayName("Tests de los filtros por temática")
+class FiltroTematicaJpaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SpringDataPreguntaRepository preguntaRepository;
+
+    @Autowired
+    private SpringDataSesionRespuestaRepository sesionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TematicaEntity arrays;
+    private Long usuarioId;
+    private Long conPrincipal;
+    private Long conSecundaria;
+
+    @BeforeEach
+    void setUp() {
+        // Given: arrays como principal de una pregunta, como secundaria de otra y solo en
+        // pregunta_tematica en una tercera sin migrar
+        arrays = persistirTematica("arrays");
+        TematicaEntity bucles = persistirTematica("bucles");
+        conPrincipal = persistirPregunta(arrays, bucles, null).getId();
+        conSecundaria = persistirPregunta(bucles, arrays, null).getId();
+        Long sinMigrar = persistirPregunta(null, null, Set.of(arrays)).getId();
+
+        usuarioId = entityManager.persistAndGetId(new UsuarioEntity("google-1", "a@b.c", "Ana", null), Long.class);
+        for (Long preguntaId : List.of(conPrincipal, conSecundaria, sinMigrar)) {
+            persistirSesion(preguntaId);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Debe encontrar las preguntas con la temática como principal o secundaria")
+    void debeFiltrarPreguntas() {
+        // When
+        List<PreguntaEntity> preguntas = preguntaRepository.findByTematica(arrays);
+
+        // Then
+        assertEquals(Set.of(conPrincipal, conSecundaria),
+                     Set.copyOf(preguntas.stream().map(PreguntaEntity::getId).toList()));
+    }
+
+    @Test
+    @DisplayName("Debe filtrar las sesiones de un usuario por temática")
+    void debeFiltrarSesiones() {
+        // When
+        List<SesionRespuestaEntity> sesiones = sesionRepository.findByUsuarioIdAndTematica(usuarioId, "arrays");
+
+        // Then
+        assertEquals(Set.of(conPrincipal, conSecundaria),
+                     Set.copyOf(sesiones.stream().map(SesionRespuestaEntity::getPreguntaId).toList()));
+    }
+
+    @Test
+    @DisplayName("Debe filtrar por temática el historial paginado")
+    void debeFiltrarHistorialPaginado() {
+        // Given
+        PersistenceMapper mapper = Mappers.getMapper(PersistenceMapper.class);
+        SesionRespuestaJpaAdapter adapter = new SesionRespuestaJpaAdapter(
+            sesionRepository, mapper, entityManager.getEntityManager(), jdbcTemplate);
+        FiltroHistorialSesiones filtro = new FiltroHistorialSesiones(null, "arrays", null, null, null);
+
+        // When
+        List<SesionRespuesta> sesiones = adapter.obtenerPaginaCompletadas(usuarioId, filtro, null, 10);
+
+        // Then
+        assertEquals(Set.of(conPrincipal, conSecundaria),
+                     Set.copyOf(sesiones.stream().map(SesionRespuesta::preguntaId).toList()));
+    }
+
+    private TematicaEntity persistirTematica(String nombre) {
+        TematicaEntity tematica = new TematicaEntity();
+        tematica.setNombre(nombre);
+        tematica.setContadorUsos(0);
+        return entityManager.persist(tematica);
+    }
+
+    private PreguntaEntity persistirPregunta(TematicaEntity principal, TematicaEntity secundaria,
+                                             Set<TematicaEntity> anteriores) {
+        PreguntaEntity pregunta = new PreguntaEntity();
+        pregunta.setCodigoJava("int x = 1;");
+        pregunta.setEnunciado("¿Qué valor tiene x?");
+        pregunta.setDificultad(Dificultad.FACIL);
+        pregunta.setRespuestaCorrecta("1");
+        pregunta.setExplicacion("Asignación");
+        pregunta.setOpcionesEmpaquetadas(CodecOpciones.codificar(List.of(new Opcion("1"), new Opcion("2"))));
+        pregunta.setTematicaPrincipal(principal);
+        pregunta.setTematicaSecundaria(secundaria);
+        pregunta.setTematicas(anteriores);
+        return entityManager.persist(pregunta);
+    }
+
+    private void persistirSesion(Long preguntaId) {
+        SesionRespuestaEntity sesion = new SesionRespuestaEntity();
+        sesion.setUsuarioId(usuarioId);
+        sesion.setPreguntaId(preguntaId);
+        sesion.setRespuestaSeleccionada("1");
+        sesion.setEsCorrecta(true);
+        sesion.setInicioRespuesta(LocalDateTime.now().minusMinutes(1));
+        sesion.setFinRespuesta(LocalDateTime.now());
+        entityManager.persist(sesion);
+    }
+}
@@ -0,0 +1,124 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import org.jcr.generadorpreguntasjava.domain.model.Opcion;
+import org.jcr.generadorpreguntasjava.infrastructure.persistence.mapper.CodecOpciones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la migración de opciones a la columna empaquetada sobre una base de datos H2 en memoria.
+ */
+@DisplayName("Tests de la migración de opciones empaquetadas")
+class MigracionOpcionesEmpaquetadasTest {
+
+    private EmbeddedDatabase baseDeDatos;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        baseDeDatos = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(baseDeDatos);
+        jdbcTemplate.execute("CREATE TABLE preguntas (id BIGINT PRIMARY KEY, respuesta_correcta VARCHAR(500), " +
+                             "indice_respuesta_correcta INT, opciones_empaquetadas VARBINARY(8192))");
+        jdbcTemplate.execute("CREATE TABLE opciones (id BIGINT AUTO_INCREMENT PRIMARY KEY, contenido VARCHAR(500), " +
+                             "pregunta_id BIGINT NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        baseDeDatos.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe empaquetar por tramos las opciones en su orden y registrar la respuesta correcta")
+    void debeEmpaquetarPorTramos() {
+        // Given: tres preguntas sin migrar, una con la posición ya registrada
+        insertarPregunta(1, "B", null);
+        insertarOpciones(1, "A", "B", "C", "D");
+        insertarPregunta(2, "Z", null);
+        insertarOpciones(2, "X", "Y");
+        insertarPregunta(3, "C", 0);
+        insertarOpciones(3, "A", "B", "C", "D");
+
+        // When
+        long migradas = migracion(false).migrar();
+
+        // Then
+        assertEquals(3, migradas);
+        assertEquals(List.of(new Opcion("A"), new Opcion("B"), new Opcion("C"), new Opcion("D")), opcionesDe(1));
+        assertEquals(List.of(new Opcion("X"), new Opcion("Y")), opcionesDe(2));
+        assertEquals(1, indiceDe(1));
+        assertNull(indiceDe(2));
+        assertEquals(0, indiceDe(3));
+        assertEquals(10, contar("SELECT COUNT(*) FROM opciones"));
+    }
+
+    @Test
+    @DisplayName("Debe omitir las preguntas ya empaquetadas y eliminar las filas si se configura")
+    void debeOmitirMigradasYEliminarFilas() {
+        // Given: una pregunta ya empaquetada (con filas antiguas distintas) y otra pendiente
+        jdbcTemplate.update("INSERT INTO preguntas (id, respuesta_correcta, opciones_empaquetadas) VALUES (?, ?, ?)",
+                            1L, "1", CodecOpciones.codificar(List.of(new Opcion("1"), new Opcion("2"))));
+        insertarOpciones(1, "antigua");
+        insertarPregunta(2, "2", null);
+        insertarOpciones(2, "1", "2");
+        MigracionOpcionesEmpaquetadas migracion = migracion(true);
+
+        // When
+        long primera = migracion.migrar();
+        long segunda = migracion.migrar();
+
+        // Then
+        assertEquals(1, primera);
+        assertEquals(0, segunda);
+        assertEquals(List.of(new Opcion("1"), new Opcion("2")), opcionesDe(1));
+        assertEquals(List.of(new Opcion("1"), new Opcion("2")), opcionesDe(2));
+        assertEquals(1, contar("SELECT COUNT(*) FROM opciones"));
+        assertEquals(2L, migracion.obtenerMetricas().valores().get("filas_eliminadas"));
+    }
+
+    private MigracionOpcionesEmpaquetadas migracion(boolean eliminarFilas) {
+        return new MigracionOpcionesEmpaquetadas(jdbcTemplate, new DataSourceTransactionManager(baseDeDatos),
+                                                 true, 2, eliminarFilas);
+    }
+
+    private void insertarPregunta(long id, String respuestaCorrecta, Integer indice) {
+        jdbcTemplate.update("INSERT INTO preguntas (id, respuesta_correcta, indice_respuesta_correcta) " +
+                            "VALUES (?, ?, ?)", id, respuestaCorrecta, indice);
+    }
+
+    private void insertarOpciones(long preguntaId, String... contenidos) {
+        for (String contenido : contenidos) {
+            jdbcTemplate.update("INSERT INTO opciones (contenido, pregunta_id) VALUES (?, ?)", contenido, preguntaId);
+        }
+    }
+
+    private List<Opcion> opcionesDe(long id) {
+        byte[] datos = jdbcTemplate.queryForObject("SELECT opciones_empaquetadas FROM preguntas WHERE id = ?",
+                                                   byte[].class, id);
+        return CodecOpciones.decodificar(datos);
+    }
+
+    private Integer indiceDe(long id) {
+        return jdbcTemplate.queryForObject("SELECT indice_respuesta_correcta FROM preguntas WHERE id = ?",
+                                           Integer.class, id);
+    }
+
+    private int contar(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
@@ -0,0 +1,107 @@
+package org.jcr.generadorpreguntasjava.infrastructure.persistence.repository.adapter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la migración de temáticas de pregunta_tematica sobre una base de datos H2 en memoria.
+ */
+@DisplayName("Tests de la migración de temáticas de preguntas")
+class MigracionTematicasPreguntaTest {
+
+    private EmbeddedDatabase baseDeDatos;
+    private JdbcTemplate jdbcTemplate;
+    private MigracionTematicasPregunta migracion;
+
+    @BeforeEach
+    void setUp() {
+        baseDeDatos = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(baseDeDatos);
+        jdbcTemplate.execute("CREATE TABLE preguntas (id BIGINT PRIMARY KEY, tematica_principal_id BIGINT, " +
+                             "tematica_secundaria_id BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE pregunta_tematica (pregunta_id BIGINT NOT NULL, " +
+                             "tematica_id BIGINT NOT NULL, PRIMARY KEY (pregunta_id, tematica_id))");
+        migracion = new MigracionTematicasPregunta(jdbcTemplate, new DataSourceTransactionManager(baseDeDatos),
+                                                   true, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        baseDeDatos.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe tomar como principal la temática de menor ID y eliminar las filas migradas")
+    void debeAsignarPrincipalYSecundaria() {
+        // Given: una pregunta con tres temáticas, otra con una y otra sin ninguna
+        insertarPregunta(1, 30L, 10L, 20L);
+        insertarPregunta(2, 40L);
+        insertarPregunta(3);
+
+        // When
+        long migradas = migracion.migrar();
+
+        // Then
+        assertEquals(2, migradas);
+        assertEquals(Arrays.asList(10L, 20L), tematicasDe(1));
+        assertEquals(Arrays.asList(40L, null), tematicasDe(2));
+        assertEquals(Arrays.asList(null, null), tematicasDe(3));
+        assertEquals(0, contar("SELECT COUNT(*) FROM pregunta_tematica"));
+        assertEquals(4L, migracion.obtenerMetricas().valores().get("filas_eliminadas"));
+    }
+
+    @Test
+    @DisplayName("Debe dar prioridad a las columnas y no volver a recorrer lo ya migrado")
+    void debeRespetarColumnasYTerminar() {
+        // Given: una pregunta ya con columnas y filas antiguas, y otra pendiente
+        insertarPregunta(1, 20L);
+        jdbcTemplate.update("UPDATE preguntas SET tematica_principal_id = 10 WHERE id = 1");
+        insertarPregunta(2, 20L);
+
+        // When
+        long primera = migracion.migrar();
+        long segunda = migracion.migrar();
+
+        // Then
+        assertEquals(1, primera);
+        assertEquals(0, segunda);
+        assertEquals(Arrays.asList(10L, null), tematicasDe(1));
+        assertEquals(Arrays.asList(20L, null), tematicasDe(2));
+        Map<String, Number> metricas = migracion.obtenerMetricas().valores();
+        assertEquals(1L, metricas.get("preguntas_migradas"));
+        assertEquals(2L, metricas.get("filas_eliminadas"));
+    }
+
+    private void insertarPregunta(long id, Long... tematicas) {
+        jdbcTemplate.update("INSERT INTO preguntas (id) VALUES (?)", id);
+        for (Long tematica : tematicas) {
+            jdbcTemplate.update("INSERT INTO pregunta_tematica (pregunta_id, tematica_id) VALUES (?, ?)", id, tematica);
+        }
+    }
+
+    private List<Long> tematicasDe(long id) {
+        return jdbcTemplate.queryForObject(
+            "SELECT tematica_principal_id, tematica_secundaria_id FROM preguntas WHERE id = ?",
+            (rs, fila) -> Arrays.asList(rs.getObject(1, Long.class), rs.getObject(2, Long.class)), id);
+    }
+
+    private int contar(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}